@@ -0,0 +1,24 @@
+package com.airport.common.exception;
+
+/**
+ * 任务状态冲突异常
+ * 状态变更以读取时的状态为条件写库，任务已被其他请求或其他实例修改时抛出，调用方刷新后重试
+ * 
+ * @author Corkedmzx
+ */
+public class TaskStateConflictException extends BusinessException {
+
+    public static final int CODE = 409;
+    public static final String MESSAGE = "任务状态已被其他操作修改，请刷新后重试";
+
+    private final Long taskId;
+
+    public TaskStateConflictException(Long taskId) {
+        super(CODE, MESSAGE);
+        this.taskId = taskId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,154 @@
+package com.airport.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调度配置
+ * 对应 application.yml 中的 dispatch 配置项
+ *
+ * @author Corkedmzx
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "dispatch")
+public class DispatchProperties {
+
+    /**
+     * 是否启用自动分配，启用后按固定间隔为待分配任务分配空闲车辆
+     */
+    private Boolean autoAssign = false;
+
+    /**
+     * 任务超时时间(分钟)
+     */
+    private Integer taskTimeout = 480;
+
+    /**
+     * 最大重试次数
+     */
+    private Integer maxRetry = 3;
+
+    /**
+     * 批量创建、批量变更状态每次最多处理的任务数
+     */
+    private Integer maxBatchSize = 1000;
+
+    /**
+     * 就近空闲车辆查询单次最多返回的数量
+     */
+    private Integer maxNearestVehicles = 100;
+
+    /**
+     * 命名位置（机位、登机口等），名称 -> 坐标，供就近车辆查询按名称定位
+     */
+    private Map<String, NamedLocation> locations = new LinkedHashMap<>();
+
+    /**
+     * 自动分配
+     */
+    private Assignment assignment = new Assignment();
+
+    /**
+     * 任务编号生成
+     */
+    private TaskNo taskNo = new TaskNo();
+
+    /**
+     * 命名位置坐标
+     */
+    @Data
+    public static class NamedLocation {
+
+        /**
+         * 经度
+         */
+        private Double longitude;
+
+        /**
+         * 纬度
+         */
+        private Double latitude;
+    }
+
+    /**
+     * 自动分配配置
+     * 代价统一换算为等效秒：行驶时间 + 优先级、车辆类型、油量的加权
+     */
+    @Data
+    public static class Assignment {
+
+        /**
+         * 自动分配间隔(秒)
+         */
+        private int intervalSeconds = 15;
+
+        /**
+         * 每轮最多参与计算的待分配任务数，按优先级、开始时间取前面的任务
+         */
+        private int maxTasks = 500;
+
+        /**
+         * 只分配开始时间在此时间(分钟)之内的任务
+         */
+        private int lookaheadMinutes = 60;
+
+        /**
+         * 车辆到任务起始位置的最大距离(米)，0 表示不限制
+         */
+        private double maxDistanceMeters = 5000.0;
+
+        /**
+         * 估算行驶时间使用的平均速度(km/h)
+         */
+        private double averageSpeedKmh = 20.0;
+
+        /**
+         * 优先级每低一级增加的代价(秒)，任务多于车辆时优先分配高优先级任务
+         */
+        private double priorityWeightSeconds = 300.0;
+
+        /**
+         * 车辆类型不符合任务类型时增加的代价(秒)
+         */
+        private double typeMismatchSeconds = 600.0;
+
+        /**
+         * 油量低于此百分比的车辆不参与分配
+         */
+        private double minFuelPercent = 10.0;
+
+        /**
+         * 油量从满到空线性增加的代价(秒)，未知油量不计
+         */
+        private double fuelWeightSeconds = 120.0;
+
+        /**
+         * 任务类型 -> 适合的车辆类型ID，未配置的任务类型不区分车辆类型
+         */
+        private Map<String, List<Long>> taskVehicleTypes = new LinkedHashMap<>();
+    }
+
+    /**
+     * 任务编号生成配置
+     */
+    @Data
+    public static class TaskNo {
+
+        /**
+         * 序号来源：local-单实例，每天从任务表取一次当日最大序号后在内存中递增；
+         * database-多实例，从 task_no_sequence 表按号段预留序号
+         */
+        private String mode = "local";
+
+        /**
+         * database 模式每次预留的序号数量
+         */
+        private int blockSize = 100;
+    }
+}
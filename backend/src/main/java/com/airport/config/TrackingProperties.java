@@ -0,0 +1,393 @@
+package com.airport.config;
+
+import com.airport.tracking.BackpressurePolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 车辆监控配置
+ * 对应 application.yml 中的 vehicle.tracking 配置项
+ *
+ * @author Corkedmzx
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "vehicle.tracking")
+public class TrackingProperties {
+
+    /**
+     * 位置更新间隔(秒)
+     */
+    private Integer updateInterval = 30;
+
+    /**
+     * 位置数据保留天数
+     */
+    private Integer retentionDays = 30;
+
+    /**
+     * 位置数据写入管道配置
+     */
+    private Ingestion ingestion = new Ingestion();
+
+    /**
+     * 设备ID到车辆ID的解析缓存配置
+     */
+    private DeviceCache deviceCache = new DeviceCache();
+
+    /**
+     * 传感器接入配置
+     */
+    private Sensor sensor = new Sensor();
+
+    /**
+     * 大屏位置推送配置
+     */
+    private Broadcast broadcast = new Broadcast();
+
+    /**
+     * 车辆位置空间索引配置
+     */
+    private SpatialIndex spatialIndex = new SpatialIndex();
+
+    /**
+     * 车辆轨迹历史配置
+     */
+    private TrackHistory trackHistory = new TrackHistory();
+
+    /**
+     * 里程与油耗累计配置
+     */
+    private Odometer odometer = new Odometer();
+
+    /**
+     * 电子围栏配置
+     */
+    private Geofence geofence = new Geofence();
+
+    /**
+     * 告警规则实时检测配置
+     */
+    private AlertRules alertRules = new AlertRules();
+
+    /**
+     * 车辆在线状态监测配置
+     */
+    private Watchdog watchdog = new Watchdog();
+
+    /**
+     * 位置数据写入管道配置
+     */
+    @Data
+    public static class Ingestion {
+
+        /**
+         * 刷写间隔(毫秒)，同一车辆在一个间隔内只保留最后一个定位点
+         */
+        private long flushIntervalMs = 1000;
+
+        /**
+         * 单次JDBC批量更新的最大行数，待刷写车辆数达到该值时提前刷写
+         */
+        private int batchSize = 500;
+
+        /**
+         * 写入队列容量
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 队列满时的处理策略
+         */
+        private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+
+        /**
+         * BLOCK 策略下的最长等待时间(毫秒)，超时后丢弃该定位点
+         */
+        private long offerTimeoutMs = 50;
+    }
+
+    /**
+     * 设备ID到车辆ID的解析缓存配置
+     */
+    @Data
+    public static class DeviceCache {
+
+        /**
+         * 已知设备的最大缓存数量
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 未知设备的最大缓存数量
+         */
+        private int negativeMaxSize = 1000;
+
+        /**
+         * 未知设备的缓存时间(毫秒)，过期后重新查询数据库
+         */
+        private long negativeTtlMs = 60000;
+    }
+
+    /**
+     * 传感器接入配置
+     */
+    @Data
+    public static class Sensor {
+
+        /**
+         * WebSocket单条消息的最大字节数，批量上报的定位点数量受此限制
+         */
+        private int maxMessageSize = 256 * 1024;
+    }
+
+    /**
+     * 大屏位置推送配置
+     */
+    @Data
+    public static class Broadcast {
+
+        /**
+         * 推送周期(毫秒)，周期内同一车辆只推送最后一个位置
+         */
+        private long tickMs = 250;
+
+        /**
+         * 向客户端发送消息的线程数，所有大屏会话共用
+         */
+        private int fanoutThreads = 4;
+
+        /**
+         * 每个会话待发送控制消息（告警、任务状态等）的上限，超过后关闭该会话
+         */
+        private int controlQueueCapacity = 1000;
+
+        /**
+         * 单条消息发送的最长时间(毫秒)，超过后关闭该会话，避免个别客户端长期占用发送线程
+         */
+        private long sendTimeLimitMs = 5000;
+
+        /**
+         * 视野订阅索引的网格大小(度)
+         */
+        private double viewportCellDegrees = 0.01;
+
+        /**
+         * 单个视野最多占用的网格数，超过后不进入网格索引，逐个判断
+         */
+        private int maxViewportCells = 4096;
+    }
+
+    /**
+     * 车辆位置空间索引配置
+     */
+    @Data
+    public static class SpatialIndex {
+
+        /**
+         * 网格大小(度)，约 0.002 度即 200 米左右
+         */
+        private double cellDegrees = 0.002;
+
+        /**
+         * 最近车辆查询单次最多返回的数量
+         */
+        private int maxK = 100;
+    }
+
+    /**
+     * 车辆轨迹历史配置
+     */
+    @Data
+    public static class TrackHistory {
+
+        /**
+         * 是否记录轨迹历史
+         */
+        private boolean enabled = true;
+
+        /**
+         * 单次JDBC批量插入的最大行数
+         */
+        private int batchSize = 1000;
+
+        /**
+         * 超过该天数的轨迹进行压缩，每辆车在每个压缩间隔内只保留一个定位点，0 表示不压缩
+         */
+        private int compactAfterDays = 7;
+
+        /**
+         * 压缩间隔(秒)
+         */
+        private int compactIntervalSeconds = 10;
+
+        /**
+         * 清理和压缩的执行时间
+         */
+        private String maintenanceCron = "0 30 3 * * ?";
+
+        /**
+         * 单次清理删除的最大行数，避免长事务
+         */
+        private int purgeChunkSize = 10000;
+
+        /**
+         * 单次查询允许的最大时间跨度(小时)
+         */
+        private int maxQueryHours = 24;
+    }
+
+    /**
+     * 里程与油耗累计配置
+     */
+    @Data
+    public static class Odometer {
+
+        /**
+         * 是否根据定位数据累计里程
+         */
+        private boolean enabled = true;
+
+        /**
+         * 写入数据库的间隔(毫秒)
+         */
+        private long flushIntervalMs = 60000;
+
+        /**
+         * 最小位移(米)，低速时小于该距离的位移视为定位漂移
+         */
+        private double minMoveMeters = 5.0;
+
+        /**
+         * 低于该速度(km/h)时按静止处理漂移
+         */
+        private double stationarySpeedKmh = 1.0;
+
+        /**
+         * 最大合理速度(km/h)，两点间推算速度超过该值视为定位跳点
+         */
+        private double maxSpeedKmh = 120.0;
+
+        /**
+         * 连续跳点次数达到该值后以新位置为准重新开始累计
+         */
+        private int maxOutliers = 3;
+
+        /**
+         * 两个定位点间隔超过该时间(秒)时不计里程，重新开始累计
+         */
+        private long maxGapSeconds = 300;
+
+        /**
+         * 每公里油耗(L)，0 表示不扣减油量
+         */
+        private double fuelLitersPerKm = 0.0;
+    }
+
+    /**
+     * 电子围栏配置
+     */
+    @Data
+    public static class Geofence {
+
+        /**
+         * 是否检测电子围栏
+         */
+        private boolean enabled = true;
+
+        /**
+         * 围栏索引的网格大小(度)，约 0.001 度即 100 米左右
+         */
+        private double cellDegrees = 0.001;
+
+        /**
+         * 单个围栏最多占用的网格数，超过后不进入网格索引，逐个判断
+         */
+        private int maxCellsPerFence = 20000;
+
+        /**
+         * 待处理围栏事件的队列容量，超过后丢弃
+         */
+        private int eventQueueCapacity = 10000;
+    }
+
+    /**
+     * 告警规则实时检测配置
+     */
+    @Data
+    public static class AlertRules {
+
+        /**
+         * 是否按告警规则实时检测定位数据
+         */
+        private boolean enabled = true;
+
+        /**
+         * 超速检测的滑动窗口(秒)，取窗口内定位点的平均速度，避免单个跳点误报
+         */
+        private int speedWindowSeconds = 10;
+
+        /**
+         * 低于该速度(km/h)且未离开静止半径时视为静止
+         */
+        private double stationarySpeedKmh = 1.0;
+
+        /**
+         * 静止半径(米)，离开该半径后重新计算静止时间
+         */
+        private double stationaryRadiusMeters = 15.0;
+
+        /**
+         * 回差比例，告警后数值需越过阈值的该比例才视为恢复，避免在阈值附近反复告警
+         */
+        private double hysteresisRatio = 0.05;
+
+        /**
+         * 最小重复告警间隔(秒)，恢复后在该时间内再次触发时继续使用原告警，只累计次数
+         */
+        private long refireIntervalSeconds = 300;
+
+        /**
+         * 告警变化批量写库的间隔(毫秒)
+         */
+        private long flushIntervalMs = 2000;
+
+        /**
+         * 内存中最多跟踪的告警数，超过后丢弃新告警
+         */
+        private int maxTrackedAlerts = 10000;
+    }
+
+    /**
+     * 车辆在线状态监测配置
+     */
+    @Data
+    public static class Watchdog {
+
+        /**
+         * 是否监测车辆在线状态
+         */
+        private boolean enabled = true;
+
+        /**
+         * 超过该时间(秒)未收到定位点判定为离线
+         */
+        private int offlineTimeoutSeconds = 60;
+
+        /**
+         * 离线告警的严重程度
+         */
+        private String offlineSeverity = "medium";
+
+        /**
+         * 时间轮刻度(毫秒)，即超时判断的精度
+         */
+        private long tickMs = 1000;
+
+        /**
+         * 时间轮槽位数，超过一圈的定时按圈数计
+         */
+        private int wheelSize = 512;
+    }
+}
@@ -3,10 +3,12 @@ package com.airport.config;
 import com.airport.websocket.SensorWebSocketHandler;
 import com.airport.websocket.VehicleLocationWebSocketHandler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 /**
  * WebSocket处理器配置
@@ -21,6 +23,7 @@ public class WebSocketHandlerConfig implements WebSocketConfigurer {
 
     private final VehicleLocationWebSocketHandler vehicleLocationWebSocketHandler;
     private final SensorWebSocketHandler sensorWebSocketHandler;
+    private final TrackingProperties trackingProperties;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
@@ -32,5 +35,16 @@ public class WebSocketHandlerConfig implements WebSocketConfigurer {
         registry.addHandler(sensorWebSocketHandler, "/ws/sensor")
                 .setAllowedOriginPatterns("*");
     }
-}
 
+    /**
+     * 调整WebSocket消息缓冲区，容纳传感器的批量位置上报
+     */
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        int maxMessageSize = trackingProperties.getSensor().getMaxMessageSize();
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageSize);
+        container.setMaxBinaryMessageBufferSize(maxMessageSize);
+        return container;
+    }
+}
@@ -3,6 +3,9 @@ package com.airport.controller;
 import com.airport.dto.Result;
 import com.airport.entity.Alert;
 import com.airport.repository.AlertRepository;
+import com.airport.tracking.AlertDispatcher;
+import com.airport.tracking.AlertMute;
+import com.airport.tracking.DashboardCounters;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,7 +35,11 @@ import java.util.Map;
 @Tag(name = "告警管理", description = "告警信息管理相关接口")
 public class AlertController {
 
+    private static final String ALERT_CONFLICT_MESSAGE = "告警状态已被其他操作修改，请刷新后重试";
+
     private final AlertRepository alertRepository;
+    private final AlertDispatcher alertDispatcher;
+    private final DashboardCounters dashboardCounters;
 
     @GetMapping
     @Operation(summary = "获取告警列表", description = "分页获取告警列表")
@@ -77,6 +84,7 @@ public class AlertController {
     public Result<Alert> createAlert(@RequestBody Alert alert) {
         try {
             Alert createdAlert = alertRepository.save(alert);
+            dashboardCounters.alertCreated(createdAlert.getStatus());
             return Result.success("告警创建成功", createdAlert);
         } catch (Exception e) {
             log.error("创建告警失败", e);
@@ -94,16 +102,22 @@ public class AlertController {
         try {
             Alert alert = alertRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("告警不存在"));
+            String previousStatus = alert.getStatus();
+            LocalDateTime now = LocalDateTime.now();
             
+            // 以读取时的状态为条件更新，并发确认时只有一个请求生效
+            if (alertRepository.acknowledge(id, previousStatus, assignee, now) == 0) {
+                return Result.error(409, ALERT_CONFLICT_MESSAGE);
+            }
             alert.setStatus("processing");
             alert.setAcknowledged(true);
-            alert.setAcknowledgedTime(LocalDateTime.now());
+            alert.setAcknowledgedTime(now);
             if (assignee != null) {
                 alert.setAssignee(assignee);
             }
             
-            Alert updatedAlert = alertRepository.save(alert);
-            return Result.success("告警已确认", updatedAlert);
+            dashboardCounters.alertStatusChanged(previousStatus, alert.getStatus());
+            return Result.success("告警已确认", alert);
         } catch (Exception e) {
             log.error("确认告警失败", e);
             return Result.error(e.getMessage());
@@ -120,15 +134,20 @@ public class AlertController {
         try {
             Alert alert = alertRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("告警不存在"));
+            String previousStatus = alert.getStatus();
+            LocalDateTime now = LocalDateTime.now();
             
+            if (alertRepository.resolve(id, previousStatus, notes, now) == 0) {
+                return Result.error(409, ALERT_CONFLICT_MESSAGE);
+            }
             alert.setStatus("resolved");
-            alert.setResolvedTime(LocalDateTime.now());
+            alert.setResolvedTime(now);
             if (notes != null) {
                 alert.setResolutionNotes(notes);
             }
             
-            Alert updatedAlert = alertRepository.save(alert);
-            return Result.success("告警已解决", updatedAlert);
+            dashboardCounters.alertStatusChanged(previousStatus, alert.getStatus());
+            return Result.success("告警已解决", alert);
         } catch (Exception e) {
             log.error("解决告警失败", e);
             return Result.error(e.getMessage());
@@ -186,5 +205,34 @@ public class AlertController {
             return Result.error("获取告警统计失败: " + e.getMessage());
         }
     }
-}
 
+    @GetMapping("/mutes")
+    @Operation(summary = "获取告警屏蔽时段", description = "获取未结束的自动告警屏蔽时段")
+    public Result<List<AlertMute>> getAlertMutes() {
+        return Result.success(alertDispatcher.listMutes());
+    }
+
+    @PostMapping("/mutes")
+    @Operation(summary = "添加告警屏蔽时段", description = "维护窗口内屏蔽指定车辆、类别的自动告警，车辆和类别为空表示全部")
+    public Result<AlertMute> createAlertMute(@RequestBody AlertMute mute) {
+        try {
+            return Result.success("告警屏蔽已添加", alertDispatcher.addMute(mute));
+        } catch (IllegalArgumentException e) {
+            return Result.businessError(e.getMessage());
+        } catch (Exception e) {
+            log.error("添加告警屏蔽失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/mutes/{id}")
+    @Operation(summary = "删除告警屏蔽时段", description = "提前结束指定的告警屏蔽时段")
+    public Result<String> deleteAlertMute(
+            @Parameter(description = "屏蔽时段ID", required = true)
+            @PathVariable Long id) {
+        if (!alertDispatcher.removeMute(id)) {
+            return Result.error("告警屏蔽时段不存在");
+        }
+        return Result.success("告警屏蔽已删除");
+    }
+}
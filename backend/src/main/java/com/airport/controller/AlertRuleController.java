@@ -3,6 +3,7 @@ package com.airport.controller;
 import com.airport.dto.Result;
 import com.airport.entity.AlertRule;
 import com.airport.repository.AlertRuleRepository;
+import com.airport.tracking.AlertRuleEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,6 +26,7 @@ import java.util.List;
 public class AlertRuleController {
 
     private final AlertRuleRepository alertRuleRepository;
+    private final AlertRuleEngine alertRuleEngine;
 
     @GetMapping
     @Operation(summary = "获取告警规则列表", description = "获取所有告警规则")
@@ -64,8 +66,12 @@ public class AlertRuleController {
     @Operation(summary = "创建告警规则", description = "创建新告警规则")
     public Result<AlertRule> createAlertRule(@RequestBody AlertRule rule) {
         try {
+            alertRuleEngine.validate(rule);
             AlertRule createdRule = alertRuleRepository.save(rule);
+            alertRuleEngine.reload();
             return Result.success("告警规则创建成功", createdRule);
+        } catch (IllegalArgumentException e) {
+            return Result.businessError(e.getMessage());
         } catch (Exception e) {
             log.error("创建告警规则失败", e);
             return Result.error(e.getMessage());
@@ -89,9 +95,13 @@ public class AlertRuleController {
             existingRule.setSeverity(rule.getSeverity());
             existingRule.setEnabled(rule.getEnabled());
             existingRule.setDescription(rule.getDescription());
+            alertRuleEngine.validate(existingRule);
             
             AlertRule updatedRule = alertRuleRepository.save(existingRule);
+            alertRuleEngine.reload();
             return Result.success("告警规则更新成功", updatedRule);
+        } catch (IllegalArgumentException e) {
+            return Result.businessError(e.getMessage());
         } catch (Exception e) {
             log.error("更新告警规则失败", e);
             return Result.error(e.getMessage());
@@ -108,6 +118,7 @@ public class AlertRuleController {
                 return Result.error("告警规则不存在");
             }
             alertRuleRepository.deleteById(id);
+            alertRuleEngine.reload();
             return Result.success("告警规则删除成功");
         } catch (Exception e) {
             log.error("删除告警规则失败", e);
@@ -125,6 +136,7 @@ public class AlertRuleController {
                     .orElseThrow(() -> new RuntimeException("告警规则不存在"));
             rule.setEnabled(!rule.getEnabled());
             AlertRule updatedRule = alertRuleRepository.save(rule);
+            alertRuleEngine.reload();
             return Result.success("告警规则状态更新成功", updatedRule);
         } catch (Exception e) {
             log.error("切换告警规则状态失败", e);
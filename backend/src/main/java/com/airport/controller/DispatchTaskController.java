@@ -1,7 +1,12 @@
 package com.airport.controller;
 
+import com.airport.common.exception.TaskStateConflictException;
+import com.airport.dto.AssignmentPlanDTO;
+import com.airport.dto.BatchResultDTO;
+import com.airport.dto.BatchTaskRequest;
 import com.airport.dto.Result;
 import com.airport.dto.TaskStatistics;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.entity.DispatchTask;
 import com.airport.entity.SysRolePermission;
 import com.airport.entity.SysUserRole;
@@ -9,6 +14,7 @@ import com.airport.repository.SysPermissionRepository;
 import com.airport.repository.SysRolePermissionRepository;
 import com.airport.repository.SysUserRoleRepository;
 import com.airport.service.DispatchTaskService;
+import com.airport.tracking.AssignmentOptimizer;
 import com.airport.utils.JwtUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -42,6 +48,7 @@ public class DispatchTaskController {
     private final SysRolePermissionRepository rolePermissionRepository;
     private final SysPermissionRepository permissionRepository;
     private final JwtUtils jwtUtils;
+    private final AssignmentOptimizer assignmentOptimizer;
 
     @GetMapping
     @Operation(summary = "获取任务列表", description = "获取所有调度任务")
@@ -96,8 +103,10 @@ public class DispatchTaskController {
 
     @GetMapping("/pending")
     @Operation(summary = "获取待分配任务", description = "获取所有待分配状态的任务")
-    public Result<List<DispatchTask>> getPendingTasks() {
-        List<DispatchTask> tasks = taskService.getPendingTasks();
+    public Result<List<DispatchTask>> getPendingTasks(
+            @Parameter(description = "返回数量，不传返回全部", required = false) 
+            @RequestParam(required = false) Integer limit) {
+        List<DispatchTask> tasks = limit != null ? taskService.getPendingTasks(limit) : taskService.getPendingTasks();
         return Result.success(tasks);
     }
 
@@ -108,6 +117,58 @@ public class DispatchTaskController {
         return Result.success(tasks);
     }
 
+    @GetMapping("/available-vehicles")
+    @Operation(summary = "查找就近空闲车辆", description = "按坐标或命名位置（机位、登机口）查找最近的空闲车辆，可按车辆类型过滤")
+    public Result<List<VehicleLiveDTO>> getNearestAvailableVehicles(
+            @Parameter(description = "经度", required = false) 
+            @RequestParam(required = false) Double longitude,
+            @Parameter(description = "纬度", required = false) 
+            @RequestParam(required = false) Double latitude,
+            @Parameter(description = "位置名称（机位、登机口），与经纬度二选一", required = false) 
+            @RequestParam(required = false) String location,
+            @Parameter(description = "车辆类型ID", required = false) 
+            @RequestParam(required = false) Long vehicleTypeId,
+            @Parameter(description = "返回数量", required = false) 
+            @RequestParam(defaultValue = "5") Integer k,
+            @Parameter(description = "最大距离(米)", required = false) 
+            @RequestParam(required = false) Double maxDistance) {
+        try {
+            List<VehicleLiveDTO> vehicles = taskService.getNearestAvailableVehicles(
+                    longitude, latitude, location, vehicleTypeId, k, maxDistance);
+            return Result.success(vehicles);
+        } catch (Exception e) {
+            log.error("查找就近空闲车辆失败", e);
+            return Result.businessError(e.getMessage());
+        }
+    }
+
+    @GetMapping("/auto-assign/preview")
+    @Operation(summary = "预演自动分配", description = "按当前待分配任务和空闲车辆计算自动分配方案，不实际分配")
+    public Result<AssignmentPlanDTO> previewAutoAssign() {
+        try {
+            return Result.success(assignmentOptimizer.run(true));
+        } catch (Exception e) {
+            log.error("预演自动分配失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/auto-assign")
+    @Operation(summary = "执行自动分配", description = "立即执行一轮自动分配，返回实际分配结果")
+    public Result<AssignmentPlanDTO> runAutoAssign(HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:assign")) {
+                return Result.forbidden("无权限分配任务");
+            }
+
+            AssignmentPlanDTO plan = assignmentOptimizer.run(false);
+            return Result.success("自动分配完成", plan);
+        } catch (Exception e) {
+            log.error("自动分配失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/by-time-range")
     @Operation(summary = "获取时间范围内的任务", description = "根据时间范围获取任务")
     public Result<List<DispatchTask>> getTasksByTimeRange(
@@ -135,6 +196,86 @@ public class DispatchTaskController {
         }
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建任务", description = "一次创建多个任务，返回每个任务的创建结果（需要task:create权限）")
+    public Result<BatchResultDTO> createTasks(@RequestBody List<DispatchTask> tasks, HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:create")) {
+                return Result.forbidden("无权限创建任务");
+            }
+
+            BatchResultDTO result = taskService.createTasks(tasks);
+            return Result.success("批量创建完成", result);
+        } catch (Exception e) {
+            log.error("批量创建任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/batch/assign")
+    @Operation(summary = "批量分配任务", description = "在同一事务中分配多个任务，返回每个任务的分配结果（需要task:assign权限）")
+    public Result<BatchResultDTO> assignTasks(@RequestBody BatchTaskRequest batchRequest, HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:assign")) {
+                return Result.forbidden("无权限分配任务");
+            }
+
+            BatchResultDTO result = taskService.assignTasks(batchRequest.getAssignments());
+            return Result.success("批量分配完成", result);
+        } catch (Exception e) {
+            log.error("批量分配任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/batch/start")
+    @Operation(summary = "批量开始任务", description = "在同一事务中开始多个已分配的任务，返回每个任务的执行结果（需要task:update权限）")
+    public Result<BatchResultDTO> startTasks(@RequestBody BatchTaskRequest batchRequest, HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:update")) {
+                return Result.forbidden("无权限开始任务");
+            }
+
+            BatchResultDTO result = taskService.startTasks(batchRequest.getTaskIds());
+            return Result.success("批量开始完成", result);
+        } catch (Exception e) {
+            log.error("批量开始任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/batch/complete")
+    @Operation(summary = "批量完成任务", description = "在同一事务中完成多个执行中的任务，返回每个任务的执行结果（需要task:update权限）")
+    public Result<BatchResultDTO> completeTasks(@RequestBody BatchTaskRequest batchRequest, HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:update")) {
+                return Result.forbidden("无权限完成任务");
+            }
+
+            BatchResultDTO result = taskService.completeTasks(batchRequest.getTaskIds());
+            return Result.success("批量完成成功", result);
+        } catch (Exception e) {
+            log.error("批量完成任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/batch/cancel")
+    @Operation(summary = "批量取消任务", description = "在同一事务中取消多个任务，返回每个任务的执行结果（需要task:update权限）")
+    public Result<BatchResultDTO> cancelTasks(@RequestBody BatchTaskRequest batchRequest, HttpServletRequest request) {
+        try {
+            if (!hasPermission(request, "task:update")) {
+                return Result.forbidden("无权限取消任务");
+            }
+
+            BatchResultDTO result = taskService.cancelTasks(batchRequest.getTaskIds(), batchRequest.getReason());
+            return Result.success("批量取消完成", result);
+        } catch (Exception e) {
+            log.error("批量取消任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "更新任务", description = "更新任务信息（需要task:update权限）")
     public Result<DispatchTask> updateTask(
@@ -149,6 +290,9 @@ public class DispatchTaskController {
             
             DispatchTask updatedTask = taskService.updateTask(id, task);
             return Result.success("任务更新成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("更新任务失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("更新任务失败", e);
             return Result.error(e.getMessage());
@@ -191,6 +335,9 @@ public class DispatchTaskController {
 
             DispatchTask updatedTask = taskService.assignTask(id, vehicleId, driverId);
             return Result.success("任务分配成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("分配任务失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("分配任务失败", e);
             return Result.error(e.getMessage());
@@ -210,6 +357,9 @@ public class DispatchTaskController {
 
             DispatchTask updatedTask = taskService.unassignTask(id);
             return Result.success("取消分配成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("取消分配失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("取消分配失败", e);
             return Result.error(e.getMessage());
@@ -229,6 +379,9 @@ public class DispatchTaskController {
 
             DispatchTask updatedTask = taskService.startTask(id);
             return Result.success("任务开始成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("开始任务失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("开始任务失败", e);
             return Result.error(e.getMessage());
@@ -248,6 +401,9 @@ public class DispatchTaskController {
 
             DispatchTask updatedTask = taskService.completeTask(id);
             return Result.success("任务完成成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("完成任务失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("完成任务失败", e);
             return Result.error(e.getMessage());
@@ -269,6 +425,9 @@ public class DispatchTaskController {
 
             DispatchTask updatedTask = taskService.cancelTask(id, reason);
             return Result.success("任务取消成功", updatedTask);
+        } catch (TaskStateConflictException e) {
+            log.warn("取消任务失败，任务 {} 状态冲突", id);
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("取消任务失败", e);
             return Result.error(e.getMessage());
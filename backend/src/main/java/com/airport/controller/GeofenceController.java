@@ -0,0 +1,155 @@
+package com.airport.controller;
+
+import com.airport.dto.Result;
+import com.airport.entity.Geofence;
+import com.airport.repository.GeofenceRepository;
+import com.airport.tracking.GeofenceEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 电子围栏管理控制器
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@RestController
+@RequestMapping("/geofences")
+@RequiredArgsConstructor
+@Tag(name = "电子围栏管理", description = "机坪区域电子围栏配置相关接口")
+public class GeofenceController {
+
+    private final GeofenceRepository geofenceRepository;
+    private final GeofenceEngine geofenceEngine;
+
+    @GetMapping
+    @Operation(summary = "获取电子围栏列表", description = "获取电子围栏，可按启用状态和区域类型过滤")
+    public Result<List<Geofence>> getGeofences(
+            @Parameter(description = "是否只获取启用的围栏", required = false)
+            @RequestParam(required = false) Boolean enabled,
+            @Parameter(description = "区域类型", required = false)
+            @RequestParam(required = false) String zoneType) {
+        try {
+            List<Geofence> fences;
+            if (zoneType != null && !zoneType.isEmpty()) {
+                fences = geofenceRepository.findByZoneType(zoneType);
+                if (enabled != null && enabled) {
+                    fences = fences.stream()
+                            .filter(fence -> Boolean.TRUE.equals(fence.getEnabled()))
+                            .collect(Collectors.toList());
+                }
+            } else if (enabled != null && enabled) {
+                fences = geofenceRepository.findByEnabledTrue();
+            } else {
+                fences = geofenceRepository.findAll();
+            }
+            return Result.success(fences);
+        } catch (Exception e) {
+            log.error("获取电子围栏列表失败", e);
+            return Result.error("获取电子围栏列表失败: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "获取电子围栏详情", description = "根据ID获取电子围栏详细信息")
+    public Result<Geofence> getGeofenceById(
+            @Parameter(description = "围栏ID", required = true)
+            @PathVariable Long id) {
+        try {
+            Geofence fence = geofenceRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("电子围栏不存在"));
+            return Result.success(fence);
+        } catch (Exception e) {
+            log.error("获取电子围栏详情失败", e);
+            return Result.error("获取电子围栏详情失败: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/at")
+    @Operation(summary = "查询位置所在围栏", description = "返回包含指定位置的启用围栏")
+    public Result<List<Geofence>> getGeofencesAt(
+            @Parameter(description = "经度", required = true)
+            @RequestParam Double longitude,
+            @Parameter(description = "纬度", required = true)
+            @RequestParam Double latitude) {
+        try {
+            List<Long> ids = geofenceEngine.fencesAt(longitude, latitude);
+            return Result.success(geofenceRepository.findAllById(ids));
+        } catch (Exception e) {
+            log.error("查询位置所在围栏失败", e);
+            return Result.error("查询位置所在围栏失败: " + e.getMessage());
+        }
+    }
+
+    @PostMapping
+    @Operation(summary = "创建电子围栏", description = "创建新电子围栏")
+    public Result<Geofence> createGeofence(@RequestBody Geofence fence) {
+        try {
+            geofenceEngine.parsePolygon(fence.getPolygon());
+            Geofence createdFence = geofenceRepository.save(fence);
+            geofenceEngine.reload();
+            return Result.success("电子围栏创建成功", createdFence);
+        } catch (IllegalArgumentException e) {
+            return Result.businessError(e.getMessage());
+        } catch (Exception e) {
+            log.error("创建电子围栏失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "更新电子围栏", description = "更新电子围栏信息")
+    public Result<Geofence> updateGeofence(
+            @Parameter(description = "围栏ID", required = true)
+            @PathVariable Long id,
+            @RequestBody Geofence fence) {
+        try {
+            Geofence existingFence = geofenceRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("电子围栏不存在"));
+            geofenceEngine.parsePolygon(fence.getPolygon());
+
+            existingFence.setFenceName(fence.getFenceName());
+            existingFence.setZoneType(fence.getZoneType());
+            existingFence.setPolygon(fence.getPolygon());
+            existingFence.setDwellSeconds(fence.getDwellSeconds());
+            existingFence.setAlertEvents(fence.getAlertEvents());
+            existingFence.setSeverity(fence.getSeverity());
+            existingFence.setEnabled(fence.getEnabled());
+            existingFence.setDescription(fence.getDescription());
+
+            Geofence updatedFence = geofenceRepository.save(existingFence);
+            geofenceEngine.reload();
+            return Result.success("电子围栏更新成功", updatedFence);
+        } catch (IllegalArgumentException e) {
+            return Result.businessError(e.getMessage());
+        } catch (Exception e) {
+            log.error("更新电子围栏失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "删除电子围栏", description = "删除指定电子围栏")
+    public Result<String> deleteGeofence(
+            @Parameter(description = "围栏ID", required = true)
+            @PathVariable Long id) {
+        try {
+            if (!geofenceRepository.existsById(id)) {
+                return Result.error("电子围栏不存在");
+            }
+            geofenceRepository.deleteById(id);
+            geofenceEngine.reload();
+            return Result.success("电子围栏删除成功");
+        } catch (Exception e) {
+            log.error("删除电子围栏失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+}
@@ -3,13 +3,19 @@ package com.airport.controller;
 import com.airport.dto.Result;
 import com.airport.dto.TaskStatistics;
 import com.airport.dto.VehicleStatistics;
+import com.airport.dto.WebSocketSessionStats;
 import com.airport.entity.DispatchTask;
 import com.airport.entity.Vehicle;
-import com.airport.repository.AlertRepository;
 import com.airport.repository.DispatchTaskRepository;
 import com.airport.repository.VehicleRepository;
 import com.airport.service.DispatchTaskService;
 import com.airport.service.VehicleService;
+import com.airport.tracking.DashboardCounters;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.OdometerTracker;
+import com.airport.tracking.VehicleAvailability;
+import com.airport.tracking.VehicleWatchdog;
+import com.airport.websocket.SessionSenderRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -18,10 +24,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -41,7 +50,12 @@ public class StatisticsController {
     private final DispatchTaskService taskService;
     private final VehicleRepository vehicleRepository;
     private final DispatchTaskRepository taskRepository;
-    private final AlertRepository alertRepository;
+    private final LiveFleetState liveFleetState;
+    private final SessionSenderRegistry sessionSenderRegistry;
+    private final VehicleAvailability vehicleAvailability;
+    private final OdometerTracker odometerTracker;
+    private final VehicleWatchdog vehicleWatchdog;
+    private final DashboardCounters dashboardCounters;
 
     @GetMapping("/system")
     @Operation(summary = "系统概览统计", description = "获取系统总体统计信息")
@@ -94,22 +108,22 @@ public class StatisticsController {
             
             // 实时数据
             Map<String, Object> realtime = new HashMap<>();
-            realtime.put("onlineVehicles", 35L);
-            realtime.put("activeTasks", 8L);
-            realtime.put("alertCount", 2L);
+            realtime.put("onlineVehicles", (long) vehicleWatchdog.countOnline());
+            realtime.put("activeTasks", dashboardCounters.countTasks(2) + dashboardCounters.countTasks(3));
+            realtime.put("alertCount", dashboardCounters.countAlerts("unprocessed") + dashboardCounters.countAlerts("processing"));
             realtime.put("lastUpdateTime", LocalDateTime.now());
             
             // 今日概况
             Map<String, Object> todaySummary = new HashMap<>();
-            todaySummary.put("tasksCompleted", 12L);
-            todaySummary.put("totalDistance", 1250.5);
-            todaySummary.put("fuelConsumption", 320.0);
-            todaySummary.put("averageEfficiency", 0.85);
+            todaySummary.put("tasksCompleted", dashboardCounters.completedOn(0));
+            todaySummary.put("totalDistance", Math.round(odometerTracker.todayKm() * 100) / 100.0);
+            todaySummary.put("fuelConsumption", Math.round(odometerTracker.todayFuelLiters() * 100) / 100.0);
+            todaySummary.put("averageEfficiency", Math.round(dashboardCounters.todayOnTimeRate() * 100) / 100.0);
             
             // 趋势数据 (最近7天)
             Map<String, Object> trendData = new HashMap<>();
-            trendData.put("dailyTasks", new long[]{8, 12, 15, 10, 18, 14, 16});
-            trendData.put("dailyDistance", new double[]{980.5, 1250.8, 1520.3, 1180.2, 1650.7, 1420.1, 1580.9});
+            trendData.put("dailyTasks", dashboardCounters.dailyCreated());
+            trendData.put("dailyDistance", odometerTracker.dailyKm());
             
             dashboard.put("realtime", realtime);
             dashboard.put("todaySummary", todaySummary);
@@ -130,38 +144,24 @@ public class StatisticsController {
             Map<String, Object> stats = new HashMap<>();
             
             // 在线车辆数（状态为1的正常车辆）
-            long activeVehicles = vehicleRepository.findActiveVehicles().size();
-            long totalVehicles = vehicleRepository.count();
+            long activeVehicles = liveFleetState.countByStatus(1);
+            long totalVehicles = liveFleetState.size();
             int activeRate = totalVehicles > 0 ? (int) (activeVehicles * 100 / totalVehicles) : 0;
             
             // 告警统计
-            List<Object[]> alertStatusStats = alertRepository.countByStatus();
-            long totalAlerts = 0;
-            long pendingAlerts = 0;
-            for (Object[] stat : alertStatusStats) {
-                String status = (String) stat[0];
-                Long count = (Long) stat[1];
-                totalAlerts += count;
-                if ("unprocessed".equals(status)) {
-                    pendingAlerts = count;
-                }
-            }
+            long totalAlerts = dashboardCounters.totalAlerts();
+            long pendingAlerts = dashboardCounters.countAlerts("unprocessed");
             
             // 执行中任务数
-            long runningTasks = taskRepository.findInProgressTasks().size();
+            long runningTasks = dashboardCounters.countTasks(3);
             
             // 任务完成率
-            TaskStatistics taskStats = taskService.getTaskStatistics();
-            int completionRate = 0;
-            if (taskStats.getTotalCount() > 0) {
-                completionRate = (int) (taskStats.getCompletedCount() * 100 / taskStats.getTotalCount());
-            }
+            long totalTasks = dashboardCounters.totalTasks();
+            int completionRate = totalTasks > 0 ? (int) (dashboardCounters.countTasks(4) * 100 / totalTasks) : 0;
             
-            // 系统运行时间（从应用启动时间计算，这里简化处理）
-            // 实际应该从系统启动时间计算
-            long days = 15;
-            long hours = 8;
-            String systemUptime = days + "天 " + hours + "小时";
+            // 系统运行时间（从应用启动时间计算）
+            long uptimeHours = ManagementFactory.getRuntimeMXBean().getUptime() / 3_600_000L;
+            String systemUptime = uptimeHours / 24 + "天 " + uptimeHours % 24 + "小时";
             
             stats.put("activeVehicles", activeVehicles);
             stats.put("activeRate", activeRate);
@@ -178,6 +178,35 @@ public class StatisticsController {
         }
     }
 
+    @GetMapping("/websocket-sessions")
+    @Operation(summary = "WebSocket会话发送统计", description = "获取大屏WebSocket各会话及汇总的发送队列、耗时和丢弃统计")
+    public Result<Map<String, Object>> getWebSocketSessionStats() {
+        try {
+            List<WebSocketSessionStats> sessions = sessionSenderRegistry.sessionStats();
+            
+            long totalQueueDepth = 0;
+            long totalSent = 0;
+            for (WebSocketSessionStats session : sessions) {
+                totalQueueDepth += session.getQueueDepth();
+                totalSent += session.getSentCount();
+            }
+            
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("sessionCount", sessions.size());
+            stats.put("totalQueueDepth", totalQueueDepth);
+            stats.put("totalSent", totalSent);
+            stats.put("totalDroppedPositions", sessionSenderRegistry.totalDroppedPositions());
+            stats.put("avgSendMillis", sessionSenderRegistry.sendTimer().mean(TimeUnit.MILLISECONDS));
+            stats.put("maxSendMillis", sessionSenderRegistry.sendTimer().max(TimeUnit.MILLISECONDS));
+            stats.put("sessions", sessions);
+            
+            return Result.success(stats);
+        } catch (Exception e) {
+            log.error("获取WebSocket会话统计失败", e);
+            return Result.error("获取WebSocket会话统计失败: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/dispatch")
     @Operation(summary = "调度中心统计数据", description = "获取调度中心页面的统计数据")
     public Result<Map<String, Object>> getDispatchStats() {
@@ -185,37 +214,26 @@ public class StatisticsController {
             Map<String, Object> stats = new HashMap<>();
             
             // 待分配任务数
-            long pendingTasks = taskRepository.findPendingTasks().size();
-            
-            // 可用车辆数（状态为1且没有任务关联的车辆）
-            List<Vehicle> activeVehicles = vehicleRepository.findActiveVehicles();
-            List<DispatchTask> allTasks = taskRepository.findAll();
-            Set<Long> vehiclesWithTasks = allTasks.stream()
-                .filter(t -> t.getAssignedVehicleId() != null && (t.getStatus() == 2 || t.getStatus() == 3))
-                .map(DispatchTask::getAssignedVehicleId)
-                .collect(Collectors.toSet());
+            long pendingTasks = dashboardCounters.countTasks(1);
             
-            long availableVehicles = activeVehicles.stream()
-                .filter(v -> !vehiclesWithTasks.contains(v.getId()))
-                .count();
+            // 可用车辆数（状态为1且没有已分配、执行中任务的车辆）
+            long activeVehicles = liveFleetState.countByStatus(1);
+            long availableVehicles = vehicleAvailability.countAvailable();
             
             // 空闲率
-            int idleRate = activeVehicles.size() > 0 
-                ? (int) (availableVehicles * 100 / activeVehicles.size()) 
+            int idleRate = activeVehicles > 0 
+                ? (int) (availableVehicles * 100 / activeVehicles) 
                 : 0;
             
             // 调度效率（已完成任务数 / 总任务数）
-            TaskStatistics taskStats = taskService.getTaskStatistics();
-            int dispatchEfficiency = 0;
-            if (taskStats.getTotalCount() > 0) {
-                dispatchEfficiency = (int) (taskStats.getCompletedCount() * 100 / taskStats.getTotalCount());
-            }
+            long totalTasks = dashboardCounters.totalTasks();
+            int dispatchEfficiency = totalTasks > 0 ? (int) (dashboardCounters.countTasks(4) * 100 / totalTasks) : 0;
             
-            // 效率变化（简化处理，实际应该对比昨日数据）
-            int efficiencyChange = 5;
+            // 效率变化（今日完成数/新建数 与昨日对比的百分点）
+            int efficiencyChange = dailyCompletionRate(0) - dailyCompletionRate(1);
             
-            // 平均响应时间（简化处理，实际应该计算任务分配的平均时间）
-            double avgResponseTime = 3.2;
+            // 平均响应时间（今日任务从创建到分配的平均分钟数）
+            double avgResponseTime = Math.round(dashboardCounters.todayAvgResponseMinutes() * 10) / 10.0;
             
             stats.put("pendingTasks", pendingTasks);
             stats.put("availableVehicles", availableVehicles);
@@ -260,8 +278,10 @@ public class StatisticsController {
                         if (task.getStatus() == 4) { // 已完成
                             usageData.setCompletedTasks(usageData.getCompletedTasks() + 1);
                         }
-                        // 这里简化处理，实际应该从任务中获取里程数据
-                        // usageData.setTotalDistance(usageData.getTotalDistance().add(task.getDistance()));
+                        // 任务里程由定位数据累计，加上尚未写入数据库的部分
+                        BigDecimal distance = task.getDistance() != null ? task.getDistance() : BigDecimal.ZERO;
+                        usageData.setTotalDistance(usageData.getTotalDistance().add(distance)
+                                .add(BigDecimal.valueOf(odometerTracker.pendingTaskKm(task.getId()))));
                     }
                 }
             }
@@ -277,7 +297,7 @@ public class StatisticsController {
                     item.put("vehicleNo", usage.getVehicleNo());
                     item.put("totalTasks", usage.getTotalTasks());
                     item.put("completedTasks", usage.getCompletedTasks());
-                    item.put("totalDistance", usage.getTotalDistance().doubleValue());
+                    item.put("totalDistance", usage.getTotalDistance().setScale(2, RoundingMode.HALF_UP).doubleValue());
                     item.put("usageRate", usageRate);
                     return item;
                 })
@@ -359,6 +379,14 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * 指定天数前完成数占新建数的百分比，0 为今天
+     */
+    private int dailyCompletionRate(int daysAgo) {
+        long created = dashboardCounters.createdOn(daysAgo);
+        return created > 0 ? (int) (dashboardCounters.completedOn(daysAgo) * 100 / created) : 0;
+    }
+
     // 内部类：车辆使用情况数据
     private static class VehicleUsageData {
         private Long vehicleId;
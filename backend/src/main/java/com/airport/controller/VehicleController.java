@@ -1,23 +1,35 @@
 package com.airport.controller;
 
+import com.airport.config.TrackingProperties;
 import com.airport.dto.Result;
 import com.airport.dto.VehicleDTO;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.dto.VehicleLocationDTO;
 import com.airport.dto.VehicleStatistics;
 import com.airport.entity.Vehicle;
 import com.airport.service.VehicleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.airport.utils.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 车辆管理控制器
@@ -33,6 +45,8 @@ public class VehicleController {
 
     private final VehicleService vehicleService;
     private final JwtUtils jwtUtils;
+    private final ObjectMapper objectMapper;
+    private final TrackingProperties trackingProperties;
 
     /**
      * 从请求头中获取当前用户名
@@ -101,6 +115,159 @@ public class VehicleController {
         return Result.success(vehicles);
     }
 
+    @GetMapping("/live")
+    @Operation(summary = "获取车辆实时状态", description = "获取所有车辆的实时位置和状态（内存数据）")
+    public Result<List<VehicleLiveDTO>> getLiveVehicles() {
+        return Result.success(vehicleService.getLiveVehicles());
+    }
+
+    @GetMapping("/live/{id}")
+    @Operation(summary = "获取单辆车实时状态", description = "根据ID获取车辆实时位置和状态（内存数据）")
+    public Result<VehicleLiveDTO> getLiveVehicle(
+            @Parameter(description = "车辆ID", required = true) 
+            @PathVariable Long id) {
+        Optional<VehicleLiveDTO> vehicle = vehicleService.getLiveVehicle(id);
+        if (vehicle.isPresent()) {
+            return Result.success(vehicle.get());
+        } else {
+            return Result.notFound("车辆不存在");
+        }
+    }
+
+    @GetMapping("/recent")
+    @Operation(summary = "获取最近更新的车辆", description = "获取最近若干秒内上报过位置的车辆（内存数据）")
+    public Result<List<VehicleLiveDTO>> getRecentlyUpdatedVehicles(
+            @Parameter(description = "时间窗口(秒)", required = false) 
+            @RequestParam(defaultValue = "60") Integer seconds) {
+        List<VehicleLiveDTO> vehicles = vehicleService.getRecentlyUpdatedVehicles(LocalDateTime.now().minusSeconds(seconds));
+        return Result.success(vehicles);
+    }
+
+    @GetMapping("/range")
+    @Operation(summary = "查询范围内的车辆", description = "查询经纬度矩形范围内的车辆（内存空间索引）")
+    public Result<List<VehicleLiveDTO>> getVehiclesInRange(
+            @Parameter(description = "最小经度", required = true) @RequestParam Double minLng,
+            @Parameter(description = "最大经度", required = true) @RequestParam Double maxLng,
+            @Parameter(description = "最小纬度", required = true) @RequestParam Double minLat,
+            @Parameter(description = "最大纬度", required = true) @RequestParam Double maxLat) {
+        if (minLng > maxLng || minLat > maxLat) {
+            return Result.businessError("经纬度范围无效");
+        }
+        return Result.success(vehicleService.getVehiclesInRange(minLng, maxLng, minLat, maxLat));
+    }
+
+    @GetMapping("/nearby")
+    @Operation(summary = "查询附近的车辆", description = "查询指定半径内的车辆，按距离由近到远排序（内存空间索引）")
+    public Result<List<VehicleLiveDTO>> getVehiclesNearby(
+            @Parameter(description = "中心点经度", required = true) @RequestParam Double longitude,
+            @Parameter(description = "中心点纬度", required = true) @RequestParam Double latitude,
+            @Parameter(description = "半径(米)", required = false) 
+            @RequestParam(defaultValue = "500") Double radius) {
+        if (radius <= 0) {
+            return Result.businessError("半径必须大于0");
+        }
+        return Result.success(vehicleService.getVehiclesNearby(longitude, latitude, radius));
+    }
+
+    @GetMapping("/nearest")
+    @Operation(summary = "查询最近的车辆", description = "查询距离指定位置最近的若干辆车（内存空间索引）")
+    public Result<List<VehicleLiveDTO>> getNearestVehicles(
+            @Parameter(description = "中心点经度", required = true) @RequestParam Double longitude,
+            @Parameter(description = "中心点纬度", required = true) @RequestParam Double latitude,
+            @Parameter(description = "返回数量", required = false) 
+            @RequestParam(defaultValue = "5") Integer k) {
+        if (k <= 0) {
+            return Result.businessError("返回数量必须大于0");
+        }
+        int maxK = trackingProperties.getSpatialIndex().getMaxK();
+        if (k > maxK) {
+            return Result.businessError("返回数量不能超过" + maxK);
+        }
+        return Result.success(vehicleService.getNearestVehicles(longitude, latitude, k));
+    }
+
+    @GetMapping("/{id}/track")
+    @Operation(summary = "查询车辆轨迹", description = "按时间顺序返回车辆在时间窗口内的历史轨迹，可按容差或点数抽稀，结果流式输出")
+    public ResponseEntity<StreamingResponseBody> getVehicleTrack(
+            @Parameter(description = "车辆ID", required = true) 
+            @PathVariable Long id,
+            @Parameter(description = "开始时间", required = true) 
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @Parameter(description = "结束时间", required = true) 
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @Parameter(description = "抽稀容差(米)，省略偏离不超过容差的点", required = false) 
+            @RequestParam(required = false) Double tolerance,
+            @Parameter(description = "每辆车的最大点数（约数），按时段抽稀并保留转弯处的点", required = false) 
+            @RequestParam(required = false) Integer maxPoints) {
+        try {
+            vehicleService.checkTrackQuery(startTime, endTime, tolerance, maxPoints);
+        } catch (RuntimeException e) {
+            return streamResult(Result.businessError(e.getMessage()));
+        }
+        return streamTrack(sink -> vehicleService.streamVehicleTrack(id, startTime, endTime, tolerance, maxPoints, sink));
+    }
+
+    @GetMapping("/track/area")
+    @Operation(summary = "查询范围内的轨迹", description = "返回时间窗口内经过指定范围的全部车辆轨迹点，可按车辆抽稀，结果流式输出")
+    public ResponseEntity<StreamingResponseBody> getTrackInArea(
+            @Parameter(description = "最小经度", required = true) @RequestParam Double minLng,
+            @Parameter(description = "最大经度", required = true) @RequestParam Double maxLng,
+            @Parameter(description = "最小纬度", required = true) @RequestParam Double minLat,
+            @Parameter(description = "最大纬度", required = true) @RequestParam Double maxLat,
+            @Parameter(description = "开始时间", required = true) 
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @Parameter(description = "结束时间", required = true) 
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @Parameter(description = "抽稀容差(米)，省略偏离不超过容差的点", required = false) 
+            @RequestParam(required = false) Double tolerance,
+            @Parameter(description = "每辆车的最大点数（约数），按时段抽稀并保留转弯处的点", required = false) 
+            @RequestParam(required = false) Integer maxPoints) {
+        try {
+            if (minLng > maxLng || minLat > maxLat) {
+                throw new RuntimeException("经纬度范围无效");
+            }
+            vehicleService.checkTrackQuery(startTime, endTime, tolerance, maxPoints);
+        } catch (RuntimeException e) {
+            return streamResult(Result.businessError(e.getMessage()));
+        }
+        return streamTrack(sink -> vehicleService.streamTrackInArea(
+                minLng, maxLng, minLat, maxLat, startTime, endTime, tolerance, maxPoints, sink));
+    }
+
+    /**
+     * 以统一响应格式流式输出轨迹点，data 为逐条写出的数组
+     */
+    private ResponseEntity<StreamingResponseBody> streamTrack(Consumer<Consumer<VehicleLocationDTO>> query) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeNumberField("code", 200);
+                generator.writeStringField("message", "操作成功");
+                generator.writeArrayFieldStart("data");
+                query.accept(point -> {
+                    try {
+                        objectMapper.writeValue(generator, point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeNumberField("timestamp", System.currentTimeMillis());
+                generator.writeEndObject();
+            } catch (Exception e) {
+                // 响应已开始输出，只能中断
+                log.error("输出车辆轨迹失败", e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamResult(Result<?> result) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, result));
+    }
+
     @GetMapping("/by-type/{vehicleTypeId}")
     @Operation(summary = "根据类型获取车辆", description = "根据车辆类型获取车辆列表")
     public Result<List<Vehicle>> getVehiclesByType(
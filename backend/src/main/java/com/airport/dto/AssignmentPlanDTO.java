@@ -0,0 +1,102 @@
+package com.airport.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自动分配方案DTO
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class AssignmentPlanDTO {
+
+    /**
+     * 是否为预演（只计算方案，不分配）
+     */
+    private Boolean dryRun;
+
+    /**
+     * 参与计算的待分配任务数
+     */
+    private Integer candidateTasks;
+
+    /**
+     * 参与计算的空闲车辆数
+     */
+    private Integer candidateVehicles;
+
+    /**
+     * 分配方案
+     */
+    private List<Assignment> assignments = new ArrayList<>();
+
+    /**
+     * 未能分配的任务ID（无可用车辆、位置未配置或超出距离）
+     */
+    private List<Long> unassignedTaskIds = new ArrayList<>();
+
+    /**
+     * 实际分配成功的任务数，预演时为 0
+     */
+    private Integer appliedCount = 0;
+
+    /**
+     * 方案总代价(等效秒)
+     */
+    private Double totalCost;
+
+    /**
+     * 求解耗时(毫秒)
+     */
+    private Double solveMillis;
+
+    /**
+     * 单个任务的分配
+     */
+    @Data
+    public static class Assignment {
+
+        /**
+         * 任务ID
+         */
+        private Long taskId;
+
+        /**
+         * 任务编号
+         */
+        private String taskNo;
+
+        /**
+         * 车辆ID
+         */
+        private Long vehicleId;
+
+        /**
+         * 车牌号
+         */
+        private String vehicleNo;
+
+        /**
+         * 车辆到任务起始位置的距离(米)
+         */
+        private Double distanceMeters;
+
+        /**
+         * 预计到达时间(秒)
+         */
+        private Double etaSeconds;
+
+        /**
+         * 代价(等效秒)
+         */
+        private Double cost;
+
+        /**
+         * 是否已分配成功
+         */
+        private Boolean applied = false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.airport.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作结果DTO
+ * 每一项单独给出成功或失败原因，部分失败不影响其他项
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class BatchResultDTO {
+
+    /**
+     * 提交的数量
+     */
+    private Integer total = 0;
+
+    /**
+     * 成功数量
+     */
+    private Integer successCount = 0;
+
+    /**
+     * 失败数量
+     */
+    private Integer failureCount = 0;
+
+    /**
+     * 耗时(毫秒)
+     */
+    private Long elapsedMillis;
+
+    /**
+     * 每一项的结果，按提交顺序排列
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 记录成功项
+     */
+    public void succeed(Item item) {
+        item.setSuccess(true);
+        items.add(item);
+        total++;
+        successCount++;
+    }
+
+    /**
+     * 记录失败项
+     */
+    public void fail(Item item, String message) {
+        item.setSuccess(false);
+        item.setMessage(message);
+        items.add(item);
+        total++;
+        failureCount++;
+    }
+
+    /**
+     * 单项结果
+     */
+    @Data
+    public static class Item {
+
+        /**
+         * 在提交列表中的下标
+         */
+        private Integer index;
+
+        /**
+         * 任务ID
+         */
+        private Long taskId;
+
+        /**
+         * 任务编号
+         */
+        private String taskNo;
+
+        /**
+         * 是否成功
+         */
+        private Boolean success;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.airport.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量任务状态变更请求
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class BatchTaskRequest {
+
+    /**
+     * 任务ID列表，用于开始、完成、取消
+     */
+    private List<Long> taskIds = new ArrayList<>();
+
+    /**
+     * 取消原因
+     */
+    private String reason;
+
+    /**
+     * 分配列表，用于批量分配
+     */
+    private List<Assignment> assignments = new ArrayList<>();
+
+    /**
+     * 单个任务的分配
+     */
+    @Data
+    public static class Assignment {
+
+        /**
+         * 任务ID
+         */
+        private Long taskId;
+
+        /**
+         * 车辆ID
+         */
+        private Long vehicleId;
+
+        /**
+         * 司机ID
+         */
+        private Long driverId;
+    }
+}
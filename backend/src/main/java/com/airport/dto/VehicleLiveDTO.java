@@ -0,0 +1,70 @@
+package com.airport.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 车辆实时状态DTO
+ * 由内存中的实时车队状态直接生成，不经过数据库
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class VehicleLiveDTO {
+
+    /**
+     * 车辆ID
+     */
+    private Long vehicleId;
+
+    /**
+     * 车牌号
+     */
+    private String vehicleNo;
+
+    /**
+     * 车辆类型ID
+     */
+    private Long vehicleTypeId;
+
+    /**
+     * 状态:0-停用,1-正常,2-维修中,3-故障
+     */
+    private Integer status;
+
+    /**
+     * 经度
+     */
+    private Double longitude;
+
+    /**
+     * 纬度
+     */
+    private Double latitude;
+
+    /**
+     * 位置地址
+     */
+    private String address;
+
+    /**
+     * 速度(km/h)
+     */
+    private Double speed;
+
+    /**
+     * 方向角(度)
+     */
+    private Double direction;
+
+    /**
+     * 最后位置更新时间
+     */
+    private LocalDateTime lastUpdateTime;
+
+    /**
+     * 距查询点的距离(米)，仅范围和近邻查询返回
+     */
+    private Double distance;
+}
@@ -0,0 +1,46 @@
+package com.airport.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket会话发送统计
+ * 
+ * @author Corkedmzx
+ */
+@Data
+public class WebSocketSessionStats {
+    
+    private String sessionId;
+    
+    private String username;
+    
+    /**
+     * 待发送消息数
+     */
+    private int queueDepth;
+    
+    /**
+     * 已发送消息数
+     */
+    private long sentCount;
+    
+    /**
+     * 因客户端未及时接收而被合并的位置消息数
+     */
+    private long droppedPositions;
+    
+    /**
+     * 平均发送耗时(毫秒)
+     */
+    private double avgSendMillis;
+    
+    /**
+     * 最大发送耗时(毫秒)
+     */
+    private double maxSendMillis;
+    
+    /**
+     * 最近一次发送时间(毫秒时间戳)
+     */
+    private long lastSendAt;
+}
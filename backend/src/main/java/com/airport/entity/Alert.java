@@ -36,7 +36,8 @@ public class Alert extends BaseEntity {
     private String severity;
 
     /**
-     * 告警类别:vehicle_fault-车辆故障,task_timeout-任务超时,system_error-系统错误,safety_alert-安全告警
+     * 告警类别:vehicle_fault-车辆故障,task_timeout-任务超时,system_error-系统错误,safety_alert-安全告警,
+     * geofence-电子围栏,vehicle_offline-车辆离线，告警规则自动产生的告警为规则类型
      */
     @Column(name = "category", nullable = false, length = 50)
     private String category;
@@ -53,6 +54,24 @@ public class Alert extends BaseEntity {
     @Column(name = "task_id")
     private Long taskId;
 
+    /**
+     * 触发次数，恢复后在重复告警间隔内再次触发时累加
+     */
+    @Column(name = "occurrence_count", nullable = false)
+    private Integer occurrenceCount = 1;
+
+    /**
+     * 最近一次触发时间
+     */
+    @Column(name = "last_occur_time")
+    private LocalDateTime lastOccurTime;
+
+    /**
+     * 告警条件恢复时间，为空表示告警条件仍然成立
+     */
+    @Column(name = "recover_time")
+    private LocalDateTime recoverTime;
+
     /**
      * 处理状态:unprocessed-未处理,processing-处理中,resolved-已解决
      */
@@ -23,7 +23,8 @@ public class AlertRule extends BaseEntity {
 
     /**
      * 规则类型:vehicle_fault-车辆故障,task_timeout-任务超时,system_error-系统错误,
-     * safety_alert-安全告警,fuel_low-油量低,speed_exceed-速度超限
+     * safety_alert-安全告警,fuel_low-油量低,speed_exceed-速度超限,
+     * stationary-静止超时,out_of_zone-越界(条件值为允许的电子围栏ID),signal_lost-信号丢失
      */
     @Column(name = "rule_type", nullable = false, length = 50)
     private String ruleType;
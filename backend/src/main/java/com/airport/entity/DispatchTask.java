@@ -108,6 +108,12 @@ public class DispatchTask extends BaseEntity {
     @Column(name = "progress", precision = 5, scale = 2)
     private BigDecimal progress = BigDecimal.ZERO;
 
+    /**
+     * 行驶里程(km)，由定位数据累计，不随任务更新写入
+     */
+    @Column(name = "distance", precision = 10, scale = 2, updatable = false)
+    private BigDecimal distance = BigDecimal.ZERO;
+
     /**
      * 备注
      */
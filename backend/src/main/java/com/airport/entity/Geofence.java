@@ -0,0 +1,65 @@
+package com.airport.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 电子围栏实体类
+ * 
+ * @author Corkedmzx
+ */
+@Data
+@Entity
+@Table(name = "geofence")
+@EqualsAndHashCode(callSuper = true)
+public class Geofence extends BaseEntity {
+
+    /**
+     * 围栏名称
+     */
+    @Column(name = "fence_name", nullable = false, length = 100)
+    private String fenceName;
+
+    /**
+     * 区域类型:runway-跑道,taxiway-滑行道,stand-机位,apron-机坪,restricted-限制区,other-其他
+     */
+    @Column(name = "zone_type", nullable = false, length = 20)
+    private String zoneType;
+
+    /**
+     * 多边形顶点，JSON数组格式 [[经度,纬度],...]，至少3个点
+     */
+    @Column(name = "polygon", nullable = false, columnDefinition = "TEXT")
+    private String polygon;
+
+    /**
+     * 停留告警时间(秒)，为空或0表示不检测停留
+     */
+    @Column(name = "dwell_seconds")
+    private Integer dwellSeconds;
+
+    /**
+     * 产生告警的事件，逗号分隔:ENTER-进入,EXIT-离开,DWELL-停留，为空表示只推送不告警
+     */
+    @Column(name = "alert_events", length = 50)
+    private String alertEvents;
+
+    /**
+     * 告警严重程度:high-高,medium-中,low-低
+     */
+    @Column(name = "severity", nullable = false, length = 20)
+    private String severity = "medium";
+
+    /**
+     * 是否启用:0-禁用,1-启用
+     */
+    @Column(name = "enabled", nullable = false)
+    private Boolean enabled = true;
+
+    /**
+     * 围栏描述
+     */
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+}
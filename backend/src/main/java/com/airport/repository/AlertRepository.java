@@ -2,9 +2,11 @@ package com.airport.repository;
 
 import com.airport.entity.Alert;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -56,5 +58,28 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
      */
     @Query("SELECT a.status, COUNT(a) FROM Alert a GROUP BY a.status")
     List<Object[]> countByStatus();
-}
 
+    /**
+     * 确认告警，只在告警仍为读取时的状态时更新
+     *
+     * @return 更新行数，0 表示告警状态已被其他操作修改
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Alert a SET a.status = 'processing', a.acknowledged = true, a.acknowledgedTime = :time, " +
+           "a.assignee = COALESCE(:assignee, a.assignee) WHERE a.id = :id AND a.status = :previousStatus")
+    int acknowledge(@Param("id") Long id, @Param("previousStatus") String previousStatus,
+                    @Param("assignee") String assignee, @Param("time") LocalDateTime time);
+
+    /**
+     * 解决告警，只在告警仍为读取时的状态时更新
+     *
+     * @return 更新行数，0 表示告警状态已被其他操作修改
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Alert a SET a.status = 'resolved', a.resolvedTime = :time, " +
+           "a.resolutionNotes = COALESCE(:notes, a.resolutionNotes) WHERE a.id = :id AND a.status = :previousStatus")
+    int resolve(@Param("id") Long id, @Param("previousStatus") String previousStatus,
+                @Param("notes") String notes, @Param("time") LocalDateTime time);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +26,15 @@ public interface DispatchTaskRepository extends JpaRepository<DispatchTask, Long
      */
     DispatchTask findByTaskNo(String taskNo);
 
+    /**
+     * 查找已存在的任务编号
+     * 
+     * @param taskNos 任务编号
+     * @return 其中已存在的任务编号
+     */
+    @Query("SELECT t.taskNo FROM DispatchTask t WHERE t.taskNo IN :taskNos")
+    List<String> findExistingTaskNos(@Param("taskNos") Collection<String> taskNos);
+
     /**
      * 根据分配车辆查找任务
      * 
@@ -65,6 +75,14 @@ public interface DispatchTaskRepository extends JpaRepository<DispatchTask, Long
     @Query("SELECT t FROM DispatchTask t WHERE t.status = 3 ORDER BY t.actualStartTime ASC")
     List<DispatchTask> findInProgressTasks();
 
+    /**
+     * 查找占用车辆的任务（已分配、执行中）
+     * 
+     * @return 任务列表
+     */
+    @Query("SELECT t FROM DispatchTask t WHERE t.status IN (2, 3) AND t.assignedVehicleId IS NOT NULL")
+    List<DispatchTask> findActiveAssignments();
+
     /**
      * 查找时间范围内的任务
      * 
@@ -112,4 +130,26 @@ public interface DispatchTaskRepository extends JpaRepository<DispatchTask, Long
     @Query("SELECT COUNT(t) FROM DispatchTask t WHERE t.createTime BETWEEN :startOfDay AND :endOfDay")
     Long countTodayTasks(@Param("startOfDay") LocalDateTime startOfDay, 
                         @Param("endOfDay") LocalDateTime endOfDay);
+
+    /**
+     * 按日期统计新建的任务数
+     * 
+     * @param since 起始时间
+     * @return 日期与任务数量
+     */
+    @Query("SELECT CAST(t.createTime AS LocalDate), COUNT(t) FROM DispatchTask t " +
+           "WHERE t.createTime >= :since GROUP BY CAST(t.createTime AS LocalDate)")
+    List<Object[]> countDailyCreated(@Param("since") LocalDateTime since);
+
+    /**
+     * 按完成日期统计已完成的任务数及其中按预计结束时间完成的数量
+     * 
+     * @param since 起始时间
+     * @return 日期、完成数量与按时完成数量
+     */
+    @Query("SELECT CAST(t.actualEndTime AS LocalDate), COUNT(t), " +
+           "SUM(CASE WHEN t.endTime IS NULL OR t.actualEndTime <= t.endTime THEN 1 ELSE 0 END) " +
+           "FROM DispatchTask t WHERE t.status = 4 AND t.actualEndTime >= :since " +
+           "GROUP BY CAST(t.actualEndTime AS LocalDate)")
+    List<Object[]> countDailyCompleted(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.airport.repository;
+
+import com.airport.entity.Geofence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 电子围栏数据访问层
+ * 
+ * @author Corkedmzx
+ */
+@Repository
+public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
+
+    /**
+     * 查找启用的围栏
+     */
+    List<Geofence> findByEnabledTrue();
+
+    /**
+     * 根据区域类型查找
+     */
+    List<Geofence> findByZoneType(String zoneType);
+}
@@ -34,6 +34,14 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
      */
     Optional<Vehicle> findByGpsDeviceId(String gpsDeviceId);
 
+    /**
+     * 查询所有已绑定GPS设备的车辆
+     * 
+     * @return [GPS设备ID, 车辆ID] 列表
+     */
+    @Query("SELECT v.gpsDeviceId, v.id FROM Vehicle v WHERE v.gpsDeviceId IS NOT NULL")
+    List<Object[]> findDeviceBindings();
+
     /**
      * 根据车辆类型查找车辆
      * 
@@ -66,6 +74,7 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
      * @param minLat 最小纬度
      * @param maxLat 最大纬度
      * @return 车辆列表
+     * @see com.airport.tracking.VehicleSpatialIndex 实时查询走内存空间索引，仅在索引未就绪时回退到此查询
      */
     @Query("SELECT v FROM Vehicle v WHERE v.locationLongitude BETWEEN :minLng AND :maxLng " +
            "AND v.locationLatitude BETWEEN :minLat AND :maxLat")
@@ -1,7 +1,10 @@
 package com.airport.service;
 
+import com.airport.dto.BatchResultDTO;
+import com.airport.dto.BatchTaskRequest;
 import com.airport.dto.DispatchTaskDTO;
 import com.airport.dto.TaskStatistics;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.entity.DispatchTask;
 
 import java.time.LocalDateTime;
@@ -128,6 +131,14 @@ public interface DispatchTaskService {
      */
     List<DispatchTask> getPendingTasks();
 
+    /**
+     * 获取排在最前面的待分配任务
+     * 
+     * @param limit 返回数量
+     * @return 待分配任务列表，按优先级、开始时间排列
+     */
+    List<DispatchTask> getPendingTasks(int limit);
+
     /**
      * 获取进行中任务
      * 
@@ -158,4 +169,59 @@ public interface DispatchTaskService {
      * @return 新创建的任务
      */
     DispatchTask resendTask(Long taskId);
-}
\ No newline at end of file
+
+    /**
+     * 批量创建任务，校验、生成编号后批量写入，校验失败的任务不影响其他任务
+     * 
+     * @param tasks 任务列表
+     * @return 每个任务的创建结果
+     */
+    BatchResultDTO createTasks(List<DispatchTask> tasks);
+
+    /**
+     * 批量分配任务，在同一事务中执行
+     * 
+     * @param assignments 任务与车辆、司机的分配列表
+     * @return 每个任务的分配结果
+     */
+    BatchResultDTO assignTasks(List<BatchTaskRequest.Assignment> assignments);
+
+    /**
+     * 批量开始任务，在同一事务中执行
+     * 
+     * @param taskIds 任务ID列表
+     * @return 每个任务的执行结果
+     */
+    BatchResultDTO startTasks(List<Long> taskIds);
+
+    /**
+     * 批量完成任务，在同一事务中执行
+     * 
+     * @param taskIds 任务ID列表
+     * @return 每个任务的执行结果
+     */
+    BatchResultDTO completeTasks(List<Long> taskIds);
+
+    /**
+     * 批量取消任务，在同一事务中执行
+     * 
+     * @param taskIds 任务ID列表
+     * @param reason 取消原因
+     * @return 每个任务的执行结果
+     */
+    BatchResultDTO cancelTasks(List<Long> taskIds, String reason);
+
+    /**
+     * 查找距离指定位置最近的空闲车辆（状态正常且没有已分配、执行中的任务）
+     * 
+     * @param longitude 经度，与 location 二选一
+     * @param latitude 纬度，与 location 二选一
+     * @param location 命名位置（机位、登机口等）
+     * @param vehicleTypeId 车辆类型ID，为空时不过滤
+     * @param k 返回数量
+     * @param maxDistance 最大距离(米)，为空时不限制
+     * @return 车辆实时状态列表，按距离由近到远排序
+     */
+    List<VehicleLiveDTO> getNearestAvailableVehicles(Double longitude, Double latitude, String location,
+                                                     Long vehicleTypeId, int k, Double maxDistance);
+}
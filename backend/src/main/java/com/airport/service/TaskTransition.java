@@ -0,0 +1,69 @@
+package com.airport.service;
+
+import java.util.Set;
+
+/**
+ * 任务状态流转表
+ * 任务状态:1-待分配,2-已分配,3-执行中,4-已完成,5-已取消,6-异常。
+ * 每种操作只允许从指定状态出发，状态变更以原状态为条件写库，并发修改时条件不满足即为冲突。
+ * 
+ * @author Corkedmzx
+ */
+public enum TaskTransition {
+
+    /**
+     * 分配：待分配 -> 已分配
+     */
+    ASSIGN(Set.of(1), 2, "只能分配待分配状态的任务"),
+
+    /**
+     * 取消分配：已分配 -> 待分配
+     */
+    UNASSIGN(Set.of(2), 1, "只能取消分配已分配状态的任务"),
+
+    /**
+     * 开始：已分配 -> 执行中
+     */
+    START(Set.of(2), 3, "只能开始已分配状态的任务"),
+
+    /**
+     * 完成：执行中 -> 已完成
+     */
+    COMPLETE(Set.of(3), 4, "只能完成执行中的任务"),
+
+    /**
+     * 取消：待分配、已分配、执行中、异常 -> 已取消
+     */
+    CANCEL(Set.of(1, 2, 3, 6), 5, "已完成或已取消的任务不能取消");
+
+    private final Set<Integer> fromStatuses;
+    private final int targetStatus;
+    private final String rejectMessage;
+
+    TaskTransition(Set<Integer> fromStatuses, int targetStatus, String rejectMessage) {
+        this.fromStatuses = fromStatuses;
+        this.targetStatus = targetStatus;
+        this.rejectMessage = rejectMessage;
+    }
+
+    /**
+     * 是否允许从该状态执行此操作
+     */
+    public boolean allows(Integer status) {
+        return status != null && fromStatuses.contains(status);
+    }
+
+    /**
+     * 操作后的状态
+     */
+    public int getTargetStatus() {
+        return targetStatus;
+    }
+
+    /**
+     * 不允许从当前状态执行此操作时的提示
+     */
+    public String getRejectMessage() {
+        return rejectMessage;
+    }
+}
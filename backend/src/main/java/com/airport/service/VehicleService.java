@@ -2,11 +2,14 @@ package com.airport.service;
 
 import com.airport.entity.Vehicle;
 import com.airport.dto.VehicleDTO;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.dto.VehicleLocationDTO;
 import com.airport.dto.VehicleStatistics;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 车辆服务接口
@@ -86,6 +89,61 @@ public interface VehicleService {
      */
     List<Vehicle> getActiveVehicles();
 
+    /**
+     * 获取所有车辆的实时状态（内存数据，不查询数据库）
+     * 
+     * @return 实时状态列表
+     */
+    List<VehicleLiveDTO> getLiveVehicles();
+
+    /**
+     * 获取单辆车的实时状态（内存数据，不查询数据库）
+     * 
+     * @param vehicleId 车辆ID
+     * @return 实时状态
+     */
+    Optional<VehicleLiveDTO> getLiveVehicle(Long vehicleId);
+
+    /**
+     * 获取指定时间之后上报过位置的车辆（内存数据，不查询数据库）
+     * 
+     * @param sinceTime 起始时间
+     * @return 实时状态列表，按上报时间倒序
+     */
+    List<VehicleLiveDTO> getRecentlyUpdatedVehicles(LocalDateTime sinceTime);
+
+    /**
+     * 查询矩形范围内的车辆
+     * 由内存空间索引提供，索引未就绪时回退到数据库查询
+     * 
+     * @param minLng 最小经度
+     * @param maxLng 最大经度
+     * @param minLat 最小纬度
+     * @param maxLat 最大纬度
+     * @return 实时状态列表
+     */
+    List<VehicleLiveDTO> getVehiclesInRange(Double minLng, Double maxLng, Double minLat, Double maxLat);
+
+    /**
+     * 查询指定半径内的车辆
+     * 
+     * @param longitude 中心点经度
+     * @param latitude 中心点纬度
+     * @param radiusMeters 半径(米)
+     * @return 实时状态列表，按距离由近到远排序
+     */
+    List<VehicleLiveDTO> getVehiclesNearby(double longitude, double latitude, double radiusMeters);
+
+    /**
+     * 查询距离最近的 k 辆车
+     * 
+     * @param longitude 中心点经度
+     * @param latitude 中心点纬度
+     * @param k 返回数量
+     * @return 实时状态列表，按距离由近到远排序
+     */
+    List<VehicleLiveDTO> getNearestVehicles(double longitude, double latitude, int k);
+
     /**
      * 根据车辆类型获取车辆
      * 
@@ -100,4 +158,44 @@ public interface VehicleService {
      * @return 统计数据
      */
     VehicleStatistics getVehicleStatistics();
-}
\ No newline at end of file
+
+    /**
+     * 校验轨迹查询参数
+     * 
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param tolerance 抽稀容差(米)
+     * @param maxPoints 最大点数
+     */
+    void checkTrackQuery(LocalDateTime startTime, LocalDateTime endTime, Double tolerance, Integer maxPoints);
+
+    /**
+     * 按时间顺序逐条读取车辆在时间窗口内的轨迹
+     * 
+     * @param vehicleId 车辆ID
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param tolerance 抽稀容差(米)，为空时不按容差抽稀
+     * @param maxPoints 最大点数（约数），为空时不限制
+     * @param sink 轨迹点接收方
+     */
+    void streamVehicleTrack(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                            Double tolerance, Integer maxPoints, Consumer<VehicleLocationDTO> sink);
+
+    /**
+     * 按时间顺序逐条读取时间窗口内经过指定范围的全部车辆轨迹点
+     * 
+     * @param minLng 最小经度
+     * @param maxLng 最大经度
+     * @param minLat 最小纬度
+     * @param maxLat 最大纬度
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param tolerance 抽稀容差(米)，为空时不按容差抽稀
+     * @param maxPoints 每辆车的最大点数（约数），为空时不限制
+     * @param sink 轨迹点接收方
+     */
+    void streamTrackInArea(Double minLng, Double maxLng, Double minLat, Double maxLat,
+                           LocalDateTime startTime, LocalDateTime endTime,
+                           Double tolerance, Integer maxPoints, Consumer<VehicleLocationDTO> sink);
+}
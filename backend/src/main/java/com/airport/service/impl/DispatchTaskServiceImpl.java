@@ -1,19 +1,47 @@
 package com.airport.service.impl;
 
+import com.airport.common.exception.TaskStateConflictException;
+import com.airport.config.DispatchProperties;
+import com.airport.dto.BatchResultDTO;
+import com.airport.dto.BatchTaskRequest;
 import com.airport.dto.TaskStatistics;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.entity.DispatchTask;
 import com.airport.entity.Vehicle;
 import com.airport.repository.DispatchTaskRepository;
 import com.airport.repository.VehicleRepository;
 import com.airport.service.DispatchTaskService;
+import com.airport.service.TaskTransition;
+import com.airport.tracking.DashboardCounters;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.PendingTaskQueue;
+import com.airport.tracking.TaskNoGenerator;
+import com.airport.tracking.VehicleAvailability;
+import com.airport.tracking.VehicleSpatialIndex;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongPredicate;
 
 /**
  * 调度任务服务实现
@@ -26,8 +54,42 @@ import java.util.Optional;
 @Transactional
 public class DispatchTaskServiceImpl implements DispatchTaskService {
 
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO dispatch_task (task_no, task_name, task_type, priority, description, start_location, " +
+            "end_location, start_time, end_time, assigned_vehicle_id, assigned_driver_id, status, progress, distance, " +
+            "remark, create_time, update_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 编辑任务信息不修改状态和分配信息，以读取时的状态为条件
+    private static final String UPDATE_TASK_SQL =
+            "UPDATE dispatch_task SET task_name = ?, task_type = ?, priority = ?, description = ?, " +
+            "start_location = ?, end_location = ?, start_time = ?, end_time = ?, progress = ?, remark = ? " +
+            "WHERE id = ? AND status = ?";
+
+    // 状态变更以读取时的状态为条件，目标状态和原状态由 TaskTransition 绑定在首尾两个参数
+    private static final String ASSIGN_TASK_SQL =
+            "UPDATE dispatch_task SET status = ?, assigned_vehicle_id = ?, assigned_driver_id = ?, " +
+            "actual_start_time = ? WHERE id = ? AND status = ?";
+    private static final String UNASSIGN_TASK_SQL =
+            "UPDATE dispatch_task SET status = ?, assigned_vehicle_id = NULL, assigned_driver_id = NULL, " +
+            "actual_start_time = NULL WHERE id = ? AND status = ?";
+    private static final String START_TASK_SQL =
+            "UPDATE dispatch_task SET status = ?, actual_start_time = ? WHERE id = ? AND status = ?";
+    private static final String COMPLETE_TASK_SQL =
+            "UPDATE dispatch_task SET status = ?, actual_end_time = ?, progress = 100 WHERE id = ? AND status = ?";
+    private static final String CANCEL_TASK_SQL =
+            "UPDATE dispatch_task SET status = ?, remark = ? WHERE id = ? AND status = ?";
+
     private final DispatchTaskRepository taskRepository;
     private final VehicleRepository vehicleRepository;
+    private final LiveFleetState liveFleetState;
+    private final VehicleSpatialIndex spatialIndex;
+    private final VehicleAvailability vehicleAvailability;
+    private final DashboardCounters dashboardCounters;
+    private final PendingTaskQueue pendingTaskQueue;
+    private final TaskNoGenerator taskNoGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final DispatchProperties dispatchProperties;
 
     @Override
     @Transactional(readOnly = true)
@@ -63,54 +125,33 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
     @Override
     public DispatchTask createTask(DispatchTask task) {
         // 验证必填字段
-        if (task.getTaskName() == null || task.getTaskName().trim().isEmpty()) {
-            throw new RuntimeException("任务名称不能为空");
-        }
-        if (task.getTaskType() == null || task.getTaskType().trim().isEmpty()) {
-            throw new RuntimeException("任务类型不能为空");
-        }
-        if (task.getStartLocation() == null || task.getStartLocation().trim().isEmpty()) {
-            throw new RuntimeException("起始位置不能为空");
-        }
-        if (task.getEndLocation() == null || task.getEndLocation().trim().isEmpty()) {
-            throw new RuntimeException("目标位置不能为空");
-        }
-        if (task.getStartTime() == null) {
-            throw new RuntimeException("开始时间不能为空");
-        }
-
-        // 生成任务编号
-        if (task.getTaskNo() == null || task.getTaskNo().trim().isEmpty()) {
-            String taskNo = generateTaskNo();
-            task.setTaskNo(taskNo);
-        }
+        validateNewTask(task);
 
-        // 检查任务编号是否已存在
-        DispatchTask existingTask = taskRepository.findByTaskNo(task.getTaskNo());
-        if (existingTask != null) {
-            // 如果已存在，重新生成
-            String taskNo = generateTaskNo();
-            task.setTaskNo(taskNo);
+        // 生成任务编号，指定的编号已存在时重新生成
+        if (task.getTaskNo() == null || task.getTaskNo().trim().isEmpty()
+                || taskRepository.findByTaskNo(task.getTaskNo()) != null) {
+            task.setTaskNo(taskNoGenerator.next());
         }
 
         // 设置默认值
-        if (task.getStatus() == null) {
-            task.setStatus(1); // 待分配
-        }
-        if (task.getPriority() == null) {
-            task.setPriority(2); // 中等优先级
-        }
-        if (task.getProgress() == null) {
-            task.setProgress(java.math.BigDecimal.ZERO);
-        }
+        applyDefaults(task);
 
-        return taskRepository.save(task);
+        DispatchTask savedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(savedTask);
+        pendingTaskQueue.taskChanged(savedTask);
+        dashboardCounters.taskChanged(null, savedTask);
+        return savedTask;
     }
 
     @Override
     public DispatchTask updateTask(Long id, DispatchTask task) {
         DispatchTask existingTask = taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("任务不存在"));
+        entityManager.detach(existingTask);
+        Integer previousStatus = existingTask.getStatus();
+
+        // 忽略请求中的状态：实体的状态默认为待分配，无法区分未传和传入的值；
+        // 状态只能通过分配、开始、完成、取消等操作按状态流转表变更
 
         // 验证必填字段
         if (task.getTaskName() != null && !task.getTaskName().trim().isEmpty()) {
@@ -137,9 +178,6 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
         if (task.getEndTime() != null) {
             existingTask.setEndTime(task.getEndTime());
         }
-        if (task.getStatus() != null) {
-            existingTask.setStatus(task.getStatus());
-        }
         if (task.getProgress() != null) {
             existingTask.setProgress(task.getProgress());
         }
@@ -147,22 +185,37 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
             existingTask.setRemark(task.getRemark());
         }
 
-        return taskRepository.save(existingTask);
+        // 只写可编辑字段，并以读取时的状态为条件，不会覆盖并发的状态变更和分配信息
+        int updated = jdbcTemplate.update(UPDATE_TASK_SQL,
+                existingTask.getTaskName(), existingTask.getTaskType(), existingTask.getPriority(),
+                existingTask.getDescription(), existingTask.getStartLocation(), existingTask.getEndLocation(),
+                Timestamp.valueOf(existingTask.getStartTime()),
+                existingTask.getEndTime() != null ? Timestamp.valueOf(existingTask.getEndTime()) : null,
+                existingTask.getProgress(), existingTask.getRemark(), id, previousStatus);
+        if (updated == 0) {
+            throw new TaskStateConflictException(id);
+        }
+        existingTask.setUpdateTime(LocalDateTime.now());
+
+        vehicleAvailability.taskChanged(existingTask);
+        pendingTaskQueue.taskChanged(existingTask);
+        dashboardCounters.taskChanged(previousStatus, existingTask);
+        return existingTask;
     }
 
     @Override
     public void deleteTask(Long id) {
+        Integer previousStatus = taskRepository.findById(id).map(DispatchTask::getStatus).orElse(null);
         taskRepository.deleteById(id);
+        vehicleAvailability.taskRemoved(id);
+        pendingTaskQueue.taskRemoved(id);
+        dashboardCounters.taskRemoved(previousStatus);
     }
 
     @Override
     public DispatchTask assignTask(Long taskId, Long vehicleId, Long driverId) {
-        DispatchTask task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("任务不存在"));
-
-        if (task.getStatus() != 1) {
-            throw new RuntimeException("只能分配待分配状态的任务");
-        }
+        DispatchTask task = loadForTransition(taskId, TaskTransition.ASSIGN);
+        Integer previousStatus = task.getStatus();
 
         // 检查车辆是否存在，但不改变车辆状态
         // 车辆状态应该保持为1（正常），任务分配通过任务表的assignedVehicleId来关联
@@ -177,103 +230,111 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
         // 不改变车辆状态，保持为1（正常）
         // 任务分配通过任务表的assignedVehicleId字段来关联
 
+        LocalDateTime now = LocalDateTime.now();
+        updateStatus(ASSIGN_TASK_SQL, TaskTransition.ASSIGN, task, vehicleId, driverId, Timestamp.valueOf(now));
         task.setAssignedVehicleId(vehicleId);
         task.setAssignedDriverId(driverId);
-        task.setStatus(2); // 已分配
-        task.setActualStartTime(LocalDateTime.now());
+        task.setActualStartTime(now);
+        task.setUpdateTime(now);
 
-        DispatchTask updatedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(task);
+        pendingTaskQueue.taskChanged(task);
+        dashboardCounters.taskChanged(previousStatus, task);
         
         log.info("任务 {} 已分配给车辆 {} 和司机 {}，车辆状态已更新为已分配", 
                 task.getTaskNo(), vehicleId, driverId);
 
-        return updatedTask;
+        return task;
     }
 
     @Override
     public DispatchTask unassignTask(Long taskId) {
-        DispatchTask task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("任务不存在"));
-
-        if (task.getStatus() != 2) {
-            throw new RuntimeException("只能取消分配已分配状态的任务");
-        }
+        DispatchTask task = loadForTransition(taskId, TaskTransition.UNASSIGN);
+        Integer previousStatus = task.getStatus();
 
-        // 清除分配信息
+        // 清除分配信息，恢复为待分配状态
+        updateStatus(UNASSIGN_TASK_SQL, TaskTransition.UNASSIGN, task);
         task.setAssignedVehicleId(null);
         task.setAssignedDriverId(null);
-        task.setStatus(1); // 恢复为待分配状态
         task.setActualStartTime(null);
+        task.setUpdateTime(LocalDateTime.now());
 
-        DispatchTask updatedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(task);
+        pendingTaskQueue.taskChanged(task);
+        dashboardCounters.taskChanged(previousStatus, task);
         
         log.info("任务 {} 已取消分配，恢复为待分配状态", task.getTaskNo());
 
-        return updatedTask;
+        return task;
     }
 
     @Override
     public DispatchTask startTask(Long taskId) {
-        DispatchTask task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("任务不存在"));
+        DispatchTask task = loadForTransition(taskId, TaskTransition.START);
+        Integer previousStatus = task.getStatus();
 
-        if (task.getStatus() != 2) {
-            throw new RuntimeException("只能开始已分配状态的任务");
-        }
+        LocalDateTime now = LocalDateTime.now();
+        updateStatus(START_TASK_SQL, TaskTransition.START, task, Timestamp.valueOf(now));
+        task.setActualStartTime(now);
+        task.setUpdateTime(now);
 
-        task.setStatus(3); // 执行中
-        task.setActualStartTime(LocalDateTime.now());
-
-        DispatchTask updatedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(task);
+        pendingTaskQueue.taskChanged(task);
+        dashboardCounters.taskChanged(previousStatus, task);
         
         log.info("任务 {} 开始执行", task.getTaskNo());
 
-        return updatedTask;
+        return task;
     }
 
     @Override
     public DispatchTask completeTask(Long taskId) {
-        DispatchTask task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("任务不存在"));
-
-        if (task.getStatus() != 3) {
-            throw new RuntimeException("只能完成执行中的任务");
-        }
+        DispatchTask task = loadForTransition(taskId, TaskTransition.COMPLETE);
+        Integer previousStatus = task.getStatus();
 
-        task.setStatus(4); // 已完成
-        task.setActualEndTime(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        updateStatus(COMPLETE_TASK_SQL, TaskTransition.COMPLETE, task, Timestamp.valueOf(now));
+        task.setActualEndTime(now);
         task.setProgress(java.math.BigDecimal.valueOf(100));
+        task.setUpdateTime(now);
 
-        DispatchTask updatedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(task);
+        pendingTaskQueue.taskChanged(task);
+        dashboardCounters.taskChanged(previousStatus, task);
         
         log.info("任务 {} 已完成", task.getTaskNo());
 
-        return updatedTask;
+        return task;
     }
 
     @Override
     public DispatchTask cancelTask(Long taskId, String reason) {
-        DispatchTask task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("任务不存在"));
+        DispatchTask task = loadForTransition(taskId, TaskTransition.CANCEL);
+        Integer previousStatus = task.getStatus();
 
-        if (task.getStatus() == 4) {
-            throw new RuntimeException("已完成的任务不能取消");
-        }
-
-        task.setStatus(5); // 已取消
+        updateStatus(CANCEL_TASK_SQL, TaskTransition.CANCEL, task, reason);
         task.setRemark(reason);
+        task.setUpdateTime(LocalDateTime.now());
 
-        DispatchTask updatedTask = taskRepository.save(task);
+        vehicleAvailability.taskChanged(task);
+        pendingTaskQueue.taskChanged(task);
+        dashboardCounters.taskChanged(previousStatus, task);
         
         log.info("任务 {} 已取消，原因: {}", task.getTaskNo(), reason);
 
-        return updatedTask;
+        return task;
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<DispatchTask> getPendingTasks() {
-        return taskRepository.findPendingTasks();
+        return pendingTaskQueue.all();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<DispatchTask> getPendingTasks(int limit) {
+        return pendingTaskQueue.top(limit);
     }
 
     @Override
@@ -339,6 +400,45 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
         return statistics;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getNearestAvailableVehicles(Double longitude, Double latitude, String location,
+                                                            Long vehicleTypeId, int k, Double maxDistance) {
+        if (location != null && !location.trim().isEmpty()) {
+            DispatchProperties.NamedLocation named = dispatchProperties.getLocations().get(location.trim());
+            if (named == null || named.getLongitude() == null || named.getLatitude() == null) {
+                throw new RuntimeException("未配置的位置: " + location);
+            }
+            longitude = named.getLongitude();
+            latitude = named.getLatitude();
+        }
+        if (longitude == null || latitude == null) {
+            throw new RuntimeException("请指定经纬度或位置名称");
+        }
+        if (k <= 0) {
+            throw new RuntimeException("返回数量必须大于0");
+        }
+        if (k > dispatchProperties.getMaxNearestVehicles()) {
+            throw new RuntimeException("返回数量不能超过" + dispatchProperties.getMaxNearestVehicles());
+        }
+
+        LongPredicate filter = vehicleTypeId == null
+                ? vehicleAvailability::isAvailable
+                : id -> vehicleAvailability.isAvailable(id) && liveFleetState.getVehicleTypeId(id) == vehicleTypeId;
+        double limit = maxDistance != null && maxDistance > 0 ? maxDistance : Double.POSITIVE_INFINITY;
+
+        List<VehicleSpatialIndex.Neighbor> neighbors = spatialIndex.nearest(longitude, latitude, k, limit, filter);
+        List<VehicleLiveDTO> result = new ArrayList<>(neighbors.size());
+        for (VehicleSpatialIndex.Neighbor neighbor : neighbors) {
+            VehicleLiveDTO live = liveFleetState.snapshot(neighbor.getVehicleId());
+            if (live != null) {
+                live.setDistance(neighbor.getDistanceMeters());
+                result.add(live);
+            }
+        }
+        return result;
+    }
+
     @Override
     public DispatchTask resendTask(Long taskId) {
         DispatchTask originalTask = taskRepository.findById(taskId)
@@ -363,31 +463,421 @@ public class DispatchTaskServiceImpl implements DispatchTaskService {
         newTask.setRemark("重新发送自任务: " + originalTask.getTaskNo());
 
         // 生成新的任务编号
-        String newTaskNo = generateTaskNo();
-        // 确保任务编号唯一
-        while (taskRepository.findByTaskNo(newTaskNo) != null) {
-            newTaskNo = generateTaskNo();
-        }
+        String newTaskNo = taskNoGenerator.next();
         newTask.setTaskNo(newTaskNo);
 
         DispatchTask savedTask = taskRepository.save(newTask);
+        pendingTaskQueue.taskChanged(savedTask);
+        dashboardCounters.taskChanged(null, savedTask);
         
         log.info("任务 {} 已重新发送，新任务编号: {}", originalTask.getTaskNo(), newTaskNo);
         
         return savedTask;
     }
 
+    @Override
+    public BatchResultDTO createTasks(List<DispatchTask> tasks) {
+        long begin = System.currentTimeMillis();
+        checkBatchSize(tasks.size());
+        BatchResultDTO result = new BatchResultDTO();
+
+        // 指定的编号已存在或在本批中重复时重新生成，与单个创建一致
+        Set<String> requestedNos = new HashSet<>();
+        for (DispatchTask task : tasks) {
+            if (task != null && task.getTaskNo() != null && !task.getTaskNo().trim().isEmpty()) {
+                requestedNos.add(task.getTaskNo());
+            }
+        }
+        Set<String> usedNos = requestedNos.isEmpty()
+                ? new HashSet<>() : new HashSet<>(taskRepository.findExistingTaskNos(requestedNos));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DispatchTask> accepted = new ArrayList<>(tasks.size());
+        List<BatchResultDTO.Item> acceptedItems = new ArrayList<>(tasks.size());
+        List<BatchResultDTO.Item> items = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            DispatchTask task = tasks.get(i);
+            BatchResultDTO.Item item = new BatchResultDTO.Item();
+            item.setIndex(i);
+            items.add(item);
+            try {
+                if (task == null) {
+                    throw new RuntimeException("任务不能为空");
+                }
+                validateNewTask(task);
+            } catch (RuntimeException e) {
+                item.setMessage(e.getMessage());
+                continue;
+            }
+            if (task.getTaskNo() == null || task.getTaskNo().trim().isEmpty() || !usedNos.add(task.getTaskNo())) {
+                task.setTaskNo(taskNoGenerator.next());
+                usedNos.add(task.getTaskNo());
+            }
+            applyDefaults(task);
+            task.setCreateTime(now);
+            task.setUpdateTime(now);
+            item.setTaskNo(task.getTaskNo());
+            accepted.add(task);
+            acceptedItems.add(item);
+        }
+
+        if (!accepted.isEmpty()) {
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_TASK_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bindNewTask(ps, accepted.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return accepted.size();
+                        }
+                    },
+                    keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < accepted.size(); i++) {
+                DispatchTask task = accepted.get(i);
+                task.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+                acceptedItems.get(i).setTaskId(task.getId());
+                vehicleAvailability.taskChanged(task);
+                pendingTaskQueue.taskChanged(task);
+                dashboardCounters.taskChanged(null, task);
+            }
+        }
+
+        for (BatchResultDTO.Item item : items) {
+            if (item.getMessage() == null) {
+                result.succeed(item);
+            } else {
+                result.fail(item, item.getMessage());
+            }
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - begin);
+        log.info("批量创建任务，提交: {}，成功: {}，耗时: {}ms", result.getTotal(), result.getSuccessCount(),
+                result.getElapsedMillis());
+        return result;
+    }
+
+    @Override
+    public BatchResultDTO assignTasks(List<BatchTaskRequest.Assignment> assignments) {
+        long begin = System.currentTimeMillis();
+        checkBatchSize(assignments.size());
+        List<Long> taskIds = new ArrayList<>(assignments.size());
+        Set<Long> vehicleIds = new HashSet<>();
+        for (BatchTaskRequest.Assignment assignment : assignments) {
+            taskIds.add(assignment.getTaskId());
+            if (assignment.getVehicleId() != null) {
+                vehicleIds.add(assignment.getVehicleId());
+            }
+        }
+        Map<Long, DispatchTask> tasks = loadDetached(taskIds);
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        vehicleRepository.findAllById(vehicleIds).forEach(vehicle -> vehicles.put(vehicle.getId(), vehicle));
+
+        LocalDateTime now = LocalDateTime.now();
+        BatchResultDTO result = new BatchResultDTO();
+        List<Transition> transitions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            BatchTaskRequest.Assignment assignment = assignments.get(i);
+            BatchResultDTO.Item item = newItem(i, assignment.getTaskId(), tasks);
+            DispatchTask task = tasks.get(assignment.getTaskId());
+            Vehicle vehicle = assignment.getVehicleId() != null ? vehicles.get(assignment.getVehicleId()) : null;
+            String error = task == null ? "任务不存在"
+                    : !seen.add(task.getId()) ? "任务重复提交"
+                    : !TaskTransition.ASSIGN.allows(task.getStatus()) ? TaskTransition.ASSIGN.getRejectMessage()
+                    : vehicle == null ? "车辆不存在"
+                    : vehicle.getStatus() != 1 ? "只能为正常状态的车辆分配任务"
+                    : null;
+            if (error != null) {
+                result.fail(item, error);
+                continue;
+            }
+            Integer previousStatus = task.getStatus();
+            Object[] args = statusArgs(TaskTransition.ASSIGN, task, assignment.getVehicleId(),
+                    assignment.getDriverId(), Timestamp.valueOf(now));
+            task.setAssignedVehicleId(assignment.getVehicleId());
+            task.setAssignedDriverId(assignment.getDriverId());
+            task.setStatus(TaskTransition.ASSIGN.getTargetStatus());
+            task.setActualStartTime(now);
+            task.setUpdateTime(now);
+            transitions.add(new Transition(item, task, previousStatus, args));
+        }
+        applyTransitions(ASSIGN_TASK_SQL, transitions, result);
+        return finishBatch("分配", result, begin);
+    }
+
+    @Override
+    public BatchResultDTO startTasks(List<Long> taskIds) {
+        long begin = System.currentTimeMillis();
+        checkBatchSize(taskIds.size());
+        Map<Long, DispatchTask> tasks = loadDetached(taskIds);
+        LocalDateTime now = LocalDateTime.now();
+        BatchResultDTO result = new BatchResultDTO();
+        List<Transition> transitions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            BatchResultDTO.Item item = newItem(i, taskIds.get(i), tasks);
+            DispatchTask task = tasks.get(taskIds.get(i));
+            String error = task == null ? "任务不存在"
+                    : !seen.add(task.getId()) ? "任务重复提交"
+                    : !TaskTransition.START.allows(task.getStatus()) ? TaskTransition.START.getRejectMessage()
+                    : null;
+            if (error != null) {
+                result.fail(item, error);
+                continue;
+            }
+            Integer previousStatus = task.getStatus();
+            Object[] args = statusArgs(TaskTransition.START, task, Timestamp.valueOf(now));
+            task.setStatus(TaskTransition.START.getTargetStatus());
+            task.setActualStartTime(now);
+            task.setUpdateTime(now);
+            transitions.add(new Transition(item, task, previousStatus, args));
+        }
+        applyTransitions(START_TASK_SQL, transitions, result);
+        return finishBatch("开始", result, begin);
+    }
+
+    @Override
+    public BatchResultDTO completeTasks(List<Long> taskIds) {
+        long begin = System.currentTimeMillis();
+        checkBatchSize(taskIds.size());
+        Map<Long, DispatchTask> tasks = loadDetached(taskIds);
+        LocalDateTime now = LocalDateTime.now();
+        BatchResultDTO result = new BatchResultDTO();
+        List<Transition> transitions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            BatchResultDTO.Item item = newItem(i, taskIds.get(i), tasks);
+            DispatchTask task = tasks.get(taskIds.get(i));
+            String error = task == null ? "任务不存在"
+                    : !seen.add(task.getId()) ? "任务重复提交"
+                    : !TaskTransition.COMPLETE.allows(task.getStatus()) ? TaskTransition.COMPLETE.getRejectMessage()
+                    : null;
+            if (error != null) {
+                result.fail(item, error);
+                continue;
+            }
+            Integer previousStatus = task.getStatus();
+            Object[] args = statusArgs(TaskTransition.COMPLETE, task, Timestamp.valueOf(now));
+            task.setStatus(TaskTransition.COMPLETE.getTargetStatus());
+            task.setActualEndTime(now);
+            task.setProgress(java.math.BigDecimal.valueOf(100));
+            task.setUpdateTime(now);
+            transitions.add(new Transition(item, task, previousStatus, args));
+        }
+        applyTransitions(COMPLETE_TASK_SQL, transitions, result);
+        return finishBatch("完成", result, begin);
+    }
+
+    @Override
+    public BatchResultDTO cancelTasks(List<Long> taskIds, String reason) {
+        long begin = System.currentTimeMillis();
+        checkBatchSize(taskIds.size());
+        Map<Long, DispatchTask> tasks = loadDetached(taskIds);
+        LocalDateTime now = LocalDateTime.now();
+        BatchResultDTO result = new BatchResultDTO();
+        List<Transition> transitions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < taskIds.size(); i++) {
+            BatchResultDTO.Item item = newItem(i, taskIds.get(i), tasks);
+            DispatchTask task = tasks.get(taskIds.get(i));
+            String error = task == null ? "任务不存在"
+                    : !seen.add(task.getId()) ? "任务重复提交"
+                    : !TaskTransition.CANCEL.allows(task.getStatus()) ? TaskTransition.CANCEL.getRejectMessage()
+                    : null;
+            if (error != null) {
+                result.fail(item, error);
+                continue;
+            }
+            Integer previousStatus = task.getStatus();
+            Object[] args = statusArgs(TaskTransition.CANCEL, task, reason);
+            task.setStatus(TaskTransition.CANCEL.getTargetStatus());
+            task.setRemark(reason);
+            task.setUpdateTime(now);
+            transitions.add(new Transition(item, task, previousStatus, args));
+        }
+        applyTransitions(CANCEL_TASK_SQL, transitions, result);
+        return finishBatch("取消", result, begin);
+    }
+
     /**
-     * 生成任务编号
+     * 新建任务的必填字段校验
      */
-    private String generateTaskNo() {
-        String dateStr = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
-        // 获取当天任务数量作为序号
-        Long todayCount = taskRepository.countTodayTasks(
-            LocalDateTime.now().toLocalDate().atStartOfDay(),
-            LocalDateTime.now().toLocalDate().atStartOfDay().plusDays(1)
-        );
-        String sequence = String.format("%04d", (todayCount + 1) % 10000);
-        return "TASK" + dateStr + sequence;
+    private static void validateNewTask(DispatchTask task) {
+        if (task.getTaskName() == null || task.getTaskName().trim().isEmpty()) {
+            throw new RuntimeException("任务名称不能为空");
+        }
+        if (task.getTaskType() == null || task.getTaskType().trim().isEmpty()) {
+            throw new RuntimeException("任务类型不能为空");
+        }
+        if (task.getStartLocation() == null || task.getStartLocation().trim().isEmpty()) {
+            throw new RuntimeException("起始位置不能为空");
+        }
+        if (task.getEndLocation() == null || task.getEndLocation().trim().isEmpty()) {
+            throw new RuntimeException("目标位置不能为空");
+        }
+        if (task.getStartTime() == null) {
+            throw new RuntimeException("开始时间不能为空");
+        }
+    }
+
+    /**
+     * 新建任务的默认值
+     */
+    private static void applyDefaults(DispatchTask task) {
+        if (task.getStatus() == null) {
+            task.setStatus(1); // 待分配
+        }
+        if (task.getPriority() == null) {
+            task.setPriority(2); // 中等优先级
+        }
+        if (task.getProgress() == null) {
+            task.setProgress(java.math.BigDecimal.ZERO);
+        }
+        if (task.getDistance() == null) {
+            task.setDistance(java.math.BigDecimal.ZERO);
+        }
+    }
+
+    private static void bindNewTask(PreparedStatement ps, DispatchTask task) throws SQLException {
+        ps.setString(1, task.getTaskNo());
+        ps.setString(2, task.getTaskName());
+        ps.setString(3, task.getTaskType());
+        ps.setInt(4, task.getPriority());
+        ps.setString(5, task.getDescription());
+        ps.setString(6, task.getStartLocation());
+        ps.setString(7, task.getEndLocation());
+        ps.setTimestamp(8, Timestamp.valueOf(task.getStartTime()));
+        ps.setTimestamp(9, task.getEndTime() != null ? Timestamp.valueOf(task.getEndTime()) : null);
+        ps.setObject(10, task.getAssignedVehicleId());
+        ps.setObject(11, task.getAssignedDriverId());
+        ps.setInt(12, task.getStatus());
+        ps.setBigDecimal(13, task.getProgress());
+        ps.setBigDecimal(14, task.getDistance());
+        ps.setString(15, task.getRemark());
+        ps.setTimestamp(16, Timestamp.valueOf(task.getCreateTime()));
+        ps.setTimestamp(17, Timestamp.valueOf(task.getUpdateTime()));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0) {
+            throw new RuntimeException("任务列表不能为空");
+        }
+        if (size > dispatchProperties.getMaxBatchSize()) {
+            throw new RuntimeException("每次最多处理 " + dispatchProperties.getMaxBatchSize() + " 个任务");
+        }
+    }
+
+    /**
+     * 一次查询加载任务并脱离持久化上下文，状态变更通过 JDBC 批量写入，不由 JPA 脏检查重复更新
+     */
+    private Map<Long, DispatchTask> loadDetached(List<Long> taskIds) {
+        Map<Long, DispatchTask> tasks = new HashMap<>();
+        for (DispatchTask task : taskRepository.findAllById(new HashSet<>(taskIds))) {
+            entityManager.detach(task);
+            tasks.put(task.getId(), task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 加载任务并按状态流转表检查，任务脱离持久化上下文，状态变更只通过条件更新写入
+     */
+    private DispatchTask loadForTransition(Long taskId, TaskTransition transition) {
+        DispatchTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("任务不存在"));
+        entityManager.detach(task);
+        if (!transition.allows(task.getStatus())) {
+            throw new RuntimeException(transition.getRejectMessage());
+        }
+        return task;
+    }
+
+    /**
+     * 以读取时的状态为条件执行单个任务的状态变更，未更新任何行说明任务已被其他请求或其他实例修改
+     */
+    private void updateStatus(String sql, TaskTransition transition, DispatchTask task, Object... values) {
+        if (jdbcTemplate.update(sql, statusArgs(transition, task, values)) == 0) {
+            throw new TaskStateConflictException(task.getId());
+        }
+        task.setStatus(transition.getTargetStatus());
+    }
+
+    /**
+     * 状态变更语句的参数：目标状态、变更字段、任务ID、原状态
+     */
+    private static Object[] statusArgs(TaskTransition transition, DispatchTask task, Object... values) {
+        Object[] args = new Object[values.length + 3];
+        args[0] = transition.getTargetStatus();
+        System.arraycopy(values, 0, args, 1, values.length);
+        args[values.length + 1] = task.getId();
+        args[values.length + 2] = task.getStatus();
+        return args;
+    }
+
+    private static BatchResultDTO.Item newItem(int index, Long taskId, Map<Long, DispatchTask> tasks) {
+        BatchResultDTO.Item item = new BatchResultDTO.Item();
+        item.setIndex(index);
+        item.setTaskId(taskId);
+        DispatchTask task = tasks.get(taskId);
+        if (task != null) {
+            item.setTaskNo(task.getTaskNo());
+        }
+        return item;
+    }
+
+    /**
+     * 批量执行带原状态条件的更新，更新行数为 0 说明任务状态已被并发修改
+     */
+    private void applyTransitions(String sql, List<Transition> transitions, BatchResultDTO result) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(transitions.size());
+        for (Transition transition : transitions) {
+            rows.add(transition.row);
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+        for (int i = 0; i < transitions.size(); i++) {
+            Transition transition = transitions.get(i);
+            if (counts[i] == 0) {
+                result.fail(transition.item, TaskStateConflictException.MESSAGE);
+                continue;
+            }
+            vehicleAvailability.taskChanged(transition.task);
+            pendingTaskQueue.taskChanged(transition.task);
+            dashboardCounters.taskChanged(transition.previousStatus, transition.task);
+            result.succeed(transition.item);
+        }
+        result.getItems().sort(Comparator.comparing(BatchResultDTO.Item::getIndex));
+    }
+
+    private static BatchResultDTO finishBatch(String action, BatchResultDTO result, long begin) {
+        result.setElapsedMillis(System.currentTimeMillis() - begin);
+        log.info("批量{}任务，提交: {}，成功: {}，耗时: {}ms", action, result.getTotal(), result.getSuccessCount(),
+                result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 批量状态变更中的一项
+     */
+    private static final class Transition {
+
+        final BatchResultDTO.Item item;
+        final DispatchTask task;
+        final Integer previousStatus;
+        final Object[] row;
+
+        Transition(BatchResultDTO.Item item, DispatchTask task, Integer previousStatus, Object[] row) {
+            this.item = item;
+            this.task = task;
+            this.previousStatus = previousStatus;
+            this.row = row;
+        }
     }
 }
\ No newline at end of file
@@ -1,20 +1,34 @@
 package com.airport.service.impl;
 
+import com.airport.config.TrackingProperties;
 import com.airport.entity.Vehicle;
 import com.airport.dto.VehicleLocationDTO;
 import com.airport.dto.VehicleStatistics;
+import com.airport.dto.VehicleLiveDTO;
 import com.airport.repository.VehicleRepository;
 import com.airport.service.VehicleService;
+import com.airport.tracking.DeviceVehicleCache;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.LocationFix;
+import com.airport.tracking.TrackHistoryStore;
+import com.airport.tracking.TrackSimplifier;
+import com.airport.tracking.VehicleSpatialIndex;
+import com.airport.utils.GeoUtils;
 import com.airport.websocket.VehicleLocationWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 车辆服务实现
@@ -29,17 +43,26 @@ public class VehicleServiceImpl implements VehicleService {
 
     private final VehicleRepository vehicleRepository;
     private final VehicleLocationWebSocketHandler webSocketHandler;
+    private final LiveFleetState liveFleetState;
+    private final DeviceVehicleCache deviceVehicleCache;
+    private final VehicleSpatialIndex spatialIndex;
+    private final TrackHistoryStore trackHistoryStore;
+    private final TrackingProperties trackingProperties;
 
     @Override
     @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
-        return vehicleRepository.findAll();
+        List<Vehicle> vehicles = vehicleRepository.findAll();
+        vehicles.forEach(liveFleetState::applyTo);
+        return vehicles;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Vehicle> getVehicleById(Long id) {
-        return vehicleRepository.findById(id);
+        Optional<Vehicle> vehicle = vehicleRepository.findById(id);
+        vehicle.ifPresent(liveFleetState::applyTo);
+        return vehicle;
     }
 
     @Override
@@ -67,7 +90,11 @@ public class VehicleServiceImpl implements VehicleService {
             throw new RuntimeException("GPS设备ID已存在");
         }
 
-        return vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        liveFleetState.register(savedVehicle);
+        // 该设备此前可能被缓存为未知设备
+        deviceVehicleCache.invalidate(savedVehicle.getGpsDeviceId());
+        return savedVehicle;
     }
 
     @Override
@@ -102,12 +129,21 @@ public class VehicleServiceImpl implements VehicleService {
             existingVehicle.setLastUpdateTime(LocalDateTime.now());
         }
 
-        return vehicleRepository.save(existingVehicle);
+        Vehicle savedVehicle = vehicleRepository.save(existingVehicle);
+        liveFleetState.register(savedVehicle);
+        deviceVehicleCache.invalidate(savedVehicle.getGpsDeviceId());
+        if (vehicle.getGpsDeviceId() != null) {
+            deviceVehicleCache.invalidate(vehicle.getGpsDeviceId());
+        }
+        return savedVehicle;
     }
 
     @Override
     public void deleteVehicle(Long id) {
+        vehicleRepository.findById(id)
+                .ifPresent(vehicle -> deviceVehicleCache.invalidate(vehicle.getGpsDeviceId()));
         vehicleRepository.deleteById(id);
+        liveFleetState.remove(id);
     }
 
     @Override
@@ -123,6 +159,19 @@ public class VehicleServiceImpl implements VehicleService {
 
         Vehicle updatedVehicle = vehicleRepository.save(vehicle);
 
+        // 同步实时车队状态
+        if (locationDTO.getLongitude() != null && locationDTO.getLatitude() != null) {
+            LocationFix fix = new LocationFix();
+            fix.setVehicleId(updatedVehicle.getId());
+            fix.setLongitude(locationDTO.getLongitude().doubleValue());
+            fix.setLatitude(locationDTO.getLatitude().doubleValue());
+            fix.setAddress(locationDTO.getAddress());
+            fix.setSpeed(locationDTO.getSpeed() != null ? locationDTO.getSpeed().doubleValue() : 0.0);
+            fix.setDirection(locationDTO.getDirection() != null ? locationDTO.getDirection().doubleValue() : 0.0);
+            fix.setTimestamp(Timestamp.valueOf(updatedVehicle.getLastUpdateTime()).getTime());
+            liveFleetState.update(fix);
+        }
+
         // 通过WebSocket发送位置更新消息给前端
         try {
             Map<String, Object> locationData = Map.of(
@@ -149,7 +198,160 @@ public class VehicleServiceImpl implements VehicleService {
     @Override
     @Transactional(readOnly = true)
     public List<Vehicle> getActiveVehicles() {
-        return vehicleRepository.findActiveVehicles();
+        List<Vehicle> vehicles = vehicleRepository.findActiveVehicles();
+        vehicles.forEach(liveFleetState::applyTo);
+        return vehicles;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getLiveVehicles() {
+        return liveFleetState.snapshotAll();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<VehicleLiveDTO> getLiveVehicle(Long vehicleId) {
+        return Optional.ofNullable(liveFleetState.snapshot(vehicleId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getRecentlyUpdatedVehicles(LocalDateTime sinceTime) {
+        return liveFleetState.recentlyUpdated(Timestamp.valueOf(sinceTime).getTime());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getVehiclesInRange(Double minLng, Double maxLng, Double minLat, Double maxLat) {
+        if (!spatialIndex.isReady()) {
+            return toLive(vehicleRepository.findByLocationRange(minLng, maxLng, minLat, maxLat));
+        }
+        List<VehicleLiveDTO> result = new ArrayList<>();
+        for (Long vehicleId : spatialIndex.withinBounds(minLng, maxLng, minLat, maxLat)) {
+            VehicleLiveDTO live = liveFleetState.snapshot(vehicleId);
+            if (live != null) {
+                result.add(live);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getVehiclesNearby(double longitude, double latitude, double radiusMeters) {
+        if (!spatialIndex.isReady()) {
+            double latDelta = radiusMeters / GeoUtils.METERS_PER_DEGREE;
+            double lngDelta = radiusMeters / GeoUtils.metersPerDegreeLongitude(latitude);
+            List<VehicleLiveDTO> candidates = toLive(vehicleRepository.findByLocationRange(
+                longitude - lngDelta, longitude + lngDelta, latitude - latDelta, latitude + latDelta));
+            return sortByDistance(candidates, longitude, latitude, radiusMeters, Integer.MAX_VALUE);
+        }
+        return toLive(spatialIndex.withinRadius(longitude, latitude, radiusMeters, null));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleLiveDTO> getNearestVehicles(double longitude, double latitude, int k) {
+        if (!spatialIndex.isReady()) {
+            return sortByDistance(toLive(vehicleRepository.findAll()), longitude, latitude, Double.POSITIVE_INFINITY, k);
+        }
+        return toLive(spatialIndex.nearest(longitude, latitude, k, Double.POSITIVE_INFINITY, null));
+    }
+
+    @Override
+    public void checkTrackQuery(LocalDateTime startTime, LocalDateTime endTime, Double tolerance, Integer maxPoints) {
+        if (startTime == null || endTime == null) {
+            throw new RuntimeException("开始时间和结束时间不能为空");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new RuntimeException("结束时间必须晚于开始时间");
+        }
+        int maxHours = trackingProperties.getTrackHistory().getMaxQueryHours();
+        if (startTime.plusHours(maxHours).isBefore(endTime)) {
+            throw new RuntimeException("查询时间跨度不能超过" + maxHours + "小时");
+        }
+        if (tolerance != null && tolerance <= 0) {
+            throw new RuntimeException("抽稀容差必须大于0");
+        }
+        if (maxPoints != null && maxPoints < 2) {
+            throw new RuntimeException("最大点数不能小于2");
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamVehicleTrack(Long vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                                   Double tolerance, Integer maxPoints, Consumer<VehicleLocationDTO> sink) {
+        checkTrackQuery(startTime, endTime, tolerance, maxPoints);
+        TrackSimplifier simplifier = TrackSimplifier.of(tolerance, maxPoints, startTime, endTime, sink);
+        trackHistoryStore.streamTrack(vehicleId, startTime, endTime, simplifier);
+        simplifier.finish();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamTrackInArea(Double minLng, Double maxLng, Double minLat, Double maxLat,
+                                  LocalDateTime startTime, LocalDateTime endTime,
+                                  Double tolerance, Integer maxPoints, Consumer<VehicleLocationDTO> sink) {
+        checkTrackQuery(startTime, endTime, tolerance, maxPoints);
+        TrackSimplifier simplifier = TrackSimplifier.of(tolerance, maxPoints, startTime, endTime, sink);
+        trackHistoryStore.streamArea(minLng, maxLng, minLat, maxLat, startTime, endTime, simplifier);
+        simplifier.finish();
+    }
+
+    /**
+     * 将近邻查询结果转换为实时状态
+     */
+    private List<VehicleLiveDTO> toLive(List<VehicleSpatialIndex.Neighbor> neighbors) {
+        List<VehicleLiveDTO> result = new ArrayList<>(neighbors.size());
+        for (VehicleSpatialIndex.Neighbor neighbor : neighbors) {
+            VehicleLiveDTO live = liveFleetState.snapshot(neighbor.getVehicleId());
+            if (live != null) {
+                live.setDistance(neighbor.getDistanceMeters());
+                result.add(live);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 数据库回退查询的结果转换为实时状态
+     */
+    private List<VehicleLiveDTO> toLive(Iterable<Vehicle> vehicles) {
+        List<VehicleLiveDTO> result = new ArrayList<>();
+        for (Vehicle vehicle : vehicles) {
+            VehicleLiveDTO live = new VehicleLiveDTO();
+            live.setVehicleId(vehicle.getId());
+            live.setVehicleNo(vehicle.getVehicleNo());
+            live.setVehicleTypeId(vehicle.getVehicleTypeId());
+            live.setStatus(vehicle.getStatus());
+            if (vehicle.getLocationLongitude() != null && vehicle.getLocationLatitude() != null) {
+                live.setLongitude(vehicle.getLocationLongitude().doubleValue());
+                live.setLatitude(vehicle.getLocationLatitude().doubleValue());
+            }
+            live.setAddress(vehicle.getLocationAddress());
+            live.setLastUpdateTime(vehicle.getLastUpdateTime());
+            result.add(live);
+        }
+        return result;
+    }
+
+    private List<VehicleLiveDTO> sortByDistance(List<VehicleLiveDTO> vehicles, double longitude, double latitude,
+                                                double maxMeters, int limit) {
+        List<VehicleLiveDTO> result = new ArrayList<>();
+        for (VehicleLiveDTO vehicle : vehicles) {
+            if (vehicle.getLongitude() == null || vehicle.getLatitude() == null) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(longitude, latitude, vehicle.getLongitude(), vehicle.getLatitude());
+            if (distance <= maxMeters) {
+                vehicle.setDistance(distance);
+                result.add(vehicle);
+            }
+        }
+        result.sort(Comparator.comparingDouble(VehicleLiveDTO::getDistance));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
     }
 
     @Override
@@ -0,0 +1,368 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.entity.Alert;
+import com.airport.repository.AlertRepository;
+import com.airport.websocket.VehicleLocationWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自动告警生命周期
+ * 围栏检测、告警规则检测等按 (车辆, 规则) 组成的键上报告警条件的成立与恢复：
+ * <ul>
+ *     <li>条件首次成立时新建告警，写库后推送告警通知（ALERT_NOTIFICATION）</li>
+ *     <li>条件持续成立只在内存中更新最近触发时间和描述</li>
+ *     <li>条件恢复后记录恢复时间，在最小重复告警间隔内再次成立时继续使用原告警并累加触发次数，不再推送</li>
+ *     <li>停用、维修中的车辆及屏蔽时段内的告警直接忽略</li>
+ * </ul>
+ * 告警变化由后台线程按固定间隔批量写库，检测线程不等待数据库。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class AlertDispatcher {
+
+    private static final String UPDATE_ALERT_SQL =
+            "UPDATE alert SET description = ?, occurrence_count = ?, last_occur_time = ?, recover_time = ? WHERE id = ?";
+
+    private final AlertRepository alertRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleLocationWebSocketHandler webSocketHandler;
+    private final LiveFleetState liveFleetState;
+    private final DashboardCounters dashboardCounters;
+    private final TrackingProperties.AlertRules config;
+
+    // 告警键 -> 告警状态
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 有变化待写库的告警键
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, AlertMute> mutes = new ConcurrentHashMap<>();
+    private final AtomicLong muteIds = new AtomicLong();
+
+    private final Counter openedCounter;
+    private final Counter reopenedCounter;
+    private final Counter mutedCounter;
+    private final Counter droppedCounter;
+
+    private ScheduledExecutorService flusher;
+
+    public AlertDispatcher(AlertRepository alertRepository,
+                           JdbcTemplate jdbcTemplate,
+                           VehicleLocationWebSocketHandler webSocketHandler,
+                           LiveFleetState liveFleetState,
+                           DashboardCounters dashboardCounters,
+                           TrackingProperties trackingProperties,
+                           MeterRegistry meterRegistry) {
+        this.alertRepository = alertRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.webSocketHandler = webSocketHandler;
+        this.liveFleetState = liveFleetState;
+        this.dashboardCounters = dashboardCounters;
+        this.config = trackingProperties.getAlertRules();
+
+        Gauge.builder("alert.dispatch.tracked", entries, Map::size)
+                .description("内存中跟踪的自动告警数量")
+                .register(meterRegistry);
+        this.openedCounter = Counter.builder("alert.dispatch.opened")
+                .description("新建的自动告警数量")
+                .register(meterRegistry);
+        this.reopenedCounter = Counter.builder("alert.dispatch.reopened")
+                .description("重复告警间隔内再次触发、合并到原告警的次数")
+                .register(meterRegistry);
+        this.mutedCounter = Counter.builder("alert.dispatch.muted")
+                .description("被屏蔽的自动告警次数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("alert.dispatch.dropped")
+                .description("跟踪数量已满被丢弃的自动告警数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, config.getFlushIntervalMs(),
+                config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * 告警条件成立
+     *
+     * @param key   告警键，同一车辆的同一规则使用相同的键
+     * @param draft 告警内容，新建告警时使用，已有告警只更新描述
+     */
+    public void raise(String key, Alert draft) {
+        if (isMuted(draft)) {
+            mutedCounter.increment();
+            return;
+        }
+        if (!entries.containsKey(key) && entries.size() >= config.getMaxTrackedAlerts()) {
+            droppedCounter.increment();
+            log.warn("跟踪的告警数量已满，丢弃告警: {}", draft.getTitle());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long refireMillis = config.getRefireIntervalSeconds() * 1000L;
+        entries.compute(key, (k, entry) -> {
+            if (entry == null || entry.expired(now, refireMillis)) {
+                openedCounter.increment();
+                return new Entry(draft, now);
+            }
+            if (entry.raise(draft, now)) {
+                reopenedCounter.increment();
+            }
+            return entry;
+        });
+        dirty.add(key);
+    }
+
+    /**
+     * 告警条件恢复
+     */
+    public void clear(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.clear(System.currentTimeMillis())) {
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * 瞬时事件告警，成立后立即恢复，重复告警间隔内的同类事件合并到同一条告警
+     */
+    public void event(String key, Alert draft) {
+        raise(key, draft);
+        clear(key);
+    }
+
+    /**
+     * 添加屏蔽时段
+     */
+    public AlertMute addMute(AlertMute mute) {
+        if (mute.getEndTime() == null) {
+            throw new IllegalArgumentException("屏蔽结束时间不能为空");
+        }
+        if (mute.getStartTime() != null && !mute.getStartTime().isBefore(mute.getEndTime())) {
+            throw new IllegalArgumentException("屏蔽开始时间必须早于结束时间");
+        }
+        mute.setId(muteIds.incrementAndGet());
+        mutes.put(mute.getId(), mute);
+        log.info("添加告警屏蔽: 车辆 {}，类别 {}，{} 至 {}，原因: {}", mute.getVehicleId(), mute.getCategory(),
+                mute.getStartTime(), mute.getEndTime(), mute.getReason());
+        return mute;
+    }
+
+    /**
+     * 未结束的屏蔽时段
+     */
+    public List<AlertMute> listMutes() {
+        List<AlertMute> result = new ArrayList<>(mutes.values());
+        result.sort(Comparator.comparing(AlertMute::getId));
+        return result;
+    }
+
+    /**
+     * 删除屏蔽时段
+     */
+    public boolean removeMute(Long id) {
+        return mutes.remove(id) != null;
+    }
+
+    private boolean isMuted(Alert draft) {
+        if (draft.getVehicleId() != null) {
+            int status = liveFleetState.getStatus(draft.getVehicleId());
+            if (status == 0 || status == 2) {
+                return true;
+            }
+        }
+        if (mutes.isEmpty()) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (AlertMute mute : mutes.values()) {
+            if (mute.matches(draft.getVehicleId(), draft.getCategory(), now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 批量写入新建和变化的告警，清理过期的告警状态和屏蔽时段
+     */
+    private void flush() {
+        List<Entry> created = new ArrayList<>();
+        List<Alert> alerts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (String key : dirty) {
+            dirty.remove(key);
+            keys.add(key);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.alertId == null) {
+                    if (!created.contains(entry)) {
+                        created.add(entry);
+                        alerts.add(entry.toAlert());
+                    }
+                } else {
+                    updates.add(entry.toRow());
+                }
+            }
+        }
+
+        try {
+            if (!alerts.isEmpty()) {
+                List<Alert> saved = alertRepository.saveAll(alerts);
+                for (int i = 0; i < saved.size(); i++) {
+                    Entry entry = created.get(i);
+                    synchronized (entry) {
+                        entry.alertId = saved.get(i).getId();
+                    }
+                    dashboardCounters.alertCreated(saved.get(i).getStatus());
+                    broadcast(saved.get(i));
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_ALERT_SQL, updates);
+            }
+            if (!alerts.isEmpty() || !updates.isEmpty()) {
+                log.debug("写入自动告警，新建: {}，更新: {}", alerts.size(), updates.size());
+            }
+        } catch (Exception e) {
+            log.error("写入自动告警失败，新建: {}，更新: {}", alerts.size(), updates.size(), e);
+            dirty.addAll(keys);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long refireMillis = config.getRefireIntervalSeconds() * 1000L;
+        entries.entrySet().removeIf(e -> !dirty.contains(e.getKey()) && e.getValue().alertId != null
+                && e.getValue().expired(now, refireMillis));
+        LocalDateTime current = LocalDateTime.now();
+        mutes.values().removeIf(mute -> !current.isBefore(mute.getEndTime()));
+    }
+
+    private void broadcast(Alert saved) {
+        Map<String, Object> alertData = new HashMap<>();
+        alertData.put("id", saved.getId());
+        alertData.put("title", saved.getTitle());
+        alertData.put("description", saved.getDescription());
+        alertData.put("severity", saved.getSeverity());
+        alertData.put("category", saved.getCategory());
+        alertData.put("vehicleId", saved.getVehicleId());
+        alertData.put("taskId", saved.getTaskId());
+        alertData.put("status", saved.getStatus());
+        alertData.put("occurrenceCount", saved.getOccurrenceCount());
+        alertData.put("createTime", saved.getCreateTime());
+        webSocketHandler.broadcastAlert(alertData);
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 单个告警键的告警状态
+     */
+    private static final class Entry {
+
+        final Alert draft;
+        Long alertId;
+        String description;
+        int occurrences = 1;
+        long lastOccurAt;
+        long recoveredAt;
+        boolean open = true;
+
+        Entry(Alert draft, long now) {
+            this.draft = draft;
+            this.description = draft.getDescription();
+            this.lastOccurAt = now;
+        }
+
+        /**
+         * @return 是否由恢复状态再次触发
+         */
+        synchronized boolean raise(Alert update, long now) {
+            description = update.getDescription();
+            lastOccurAt = now;
+            if (open) {
+                return false;
+            }
+            open = true;
+            occurrences++;
+            recoveredAt = 0;
+            return true;
+        }
+
+        synchronized boolean clear(long now) {
+            if (!open) {
+                return false;
+            }
+            open = false;
+            recoveredAt = now;
+            return true;
+        }
+
+        synchronized boolean expired(long now, long refireMillis) {
+            return !open && now - recoveredAt >= refireMillis;
+        }
+
+        Alert toAlert() {
+            Alert alert = new Alert();
+            alert.setTitle(draft.getTitle());
+            alert.setDescription(description);
+            alert.setSeverity(draft.getSeverity());
+            alert.setCategory(draft.getCategory());
+            alert.setVehicleId(draft.getVehicleId());
+            alert.setTaskId(draft.getTaskId());
+            alert.setOccurrenceCount(occurrences);
+            alert.setLastOccurTime(toDateTime(lastOccurAt));
+            alert.setRecoverTime(open ? null : toDateTime(recoveredAt));
+            return alert;
+        }
+
+        Object[] toRow() {
+            return new Object[]{description, occurrences, new Timestamp(lastOccurAt),
+                    open ? null : new Timestamp(recoveredAt), alertId};
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.airport.tracking;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 告警屏蔽时段，用于维护窗口内屏蔽自动告警
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class AlertMute {
+
+    private Long id;
+
+    /**
+     * 屏蔽的车辆ID，为空表示所有车辆
+     */
+    private Long vehicleId;
+
+    /**
+     * 屏蔽的告警类别，为空表示所有类别
+     */
+    private String category;
+
+    /**
+     * 开始时间，为空表示立即生效
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+
+    /**
+     * 屏蔽原因
+     */
+    private String reason;
+
+    /**
+     * 是否屏蔽该告警
+     */
+    public boolean matches(Long alertVehicleId, String alertCategory, LocalDateTime now) {
+        if (startTime != null && now.isBefore(startTime)) {
+            return false;
+        }
+        if (endTime != null && !now.isBefore(endTime)) {
+            return false;
+        }
+        return (vehicleId == null || vehicleId.equals(alertVehicleId))
+                && (category == null || category.equals(alertCategory));
+    }
+}
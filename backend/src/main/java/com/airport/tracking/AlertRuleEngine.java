@@ -0,0 +1,559 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.dto.VehicleLiveDTO;
+import com.airport.entity.Alert;
+import com.airport.entity.AlertRule;
+import com.airport.repository.AlertRuleRepository;
+import com.airport.utils.GeoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 告警规则实时检测
+ * 启用的告警规则按规则类型编译成检测器，位置写入管道把每个定位点（合并前、按到达顺序）交给
+ * {@link #evaluate(LocationFix)}，只检测与定位数据相关的规则类型：
+ * <ul>
+ *     <li>speed_exceed：滑动窗口内的平均速度(km/h)</li>
+ *     <li>fuel_low：剩余油量百分比</li>
+ *     <li>stationary：持续静止的时间(秒)</li>
+ *     <li>out_of_zone：不在条件值所列的任一电子围栏内</li>
+ *     <li>signal_lost：距最后一次收到定位点的时间(秒)，由 {@link VehicleWatchdog} 在静默达到阈值时通知</li>
+ * </ul>
+ * 条件成立、持续和恢复交给 {@link AlertDispatcher} 按 (车辆, 规则) 合并成一条告警；
+ * 数值条件告警后需越过阈值的回差比例才视为恢复，避免在阈值附近反复告警。
+ * 规则增删改后调用 {@link #reload()} 生效。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class AlertRuleEngine implements VehicleWatchdog.SilenceListener {
+
+    /**
+     * 与定位数据相关的规则类型
+     */
+    private enum Kind {
+        SPEED("speed_exceed"),
+        FUEL("fuel_low"),
+        STATIONARY("stationary"),
+        OUT_OF_ZONE("out_of_zone"),
+        NO_FIX("signal_lost");
+
+        private final String ruleType;
+
+        Kind(String ruleType) {
+            this.ruleType = ruleType;
+        }
+
+        static Kind of(String ruleType) {
+            for (Kind kind : values()) {
+                if (kind.ruleType.equalsIgnoreCase(ruleType)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final CompiledRule[] NO_RULES = new CompiledRule[0];
+
+    // 超速滑动窗口最多保留的定位点数
+    private static final int SPEED_WINDOW_CAPACITY = 64;
+
+    private final AlertRuleRepository alertRuleRepository;
+    private final LiveFleetState liveFleetState;
+    private final GeofenceEngine geofenceEngine;
+    private final AlertDispatcher alertDispatcher;
+    private final VehicleWatchdog vehicleWatchdog;
+    private final TrackingProperties.AlertRules config;
+    private final Counter firedCounter;
+
+    private volatile RuleSet rules = new RuleSet(new EnumMap<>(Kind.class), 0);
+    private int version;
+
+    // 车辆ID -> 检测状态，仅由位置写入管道线程访问
+    private final Map<Long, VehicleState> states = new HashMap<>();
+    // 车辆ID -> 处于告警状态的信号丢失规则ID
+    private final Map<Long, Set<Long>> noFixFiring = new ConcurrentHashMap<>();
+
+    public AlertRuleEngine(AlertRuleRepository alertRuleRepository,
+                           LiveFleetState liveFleetState,
+                           GeofenceEngine geofenceEngine,
+                           AlertDispatcher alertDispatcher,
+                           VehicleWatchdog vehicleWatchdog,
+                           TrackingProperties trackingProperties,
+                           MeterRegistry meterRegistry) {
+        this.alertRuleRepository = alertRuleRepository;
+        this.liveFleetState = liveFleetState;
+        this.geofenceEngine = geofenceEngine;
+        this.alertDispatcher = alertDispatcher;
+        this.vehicleWatchdog = vehicleWatchdog;
+        this.config = trackingProperties.getAlertRules();
+        this.firedCounter = Counter.builder("alert.rules.fired")
+                .description("告警规则触发次数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (config.isEnabled()) {
+            vehicleWatchdog.addListener(this);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (config.isEnabled()) {
+            reload();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 重新加载启用的告警规则，规则增删改后调用
+     */
+    public synchronized void reload() {
+        Map<Kind, List<CompiledRule>> compiled = new EnumMap<>(Kind.class);
+        int count = 0;
+        for (AlertRule rule : alertRuleRepository.findByEnabledTrue()) {
+            Kind kind = Kind.of(rule.getRuleType());
+            if (kind == null) {
+                continue;
+            }
+            try {
+                compiled.computeIfAbsent(kind, k -> new ArrayList<>()).add(compile(kind, rule));
+                count++;
+            } catch (IllegalArgumentException e) {
+                log.warn("告警规则无法编译，规则: {}({})，原因: {}", rule.getRuleName(), rule.getId(), e.getMessage());
+            }
+        }
+        Map<Kind, CompiledRule[]> byKind = new EnumMap<>(Kind.class);
+        compiled.forEach((kind, list) -> byKind.put(kind, list.toArray(NO_RULES)));
+        rules = new RuleSet(byKind, ++version);
+        vehicleWatchdog.setListenerThresholds(Arrays.stream(rules.of(Kind.NO_FIX))
+                .mapToLong(rule -> rule.condition.silenceThreshold())
+                .filter(millis -> millis > 0)
+                .toArray());
+        log.info("告警规则已加载，实时检测规则: {} 条", count);
+    }
+
+    /**
+     * 校验规则条件，与定位数据相关的规则类型条件无法解析时抛出 IllegalArgumentException
+     */
+    public void validate(AlertRule rule) {
+        Kind kind = Kind.of(rule.getRuleType());
+        if (kind != null) {
+            compile(kind, rule);
+        }
+    }
+
+    /**
+     * 检测一个定位点，仅由位置写入管道线程调用
+     */
+    public void evaluate(LocationFix fix) {
+        RuleSet current = rules;
+        if (current.isEmpty() && states.isEmpty()) {
+            return;
+        }
+        try {
+            VehicleState state = states.computeIfAbsent(fix.getVehicleId(), id -> new VehicleState());
+            if (fix.getTimestamp() < state.lastSeen) {
+                return;
+            }
+            state.lastSeen = fix.getTimestamp();
+            if (state.version != current.version) {
+                retire(state.firing, current, fix.getVehicleId());
+                state.version = current.version;
+            }
+
+            CompiledRule[] speedRules = current.of(Kind.SPEED);
+            if (speedRules.length > 0) {
+                double meanSpeed = state.meanSpeed(fix, config.getSpeedWindowSeconds() * 1000L);
+                for (CompiledRule rule : speedRules) {
+                    transition(rule, state, active(rule, state.firing, meanSpeed), meanSpeed, fix);
+                }
+            }
+            CompiledRule[] fuelRules = current.of(Kind.FUEL);
+            if (fuelRules.length > 0) {
+                double fuelPercent = liveFleetState.getFuelPercent(fix.getVehicleId());
+                if (!Double.isNaN(fuelPercent)) {
+                    for (CompiledRule rule : fuelRules) {
+                        transition(rule, state, active(rule, state.firing, fuelPercent), fuelPercent, fix);
+                    }
+                }
+            }
+            CompiledRule[] stationaryRules = current.of(Kind.STATIONARY);
+            if (stationaryRules.length > 0) {
+                double seconds = state.stationarySeconds(fix, config);
+                for (CompiledRule rule : stationaryRules) {
+                    transition(rule, state, active(rule, state.firing, seconds), seconds, fix);
+                }
+            }
+            for (CompiledRule rule : current.of(Kind.OUT_OF_ZONE)) {
+                boolean outside = !geofenceEngine.withinAny(fix.getLongitude(), fix.getLatitude(), rule.fenceIds);
+                transition(rule, state, outside, Double.NaN, fix);
+            }
+        } catch (Exception e) {
+            log.error("告警规则检测失败，车辆: {}", fix.getVehicleId(), e);
+        }
+    }
+
+    /**
+     * 数值条件是否成立，已告警的规则需越过回差才视为恢复
+     */
+    private boolean active(CompiledRule rule, Set<Long> firing, double value) {
+        return firing.contains(rule.id)
+                ? !rule.condition.recovered(value, config.getHysteresisRatio())
+                : rule.condition.test(value);
+    }
+
+    private void transition(CompiledRule rule, VehicleState state, boolean hit, double value, LocationFix fix) {
+        if (hit) {
+            if (state.firing.add(rule.id)) {
+                firedCounter.increment();
+            }
+            fire(rule, fix.getVehicleId(), value, fix.getLongitude(), fix.getLatitude());
+        } else if (state.firing.remove(rule.id)) {
+            alertDispatcher.clear(key(rule.id, fix.getVehicleId()));
+        }
+    }
+
+    /**
+     * 规则已删除或停用时恢复其告警
+     */
+    private void retire(Set<Long> firing, RuleSet current, long vehicleId) {
+        Iterator<Long> it = firing.iterator();
+        while (it.hasNext()) {
+            Long ruleId = it.next();
+            if (!current.ruleIds.contains(ruleId)) {
+                it.remove();
+                alertDispatcher.clear(key(ruleId, vehicleId));
+            }
+        }
+    }
+
+    /**
+     * 车辆静默达到阈值时检测信号丢失规则，由时间轮线程调用
+     */
+    @Override
+    public void onSilent(long vehicleId, long silentMillis) {
+        CompiledRule[] noFixRules = rules.of(Kind.NO_FIX);
+        if (noFixRules.length == 0 || liveFleetState.getStatus(vehicleId) != 1) {
+            return;
+        }
+        try {
+            double seconds = silentMillis / 1000.0;
+            VehicleLiveDTO vehicle = liveFleetState.snapshot(vehicleId);
+            Double longitude = vehicle != null ? vehicle.getLongitude() : null;
+            Double latitude = vehicle != null ? vehicle.getLatitude() : null;
+            Set<Long> firing = noFixFiring.computeIfAbsent(vehicleId, id -> ConcurrentHashMap.newKeySet());
+            for (CompiledRule rule : noFixRules) {
+                if (rule.condition.test(seconds)) {
+                    if (firing.add(rule.id)) {
+                        firedCounter.increment();
+                    }
+                    fire(rule, vehicleId, seconds, longitude, latitude);
+                }
+            }
+        } catch (Exception e) {
+            log.error("信号丢失检测失败，车辆: {}", vehicleId, e);
+        }
+    }
+
+    /**
+     * 静默后重新收到定位点，恢复信号丢失告警
+     */
+    @Override
+    public void onResumed(long vehicleId) {
+        Set<Long> firing = noFixFiring.remove(vehicleId);
+        if (firing != null) {
+            firing.forEach(ruleId -> alertDispatcher.clear(key(ruleId, vehicleId)));
+        }
+    }
+
+    private static String key(long ruleId, long vehicleId) {
+        return "rule:" + ruleId + ":" + vehicleId;
+    }
+
+    private void fire(CompiledRule rule, long vehicleId, double value, Double longitude, Double latitude) {
+        String vehicleNo = liveFleetState.getVehicleNo(vehicleId);
+        if (vehicleNo == null) {
+            vehicleNo = String.valueOf(vehicleId);
+        }
+        String position = longitude != null && latitude != null
+                ? String.format("%.6f, %.6f", longitude, latitude)
+                : "未知";
+
+        Alert alert = new Alert();
+        alert.setTitle(rule.name + " - 车辆" + vehicleNo);
+        alert.setDescription(String.format("车辆 %s 触发告警规则「%s」，%s，条件: %s %s，位置: %s",
+                vehicleNo, rule.name, describe(rule.kind, value), rule.conditionType, rule.conditionValue, position));
+        alert.setSeverity(rule.severity);
+        alert.setCategory(rule.kind.ruleType);
+        alert.setVehicleId(vehicleId);
+        alertDispatcher.raise(key(rule.id, vehicleId), alert);
+    }
+
+    private static String describe(Kind kind, double value) {
+        switch (kind) {
+            case SPEED:
+                return String.format("平均速度 %.1f km/h", value);
+            case FUEL:
+                return String.format("剩余油量 %.1f%%", value);
+            case STATIONARY:
+                return String.format("已静止 %d 秒", (long) value);
+            case NO_FIX:
+                return String.format("已 %d 秒未上报定位", (long) value);
+            case OUT_OF_ZONE:
+            default:
+                return "不在允许的区域内";
+        }
+    }
+
+    private static CompiledRule compile(Kind kind, AlertRule rule) {
+        String value = rule.getConditionValue() != null ? rule.getConditionValue().trim() : "";
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("条件值不能为空");
+        }
+        Condition condition = null;
+        List<Long> fenceIds = new ArrayList<>();
+        if (kind == Kind.OUT_OF_ZONE) {
+            for (String part : value.split(",")) {
+                try {
+                    fenceIds.add(Long.parseLong(part.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("越界规则的条件值应为电子围栏ID，逗号分隔");
+                }
+            }
+        } else {
+            condition = Condition.parse(rule.getConditionType(), value);
+        }
+        return new CompiledRule(rule.getId(), kind, rule.getRuleName(),
+                rule.getSeverity() != null ? rule.getSeverity() : "medium",
+                rule.getConditionType(), value, condition, fenceIds);
+    }
+
+    /**
+     * 已编译的规则集合，按规则类型索引
+     */
+    private static final class RuleSet {
+
+        final Map<Kind, CompiledRule[]> byKind;
+        final Set<Long> ruleIds = new HashSet<>();
+        final int version;
+
+        RuleSet(Map<Kind, CompiledRule[]> byKind, int version) {
+            this.byKind = byKind;
+            this.version = version;
+            byKind.values().forEach(list -> {
+                for (CompiledRule rule : list) {
+                    ruleIds.add(rule.id);
+                }
+            });
+        }
+
+        CompiledRule[] of(Kind kind) {
+            return byKind.getOrDefault(kind, NO_RULES);
+        }
+
+        boolean isEmpty() {
+            return ruleIds.isEmpty();
+        }
+    }
+
+    /**
+     * 已编译的规则
+     */
+    private static final class CompiledRule {
+
+        final long id;
+        final Kind kind;
+        final String name;
+        final String severity;
+        final String conditionType;
+        final String conditionValue;
+        final Condition condition;
+        final List<Long> fenceIds;
+
+        CompiledRule(long id, Kind kind, String name, String severity, String conditionType,
+                     String conditionValue, Condition condition, List<Long> fenceIds) {
+            this.id = id;
+            this.kind = kind;
+            this.name = name;
+            this.severity = severity;
+            this.conditionType = conditionType;
+            this.conditionValue = conditionValue;
+            this.condition = condition;
+            this.fenceIds = fenceIds;
+        }
+    }
+
+    /**
+     * 数值条件：大于、小于、等于、范围（闭区间，条件值为 "下限,上限"）
+     */
+    private static final class Condition {
+
+        private static final int GREATER = 1;
+        private static final int LESS = 2;
+        private static final int EQUAL = 3;
+        private static final int RANGE = 4;
+
+        final int operator;
+        final double low;
+        final double high;
+
+        Condition(int operator, double low, double high) {
+            this.operator = operator;
+            this.low = low;
+            this.high = high;
+        }
+
+        static Condition parse(String conditionType, String value) {
+            String type = conditionType != null ? conditionType.trim() : "";
+            try {
+                switch (type) {
+                    case "大于":
+                    case ">":
+                        return new Condition(GREATER, Double.parseDouble(value), 0);
+                    case "小于":
+                    case "<":
+                        return new Condition(LESS, Double.parseDouble(value), 0);
+                    case "等于":
+                    case "=":
+                        return new Condition(EQUAL, Double.parseDouble(value), 0);
+                    case "范围":
+                        String[] bounds = value.split(",");
+                        if (bounds.length != 2) {
+                            throw new IllegalArgumentException("范围条件的条件值应为 \"下限,上限\"");
+                        }
+                        double low = Double.parseDouble(bounds[0].trim());
+                        double high = Double.parseDouble(bounds[1].trim());
+                        return new Condition(RANGE, Math.min(low, high), Math.max(low, high));
+                    default:
+                        throw new IllegalArgumentException("不支持的条件类型: " + conditionType);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("条件值不是有效的数字: " + value);
+            }
+        }
+
+        /**
+         * 已告警后数值是否已越过回差恢复
+         */
+        boolean recovered(double value, double ratio) {
+            double lowMargin = Math.abs(low) * ratio;
+            switch (operator) {
+                case GREATER:
+                    return value <= low - lowMargin;
+                case LESS:
+                    return value >= low + lowMargin;
+                case EQUAL:
+                    return value != low;
+                case RANGE:
+                default:
+                    return value < low - lowMargin || value > high + Math.abs(high) * ratio;
+            }
+        }
+
+        /**
+         * 作为静默阈值使用时的毫秒数，条件不是下限形式时返回 0
+         */
+        long silenceThreshold() {
+            if (operator == GREATER) {
+                return (long) (low * 1000) + 1;
+            }
+            return operator == RANGE || operator == EQUAL ? (long) (low * 1000) : 0;
+        }
+
+        boolean test(double value) {
+            switch (operator) {
+                case GREATER:
+                    return value > low;
+                case LESS:
+                    return value < low;
+                case EQUAL:
+                    return value == low;
+                case RANGE:
+                default:
+                    return value >= low && value <= high;
+            }
+        }
+    }
+
+    /**
+     * 单辆车的检测状态
+     */
+    private static final class VehicleState {
+
+        long lastSeen;
+        int version;
+        // 当前处于告警状态的规则ID
+        final Set<Long> firing = new HashSet<>(4);
+
+        // 超速滑动窗口
+        final long[] speedTimes = new long[SPEED_WINDOW_CAPACITY];
+        final double[] speeds = new double[SPEED_WINDOW_CAPACITY];
+        int speedHead;
+        int speedCount;
+        double speedSum;
+
+        // 静止起点
+        boolean anchored;
+        double anchorLongitude;
+        double anchorLatitude;
+        long stationarySince;
+
+        /**
+         * 加入定位点并返回窗口内的平均速度
+         */
+        double meanSpeed(LocationFix fix, long windowMillis) {
+            long oldest = fix.getTimestamp() - windowMillis;
+            while (speedCount > 0 && (speedCount == SPEED_WINDOW_CAPACITY || speedTimes[speedHead] < oldest)) {
+                speedSum -= speeds[speedHead];
+                speedHead = (speedHead + 1) % SPEED_WINDOW_CAPACITY;
+                speedCount--;
+            }
+            int tail = (speedHead + speedCount) % SPEED_WINDOW_CAPACITY;
+            speedTimes[tail] = fix.getTimestamp();
+            speeds[tail] = fix.getSpeed();
+            speedSum += fix.getSpeed();
+            speedCount++;
+            return speedSum / speedCount;
+        }
+
+        /**
+         * 更新静止起点并返回已静止的时间(秒)
+         */
+        double stationarySeconds(LocationFix fix, TrackingProperties.AlertRules config) {
+            if (!anchored || fix.getSpeed() > config.getStationarySpeedKmh()
+                    || GeoUtils.distanceMeters(anchorLongitude, anchorLatitude,
+                    fix.getLongitude(), fix.getLatitude()) > config.getStationaryRadiusMeters()) {
+                anchored = true;
+                anchorLongitude = fix.getLongitude();
+                anchorLatitude = fix.getLatitude();
+                stationarySince = fix.getTimestamp();
+            }
+            return (fix.getTimestamp() - stationarySince) / 1000.0;
+        }
+    }
+}
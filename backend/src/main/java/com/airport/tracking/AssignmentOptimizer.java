@@ -0,0 +1,273 @@
+package com.airport.tracking;
+
+import com.airport.config.DispatchProperties;
+import com.airport.dto.AssignmentPlanDTO;
+import com.airport.dto.VehicleLiveDTO;
+import com.airport.entity.DispatchTask;
+import com.airport.service.DispatchTaskService;
+import com.airport.utils.GeoUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待分配任务自动分配
+ * 取待分配任务和有实时位置的空闲车辆，按行驶时间、优先级、车辆类型、油量计算代价矩阵，
+ * 用 {@link AssignmentSolver} 求总代价最小的分配，再逐个通过任务服务分配。
+ * 任务起始位置按 dispatch.locations 中的命名位置解析，未配置的位置不参与自动分配。
+ * <p>
+ * 启用 dispatch.auto-assign 后按固定间隔执行，也可以通过接口预演或手动执行一轮。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class AssignmentOptimizer {
+
+    // 任务优先级:1-低,2-中,3-高,4-紧急
+    private static final int MAX_PRIORITY = 4;
+
+    private final PendingTaskQueue pendingTaskQueue;
+    private final DispatchTaskService taskService;
+    private final LiveFleetState liveFleetState;
+    private final VehicleAvailability vehicleAvailability;
+    private final VehicleWatchdog vehicleWatchdog;
+    private final DispatchProperties dispatchProperties;
+
+    private final Timer solveTimer;
+    private final Counter assignedCounter;
+    private final Counter failedCounter;
+
+    private ScheduledExecutorService ticker;
+
+    public AssignmentOptimizer(PendingTaskQueue pendingTaskQueue,
+                               DispatchTaskService taskService,
+                               LiveFleetState liveFleetState,
+                               VehicleAvailability vehicleAvailability,
+                               VehicleWatchdog vehicleWatchdog,
+                               DispatchProperties dispatchProperties,
+                               MeterRegistry meterRegistry) {
+        this.pendingTaskQueue = pendingTaskQueue;
+        this.taskService = taskService;
+        this.liveFleetState = liveFleetState;
+        this.vehicleAvailability = vehicleAvailability;
+        this.vehicleWatchdog = vehicleWatchdog;
+        this.dispatchProperties = dispatchProperties;
+
+        this.solveTimer = Timer.builder("dispatch.assignment.solve")
+                .description("自动分配计算方案耗时")
+                .register(meterRegistry);
+        this.assignedCounter = Counter.builder("dispatch.assignment.assigned")
+                .description("自动分配成功的任务数量")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("dispatch.assignment.failed")
+                .description("自动分配时任务或车辆状态已变化而失败的数量")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Boolean.TRUE.equals(dispatchProperties.getAutoAssign())) {
+            return;
+        }
+        long interval = Math.max(1, dispatchProperties.getAssignment().getIntervalSeconds());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auto-assign");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.SECONDS);
+        log.info("自动分配已启动，间隔: {}秒", interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * 执行一轮自动分配
+     *
+     * @param dryRun 为 true 时只计算方案，不分配
+     */
+    public synchronized AssignmentPlanDTO run(boolean dryRun) {
+        DispatchProperties.Assignment config = dispatchProperties.getAssignment();
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(config.getLookaheadMinutes());
+        List<DispatchTask> tasks = new ArrayList<>();
+        for (DispatchTask task : pendingTaskQueue.all()) {
+            if (tasks.size() >= config.getMaxTasks()) {
+                break;
+            }
+            if (task.getStartTime() == null || !task.getStartTime().isAfter(deadline)) {
+                tasks.add(task);
+            }
+        }
+
+        AssignmentPlanDTO plan = plan(tasks, idleVehicles());
+        plan.setDryRun(dryRun);
+        if (dryRun) {
+            return plan;
+        }
+
+        int applied = 0;
+        for (AssignmentPlanDTO.Assignment assignment : plan.getAssignments()) {
+            try {
+                taskService.assignTask(assignment.getTaskId(), assignment.getVehicleId(), null);
+                assignment.setApplied(true);
+                applied++;
+            } catch (RuntimeException e) {
+                // 计算方案期间任务或车辆状态已变化，留到下一轮
+                log.warn("自动分配任务 {} 给车辆 {} 失败: {}", assignment.getTaskNo(),
+                        assignment.getVehicleNo(), e.getMessage());
+                plan.getUnassignedTaskIds().add(assignment.getTaskId());
+            }
+        }
+        plan.setAppliedCount(applied);
+        assignedCounter.increment(applied);
+        failedCounter.increment(plan.getAssignments().size() - applied);
+        if (applied > 0) {
+            log.info("自动分配完成，任务: {}，空闲车辆: {}，分配: {}，耗时: {}ms", plan.getCandidateTasks(),
+                    plan.getCandidateVehicles(), applied, plan.getSolveMillis());
+        }
+        return plan;
+    }
+
+    /**
+     * 计算分配方案，不访问数据库
+     *
+     * @param tasks    待分配任务，按优先级从高到低排列
+     * @param vehicles 空闲车辆
+     */
+    public AssignmentPlanDTO plan(List<DispatchTask> tasks, List<VehicleLiveDTO> vehicles) {
+        long begin = System.nanoTime();
+        DispatchProperties.Assignment config = dispatchProperties.getAssignment();
+        AssignmentPlanDTO plan = new AssignmentPlanDTO();
+        plan.setCandidateVehicles(vehicles.size());
+
+        // 只有起始位置已配置坐标的任务参与计算
+        List<DispatchTask> located = new ArrayList<>(tasks.size());
+        List<DispatchProperties.NamedLocation> origins = new ArrayList<>(tasks.size());
+        for (DispatchTask task : tasks) {
+            DispatchProperties.NamedLocation origin = task.getStartLocation() != null
+                    ? dispatchProperties.getLocations().get(task.getStartLocation().trim()) : null;
+            if (origin == null || origin.getLongitude() == null || origin.getLatitude() == null) {
+                plan.getUnassignedTaskIds().add(task.getId());
+                continue;
+            }
+            located.add(task);
+            origins.add(origin);
+        }
+        plan.setCandidateTasks(located.size());
+
+        int rows = located.size();
+        int cols = vehicles.size();
+        double metersPerSecond = Math.max(config.getAverageSpeedKmh(), 1.0) / 3.6;
+        double maxMeters = config.getMaxDistanceMeters() > 0 ? config.getMaxDistanceMeters() : Double.POSITIVE_INFINITY;
+
+        // 车辆相关的代价与任务无关，先按列计算
+        double[] fuelCost = new double[cols];
+        boolean[] fuelTooLow = new boolean[cols];
+        for (int j = 0; j < cols; j++) {
+            double fuel = liveFleetState.getFuelPercent(vehicles.get(j).getVehicleId());
+            if (!Double.isNaN(fuel)) {
+                fuelTooLow[j] = fuel < config.getMinFuelPercent();
+                fuelCost[j] = config.getFuelWeightSeconds() * (1.0 - Math.min(fuel, 100.0) / 100.0);
+            }
+        }
+
+        double[][] distances = new double[rows][cols];
+        double[][] cost = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            DispatchTask task = located.get(i);
+            DispatchProperties.NamedLocation origin = origins.get(i);
+            int priority = task.getPriority() != null ? task.getPriority() : 2;
+            double priorityCost = config.getPriorityWeightSeconds() * Math.max(0, MAX_PRIORITY - priority);
+            List<Long> suitableTypes = config.getTaskVehicleTypes().get(task.getTaskType());
+            for (int j = 0; j < cols; j++) {
+                VehicleLiveDTO vehicle = vehicles.get(j);
+                double meters = GeoUtils.distanceMeters(vehicle.getLongitude(), vehicle.getLatitude(),
+                        origin.getLongitude(), origin.getLatitude());
+                distances[i][j] = meters;
+                if (meters > maxMeters || fuelTooLow[j]) {
+                    cost[i][j] = AssignmentSolver.INFEASIBLE;
+                    continue;
+                }
+                double value = meters / metersPerSecond + priorityCost + fuelCost[j];
+                if (suitableTypes != null && !suitableTypes.isEmpty()
+                        && !suitableTypes.contains(vehicle.getVehicleTypeId())) {
+                    value += config.getTypeMismatchSeconds();
+                }
+                cost[i][j] = value;
+            }
+        }
+
+        int[] match = AssignmentSolver.solve(cost);
+        double totalCost = 0;
+        for (int i = 0; i < rows; i++) {
+            DispatchTask task = located.get(i);
+            int j = match[i];
+            if (j < 0) {
+                plan.getUnassignedTaskIds().add(task.getId());
+                continue;
+            }
+            VehicleLiveDTO vehicle = vehicles.get(j);
+            AssignmentPlanDTO.Assignment assignment = new AssignmentPlanDTO.Assignment();
+            assignment.setTaskId(task.getId());
+            assignment.setTaskNo(task.getTaskNo());
+            assignment.setVehicleId(vehicle.getVehicleId());
+            assignment.setVehicleNo(vehicle.getVehicleNo());
+            assignment.setDistanceMeters(Math.round(distances[i][j] * 10) / 10.0);
+            assignment.setEtaSeconds(Math.round(distances[i][j] / metersPerSecond * 10) / 10.0);
+            assignment.setCost(Math.round(cost[i][j] * 10) / 10.0);
+            plan.getAssignments().add(assignment);
+            totalCost += cost[i][j];
+        }
+
+        long elapsed = System.nanoTime() - begin;
+        solveTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        plan.setTotalCost(Math.round(totalCost * 10) / 10.0);
+        plan.setSolveMillis(Math.round(elapsed / 10_000.0) / 100.0);
+        return plan;
+    }
+
+    /**
+     * 状态正常、没有占用任务、在线且有实时位置的车辆
+     */
+    private List<VehicleLiveDTO> idleVehicles() {
+        List<VehicleLiveDTO> result = new ArrayList<>();
+        for (VehicleLiveDTO vehicle : liveFleetState.snapshotAll()) {
+            long vehicleId = vehicle.getVehicleId();
+            if (vehicle.getLongitude() == null || vehicle.getLatitude() == null
+                    || !vehicleAvailability.isAvailable(vehicleId)) {
+                continue;
+            }
+            if (vehicleWatchdog.isEnabled() && !vehicleWatchdog.isOnline(vehicleId)) {
+                continue;
+            }
+            result.add(vehicle);
+        }
+        return result;
+    }
+
+    private void tick() {
+        try {
+            run(false);
+        } catch (Exception e) {
+            log.error("自动分配失败", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.airport.tracking;
+
+import java.util.Arrays;
+
+/**
+ * 指派问题求解（匈牙利算法，带势能的最短增广路实现）
+ * 行数为 n、列数为 m 时复杂度 O(min(n,m)² · max(n,m))，行列数不相等时较少的一方全部匹配。
+ * 不可行的组合用不小于 {@link #INFEASIBLE} 的代价表示，求解后这些组合不会出现在结果中。
+ *
+ * @author Corkedmzx
+ */
+public final class AssignmentSolver {
+
+    /**
+     * 不可行组合的代价
+     */
+    public static final double INFEASIBLE = 1e9;
+
+    private AssignmentSolver() {
+    }
+
+    /**
+     * 求总代价最小的指派
+     *
+     * @param cost 代价矩阵，cost[i][j] 为第 i 行指派给第 j 列的代价，每行长度相同
+     * @return 每行指派的列下标，未指派为 -1
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int cols = rows > 0 ? cost[0].length : 0;
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (rows == 0 || cols == 0) {
+            return result;
+        }
+        if (rows <= cols) {
+            int[] match = solveRowsNotMore(cost, rows, cols, false);
+            for (int j = 0; j < cols; j++) {
+                if (match[j] >= 0 && cost[match[j]][j] < INFEASIBLE) {
+                    result[match[j]] = j;
+                }
+            }
+        } else {
+            // 行多于列时按转置矩阵求解，不复制矩阵
+            int[] match = solveRowsNotMore(cost, cols, rows, true);
+            for (int i = 0; i < rows; i++) {
+                if (match[i] >= 0 && cost[i][match[i]] < INFEASIBLE) {
+                    result[i] = match[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * n ≤ m 时的求解，下标从 1 开始，第 0 列为虚拟列
+     *
+     * @return 每列匹配的行下标（从 0 开始），未匹配为 -1
+     */
+    private static int[] solveRowsNotMore(double[][] cost, int n, int m, boolean transposed) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                double ui0 = u[i0];
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double c = transposed ? cost[j - 1][i0 - 1] : cost[i0 - 1][j - 1];
+                    double cur = c - ui0 - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] match = new int[m];
+        for (int j = 1; j <= m; j++) {
+            match[j - 1] = p[j] - 1;
+        }
+        return match;
+    }
+}
@@ -0,0 +1,24 @@
+package com.airport.tracking;
+
+/**
+ * 写入队列满时的处理策略
+ *
+ * @author Corkedmzx
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * 阻塞调用线程，超过等待时间后丢弃新定位点
+     */
+    BLOCK,
+
+    /**
+     * 直接丢弃新定位点
+     */
+    DROP_NEWEST,
+
+    /**
+     * 丢弃队列中最早的定位点，为新定位点腾出空间
+     */
+    DROP_OLDEST
+}
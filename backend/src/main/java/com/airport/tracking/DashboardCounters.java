@@ -0,0 +1,310 @@
+package com.airport.tracking;
+
+import com.airport.entity.DispatchTask;
+import com.airport.repository.AlertRepository;
+import com.airport.repository.DispatchTaskRepository;
+import com.airport.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 仪表盘实时计数
+ * 启动时从数据库加载各状态任务数、各状态告警数和最近几天的每日任务数，
+ * 之后由任务服务、告警处理在变化提交后增量维护。仪表盘、监控页的查询只读内存计数，不访问数据库。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class DashboardCounters {
+
+    // 最近几天的每日任务数，用于仪表盘趋势
+    private static final int DAILY_HISTORY = 7;
+    // 任务状态 1-6
+    private static final int TASK_STATUS_COUNT = 7;
+
+    private static final String[] ALERT_STATUSES = {"unprocessed", "processing", "resolved"};
+
+    private final DispatchTaskRepository taskRepository;
+    private final AlertRepository alertRepository;
+
+    // 任务状态 -> 任务数量
+    private final AtomicLongArray taskCounts = new AtomicLongArray(TASK_STATUS_COUNT);
+    // 告警状态(ALERT_STATUSES 下标) -> 告警数量
+    private final AtomicLongArray alertCounts = new AtomicLongArray(ALERT_STATUSES.length);
+
+    // 以下每日计数下标 0 为今天
+    private final long[] dailyCreated = new long[DAILY_HISTORY];
+    private final long[] dailyCompleted = new long[DAILY_HISTORY];
+    private final long[] dailyOnTime = new long[DAILY_HISTORY];
+    // 每日任务分配响应时间(从创建到分配)的总和与次数
+    private final long[] dailyResponseMillis = new long[DAILY_HISTORY];
+    private final long[] dailyResponses = new long[DAILY_HISTORY];
+    private LocalDate today = LocalDate.now();
+
+    public DashboardCounters(DispatchTaskRepository taskRepository, AlertRepository alertRepository) {
+        this.taskRepository = taskRepository;
+        this.alertRepository = alertRepository;
+    }
+
+    /**
+     * 启动时加载计数，分配响应时间只统计服务启动后的分配
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Object[] row : taskRepository.countTasksByStatus()) {
+            Integer status = (Integer) row[0];
+            if (status != null && status > 0 && status < TASK_STATUS_COUNT) {
+                taskCounts.set(status, (Long) row[1]);
+            }
+        }
+        for (Object[] row : alertRepository.countByStatus()) {
+            int index = alertIndex((String) row[0]);
+            if (index >= 0) {
+                alertCounts.set(index, (Long) row[1]);
+            }
+        }
+
+        LocalDateTime since = LocalDate.now().minusDays(DAILY_HISTORY - 1).atStartOfDay();
+        List<Object[]> created = taskRepository.countDailyCreated(since);
+        List<Object[]> completed = taskRepository.countDailyCompleted(since);
+        synchronized (this) {
+            roll();
+            for (Object[] row : created) {
+                int day = dayIndex((LocalDate) row[0]);
+                if (day >= 0) {
+                    dailyCreated[day] = (Long) row[1];
+                }
+            }
+            for (Object[] row : completed) {
+                int day = dayIndex((LocalDate) row[0]);
+                if (day >= 0) {
+                    dailyCompleted[day] = (Long) row[1];
+                    dailyOnTime[day] = row[2] != null ? ((Number) row[2]).longValue() : 0;
+                }
+            }
+        }
+        log.info("仪表盘计数已加载，任务: {}，告警: {}", totalTasks(), totalAlerts());
+    }
+
+    /**
+     * 任务新建或状态变化，在事务提交后生效
+     *
+     * @param previousStatus 变化前的状态，新建任务为 null
+     * @param task           保存后的任务
+     */
+    public void taskChanged(Integer previousStatus, DispatchTask task) {
+        if (task == null || task.getStatus() == null) {
+            return;
+        }
+        int status = task.getStatus();
+        boolean completedOnTime = task.getEndTime() == null || task.getActualEndTime() == null
+                || !task.getActualEndTime().isAfter(task.getEndTime());
+        LocalDateTime createTime = task.getCreateTime();
+        TransactionUtils.afterCommit(() -> {
+            if (previousStatus == null) {
+                addTask(status, 1);
+                addDaily(dailyCreated, 1);
+            } else if (previousStatus != status) {
+                addTask(previousStatus, -1);
+                addTask(status, 1);
+            }
+            if (status == 4 && (previousStatus == null || previousStatus != 4)) {
+                addCompleted(completedOnTime);
+            }
+            if (status == 2 && previousStatus != null && previousStatus == 1 && createTime != null) {
+                addResponse(Math.max(0, Duration.between(createTime, LocalDateTime.now()).toMillis()));
+            }
+        });
+    }
+
+    /**
+     * 任务已删除，在事务提交后生效
+     */
+    public void taskRemoved(Integer previousStatus) {
+        if (previousStatus != null) {
+            TransactionUtils.afterCommit(() -> addTask(previousStatus, -1));
+        }
+    }
+
+    /**
+     * 新建告警，在事务提交后生效
+     */
+    public void alertCreated(String status) {
+        int index = alertIndex(status);
+        if (index >= 0) {
+            TransactionUtils.afterCommit(() -> alertCounts.incrementAndGet(index));
+        }
+    }
+
+    /**
+     * 告警处理状态变化，在事务提交后生效；调用方须保证告警确实从 previousStatus 变为 status（条件更新命中）
+     */
+    public void alertStatusChanged(String previousStatus, String status) {
+        if (previousStatus != null && previousStatus.equals(status)) {
+            return;
+        }
+        int previous = alertIndex(previousStatus);
+        int current = alertIndex(status);
+        TransactionUtils.afterCommit(() -> {
+            if (previous >= 0) {
+                alertCounts.decrementAndGet(previous);
+            }
+            if (current >= 0) {
+                alertCounts.incrementAndGet(current);
+            }
+        });
+    }
+
+    /**
+     * 指定状态的任务数量
+     */
+    public long countTasks(int status) {
+        return status > 0 && status < TASK_STATUS_COUNT ? taskCounts.get(status) : 0;
+    }
+
+    /**
+     * 任务总数
+     */
+    public long totalTasks() {
+        long total = 0;
+        for (int i = 1; i < TASK_STATUS_COUNT; i++) {
+            total += taskCounts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 指定处理状态的告警数量
+     */
+    public long countAlerts(String status) {
+        int index = alertIndex(status);
+        return index >= 0 ? alertCounts.get(index) : 0;
+    }
+
+    /**
+     * 告警总数
+     */
+    public long totalAlerts() {
+        long total = 0;
+        for (int i = 0; i < ALERT_STATUSES.length; i++) {
+            total += alertCounts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 最近 7 天每日新建的任务数，按日期从早到晚排列
+     */
+    public synchronized long[] dailyCreated() {
+        roll();
+        long[] result = new long[DAILY_HISTORY];
+        for (int i = 0; i < DAILY_HISTORY; i++) {
+            result[i] = dailyCreated[DAILY_HISTORY - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * 指定天数前新建的任务数，0 为今天
+     */
+    public synchronized long createdOn(int daysAgo) {
+        roll();
+        return daysAgo >= 0 && daysAgo < DAILY_HISTORY ? dailyCreated[daysAgo] : 0;
+    }
+
+    /**
+     * 指定天数前完成的任务数，0 为今天
+     */
+    public synchronized long completedOn(int daysAgo) {
+        roll();
+        return daysAgo >= 0 && daysAgo < DAILY_HISTORY ? dailyCompleted[daysAgo] : 0;
+    }
+
+    /**
+     * 今日完成的任务中按预计结束时间完成的比例，今日没有完成的任务时返回 0
+     */
+    public synchronized double todayOnTimeRate() {
+        roll();
+        return dailyCompleted[0] > 0 ? (double) dailyOnTime[0] / dailyCompleted[0] : 0.0;
+    }
+
+    /**
+     * 今日任务从创建到分配的平均时间(分钟)，今日没有分配时返回 0
+     */
+    public synchronized double todayAvgResponseMinutes() {
+        roll();
+        return dailyResponses[0] > 0 ? dailyResponseMillis[0] / 60000.0 / dailyResponses[0] : 0.0;
+    }
+
+    private void addTask(int status, long delta) {
+        if (status > 0 && status < TASK_STATUS_COUNT) {
+            taskCounts.addAndGet(status, delta);
+        }
+    }
+
+    private synchronized void addDaily(long[] daily, long delta) {
+        roll();
+        daily[0] += delta;
+    }
+
+    private synchronized void addCompleted(boolean onTime) {
+        roll();
+        dailyCompleted[0]++;
+        if (onTime) {
+            dailyOnTime[0]++;
+        }
+    }
+
+    private synchronized void addResponse(long millis) {
+        roll();
+        dailyResponseMillis[0] += millis;
+        dailyResponses[0]++;
+    }
+
+    /**
+     * 日期变化时移动每日计数
+     */
+    private void roll() {
+        LocalDate now = LocalDate.now();
+        if (now.equals(today)) {
+            return;
+        }
+        int days = (int) Math.min(DAILY_HISTORY, ChronoUnit.DAYS.between(today, now));
+        if (days > 0) {
+            for (long[] daily : new long[][]{dailyCreated, dailyCompleted, dailyOnTime, dailyResponseMillis, dailyResponses}) {
+                System.arraycopy(daily, 0, daily, days, DAILY_HISTORY - days);
+                for (int i = 0; i < days; i++) {
+                    daily[i] = 0;
+                }
+            }
+        }
+        today = now;
+    }
+
+    private int dayIndex(LocalDate date) {
+        if (date == null) {
+            return -1;
+        }
+        long days = ChronoUnit.DAYS.between(date, today);
+        return days >= 0 && days < DAILY_HISTORY ? (int) days : -1;
+    }
+
+    private static int alertIndex(String status) {
+        for (int i = 0; i < ALERT_STATUSES.length; i++) {
+            if (ALERT_STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.entity.Vehicle;
+import com.airport.repository.VehicleRepository;
+import com.airport.utils.TransactionUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 设备ID到车辆ID的解析缓存
+ * 启动时预热全部设备绑定关系；未知设备会在一段时间内被缓存为"不存在"，
+ * 避免配置错误的定位终端持续查询数据库。车辆增删改时由车辆服务主动失效，失效在事务提交后生效；
+ * 失效前已开始的数据库查询可能读到旧数据，其结果不写入缓存。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class DeviceVehicleCache {
+
+    private final VehicleRepository vehicleRepository;
+    private final TrackingProperties.DeviceCache config;
+
+    // 设备ID -> 车辆ID
+    private final Map<String, Long> known = new ConcurrentHashMap<>();
+    // 设备ID -> 过期时间(纳秒)
+    private final Map<String, Long> unknown = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // 每次失效加一，查询前后不一致说明查询期间发生过失效
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DeviceVehicleCache(VehicleRepository vehicleRepository,
+                              TrackingProperties trackingProperties,
+                              MeterRegistry meterRegistry) {
+        this.vehicleRepository = vehicleRepository;
+        this.config = trackingProperties.getDeviceCache();
+
+        FunctionCounter.builder("vehicle.device.cache.hits", hits, LongAdder::sum)
+                .description("设备解析缓存命中次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("vehicle.device.cache.negative.hits", negativeHits, LongAdder::sum)
+                .description("未知设备缓存命中次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("vehicle.device.cache.misses", misses, LongAdder::sum)
+                .description("设备解析缓存未命中次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("vehicle.device.cache.evictions", evictions, LongAdder::sum)
+                .description("设备解析缓存淘汰次数")
+                .register(meterRegistry);
+        Gauge.builder("vehicle.device.cache.size", known, Map::size)
+                .description("已缓存的设备数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动时加载全部设备绑定关系
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Object[]> bindings = vehicleRepository.findDeviceBindings();
+        for (Object[] binding : bindings) {
+            putKnown((String) binding[0], (Long) binding[1]);
+        }
+        log.info("设备解析缓存已预热 {} 个设备", known.size());
+    }
+
+    /**
+     * 根据设备ID解析车辆ID
+     *
+     * @param deviceId 设备ID
+     * @return 车辆ID，设备未绑定车辆时返回 null
+     */
+    public Long resolve(String deviceId) {
+        if (deviceId == null) {
+            return null;
+        }
+        Long vehicleId = known.get(deviceId);
+        if (vehicleId != null) {
+            hits.increment();
+            return vehicleId;
+        }
+        Long expiresAt = unknown.get(deviceId);
+        if (expiresAt != null) {
+            if (expiresAt - System.nanoTime() > 0) {
+                negativeHits.increment();
+                return null;
+            }
+            unknown.remove(deviceId, expiresAt);
+        }
+
+        misses.increment();
+        long generation = invalidations.get();
+        Optional<Vehicle> vehicle = vehicleRepository.findByGpsDeviceId(deviceId);
+        Long resolved = vehicle.map(Vehicle::getId).orElse(null);
+        if (invalidations.get() != generation) {
+            return resolved;
+        }
+        if (resolved != null) {
+            putKnown(deviceId, resolved);
+        } else {
+            putUnknown(deviceId);
+        }
+        return resolved;
+    }
+
+    /**
+     * 使设备的缓存失效，在事务提交后生效
+     */
+    public void invalidate(String deviceId) {
+        if (deviceId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            invalidations.incrementAndGet();
+            known.remove(deviceId);
+            unknown.remove(deviceId);
+        });
+    }
+
+    private void putKnown(String deviceId, Long vehicleId) {
+        if (known.size() >= config.getMaxSize() && !known.containsKey(deviceId)) {
+            evictAny(known);
+        }
+        known.put(deviceId, vehicleId);
+        unknown.remove(deviceId);
+    }
+
+    private void putUnknown(String deviceId) {
+        if (unknown.size() >= config.getNegativeMaxSize()) {
+            evictExpiredOrAny();
+        }
+        unknown.put(deviceId, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getNegativeTtlMs()));
+    }
+
+    /**
+     * 优先淘汰已过期的未知设备，没有过期项时任意淘汰一个
+     */
+    private void evictExpiredOrAny() {
+        long now = System.nanoTime();
+        boolean removed = false;
+        Iterator<Map.Entry<String, Long>> it = unknown.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() - now <= 0) {
+                it.remove();
+                evictions.increment();
+                removed = true;
+            }
+        }
+        if (!removed) {
+            evictAny(unknown);
+        }
+    }
+
+    private void evictAny(Map<String, Long> map) {
+        Iterator<String> it = map.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
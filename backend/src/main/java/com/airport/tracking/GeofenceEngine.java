@@ -0,0 +1,457 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.entity.Geofence;
+import com.airport.repository.GeofenceRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 电子围栏检测
+ * 启用的围栏按经纬度网格预先编译：完全落在围栏内的网格直接判定为在围栏内，
+ * 只有被围栏边界穿过的网格才需要做点在多边形内的判断，每个定位点的检测只查询其所在网格。
+ * <p>
+ * 位置写入管道按到达顺序把定位点交给 {@link #evaluate(LocationFix)}，与上一次所在的围栏比较后
+ * 产生进入、离开、停留事件，交给 {@link GeofenceEventPublisher} 生成告警和推送大屏。
+ * 每辆车的第一个定位点只记录所在围栏，不产生事件，避免服务重启时重复告警。
+ * 停留事件在车辆后续上报定位点时判断。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class GeofenceEngine {
+
+    private final GeofenceRepository geofenceRepository;
+    private final GeofenceEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TrackingProperties.Geofence config;
+
+    private volatile Snapshot snapshot;
+
+    // 车辆ID -> 所在围栏，仅由位置写入管道线程访问
+    private final Map<Long, VehicleState> states = new HashMap<>();
+    private final List<CompiledFence> matched = new ArrayList<>();
+
+    public GeofenceEngine(GeofenceRepository geofenceRepository,
+                          GeofenceEventPublisher eventPublisher,
+                          ObjectMapper objectMapper,
+                          TrackingProperties trackingProperties) {
+        this.geofenceRepository = geofenceRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.config = trackingProperties.getGeofence();
+        this.snapshot = new Snapshot(config.getCellDegrees());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (config.isEnabled()) {
+            reload();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 重新加载启用的围栏，围栏增删改后调用
+     */
+    public synchronized void reload() {
+        Snapshot next = new Snapshot(config.getCellDegrees());
+        for (Geofence fence : geofenceRepository.findByEnabledTrue()) {
+            try {
+                next.add(compile(fence), config.getMaxCellsPerFence());
+            } catch (Exception e) {
+                log.error("电子围栏编译失败，围栏: {}({})", fence.getFenceName(), fence.getId(), e);
+            }
+        }
+        snapshot = next;
+        log.info("电子围栏已加载: {} 个，索引网格: {}，大围栏: {}",
+                next.fences.size(), next.cells.size(), next.wide.size());
+    }
+
+    /**
+     * 校验并解析多边形顶点
+     *
+     * @return [经度数组, 纬度数组]
+     */
+    public double[][] parsePolygon(String polygon) {
+        double[][] points;
+        try {
+            points = objectMapper.readValue(polygon, double[][].class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("围栏多边形格式错误，应为 [[经度,纬度],...]");
+        }
+        if (points == null || points.length < 3) {
+            throw new IllegalArgumentException("围栏多边形至少需要3个顶点");
+        }
+        double[] xs = new double[points.length];
+        double[] ys = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == null || points[i].length < 2) {
+                throw new IllegalArgumentException("围栏多边形顶点格式错误");
+            }
+            xs[i] = points[i][0];
+            ys[i] = points[i][1];
+            if (Math.abs(xs[i]) > 180 || Math.abs(ys[i]) > 90) {
+                throw new IllegalArgumentException("围栏多边形顶点超出经纬度范围");
+            }
+        }
+        return new double[][]{xs, ys};
+    }
+
+    /**
+     * 查询包含指定位置的围栏ID
+     */
+    public List<Long> fencesAt(double longitude, double latitude) {
+        List<Long> result = new ArrayList<>();
+        snapshot.locate(longitude, latitude, fence -> result.add(fence.id));
+        return result;
+    }
+
+    /**
+     * 位置是否在指定围栏中的任意一个内，指定的围栏均未启用时视为在范围内
+     */
+    public boolean withinAny(double longitude, double latitude, Collection<Long> fenceIds) {
+        Snapshot current = snapshot;
+        boolean loaded = false;
+        for (Long fenceId : fenceIds) {
+            CompiledFence fence = current.fences.get(fenceId);
+            if (fence == null) {
+                continue;
+            }
+            if (fence.contains(longitude, latitude)) {
+                return true;
+            }
+            loaded = true;
+        }
+        return !loaded;
+    }
+
+    /**
+     * 检测一个定位点，仅由位置写入管道线程调用
+     */
+    public void evaluate(LocationFix fix) {
+        Snapshot current = snapshot;
+        double lon = fix.getLongitude();
+        double lat = fix.getLatitude();
+        long now = fix.getTimestamp();
+
+        matched.clear();
+        current.locate(lon, lat, matched::add);
+
+        VehicleState state = states.get(fix.getVehicleId());
+        boolean initial = state == null;
+        if (initial) {
+            state = new VehicleState();
+            states.put(fix.getVehicleId(), state);
+        }
+        long generation = ++state.generation;
+
+        for (CompiledFence fence : matched) {
+            Membership membership = state.inside.get(fence.id);
+            if (membership == null) {
+                membership = new Membership(now);
+                state.inside.put(fence.id, membership);
+                if (!initial) {
+                    emit(GeofenceEvent.Type.ENTER, fence, fix, 0, fence.alertEnter);
+                }
+            } else if (fence.dwellMillis > 0 && !membership.dwellFired
+                    && now - membership.enteredAt >= fence.dwellMillis) {
+                membership.dwellFired = true;
+                emit(GeofenceEvent.Type.DWELL, fence, fix, now - membership.enteredAt, fence.alertDwell);
+            }
+            membership.generation = generation;
+        }
+
+        Iterator<Map.Entry<Long, Membership>> it = state.inside.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Membership> entry = it.next();
+            if (entry.getValue().generation == generation) {
+                continue;
+            }
+            it.remove();
+            // 已删除或停用的围栏不产生离开事件
+            CompiledFence fence = current.fences.get(entry.getKey());
+            if (fence != null) {
+                emit(GeofenceEvent.Type.EXIT, fence, fix, now - entry.getValue().enteredAt, fence.alertExit);
+            }
+        }
+    }
+
+    private void emit(GeofenceEvent.Type type, CompiledFence fence, LocationFix fix, long durationMillis, boolean alert) {
+        GeofenceEvent event = new GeofenceEvent();
+        event.setType(type);
+        event.setVehicleId(fix.getVehicleId());
+        event.setFenceId(fence.id);
+        event.setFenceName(fence.name);
+        event.setZoneType(fence.zoneType);
+        event.setSeverity(fence.severity);
+        event.setAlert(alert);
+        event.setLongitude(fix.getLongitude());
+        event.setLatitude(fix.getLatitude());
+        event.setTimestamp(fix.getTimestamp());
+        event.setDurationSeconds(Math.max(0, durationMillis / 1000));
+        eventPublisher.publish(event);
+    }
+
+    private CompiledFence compile(Geofence fence) {
+        double[][] polygon = parsePolygon(fence.getPolygon());
+        Set<String> alertEvents = new HashSet<>();
+        if (fence.getAlertEvents() != null) {
+            for (String event : fence.getAlertEvents().split(",")) {
+                if (!event.trim().isEmpty()) {
+                    alertEvents.add(event.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        long dwellMillis = fence.getDwellSeconds() != null ? fence.getDwellSeconds() * 1000L : 0L;
+        return new CompiledFence(fence.getId(), fence.getFenceName(), fence.getZoneType(), fence.getSeverity(),
+                polygon[0], polygon[1], dwellMillis,
+                alertEvents.contains("ENTER"), alertEvents.contains("EXIT"), alertEvents.contains("DWELL"));
+    }
+
+    /**
+     * 编译后的全部围栏及网格索引，加载后不再修改
+     */
+    private static final class Snapshot {
+
+        private final double cellDegrees;
+        private final Map<Long, CompiledFence> fences = new HashMap<>();
+        // 网格 -> 与该网格相交的围栏
+        private final Map<Long, CellEntry[]> cells = new HashMap<>();
+        // 覆盖网格过多的围栏，逐个判断
+        private final List<CompiledFence> wide = new ArrayList<>();
+
+        Snapshot(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        void add(CompiledFence fence, int maxCells) {
+            fences.put(fence.id, fence);
+            long minX = cell(fence.minX);
+            long maxX = cell(fence.maxX);
+            long minY = cell(fence.minY);
+            long maxY = cell(fence.maxY);
+            if ((maxX - minX + 1) * (maxY - minY + 1) > maxCells) {
+                wide.add(fence);
+                return;
+            }
+
+            // 被边界穿过的网格需要逐点判断
+            Set<Long> boundary = new HashSet<>();
+            int n = fence.xs.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double x1 = fence.xs[j], y1 = fence.ys[j], x2 = fence.xs[i], y2 = fence.ys[i];
+                for (long x = cell(Math.min(x1, x2)); x <= cell(Math.max(x1, x2)); x++) {
+                    for (long y = cell(Math.min(y1, y2)); y <= cell(Math.max(y1, y2)); y++) {
+                        if (segmentIntersectsCell(x1, y1, x2, y2, x, y)) {
+                            boundary.add(key(x, y));
+                        }
+                    }
+                }
+            }
+            // 其余网格整体在围栏内或围栏外，用网格中心判断
+            for (long x = minX; x <= maxX; x++) {
+                for (long y = minY; y <= maxY; y++) {
+                    long key = key(x, y);
+                    if (boundary.contains(key)) {
+                        append(key, new CellEntry(fence, false));
+                    } else if (fence.contains((x + 0.5) * cellDegrees, (y + 0.5) * cellDegrees)) {
+                        append(key, new CellEntry(fence, true));
+                    }
+                }
+            }
+        }
+
+        void locate(double longitude, double latitude, Consumer<CompiledFence> sink) {
+            if (Double.isNaN(longitude) || Double.isNaN(latitude)) {
+                return;
+            }
+            CellEntry[] entries = cells.get(key(cell(longitude), cell(latitude)));
+            if (entries != null) {
+                for (CellEntry entry : entries) {
+                    if (entry.inside || entry.fence.contains(longitude, latitude)) {
+                        sink.accept(entry.fence);
+                    }
+                }
+            }
+            for (CompiledFence fence : wide) {
+                if (fence.contains(longitude, latitude)) {
+                    sink.accept(fence);
+                }
+            }
+        }
+
+        private void append(long key, CellEntry entry) {
+            CellEntry[] existing = cells.get(key);
+            if (existing == null) {
+                cells.put(key, new CellEntry[]{entry});
+            } else {
+                CellEntry[] grown = new CellEntry[existing.length + 1];
+                System.arraycopy(existing, 0, grown, 0, existing.length);
+                grown[existing.length] = entry;
+                cells.put(key, grown);
+            }
+        }
+
+        /**
+         * 线段与网格矩形是否相交（Liang-Barsky 裁剪）
+         */
+        private boolean segmentIntersectsCell(double x1, double y1, double x2, double y2, long cellX, long cellY) {
+            double left = cellX * cellDegrees;
+            double right = left + cellDegrees;
+            double bottom = cellY * cellDegrees;
+            double top = bottom + cellDegrees;
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {x1 - left, right - x1, y1 - bottom, top - y1};
+            double t0 = 0;
+            double t1 = 1;
+            for (int i = 0; i < 4; i++) {
+                if (p[i] == 0) {
+                    if (q[i] < 0) {
+                        return false;
+                    }
+                } else {
+                    double t = q[i] / p[i];
+                    if (p[i] < 0) {
+                        t0 = Math.max(t0, t);
+                    } else {
+                        t1 = Math.min(t1, t);
+                    }
+                    if (t0 > t1) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private long cell(double degrees) {
+            return (long) Math.floor(degrees / cellDegrees);
+        }
+
+        private static long key(long x, long y) {
+            return (x << 32) ^ (y & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * 网格中的围栏，inside 表示网格整体在围栏内
+     */
+    private static final class CellEntry {
+
+        final CompiledFence fence;
+        final boolean inside;
+
+        CellEntry(CompiledFence fence, boolean inside) {
+            this.fence = fence;
+            this.inside = inside;
+        }
+    }
+
+    /**
+     * 编译后的围栏
+     */
+    private static final class CompiledFence {
+
+        final long id;
+        final String name;
+        final String zoneType;
+        final String severity;
+        final double[] xs;
+        final double[] ys;
+        final double minX;
+        final double maxX;
+        final double minY;
+        final double maxY;
+        final long dwellMillis;
+        final boolean alertEnter;
+        final boolean alertExit;
+        final boolean alertDwell;
+
+        CompiledFence(long id, String name, String zoneType, String severity, double[] xs, double[] ys,
+                      long dwellMillis, boolean alertEnter, boolean alertExit, boolean alertDwell) {
+            this.id = id;
+            this.name = name;
+            this.zoneType = zoneType;
+            this.severity = severity;
+            this.xs = xs;
+            this.ys = ys;
+            this.dwellMillis = dwellMillis;
+            this.alertEnter = alertEnter;
+            this.alertExit = alertExit;
+            this.alertDwell = alertDwell;
+            double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < xs.length; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        /**
+         * 点是否在多边形内（射线法）
+         */
+        boolean contains(double x, double y) {
+            if (x < minX || x > maxX || y < minY || y > maxY) {
+                return false;
+            }
+            boolean inside = false;
+            int n = xs.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                if ((ys[i] > y) != (ys[j] > y)
+                        && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+
+    /**
+     * 车辆当前所在的围栏
+     */
+    private static final class VehicleState {
+
+        final Map<Long, Membership> inside = new HashMap<>(4);
+        long generation;
+    }
+
+    /**
+     * 车辆在某个围栏内的状态
+     */
+    private static final class Membership {
+
+        final long enteredAt;
+        boolean dwellFired;
+        long generation;
+
+        Membership(long enteredAt) {
+            this.enteredAt = enteredAt;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.airport.tracking;
+
+import lombok.Data;
+
+/**
+ * 电子围栏事件
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class GeofenceEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /** 进入围栏 */
+        ENTER,
+        /** 离开围栏 */
+        EXIT,
+        /** 在围栏内停留超过设定时间 */
+        DWELL
+    }
+
+    private Type type;
+
+    private Long vehicleId;
+
+    private Long fenceId;
+
+    private String fenceName;
+
+    private String zoneType;
+
+    private String severity;
+
+    /**
+     * 是否需要生成告警
+     */
+    private boolean alert;
+
+    private double longitude;
+
+    private double latitude;
+
+    /**
+     * 事件发生时间(毫秒)
+     */
+    private long timestamp;
+
+    /**
+     * 已在围栏内停留的时间(秒)，ENTER 事件为 0
+     */
+    private long durationSeconds;
+}
@@ -0,0 +1,160 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.entity.Alert;
+import com.airport.websocket.VehicleLocationWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 电子围栏事件处理
+ * 检测线程只负责入队，由后台线程把事件推送到大屏（GEOFENCE_EVENT），
+ * 并为配置了告警的事件生成告警，交给 {@link AlertDispatcher} 写入和推送
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class GeofenceEventPublisher {
+
+    private final AlertDispatcher alertDispatcher;
+    private final VehicleLocationWebSocketHandler webSocketHandler;
+    private final LiveFleetState liveFleetState;
+    private final BlockingQueue<GeofenceEvent> queue;
+
+    private final Counter eventCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public GeofenceEventPublisher(AlertDispatcher alertDispatcher,
+                                  VehicleLocationWebSocketHandler webSocketHandler,
+                                  LiveFleetState liveFleetState,
+                                  TrackingProperties trackingProperties,
+                                  MeterRegistry meterRegistry) {
+        this.alertDispatcher = alertDispatcher;
+        this.webSocketHandler = webSocketHandler;
+        this.liveFleetState = liveFleetState;
+        this.queue = new ArrayBlockingQueue<>(trackingProperties.getGeofence().getEventQueueCapacity());
+
+        this.eventCounter = Counter.builder("vehicle.geofence.events")
+                .description("产生的电子围栏事件数量")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("vehicle.geofence.dropped")
+                .description("因队列已满被丢弃的电子围栏事件数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "geofence-events");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * 提交事件，队列已满时丢弃
+     */
+    public void publish(GeofenceEvent event) {
+        eventCounter.increment();
+        if (!queue.offer(event)) {
+            droppedCounter.increment();
+            log.warn("电子围栏事件队列已满，丢弃事件: {} 车辆: {} 围栏: {}",
+                    event.getType(), event.getVehicleId(), event.getFenceName());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                handle(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("处理电子围栏事件失败", e);
+            }
+        }
+    }
+
+    private void handle(GeofenceEvent event) {
+        String vehicleNo = liveFleetState.getVehicleNo(event.getVehicleId());
+        if (vehicleNo == null) {
+            vehicleNo = String.valueOf(event.getVehicleId());
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventType", event.getType().name());
+        data.put("vehicleId", event.getVehicleId());
+        data.put("vehicleNo", vehicleNo);
+        data.put("fenceId", event.getFenceId());
+        data.put("fenceName", event.getFenceName());
+        data.put("zoneType", event.getZoneType());
+        data.put("longitude", event.getLongitude());
+        data.put("latitude", event.getLatitude());
+        data.put("durationSeconds", event.getDurationSeconds());
+        data.put("eventTime", event.getTimestamp());
+        webSocketHandler.broadcastGeofenceEvent(data);
+
+        if (!event.isAlert()) {
+            return;
+        }
+        Alert alert = new Alert();
+        alert.setTitle(title(event, vehicleNo));
+        alert.setDescription(String.format("车辆 %s %s围栏「%s」(%s)，位置: %.6f, %.6f，时间: %s",
+                vehicleNo, action(event), event.getFenceName(), event.getZoneType(),
+                event.getLongitude(), event.getLatitude(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getTimestamp()), ZoneId.systemDefault())));
+        alert.setSeverity(event.getSeverity() != null ? event.getSeverity() : "medium");
+        alert.setCategory("geofence");
+        alert.setVehicleId(event.getVehicleId());
+        // 进出事件是瞬时的，同一车辆在边界附近反复进出时合并到同一条告警
+        alertDispatcher.event("geofence:" + event.getFenceId() + ":" + event.getType() + ":" + event.getVehicleId(), alert);
+    }
+
+    private static String title(GeofenceEvent event, String vehicleNo) {
+        switch (event.getType()) {
+            case ENTER:
+                return "车辆" + vehicleNo + "进入" + event.getFenceName();
+            case EXIT:
+                return "车辆" + vehicleNo + "离开" + event.getFenceName();
+            case DWELL:
+            default:
+                return "车辆" + vehicleNo + "在" + event.getFenceName() + "停留超过" + event.getDurationSeconds() + "秒";
+        }
+    }
+
+    private static String action(GeofenceEvent event) {
+        switch (event.getType()) {
+            case ENTER:
+                return "进入";
+            case EXIT:
+                return "离开";
+            case DWELL:
+            default:
+                return "停留" + event.getDurationSeconds() + "秒于";
+        }
+    }
+}
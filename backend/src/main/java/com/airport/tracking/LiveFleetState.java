@@ -0,0 +1,437 @@
+package com.airport.tracking;
+
+import com.airport.dto.VehicleLiveDTO;
+import com.airport.entity.Vehicle;
+import com.airport.repository.VehicleRepository;
+import com.airport.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 实时车队状态
+ * 内存中保存每辆车的最新位置、速度、方向、状态和最后上报时间，是当前位置的权威数据源；
+ * 数据库中的位置只是由写入管道异步刷新的快照。
+ * <p>
+ * 数据按槽位存放在分页的基本类型数组中，每个槽位使用序列锁（seqlock）保护：
+ * 写入方通过CAS将版本号置为奇数后写入、完成后置为偶数；读取方无锁读取，
+ * 版本号前后一致时即为一致快照，否则重试。
+ * <p>
+ * 位置变化时同步维护 {@link VehicleSpatialIndex}。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class LiveFleetState {
+
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MAX_PAGES = 4096;
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleSpatialIndex spatialIndex;
+
+    // 车辆ID -> 槽位
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicReferenceArray<Page> pages = new AtomicReferenceArray<>(MAX_PAGES);
+
+    public LiveFleetState(VehicleRepository vehicleRepository, VehicleSpatialIndex spatialIndex) {
+        this.vehicleRepository = vehicleRepository;
+        this.spatialIndex = spatialIndex;
+    }
+
+    /**
+     * 启动时从数据库加载全部车辆
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Vehicle> vehicles = vehicleRepository.findAll();
+        vehicles.forEach(this::apply);
+        spatialIndex.markReady();
+        log.info("实时车队状态已加载 {} 辆车", vehicles.size());
+    }
+
+    /**
+     * 注册或刷新车辆的静态信息和状态，车辆带有位置时一并写入；在事务中调用时于事务提交后生效
+     */
+    public void register(Vehicle vehicle) {
+        if (vehicle == null || vehicle.getId() == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> apply(vehicle));
+    }
+
+    private void apply(Vehicle vehicle) {
+        int slot = slotOf(vehicle.getId());
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long version = beginWrite(page, idx);
+        boolean located = false;
+        try {
+            page.vehicleIds[idx] = vehicle.getId();
+            page.vehicleNos[idx] = vehicle.getVehicleNo();
+            page.vehicleTypeIds[idx] = vehicle.getVehicleTypeId() != null ? vehicle.getVehicleTypeId() : 0L;
+            page.statuses[idx] = vehicle.getStatus() != null ? vehicle.getStatus() : 1;
+            page.fuels[idx] = vehicle.getCurrentFuel() != null ? vehicle.getCurrentFuel().floatValue() : Float.NaN;
+            page.fuelCapacities[idx] = vehicle.getFuelCapacity() != null ? vehicle.getFuelCapacity().floatValue() : 0f;
+            if (vehicle.getLocationLongitude() != null && vehicle.getLocationLatitude() != null) {
+                long seen = vehicle.getLastUpdateTime() != null
+                        ? Timestamp.valueOf(vehicle.getLastUpdateTime()).getTime()
+                        : 0L;
+                if (seen >= page.lastSeen[idx]) {
+                    page.longitudes[idx] = vehicle.getLocationLongitude().doubleValue();
+                    page.latitudes[idx] = vehicle.getLocationLatitude().doubleValue();
+                    page.addresses[idx] = vehicle.getLocationAddress();
+                    page.lastSeen[idx] = seen;
+                    located = true;
+                }
+            }
+        } finally {
+            endWrite(page, idx, version);
+        }
+        if (located) {
+            spatialIndex.update(vehicle.getId(), vehicle.getLocationLongitude().doubleValue(),
+                    vehicle.getLocationLatitude().doubleValue());
+        }
+    }
+
+    /**
+     * 写入定位点，早于当前位置的定位点会被忽略
+     *
+     * @return 是否更新了当前位置
+     */
+    public boolean update(LocationFix fix) {
+        int slot = slotOf(fix.getVehicleId());
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long version = beginWrite(page, idx);
+        try {
+            if (page.vehicleIds[idx] == 0L) {
+                page.vehicleIds[idx] = fix.getVehicleId();
+                page.statuses[idx] = 1;
+            }
+            if (fix.getTimestamp() < page.lastSeen[idx]) {
+                return false;
+            }
+            page.longitudes[idx] = fix.getLongitude();
+            page.latitudes[idx] = fix.getLatitude();
+            page.speeds[idx] = (float) fix.getSpeed();
+            page.directions[idx] = (float) fix.getDirection();
+            if (fix.getAddress() != null) {
+                page.addresses[idx] = fix.getAddress();
+            }
+            page.lastSeen[idx] = fix.getTimestamp();
+        } finally {
+            endWrite(page, idx, version);
+        }
+        spatialIndex.update(fix.getVehicleId(), fix.getLongitude(), fix.getLatitude());
+        return true;
+    }
+
+    /**
+     * 更新车辆状态
+     */
+    public void updateStatus(long vehicleId, int status) {
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) {
+            return;
+        }
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long version = beginWrite(page, idx);
+        try {
+            page.statuses[idx] = status;
+        } finally {
+            endWrite(page, idx, version);
+        }
+    }
+
+    /**
+     * 扣减估算的油量(L)，与里程累计写入数据库的油量保持一致
+     */
+    public void consumeFuel(long vehicleId, double liters) {
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) {
+            return;
+        }
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long version = beginWrite(page, idx);
+        try {
+            if (!Float.isNaN(page.fuels[idx])) {
+                page.fuels[idx] = (float) Math.max(0.0, page.fuels[idx] - liters);
+            }
+        } finally {
+            endWrite(page, idx, version);
+        }
+    }
+
+    /**
+     * 移除车辆，槽位不再参与查询；在事务中调用时于事务提交后生效，事务回滚时保留车辆
+     */
+    public void remove(long vehicleId) {
+        TransactionUtils.afterCommit(() -> evict(vehicleId));
+    }
+
+    private void evict(long vehicleId) {
+        Integer slot = slots.remove(vehicleId);
+        if (slot == null) {
+            return;
+        }
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        long version = beginWrite(page, idx);
+        try {
+            page.vehicleIds[idx] = 0L;
+        } finally {
+            endWrite(page, idx, version);
+        }
+        spatialIndex.remove(vehicleId);
+    }
+
+    /**
+     * 获取单辆车的实时状态
+     */
+    public VehicleLiveDTO snapshot(long vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        return slot != null ? read(slot) : null;
+    }
+
+    /**
+     * 获取所有车辆的实时状态
+     */
+    public List<VehicleLiveDTO> snapshotAll() {
+        int used = nextSlot.get();
+        List<VehicleLiveDTO> result = new ArrayList<>(slots.size());
+        for (int slot = 0; slot < used; slot++) {
+            VehicleLiveDTO dto = read(slot);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取指定时间之后上报过位置的车辆，按上报时间倒序
+     */
+    public List<VehicleLiveDTO> recentlyUpdated(long sinceMillis) {
+        int used = nextSlot.get();
+        List<VehicleLiveDTO> result = new ArrayList<>();
+        for (int slot = 0; slot < used; slot++) {
+            Page page = pages.get(slot >>> PAGE_SHIFT);
+            if (page == null || page.lastSeen[slot & PAGE_MASK] <= sinceMillis) {
+                continue;
+            }
+            VehicleLiveDTO dto = read(slot);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        result.sort((a, b) -> b.getLastUpdateTime().compareTo(a.getLastUpdateTime()));
+        return result;
+    }
+
+    /**
+     * 统计指定状态的车辆数
+     */
+    public long countByStatus(int status) {
+        int used = nextSlot.get();
+        long count = 0;
+        for (int slot = 0; slot < used; slot++) {
+            Page page = pages.get(slot >>> PAGE_SHIFT);
+            int idx = slot & PAGE_MASK;
+            if (page != null && page.vehicleIds[idx] != 0L && page.statuses[idx] == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 车辆总数
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * 获取车牌号
+     */
+    public String getVehicleNo(long vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        return slot != null ? page(slot).vehicleNos[slot & PAGE_MASK] : null;
+    }
+
+    /**
+     * 车辆类型ID，车辆不存在时返回 0
+     */
+    public long getVehicleTypeId(long vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        return slot != null ? page(slot).vehicleTypeIds[slot & PAGE_MASK] : 0L;
+    }
+
+    /**
+     * 车辆状态，车辆不存在时返回 -1
+     */
+    public int getStatus(long vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        return slot != null ? page(slot).statuses[slot & PAGE_MASK] : -1;
+    }
+
+    /**
+     * 剩余油量百分比，未知油量或油箱容量时返回 NaN
+     */
+    public double getFuelPercent(long vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) {
+            return Double.NaN;
+        }
+        Page page = page(slot);
+        int idx = slot & PAGE_MASK;
+        float capacity = page.fuelCapacities[idx];
+        float fuel = page.fuels[idx];
+        return capacity > 0f ? fuel / capacity * 100.0 : Double.NaN;
+    }
+
+    /**
+     * 用实时位置覆盖实体中的位置快照
+     */
+    public void applyTo(Vehicle vehicle) {
+        if (vehicle == null || vehicle.getId() == null) {
+            return;
+        }
+        VehicleLiveDTO live = snapshot(vehicle.getId());
+        if (live == null || live.getLongitude() == null || live.getLastUpdateTime() == null) {
+            return;
+        }
+        if (vehicle.getLastUpdateTime() == null || live.getLastUpdateTime().isAfter(vehicle.getLastUpdateTime())) {
+            vehicle.setLocationLongitude(BigDecimal.valueOf(live.getLongitude()));
+            vehicle.setLocationLatitude(BigDecimal.valueOf(live.getLatitude()));
+            vehicle.setLocationAddress(live.getAddress());
+            vehicle.setLastUpdateTime(live.getLastUpdateTime());
+        }
+    }
+
+    /**
+     * 一致性读取槽位数据
+     */
+    private VehicleLiveDTO read(int slot) {
+        Page page = pages.get(slot >>> PAGE_SHIFT);
+        if (page == null) {
+            return null;
+        }
+        int idx = slot & PAGE_MASK;
+        while (true) {
+            long version = page.versions.get(idx);
+            if ((version & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long vehicleId = page.vehicleIds[idx];
+            String vehicleNo = page.vehicleNos[idx];
+            long vehicleTypeId = page.vehicleTypeIds[idx];
+            int status = page.statuses[idx];
+            double longitude = page.longitudes[idx];
+            double latitude = page.latitudes[idx];
+            String address = page.addresses[idx];
+            float speed = page.speeds[idx];
+            float direction = page.directions[idx];
+            long lastSeen = page.lastSeen[idx];
+            VarHandle.acquireFence();
+            if (page.versions.get(idx) != version) {
+                continue;
+            }
+            if (vehicleId == 0L) {
+                return null;
+            }
+
+            VehicleLiveDTO dto = new VehicleLiveDTO();
+            dto.setVehicleId(vehicleId);
+            dto.setVehicleNo(vehicleNo);
+            dto.setVehicleTypeId(vehicleTypeId != 0L ? vehicleTypeId : null);
+            dto.setStatus(status);
+            if (lastSeen > 0L) {
+                dto.setLongitude(longitude);
+                dto.setLatitude(latitude);
+                dto.setAddress(address);
+                dto.setSpeed((double) speed);
+                dto.setDirection((double) direction);
+                dto.setLastUpdateTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(lastSeen), ZoneId.systemDefault()));
+            }
+            return dto;
+        }
+    }
+
+    private long beginWrite(Page page, int idx) {
+        while (true) {
+            long version = page.versions.get(idx);
+            if ((version & 1L) == 0 && page.versions.compareAndSet(idx, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void endWrite(Page page, int idx, long version) {
+        page.versions.set(idx, version + 2);
+    }
+
+    private int slotOf(long vehicleId) {
+        return slots.computeIfAbsent(vehicleId, id -> {
+            int slot = nextSlot.getAndIncrement();
+            if ((slot >>> PAGE_SHIFT) >= MAX_PAGES) {
+                throw new IllegalStateException("实时车队状态容量已满");
+            }
+            page(slot);
+            return slot;
+        });
+    }
+
+    private Page page(int slot) {
+        int pageIndex = slot >>> PAGE_SHIFT;
+        Page page = pages.get(pageIndex);
+        if (page == null) {
+            pages.compareAndSet(pageIndex, null, new Page());
+            page = pages.get(pageIndex);
+        }
+        return page;
+    }
+
+    /**
+     * 一页槽位数据
+     */
+    private static final class Page {
+        final AtomicLongArray versions = new AtomicLongArray(PAGE_SIZE);
+        final long[] vehicleIds = new long[PAGE_SIZE];
+        final String[] vehicleNos = new String[PAGE_SIZE];
+        final long[] vehicleTypeIds = new long[PAGE_SIZE];
+        final int[] statuses = new int[PAGE_SIZE];
+        final double[] longitudes = new double[PAGE_SIZE];
+        final double[] latitudes = new double[PAGE_SIZE];
+        final String[] addresses = new String[PAGE_SIZE];
+        final float[] speeds = new float[PAGE_SIZE];
+        final float[] directions = new float[PAGE_SIZE];
+        final float[] fuels = new float[PAGE_SIZE];
+        final float[] fuelCapacities = new float[PAGE_SIZE];
+        final long[] lastSeen = new long[PAGE_SIZE];
+    }
+}
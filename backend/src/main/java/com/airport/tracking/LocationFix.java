@@ -0,0 +1,53 @@
+package com.airport.tracking;
+
+import lombok.Data;
+
+/**
+ * 单个定位点
+ * 传感器上报经解析后在写入管道中流转的位置数据
+ *
+ * @author Corkedmzx
+ */
+@Data
+public class LocationFix {
+
+    /**
+     * 车辆ID
+     */
+    private long vehicleId;
+
+    /**
+     * 经度
+     */
+    private double longitude;
+
+    /**
+     * 纬度
+     */
+    private double latitude;
+
+    /**
+     * 位置地址（可选）
+     */
+    private String address;
+
+    /**
+     * 速度(km/h)
+     */
+    private double speed;
+
+    /**
+     * 方向角(度)
+     */
+    private double direction;
+
+    /**
+     * 定位时间(毫秒时间戳)
+     */
+    private long timestamp;
+
+    /**
+     * 是否为早于当前位置的补传定位点，只追加轨迹历史，不更新车辆位置、里程、围栏和告警
+     */
+    private boolean historyOnly;
+}
@@ -0,0 +1,297 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位置数据写入管道
+ * 传感器线程只负责入队，由后台线程按刷写间隔合并同一车辆的定位点（最后一个定位点生效），
+ * 再通过JDBC批量更新写入 vehicle 表。
+ * 合并前的全部定位点同时交给 {@link TrackHistoryStore} 批量追加到轨迹历史，
+ * 并交给 {@link OdometerTracker} 累计里程、交给 {@link GeofenceEngine} 检测电子围栏、
+ * 交给 {@link AlertRuleEngine} 检测告警规则，并通知 {@link VehicleWatchdog} 车辆在线。
+ * 补传的历史定位点（{@link LocationFix#isHistoryOnly()}）只追加到轨迹历史。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class LocationIngestionPipeline {
+
+    private static final String UPDATE_LOCATION_SQL =
+            "UPDATE vehicle SET location_longitude = ?, location_latitude = ?, location_address = ?, " +
+            "last_update_time = ?, update_time = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrackHistoryStore trackHistoryStore;
+    private final OdometerTracker odometerTracker;
+    private final GeofenceEngine geofenceEngine;
+    private final AlertRuleEngine alertRuleEngine;
+    private final VehicleWatchdog vehicleWatchdog;
+    private final TrackingProperties.Ingestion config;
+    private final BlockingQueue<LocationFix> queue;
+
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+    private final Counter mergedCounter;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter downstreamFailedCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public LocationIngestionPipeline(JdbcTemplate jdbcTemplate,
+                                     TrackHistoryStore trackHistoryStore,
+                                     OdometerTracker odometerTracker,
+                                     GeofenceEngine geofenceEngine,
+                                     AlertRuleEngine alertRuleEngine,
+                                     VehicleWatchdog vehicleWatchdog,
+                                     TrackingProperties trackingProperties,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trackHistoryStore = trackHistoryStore;
+        this.odometerTracker = odometerTracker;
+        this.geofenceEngine = geofenceEngine;
+        this.alertRuleEngine = alertRuleEngine;
+        this.vehicleWatchdog = vehicleWatchdog;
+        this.config = trackingProperties.getIngestion();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+        Gauge.builder("vehicle.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("待写入的定位点数量")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("vehicle.ingestion.flush.latency")
+                .description("单次批量刷写耗时")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("vehicle.ingestion.dropped")
+                .description("因队列已满被丢弃的定位点数量")
+                .register(meterRegistry);
+        this.mergedCounter = Counter.builder("vehicle.ingestion.merged")
+                .description("在刷写窗口内被同一车辆更新定位点覆盖的数量")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("vehicle.ingestion.flushed")
+                .description("已写入数据库的车辆位置行数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("vehicle.ingestion.failed")
+                .description("写入失败的车辆位置行数")
+                .register(meterRegistry);
+        this.downstreamFailedCounter = Counter.builder("vehicle.ingestion.downstream.failed")
+                .description("里程、围栏、在线状态或告警规则处理失败的定位点数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "location-ingestion");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("位置数据写入管道已启动，刷写间隔: {}ms，批量大小: {}，队列容量: {}，背压策略: {}",
+                config.getFlushIntervalMs(), config.getBatchSize(),
+                config.getQueueCapacity(), config.getBackpressurePolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(config.getFlushIntervalMs() * 2 + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("位置数据写入管道已停止，剩余未写入定位点: {}", queue.size());
+    }
+
+    /**
+     * 提交定位点
+     *
+     * @param fix 定位点
+     * @return 是否已入队，false 表示按背压策略被丢弃
+     */
+    public boolean submit(LocationFix fix) {
+        if (fix.isHistoryOnly() && !trackHistoryStore.isEnabled()) {
+            // 未启用轨迹历史时补传定位点没有去处，视为已处理
+            return true;
+        }
+        switch (config.getBackpressurePolicy()) {
+            case DROP_NEWEST:
+                if (!queue.offer(fix)) {
+                    droppedCounter.increment();
+                    return false;
+                }
+                return true;
+            case DROP_OLDEST:
+                while (!queue.offer(fix)) {
+                    if (queue.poll() != null) {
+                        droppedCounter.increment();
+                    }
+                }
+                return true;
+            case BLOCK:
+            default:
+                try {
+                    if (!queue.offer(fix, config.getOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                        droppedCounter.increment();
+                        return false;
+                    }
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                    return false;
+                }
+        }
+    }
+
+    /**
+     * 获取当前队列深度
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * 刷写循环：在一个刷写窗口内合并定位点，窗口到期或待写车辆数/轨迹点数达到批量大小时写库
+     */
+    private void runFlushLoop() {
+        Map<Long, LocationFix> window = new LinkedHashMap<>();
+        List<LocationFix> history = new ArrayList<>();
+        List<LocationFix> drained = new ArrayList<>(config.getBatchSize());
+        boolean recordHistory = trackHistoryStore.isEnabled();
+        boolean recordOdometer = odometerTracker.isEnabled();
+        boolean checkGeofence = geofenceEngine.isEnabled();
+        boolean checkAlertRules = alertRuleEngine.isEnabled();
+        boolean watchOnline = vehicleWatchdog.isEnabled();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        long deadline = System.nanoTime() + intervalNanos;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitNanos = deadline - System.nanoTime();
+                LocationFix fix = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                if (fix != null) {
+                    drained.add(fix);
+                    queue.drainTo(drained, config.getBatchSize());
+                    for (LocationFix next : drained) {
+                        if (next.isHistoryOnly()) {
+                            continue;
+                        }
+                        merge(window, next);
+                        // 下游处理失败只影响当前定位点，不能让刷写线程退出
+                        try {
+                            if (recordOdometer) {
+                                odometerTracker.record(next);
+                            }
+                            if (checkGeofence) {
+                                geofenceEngine.evaluate(next);
+                            }
+                            if (watchOnline) {
+                                vehicleWatchdog.touch(next.getVehicleId());
+                            }
+                            if (checkAlertRules) {
+                                alertRuleEngine.evaluate(next);
+                            }
+                        } catch (Exception e) {
+                            downstreamFailedCounter.increment();
+                            log.error("定位点下游处理失败，车辆: {}", next.getVehicleId(), e);
+                        }
+                    }
+                    if (recordHistory) {
+                        history.addAll(drained);
+                    }
+                    drained.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (window.size() >= config.getBatchSize() || history.size() >= trackHistoryStore.getBatchSize()
+                    || System.nanoTime() - deadline >= 0) {
+                flush(window);
+                appendHistory(history);
+                deadline = System.nanoTime() + intervalNanos;
+            }
+        }
+        flush(window);
+        appendHistory(history);
+    }
+
+    /**
+     * 追加轨迹历史
+     */
+    private void appendHistory(List<LocationFix> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        trackHistoryStore.append(history);
+        history.clear();
+    }
+
+    /**
+     * 合并定位点，同一车辆保留定位时间最新的一个
+     */
+    private void merge(Map<Long, LocationFix> window, LocationFix fix) {
+        LocationFix previous = window.get(fix.getVehicleId());
+        if (previous == null) {
+            window.put(fix.getVehicleId(), fix);
+            return;
+        }
+        mergedCounter.increment();
+        if (fix.getTimestamp() >= previous.getTimestamp()) {
+            window.put(fix.getVehicleId(), fix);
+        }
+    }
+
+    /**
+     * 批量写入当前窗口内的定位点
+     */
+    private void flush(Map<Long, LocationFix> window) {
+        if (window.isEmpty()) {
+            return;
+        }
+        List<LocationFix> rows = new ArrayList<>(window.values());
+        window.clear();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LOCATION_SQL, rows, config.getBatchSize(), (ps, fix) -> {
+                ps.setDouble(1, fix.getLongitude());
+                ps.setDouble(2, fix.getLatitude());
+                ps.setString(3, fix.getAddress());
+                ps.setTimestamp(4, new Timestamp(fix.getTimestamp()));
+                ps.setTimestamp(5, now);
+                ps.setLong(6, fix.getVehicleId());
+            });
+            flushedCounter.increment(rows.size());
+            log.debug("批量写入车辆位置 {} 条", rows.size());
+        } catch (Exception e) {
+            failedCounter.increment(rows.size());
+            log.error("批量写入车辆位置失败，本批 {} 条", rows.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
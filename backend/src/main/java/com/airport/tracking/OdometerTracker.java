@@ -0,0 +1,347 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.utils.GeoUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * 里程与油耗累计
+ * 位置写入管道把每个定位点（合并前、按到达顺序）交给 {@link #record(LocationFix)}，
+ * 按相邻定位点的球面距离增量累计车辆里程，车辆有占用任务时同时累计到该任务。
+ * 低速小位移视为静止漂移，推算速度过高视为跳点，间隔过长的两点之间不计里程。
+ * <p>
+ * 增量先在内存中累计，按固定间隔批量写入 vehicle.mileage、vehicle.current_fuel 和 dispatch_task.distance；
+ * 不足 0.01 公里的部分留到下一次写入。
+ * 全车队的每日里程同时累加到 vehicle_mileage_daily，启动时从该表加载最近 7 天，仪表盘趋势不因重启清零。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class OdometerTracker {
+
+    private static final String UPDATE_VEHICLE_SQL =
+            "UPDATE vehicle SET mileage = COALESCE(mileage, 0) + ?, " +
+            "current_fuel = CASE WHEN current_fuel IS NULL THEN NULL ELSE GREATEST(current_fuel - ?, 0) END " +
+            "WHERE id = ?";
+
+    private static final String UPDATE_TASK_SQL =
+            "UPDATE dispatch_task SET distance = COALESCE(distance, 0) + ? WHERE id = ?";
+
+    private static final String UPSERT_DAILY_SQL =
+            "INSERT INTO vehicle_mileage_daily (stat_date, distance_km) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE distance_km = distance_km + VALUES(distance_km)";
+
+    private static final String SELECT_DAILY_SQL =
+            "SELECT stat_date, distance_km FROM vehicle_mileage_daily WHERE stat_date > ?";
+
+    // 最近几天的每日里程，用于仪表盘趋势
+    private static final int DAILY_HISTORY = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VehicleAvailability vehicleAvailability;
+    private final LiveFleetState liveFleetState;
+    private final TrackingProperties.Odometer config;
+
+    // 车辆ID -> 上一个计入里程的位置，仅由位置写入管道线程访问
+    private final Map<Long, Anchor> anchors = new HashMap<>();
+
+    // 待写入的增量(米)
+    private final Map<Long, Double> pendingVehicleMeters = new ConcurrentHashMap<>();
+    private final Map<Long, Double> pendingTaskMeters = new ConcurrentHashMap<>();
+    // 日期(epoch day) -> 待写入的全车队里程(米)
+    private final Map<Long, Double> pendingDailyMeters = new ConcurrentHashMap<>();
+
+    private final DoubleAdder acceptedMeters = new DoubleAdder();
+    private final DoubleAdder rejectedMeters = new DoubleAdder();
+
+    // 每日里程(米)，下标 0 为今天
+    private final double[] dailyMeters = new double[DAILY_HISTORY];
+    private LocalDate today = LocalDate.now();
+
+    private ScheduledExecutorService flusher;
+
+    public OdometerTracker(JdbcTemplate jdbcTemplate,
+                           VehicleAvailability vehicleAvailability,
+                           LiveFleetState liveFleetState,
+                           TrackingProperties trackingProperties,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.vehicleAvailability = vehicleAvailability;
+        this.liveFleetState = liveFleetState;
+        this.config = trackingProperties.getOdometer();
+
+        FunctionCounter.builder("vehicle.odometer.accepted.meters", acceptedMeters, DoubleAdder::sum)
+                .description("计入里程的距离(米)")
+                .register(meterRegistry);
+        FunctionCounter.builder("vehicle.odometer.rejected.meters", rejectedMeters, DoubleAdder::sum)
+                .description("被判定为漂移或跳点而未计入的距离(米)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // 位置写入管道依赖本组件，此时尚未开始处理定位点
+        loadDailyHistory();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "odometer-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, config.getFlushIntervalMs(),
+                config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("里程累计已启动，写入间隔: {}ms", config.getFlushIntervalMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 处理一个定位点，仅由位置写入管道线程调用
+     */
+    public void record(LocationFix fix) {
+        Anchor anchor = anchors.get(fix.getVehicleId());
+        if (anchor == null) {
+            anchors.put(fix.getVehicleId(), new Anchor(fix));
+            return;
+        }
+        if (fix.getTimestamp() <= anchor.lastSeen) {
+            return;
+        }
+        // 信号中断期间的行驶轨迹未知，不计里程
+        if (fix.getTimestamp() - anchor.lastSeen > config.getMaxGapSeconds() * 1000) {
+            anchor.moveTo(fix);
+            return;
+        }
+        anchor.lastSeen = fix.getTimestamp();
+        long elapsedMillis = fix.getTimestamp() - anchor.timestamp;
+
+        double meters = GeoUtils.distanceMeters(anchor.longitude, anchor.latitude, fix.getLongitude(), fix.getLatitude());
+        // 静止漂移：不移动锚点，真实的缓慢移动会在累计超过最小位移后计入
+        if (meters < config.getMinMoveMeters() && fix.getSpeed() < config.getStationarySpeedKmh()) {
+            return;
+        }
+        double speedKmh = meters / elapsedMillis * 3600.0;
+        if (speedKmh > config.getMaxSpeedKmh()) {
+            rejectedMeters.add(meters);
+            if (++anchor.outliers >= config.getMaxOutliers()) {
+                anchor.moveTo(fix);
+            }
+            return;
+        }
+
+        anchor.moveTo(fix);
+        acceptedMeters.add(meters);
+        pendingVehicleMeters.merge(fix.getVehicleId(), meters, Double::sum);
+        Long taskId = vehicleAvailability.currentTask(fix.getVehicleId());
+        if (taskId != null) {
+            pendingTaskMeters.merge(taskId, meters, Double::sum);
+        }
+        if (config.getFuelLitersPerKm() > 0) {
+            liveFleetState.consumeFuel(fix.getVehicleId(), meters / 1000.0 * config.getFuelLitersPerKm());
+        }
+        addDaily(meters);
+    }
+
+    /**
+     * 任务尚未写入数据库的里程(km)
+     */
+    public double pendingTaskKm(long taskId) {
+        Double meters = pendingTaskMeters.get(taskId);
+        return meters != null ? meters / 1000.0 : 0.0;
+    }
+
+    /**
+     * 今日累计里程(km)
+     */
+    public synchronized double todayKm() {
+        roll();
+        return dailyMeters[0] / 1000.0;
+    }
+
+    /**
+     * 今日按配置油耗估算的用油量(L)
+     */
+    public double todayFuelLiters() {
+        return todayKm() * config.getFuelLitersPerKm();
+    }
+
+    /**
+     * 最近 7 天的每日里程(km)，按日期从早到晚排列，没有记录的日期为 0
+     */
+    public synchronized double[] dailyKm() {
+        roll();
+        double[] result = new double[DAILY_HISTORY];
+        for (int i = 0; i < DAILY_HISTORY; i++) {
+            result[i] = Math.round(dailyMeters[DAILY_HISTORY - 1 - i] / 10.0) / 100.0;
+        }
+        return result;
+    }
+
+    /**
+     * 把累计的增量写入数据库
+     */
+    public void flush() {
+        try {
+            List<Object[]> vehicleRows = new ArrayList<>();
+            for (Long vehicleId : pendingVehicleMeters.keySet()) {
+                double km = take(pendingVehicleMeters, vehicleId);
+                if (km > 0) {
+                    vehicleRows.add(new Object[]{km, km * config.getFuelLitersPerKm(), vehicleId});
+                }
+            }
+            List<Object[]> taskRows = new ArrayList<>();
+            for (Long taskId : pendingTaskMeters.keySet()) {
+                double km = take(pendingTaskMeters, taskId);
+                if (km > 0) {
+                    taskRows.add(new Object[]{km, taskId});
+                }
+            }
+            if (!vehicleRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_VEHICLE_SQL, vehicleRows);
+            }
+            if (!taskRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_TASK_SQL, taskRows);
+            }
+            if (!vehicleRows.isEmpty() || !taskRows.isEmpty()) {
+                log.debug("写入里程增量，车辆: {}，任务: {}", vehicleRows.size(), taskRows.size());
+            }
+        } catch (Exception e) {
+            log.error("写入里程增量失败", e);
+        }
+        flushDaily();
+    }
+
+    /**
+     * 把每日里程增量累加到 vehicle_mileage_daily
+     */
+    private void flushDaily() {
+        try {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long epochDay : pendingDailyMeters.keySet()) {
+                double km = take(pendingDailyMeters, epochDay);
+                if (km > 0) {
+                    rows.add(new Object[]{Date.valueOf(LocalDate.ofEpochDay(epochDay)), km});
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, rows);
+            }
+        } catch (Exception e) {
+            log.error("写入每日里程失败", e);
+        }
+    }
+
+    /**
+     * 从 vehicle_mileage_daily 加载最近 7 天的每日里程
+     */
+    private synchronized void loadDailyHistory() {
+        today = LocalDate.now();
+        try {
+            jdbcTemplate.query(SELECT_DAILY_SQL, rs -> {
+                long days = ChronoUnit.DAYS.between(rs.getDate("stat_date").toLocalDate(), today);
+                if (days >= 0 && days < DAILY_HISTORY) {
+                    dailyMeters[(int) days] = rs.getDouble("distance_km") * 1000.0;
+                }
+            }, Date.valueOf(today.minusDays(DAILY_HISTORY)));
+            log.info("已加载最近 {} 天的每日里程，今日: {} km", DAILY_HISTORY, Math.round(dailyMeters[0] / 10.0) / 100.0);
+        } catch (Exception e) {
+            log.warn("加载每日里程失败，仪表盘趋势从 0 开始累计: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取出整 0.01 公里的增量，余数留到下次
+     */
+    private static double take(Map<Long, Double> pending, Long key) {
+        Double meters = pending.remove(key);
+        if (meters == null) {
+            return 0;
+        }
+        long units = (long) (meters / 10.0);
+        double remainder = meters - units * 10.0;
+        if (remainder > 0) {
+            pending.merge(key, remainder, Double::sum);
+        }
+        return units / 100.0;
+    }
+
+    private synchronized void addDaily(double meters) {
+        roll();
+        dailyMeters[0] += meters;
+        pendingDailyMeters.merge(today.toEpochDay(), meters, Double::sum);
+    }
+
+    /**
+     * 日期变化时移动每日里程
+     */
+    private void roll() {
+        LocalDate now = LocalDate.now();
+        if (now.equals(today)) {
+            return;
+        }
+        long days = Math.min(DAILY_HISTORY, ChronoUnit.DAYS.between(today, now));
+        if (days > 0) {
+            System.arraycopy(dailyMeters, 0, dailyMeters, (int) days, DAILY_HISTORY - (int) days);
+            for (int i = 0; i < days; i++) {
+                dailyMeters[i] = 0;
+            }
+        }
+        today = now;
+    }
+
+    /**
+     * 车辆上一个计入里程的位置
+     */
+    private static final class Anchor {
+
+        double longitude;
+        double latitude;
+        long timestamp;
+        long lastSeen;
+        int outliers;
+
+        Anchor(LocationFix fix) {
+            moveTo(fix);
+        }
+
+        void moveTo(LocationFix fix) {
+            longitude = fix.getLongitude();
+            latitude = fix.getLatitude();
+            timestamp = fix.getTimestamp();
+            lastSeen = fix.getTimestamp();
+            outliers = 0;
+        }
+    }
+}
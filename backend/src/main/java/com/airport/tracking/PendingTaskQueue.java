@@ -0,0 +1,282 @@
+package com.airport.tracking;
+
+import com.airport.entity.DispatchTask;
+import com.airport.repository.DispatchTaskRepository;
+import com.airport.utils.TransactionUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 待分配任务队列
+ * 按优先级从高到低、开始时间从早到晚、任务ID从小到大排列的索引二叉堆，
+ * 与 {@link DispatchTaskRepository#findPendingTasks()} 的顺序一致。
+ * 堆中位置按任务ID索引，入队、出队、按ID删除均为 O(log n)，取前 k 个为 O(k log k)。
+ * <p>
+ * 启动时从数据库加载，之后由任务服务在任务变化提交后同步维护，
+ * 调度页面和自动分配读取待分配任务时不再查询数据库。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class PendingTaskQueue {
+
+    private final DispatchTaskRepository taskRepository;
+
+    private Entry[] heap = new Entry[64];
+    private int size;
+    // 任务ID -> 堆中下标
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    public PendingTaskQueue(DispatchTaskRepository taskRepository, MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+
+        Gauge.builder("dispatch.pending.tasks", this, PendingTaskQueue::size)
+                .description("待分配任务数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动时加载待分配任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<DispatchTask> tasks = taskRepository.findPendingTasks();
+        synchronized (this) {
+            tasks.forEach(this::upsert);
+        }
+        log.info("待分配任务队列已加载，任务: {}", size());
+    }
+
+    /**
+     * 任务新建或变化，在事务提交后生效：待分配状态的任务入队或调整位置，其他状态出队
+     */
+    public void taskChanged(DispatchTask task) {
+        if (task == null || task.getId() == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> apply(task));
+    }
+
+    /**
+     * 任务已删除，在事务提交后生效
+     */
+    public void taskRemoved(Long taskId) {
+        if (taskId != null) {
+            TransactionUtils.afterCommit(() -> remove(taskId));
+        }
+    }
+
+    /**
+     * 队首任务，队列为空时返回 null
+     */
+    public synchronized DispatchTask peek() {
+        return size > 0 ? heap[0].task : null;
+    }
+
+    /**
+     * 取出队首任务，队列为空时返回 null
+     */
+    public synchronized DispatchTask poll() {
+        if (size == 0) {
+            return null;
+        }
+        DispatchTask task = heap[0].task;
+        removeAt(0);
+        return task;
+    }
+
+    /**
+     * 按任务ID移出队列
+     *
+     * @return 是否在队列中
+     */
+    public synchronized boolean remove(long taskId) {
+        Integer index = positions.get(taskId);
+        if (index == null) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * 任务是否在队列中
+     */
+    public synchronized boolean contains(long taskId) {
+        return positions.containsKey(taskId);
+    }
+
+    /**
+     * 待分配任务数量
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 按队列顺序取前 limit 个任务，不改变队列
+     */
+    public synchronized List<DispatchTask> top(int limit) {
+        int count = Math.min(Math.max(limit, 0), size);
+        List<DispatchTask> result = new ArrayList<>(count);
+        if (count == 0) {
+            return result;
+        }
+        // 从堆顶开始按顺序展开：每取出一个节点，把它的两个子节点加入候选
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> compare(heap[a], heap[b]));
+        frontier.add(0);
+        while (result.size() < count) {
+            int index = frontier.poll();
+            result.add(heap[index].task);
+            int child = 2 * index + 1;
+            if (child < size) {
+                frontier.add(child);
+            }
+            if (child + 1 < size) {
+                frontier.add(child + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 全部待分配任务，按队列顺序排列
+     */
+    public List<DispatchTask> all() {
+        return top(Integer.MAX_VALUE);
+    }
+
+    private synchronized void apply(DispatchTask task) {
+        if (task.getStatus() != null && task.getStatus() == 1) {
+            upsert(task);
+        } else {
+            remove(task.getId());
+        }
+    }
+
+    private void upsert(DispatchTask task) {
+        Entry entry = new Entry(task);
+        Integer index = positions.get(entry.taskId);
+        if (index != null) {
+            Entry previous = heap[index];
+            heap[index] = entry;
+            if (compare(entry, previous) < 0) {
+                siftUp(index);
+            } else {
+                siftDown(index);
+            }
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = entry;
+        positions.put(entry.taskId, size);
+        siftUp(size++);
+    }
+
+    private void removeAt(int index) {
+        positions.remove(heap[index].taskId);
+        size--;
+        if (index == size) {
+            heap[size] = null;
+            return;
+        }
+        Entry last = heap[size];
+        heap[size] = null;
+        heap[index] = last;
+        positions.put(last.taskId, index);
+        siftDown(index);
+        if (heap[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(entry, heap[parent]) >= 0) {
+                break;
+            }
+            move(heap[parent], index);
+            index = parent;
+        }
+        move(entry, index);
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (compare(entry, heap[child]) <= 0) {
+                break;
+            }
+            move(heap[child], index);
+            index = child;
+        }
+        move(entry, index);
+    }
+
+    private void move(Entry entry, int index) {
+        heap[index] = entry;
+        positions.put(entry.taskId, index);
+    }
+
+    /**
+     * 优先级高的在前，其次开始时间早的在前（未设置开始时间的最前），最后按任务ID
+     */
+    private static int compare(Entry a, Entry b) {
+        if (a.priority != b.priority) {
+            return Integer.compare(b.priority, a.priority);
+        }
+        if (a.startTime != b.startTime) {
+            if (a.startTime == null) {
+                return -1;
+            }
+            if (b.startTime == null) {
+                return 1;
+            }
+            int byTime = a.startTime.compareTo(b.startTime);
+            if (byTime != 0) {
+                return byTime;
+            }
+        }
+        return Long.compare(a.taskId, b.taskId);
+    }
+
+    /**
+     * 队列中的任务，排序字段在入队时确定
+     */
+    private static final class Entry {
+
+        final long taskId;
+        final int priority;
+        final LocalDateTime startTime;
+        final DispatchTask task;
+
+        Entry(DispatchTask task) {
+            this.taskId = task.getId();
+            this.priority = task.getPriority() != null ? task.getPriority() : 2;
+            this.startTime = task.getStartTime();
+            this.task = task;
+        }
+    }
+}
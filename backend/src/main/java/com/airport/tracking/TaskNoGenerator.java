@@ -0,0 +1,154 @@
+package com.airport.tracking;
+
+import com.airport.config.DispatchProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 任务编号生成
+ * 编号格式为 TASK + 日期(yyyyMMdd) + 当日序号（至少4位）。当日序号保存在内存号段中，
+ * 生成编号只需一次原子递增，不查询数据库；号段用完或日期变化时才加锁取新号段：
+ * <ul>
+ *     <li>local：单实例部署，每天第一次生成时从任务表取一次当日最大序号，号段不设上限</li>
+ *     <li>database：多实例部署，从 task_no_sequence 表按行锁预留一段序号，各实例的号段互不重叠</li>
+ * </ul>
+ * database 模式下服务重启会丢弃未用完的号段，编号可能不连续，但不会重复。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class TaskNoGenerator {
+
+    private static final String PREFIX = "TASK";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // task_no 列长度为 20，去掉前缀和日期后序号最多 8 位
+    private static final long MAX_SEQUENCE = 99_999_999L;
+
+    private static final String MAX_SEQUENCE_SQL =
+            "SELECT COALESCE(MAX(CAST(SUBSTRING(task_no, 13) AS UNSIGNED)), 0) FROM dispatch_task WHERE task_no LIKE ?";
+    private static final String SELECT_SEQUENCE_SQL =
+            "SELECT next_value FROM task_no_sequence WHERE seq_date = ? FOR UPDATE";
+    private static final String INSERT_SEQUENCE_SQL =
+            "INSERT IGNORE INTO task_no_sequence (seq_date, next_value) VALUES (?, ?)";
+    private static final String UPDATE_SEQUENCE_SQL =
+            "UPDATE task_no_sequence SET next_value = ? WHERE seq_date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DispatchProperties.TaskNo config;
+
+    private volatile Block block = new Block(LocalDate.EPOCH, 0, 0);
+
+    public TaskNoGenerator(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           DispatchProperties dispatchProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.config = dispatchProperties.getTaskNo();
+    }
+
+    /**
+     * 生成新的任务编号，可并发调用
+     */
+    public String next() {
+        LocalDate today = LocalDate.now();
+        while (true) {
+            Block current = block;
+            if (current.date.equals(today)) {
+                long sequence = current.cursor.incrementAndGet();
+                if (sequence <= current.end) {
+                    return current.prefix + String.format("%04d", sequence);
+                }
+            }
+            refill(current, today);
+        }
+    }
+
+    /**
+     * 当前号段用完或日期变化时取新号段，只有一个线程执行，其他线程等待后使用新号段
+     */
+    private synchronized void refill(Block exhausted, LocalDate today) {
+        if (block != exhausted) {
+            return;
+        }
+        if (isDatabaseMode()) {
+            long size = Math.max(1, config.getBlockSize());
+            long start = reserve(today, size);
+            block = new Block(today, start, start + size);
+            log.debug("预留任务编号号段: {} {}-{}", today, start + 1, start + size);
+        } else {
+            long max = exhausted.date.equals(today) ? exhausted.end : maxSequence(today);
+            block = new Block(today, max, MAX_SEQUENCE);
+            log.info("任务编号序号已初始化: {}，起始序号: {}", today, max + 1);
+        }
+        if (block.cursor.get() >= MAX_SEQUENCE) {
+            throw new RuntimeException("当日任务编号已用尽");
+        }
+    }
+
+    /**
+     * 在 task_no_sequence 表中预留 size 个序号
+     *
+     * @return 预留前的最大序号
+     */
+    private long reserve(LocalDate date, long size) {
+        Long start = transactionTemplate.execute(status -> {
+            Date day = Date.valueOf(date);
+            List<Long> values = jdbcTemplate.queryForList(SELECT_SEQUENCE_SQL, Long.class, day);
+            if (values.isEmpty()) {
+                // 当天第一次预留，从任务表已有的最大序号开始；并发插入时以先插入的为准
+                jdbcTemplate.update(INSERT_SEQUENCE_SQL, day, maxSequence(date));
+                values = jdbcTemplate.queryForList(SELECT_SEQUENCE_SQL, Long.class, day);
+            }
+            long current = values.get(0);
+            jdbcTemplate.update(UPDATE_SEQUENCE_SQL, current + size, day);
+            return current;
+        });
+        return start != null ? start : 0L;
+    }
+
+    /**
+     * 任务表中指定日期的最大序号
+     */
+    private long maxSequence(LocalDate date) {
+        Long max = jdbcTemplate.queryForObject(MAX_SEQUENCE_SQL, Long.class, prefix(date) + "%");
+        return max != null ? max : 0L;
+    }
+
+    private static String prefix(LocalDate date) {
+        return PREFIX + date.format(DATE_FORMAT);
+    }
+
+    private boolean isDatabaseMode() {
+        return "database".equalsIgnoreCase(config.getMode());
+    }
+
+    /**
+     * 当日序号号段，可用序号为 (cursor 初始值, end]
+     */
+    private static final class Block {
+
+        final LocalDate date;
+        final String prefix;
+        final AtomicLong cursor;
+        final long end;
+
+        Block(LocalDate date, long start, long end) {
+            this.date = date;
+            this.prefix = prefix(date);
+            this.cursor = new AtomicLong(start);
+            this.end = Math.min(end, MAX_SEQUENCE);
+        }
+    }
+}
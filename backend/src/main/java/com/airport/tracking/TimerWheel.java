@@ -0,0 +1,99 @@
+package com.airport.tracking;
+
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮
+ * 到期时间按刻度散列到环形槽位，添加定时为 O(1)，每个刻度只处理一个槽位，
+ * 超过一圈的定时记录剩余圈数。非线程安全，只能由推进时间轮的线程使用。
+ *
+ * @author Corkedmzx
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Node<T>[] slots;
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("时间轮刻度必须大于0");
+        }
+        int capacity = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = capacity - 1;
+        this.slots = (Node<T>[]) new Node<?>[capacity];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * 添加定时，到期时间不足一个刻度的在下一个刻度到期
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        long ticks = tick - currentTick;
+        Node<T> node = new Node<>(item, (ticks - 1) / slots.length);
+        int index = (int) (tick & mask);
+        node.next = slots[index];
+        slots[index] = node;
+        size++;
+    }
+
+    /**
+     * 推进到指定时间，依次处理经过的每个刻度上到期的定时
+     */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            int index = (int) (currentTick & mask);
+            Node<T> node = slots[index];
+            slots[index] = null;
+            Node<T> pending = null;
+            while (node != null) {
+                Node<T> next = node.next;
+                if (node.rounds > 0) {
+                    node.rounds--;
+                    node.next = pending;
+                    pending = node;
+                } else {
+                    size--;
+                    expired.accept(node.item);
+                }
+                node = next;
+            }
+            // 到期回调中重新添加到本槽位的定时保留在前面
+            if (pending != null) {
+                Node<T> tail = pending;
+                while (tail.next != null) {
+                    tail = tail.next;
+                }
+                tail.next = slots[index];
+                slots[index] = pending;
+            }
+        }
+    }
+
+    /**
+     * 未到期的定时数量
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+
+        final T item;
+        long rounds;
+        Node<T> next;
+
+        Node(T item, long rounds) {
+            this.item = item;
+            this.rounds = rounds;
+        }
+    }
+}
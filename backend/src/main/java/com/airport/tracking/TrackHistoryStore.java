@@ -0,0 +1,254 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.dto.VehicleLocationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 车辆轨迹历史
+ * 由位置写入管道在每次刷写时把窗口内的全部定位点（合并前）批量追加到 vehicle_location 表，
+ * 只追加不修改。查询按车辆+时间或范围+时间逐行流式读取，不会把整段轨迹加载到内存。
+ * <p>
+ * 每天按配置清理超过保留天数的数据，并把较早的轨迹压缩为每个间隔一个定位点。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class TrackHistoryStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO vehicle_location (vehicle_id, longitude, latitude, speed, direction, location_time, create_time) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TRACK_SQL =
+            "SELECT vehicle_id, longitude, latitude, altitude, speed, direction, accuracy, location_time " +
+            "FROM vehicle_location WHERE vehicle_id = ? AND location_time >= ? AND location_time < ? " +
+            "ORDER BY location_time ASC";
+
+    private static final String AREA_SQL =
+            "SELECT vehicle_id, longitude, latitude, altitude, speed, direction, accuracy, location_time " +
+            "FROM vehicle_location WHERE location_time >= ? AND location_time < ? " +
+            "AND longitude BETWEEN ? AND ? AND latitude BETWEEN ? AND ? " +
+            "ORDER BY location_time ASC";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM vehicle_location WHERE location_time < ? LIMIT ?";
+
+    // 每辆车在每个压缩间隔内保留 id 最小的定位点
+    private static final String COMPACT_SQL =
+            "DELETE v FROM vehicle_location v JOIN (" +
+            "SELECT vehicle_id, FLOOR(UNIX_TIMESTAMP(location_time) / ?) AS bucket, MIN(id) AS keep_id " +
+            "FROM vehicle_location WHERE location_time >= ? AND location_time < ? " +
+            "GROUP BY vehicle_id, bucket) k " +
+            "ON v.vehicle_id = k.vehicle_id AND FLOOR(UNIX_TIMESTAMP(v.location_time) / ?) = k.bucket " +
+            "WHERE v.location_time >= ? AND v.location_time < ? AND v.id <> k.keep_id";
+
+    // decimal(5,2) 列的上限
+    private static final double MAX_DECIMAL_5_2 = 999.99;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrackingProperties.TrackHistory config;
+    private final int retentionDays;
+
+    private final Counter appendedCounter;
+    private final Counter failedCounter;
+
+    // 已压缩到的日期（不含），仅由维护任务访问
+    private LocalDate compactedUntil;
+
+    public TrackHistoryStore(JdbcTemplate jdbcTemplate,
+                             TrackingProperties trackingProperties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = trackingProperties.getTrackHistory();
+        this.retentionDays = trackingProperties.getRetentionDays();
+
+        this.appendedCounter = Counter.builder("vehicle.track.appended")
+                .description("写入轨迹历史的定位点数量")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("vehicle.track.failed")
+                .description("写入轨迹历史失败的定位点数量")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public int getBatchSize() {
+        return config.getBatchSize();
+    }
+
+    /**
+     * 批量追加定位点，由位置写入管道的刷写线程调用
+     */
+    public void append(List<LocationFix> fixes) {
+        if (fixes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, fixes, config.getBatchSize(), (ps, fix) -> {
+                ps.setLong(1, fix.getVehicleId());
+                ps.setDouble(2, fix.getLongitude());
+                ps.setDouble(3, fix.getLatitude());
+                ps.setDouble(4, clamp(fix.getSpeed()));
+                ps.setDouble(5, clamp(fix.getDirection()));
+                ps.setTimestamp(6, new Timestamp(fix.getTimestamp()));
+                ps.setTimestamp(7, now);
+            });
+            appendedCounter.increment(fixes.size());
+        } catch (Exception e) {
+            failedCounter.increment(fixes.size());
+            log.error("写入轨迹历史失败，本批 {} 条", fixes.size(), e);
+        }
+    }
+
+    /**
+     * 按时间顺序逐条读取车辆在时间窗口内的轨迹
+     *
+     * @param startTime 开始时间（含）
+     * @param endTime   结束时间（不含）
+     */
+    public void streamTrack(long vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                            Consumer<VehicleLocationDTO> sink) {
+        jdbcTemplate.query(streaming(TRACK_SQL, ps -> {
+            ps.setLong(1, vehicleId);
+            ps.setTimestamp(2, Timestamp.valueOf(startTime));
+            ps.setTimestamp(3, Timestamp.valueOf(endTime));
+        }), rs -> {
+            sink.accept(map(rs));
+        });
+    }
+
+    /**
+     * 按时间顺序逐条读取时间窗口内经过指定范围的全部定位点
+     */
+    public void streamArea(double minLng, double maxLng, double minLat, double maxLat,
+                           LocalDateTime startTime, LocalDateTime endTime,
+                           Consumer<VehicleLocationDTO> sink) {
+        jdbcTemplate.query(streaming(AREA_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(startTime));
+            ps.setTimestamp(2, Timestamp.valueOf(endTime));
+            ps.setDouble(3, minLng);
+            ps.setDouble(4, maxLng);
+            ps.setDouble(5, minLat);
+            ps.setDouble(6, maxLat);
+        }), rs -> {
+            sink.accept(map(rs));
+        });
+    }
+
+    /**
+     * 清理过期轨迹并压缩较早的轨迹
+     */
+    @Scheduled(cron = "${vehicle.tracking.track-history.maintenance-cron:0 30 3 * * ?}")
+    public void maintain() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            purgeExpired();
+            compact();
+        } catch (Exception e) {
+            log.error("轨迹历史维护失败", e);
+        }
+    }
+
+    /**
+     * 分批删除超过保留天数的轨迹
+     */
+    public long purgeExpired() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, config.getPurgeChunkSize());
+            total += deleted;
+        } while (deleted >= config.getPurgeChunkSize());
+        if (total > 0) {
+            log.info("已清理 {} 之前的轨迹历史 {} 条", cutoff, total);
+        }
+        return total;
+    }
+
+    /**
+     * 按天压缩超过 compactAfterDays 的轨迹，每辆车在每个压缩间隔内只保留一个定位点
+     */
+    public long compact() {
+        if (config.getCompactAfterDays() <= 0 || config.getCompactAfterDays() >= retentionDays) {
+            return 0;
+        }
+        LocalDate end = LocalDate.now().minusDays(config.getCompactAfterDays());
+        LocalDate day = LocalDate.now().minusDays(retentionDays);
+        if (compactedUntil != null && compactedUntil.isAfter(day)) {
+            day = compactedUntil;
+        }
+        int interval = Math.max(1, config.getCompactIntervalSeconds());
+        long total = 0;
+        for (; day.isBefore(end); day = day.plusDays(1)) {
+            Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+            Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+            total += jdbcTemplate.update(COMPACT_SQL, interval, from, to, interval, from, to);
+        }
+        compactedUntil = end;
+        if (total > 0) {
+            log.info("已压缩 {} 之前的轨迹历史，删除 {} 条", end, total);
+        }
+        return total;
+    }
+
+    /**
+     * MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行读取结果集
+     */
+    private static PreparedStatementCreator streaming(String sql, ParameterSetter setter) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            setter.set(ps);
+            return ps;
+        };
+    }
+
+    private static VehicleLocationDTO map(ResultSet rs) throws SQLException {
+        VehicleLocationDTO dto = new VehicleLocationDTO();
+        dto.setVehicleId(rs.getLong("vehicle_id"));
+        dto.setLongitude(rs.getBigDecimal("longitude"));
+        dto.setLatitude(rs.getBigDecimal("latitude"));
+        dto.setAltitude(rs.getBigDecimal("altitude"));
+        dto.setSpeed(rs.getBigDecimal("speed"));
+        dto.setDirection(rs.getBigDecimal("direction"));
+        dto.setAccuracy(rs.getBigDecimal("accuracy"));
+        Timestamp time = rs.getTimestamp("location_time");
+        dto.setLocationTime(time != null ? time.toLocalDateTime() : null);
+        return dto;
+    }
+
+    private static double clamp(double value) {
+        if (Double.isNaN(value)) {
+            return 0;
+        }
+        return Math.max(0, Math.min(MAX_DECIMAL_5_2, value));
+    }
+
+    @FunctionalInterface
+    private interface ParameterSetter {
+        void set(PreparedStatement ps) throws SQLException;
+    }
+}
@@ -0,0 +1,248 @@
+package com.airport.tracking;
+
+import com.airport.dto.VehicleLocationDTO;
+import com.airport.utils.GeoUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 轨迹抽稀
+ * 在轨迹点逐条输出的过程中按车辆抽稀，不需要先读出整段轨迹：
+ * <ul>
+ *     <li>按容差：开窗法的道格拉斯-普克抽稀，被省略的点到保留线段的距离都不超过容差(米)，转弯处的点会被保留</li>
+ *     <li>按点数：把时间窗口均分为若干时段，每个时段只保留相对上一个保留点转向最大的点</li>
+ * </ul>
+ * 两者同时指定时先按容差再按点数抽稀。轨迹的第一个点和最后一个点始终保留，
+ * 所有轨迹点输出完后必须调用 {@link #finish()} 输出各车辆剩余的点。
+ *
+ * @author Corkedmzx
+ */
+public abstract class TrackSimplifier implements Consumer<VehicleLocationDTO> {
+
+    // 开窗法单个窗口缓存的最大点数，超过后强制保留当前点，限制长直线段的内存和计算量
+    private static final int MAX_WINDOW = 256;
+
+    protected final Consumer<VehicleLocationDTO> downstream;
+
+    protected TrackSimplifier(Consumer<VehicleLocationDTO> downstream) {
+        this.downstream = downstream;
+    }
+
+    /**
+     * 输出各车辆剩余的点
+     */
+    public abstract void finish();
+
+    /**
+     * 按参数组合抽稀器，两个参数都为空时原样输出
+     *
+     * @param tolerance 容差(米)
+     * @param maxPoints 每辆车的最大点数（约数）
+     */
+    public static TrackSimplifier of(Double tolerance, Integer maxPoints,
+                                     LocalDateTime startTime, LocalDateTime endTime,
+                                     Consumer<VehicleLocationDTO> sink) {
+        TrackSimplifier result = new PassThrough(sink);
+        if (maxPoints != null) {
+            result = new TimeBucket(result, maxPoints, startTime, endTime);
+        }
+        if (tolerance != null) {
+            result = new OpeningWindow(result, tolerance);
+        }
+        return result;
+    }
+
+    private static long millis(VehicleLocationDTO point) {
+        return point.getLocationTime() != null ? Timestamp.valueOf(point.getLocationTime()).getTime() : 0L;
+    }
+
+    private static double value(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * 原样输出
+     */
+    private static final class PassThrough extends TrackSimplifier {
+
+        PassThrough(Consumer<VehicleLocationDTO> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void accept(VehicleLocationDTO point) {
+            downstream.accept(point);
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    /**
+     * 开窗法抽稀：以上一个保留点为锚点，新点与锚点连线偏离窗口内任一点超过容差时，保留新点的前一个点
+     */
+    private static final class OpeningWindow extends TrackSimplifier {
+
+        private final double tolerance;
+        private final TrackSimplifier next;
+        private final Map<Long, List<VehicleLocationDTO>> windows = new HashMap<>();
+
+        OpeningWindow(TrackSimplifier next, double tolerance) {
+            super(next);
+            this.next = next;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public void accept(VehicleLocationDTO point) {
+            List<VehicleLocationDTO> window = windows.get(point.getVehicleId());
+            if (window == null) {
+                // 窗口第一个元素是锚点
+                window = new ArrayList<>();
+                window.add(point);
+                windows.put(point.getVehicleId(), window);
+                downstream.accept(point);
+                return;
+            }
+            if (window.size() > 1 && (window.size() >= MAX_WINDOW || exceeds(window, point))) {
+                VehicleLocationDTO kept = window.get(window.size() - 1);
+                downstream.accept(kept);
+                window.clear();
+                window.add(kept);
+            }
+            window.add(point);
+        }
+
+        @Override
+        public void finish() {
+            for (List<VehicleLocationDTO> window : windows.values()) {
+                if (window.size() > 1) {
+                    downstream.accept(window.get(window.size() - 1));
+                }
+            }
+            windows.clear();
+            next.finish();
+        }
+
+        /**
+         * 窗口内的中间点是否有点到锚点-新点线段的距离超过容差
+         */
+        private boolean exceeds(List<VehicleLocationDTO> window, VehicleLocationDTO point) {
+            VehicleLocationDTO anchor = window.get(0);
+            double lon0 = value(anchor.getLongitude());
+            double lat0 = value(anchor.getLatitude());
+            // 以锚点为原点的局部平面坐标(米)
+            double kx = GeoUtils.metersPerDegreeLongitude(lat0);
+            double ky = GeoUtils.METERS_PER_DEGREE;
+            double bx = (value(point.getLongitude()) - lon0) * kx;
+            double by = (value(point.getLatitude()) - lat0) * ky;
+            double lengthSq = bx * bx + by * by;
+            for (int i = 1; i < window.size(); i++) {
+                VehicleLocationDTO p = window.get(i);
+                double px = (value(p.getLongitude()) - lon0) * kx;
+                double py = (value(p.getLatitude()) - lat0) * ky;
+                double t = lengthSq > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSq)) : 0;
+                double dx = px - t * bx;
+                double dy = py - t * by;
+                if (Math.sqrt(dx * dx + dy * dy) > tolerance) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 按时段抽稀：每个时段保留相对上一个保留点转向最大的点
+     */
+    private static final class TimeBucket extends TrackSimplifier {
+
+        private final long startMillis;
+        private final long bucketMillis;
+        private final TrackSimplifier next;
+        private final Map<Long, State> states = new HashMap<>();
+
+        TimeBucket(TrackSimplifier next, int maxPoints, LocalDateTime startTime, LocalDateTime endTime) {
+            super(next);
+            this.next = next;
+            this.startMillis = Timestamp.valueOf(startTime).getTime();
+            long span = Timestamp.valueOf(endTime).getTime() - startMillis;
+            // 首尾两点单独保留
+            this.bucketMillis = Math.max(1, span / Math.max(1, maxPoints - 2));
+        }
+
+        @Override
+        public void accept(VehicleLocationDTO point) {
+            State state = states.get(point.getVehicleId());
+            if (state == null) {
+                state = new State();
+                states.put(point.getVehicleId(), state);
+                emit(state, point);
+                return;
+            }
+            state.last = point;
+            long bucket = (millis(point) - startMillis) / bucketMillis;
+            if (bucket != state.bucket) {
+                if (state.candidate != null) {
+                    emit(state, state.candidate);
+                }
+                state.bucket = bucket;
+                state.candidate = null;
+            }
+            double turn = turn(state.emitted, point);
+            if (state.candidate == null || turn > state.candidateTurn) {
+                state.candidate = point;
+                state.candidateTurn = turn;
+            }
+        }
+
+        @Override
+        public void finish() {
+            for (State state : states.values()) {
+                if (state.candidate != null) {
+                    emit(state, state.candidate);
+                }
+                if (state.last != null && state.last != state.emitted) {
+                    emit(state, state.last);
+                }
+            }
+            states.clear();
+            next.finish();
+        }
+
+        private void emit(State state, VehicleLocationDTO point) {
+            downstream.accept(point);
+            state.emitted = point;
+            state.candidate = null;
+        }
+
+        /**
+         * 两点方向角之差(度)，缺少方向时视为 0
+         */
+        private static double turn(VehicleLocationDTO from, VehicleLocationDTO to) {
+            double a = value(from.getDirection());
+            double b = value(to.getDirection());
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                return 0;
+            }
+            double diff = Math.abs(a - b) % 360;
+            return diff > 180 ? 360 - diff : diff;
+        }
+
+        private static final class State {
+            long bucket = Long.MIN_VALUE;
+            VehicleLocationDTO emitted;
+            VehicleLocationDTO candidate;
+            double candidateTurn;
+            VehicleLocationDTO last;
+        }
+    }
+}
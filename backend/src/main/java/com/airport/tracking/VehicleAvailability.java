@@ -0,0 +1,137 @@
+package com.airport.tracking;
+
+import com.airport.entity.DispatchTask;
+import com.airport.repository.DispatchTaskRepository;
+import com.airport.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 车辆空闲状态
+ * 记录每辆车当前占用它的任务（已分配、执行中），车辆状态正常且没有占用任务即为空闲。
+ * 启动时从数据库加载，之后由任务服务在任务变化提交后同步维护，
+ * 调度查询空闲车辆时不再需要扫描任务表。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class VehicleAvailability {
+
+    private final DispatchTaskRepository taskRepository;
+    private final LiveFleetState liveFleetState;
+
+    // 任务ID -> 占用的车辆ID，只包含已分配、执行中的任务
+    private final Map<Long, Long> taskVehicles = new ConcurrentHashMap<>();
+    // 车辆ID -> 占用该车辆的任务数
+    private final Map<Long, Integer> busyVehicles = new ConcurrentHashMap<>();
+    // 车辆ID -> 最近一次占用该车辆的任务ID
+    private final Map<Long, Long> currentTasks = new ConcurrentHashMap<>();
+
+    public VehicleAvailability(DispatchTaskRepository taskRepository, LiveFleetState liveFleetState) {
+        this.taskRepository = taskRepository;
+        this.liveFleetState = liveFleetState;
+    }
+
+    /**
+     * 启动时加载占用车辆的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<DispatchTask> tasks = taskRepository.findActiveAssignments();
+        tasks.forEach(this::apply);
+        log.info("车辆空闲状态已加载，占用中的任务: {}，占用车辆: {}", taskVehicles.size(), busyVehicles.size());
+    }
+
+    /**
+     * 任务状态或分配车辆发生变化，在事务提交后生效
+     */
+    public void taskChanged(DispatchTask task) {
+        if (task == null || task.getId() == null) {
+            return;
+        }
+        Long taskId = task.getId();
+        Long vehicleId = occupies(task) ? task.getAssignedVehicleId() : null;
+        TransactionUtils.afterCommit(() -> {
+            release(taskId);
+            if (vehicleId != null) {
+                occupy(taskId, vehicleId);
+            }
+        });
+    }
+
+    /**
+     * 任务已删除，在事务提交后生效
+     */
+    public void taskRemoved(Long taskId) {
+        if (taskId != null) {
+            TransactionUtils.afterCommit(() -> release(taskId));
+        }
+    }
+
+    /**
+     * 车辆是否被任务占用
+     */
+    public boolean isBusy(long vehicleId) {
+        return busyVehicles.containsKey(vehicleId);
+    }
+
+    /**
+     * 当前占用车辆的任务ID，没有时返回 null
+     */
+    public Long currentTask(long vehicleId) {
+        return currentTasks.get(vehicleId);
+    }
+
+    /**
+     * 车辆是否空闲：状态正常且没有占用任务
+     */
+    public boolean isAvailable(long vehicleId) {
+        return liveFleetState.getStatus(vehicleId) == 1 && !busyVehicles.containsKey(vehicleId);
+    }
+
+    /**
+     * 空闲车辆数量
+     */
+    public long countAvailable() {
+        long busyActive = 0;
+        for (Long vehicleId : busyVehicles.keySet()) {
+            if (liveFleetState.getStatus(vehicleId) == 1) {
+                busyActive++;
+            }
+        }
+        return Math.max(0, liveFleetState.countByStatus(1) - busyActive);
+    }
+
+    private void apply(DispatchTask task) {
+        release(task.getId());
+        if (occupies(task)) {
+            occupy(task.getId(), task.getAssignedVehicleId());
+        }
+    }
+
+    private void occupy(Long taskId, Long vehicleId) {
+        taskVehicles.put(taskId, vehicleId);
+        busyVehicles.merge(vehicleId, 1, Integer::sum);
+        currentTasks.put(vehicleId, taskId);
+    }
+
+    private void release(Long taskId) {
+        Long vehicleId = taskVehicles.remove(taskId);
+        if (vehicleId != null) {
+            busyVehicles.computeIfPresent(vehicleId, (k, count) -> count > 1 ? count - 1 : null);
+            currentTasks.remove(vehicleId, taskId);
+        }
+    }
+
+    private static boolean occupies(DispatchTask task) {
+        Integer status = task.getStatus();
+        return task.getAssignedVehicleId() != null && status != null && (status == 2 || status == 3);
+    }
+}
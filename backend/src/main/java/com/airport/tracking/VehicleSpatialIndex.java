@@ -0,0 +1,318 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.utils.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * 车辆位置空间索引
+ * 按经纬度均匀网格组织车辆的当前位置，由 {@link LiveFleetState} 在位置变化时同步维护。
+ * 支持矩形范围、半径范围和 k 近邻查询，查询只访问相关网格，与车队总规模基本无关。
+ * <p>
+ * 索引在启动预热完成前不可用（{@link #isReady()} 为 false），调用方应回退到数据库查询。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class VehicleSpatialIndex {
+
+    private final double cellDegrees;
+
+    // 车辆ID -> 索引项
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // 网格 -> 网格内的索引项
+    private final Map<Long, Set<Entry>> cells = new ConcurrentHashMap<>();
+
+    // 已使用网格的范围，只扩大不缩小，用于限制近邻查询的搜索圈数
+    private volatile long minCellX = Long.MAX_VALUE;
+    private volatile long maxCellX = Long.MIN_VALUE;
+    private volatile long minCellY = Long.MAX_VALUE;
+    private volatile long maxCellY = Long.MIN_VALUE;
+
+    private volatile boolean ready;
+
+    public VehicleSpatialIndex(TrackingProperties trackingProperties) {
+        this.cellDegrees = trackingProperties.getSpatialIndex().getCellDegrees();
+    }
+
+    /**
+     * 更新车辆位置
+     */
+    public void update(long vehicleId, double longitude, double latitude) {
+        if (Double.isNaN(longitude) || Double.isNaN(latitude)) {
+            return;
+        }
+        long cellX = cell(longitude);
+        long cellY = cell(latitude);
+        long key = key(cellX, cellY);
+        Entry entry = entries.computeIfAbsent(vehicleId, Entry::new);
+        synchronized (entry) {
+            if (entry.cellKey != key) {
+                if (entry.indexed) {
+                    removeFromCell(entry);
+                }
+                cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry);
+                entry.cellKey = key;
+                entry.indexed = true;
+                expand(cellX, cellY);
+            }
+            entry.longitude = longitude;
+            entry.latitude = latitude;
+        }
+    }
+
+    /**
+     * 移除车辆
+     */
+    public void remove(long vehicleId) {
+        Entry entry = entries.remove(vehicleId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (entry.indexed) {
+                removeFromCell(entry);
+                entry.indexed = false;
+            }
+        }
+    }
+
+    /**
+     * 标记索引已完成预热
+     */
+    public void markReady() {
+        ready = true;
+        log.info("车辆空间索引已就绪，车辆数: {}，网格数: {}", entries.size(), cells.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 矩形范围查询
+     *
+     * @return 范围内的车辆ID
+     */
+    public List<Long> withinBounds(double minLon, double maxLon, double minLat, double maxLat) {
+        List<Long> result = new ArrayList<>();
+        long minX = cell(minLon);
+        long maxX = cell(maxLon);
+        long minY = cell(minLat);
+        long maxY = cell(maxLat);
+        double cellCount = (double) (maxX - minX + 1) * (maxY - minY + 1);
+        // 范围覆盖的网格比已有网格还多时直接遍历全部车辆
+        if (cellCount > cells.size()) {
+            for (Entry entry : entries.values()) {
+                if (entry.inBounds(minLon, maxLon, minLat, maxLat)) {
+                    result.add(entry.vehicleId);
+                }
+            }
+            return result;
+        }
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                Set<Entry> cell = cells.get(key(x, y));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell) {
+                    if (entry.inBounds(minLon, maxLon, minLat, maxLat)) {
+                        result.add(entry.vehicleId);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 半径范围查询，结果按距离由近到远排序
+     *
+     * @param radiusMeters 半径(米)
+     * @param filter       车辆过滤条件，为 null 时不过滤
+     */
+    public List<Neighbor> withinRadius(double longitude, double latitude, double radiusMeters, LongPredicate filter) {
+        double latDelta = radiusMeters / GeoUtils.METERS_PER_DEGREE;
+        double lonDelta = radiusMeters / Math.max(1.0, GeoUtils.metersPerDegreeLongitude(Math.min(89.0, Math.abs(latitude) + latDelta)));
+        List<Neighbor> result = new ArrayList<>();
+        for (Long vehicleId : withinBounds(longitude - lonDelta, longitude + lonDelta, latitude - latDelta, latitude + latDelta)) {
+            if (filter != null && !filter.test(vehicleId)) {
+                continue;
+            }
+            Entry entry = entries.get(vehicleId);
+            if (entry == null) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(longitude, latitude, entry.longitude, entry.latitude);
+            if (distance <= radiusMeters) {
+                result.add(new Neighbor(vehicleId, distance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceMeters));
+        return result;
+    }
+
+    /**
+     * k 近邻查询，从查询点所在网格逐圈向外搜索，结果按距离由近到远排序
+     *
+     * @param k           最多返回的车辆数
+     * @param maxMeters   最大距离(米)，不限制时传 {@link Double#POSITIVE_INFINITY}
+     * @param filter      车辆过滤条件，为 null 时不过滤
+     */
+    public List<Neighbor> nearest(double longitude, double latitude, int k, double maxMeters, LongPredicate filter) {
+        if (k <= 0 || entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 大顶堆，堆顶是当前第 k 近的车辆，车辆少于 k 时按车辆数分配
+        PriorityQueue<Neighbor> heap = new PriorityQueue<>(Math.min(k, entries.size()) + 1,
+                Comparator.comparingDouble(Neighbor::getDistanceMeters).reversed());
+        long cx = cell(longitude);
+        long cy = cell(latitude);
+        long maxRing = Math.max(Math.max(cx - minCellX, maxCellX - cx), Math.max(cy - minCellY, maxCellY - cy));
+        // 每圈网格距查询点的最小距离，按经度方向(较短)保守估计
+        double metersPerCell = cellDegrees * Math.min(GeoUtils.METERS_PER_DEGREE,
+                GeoUtils.metersPerDegreeLongitude(Math.min(89.0, Math.abs(latitude) + 1)));
+        long visitedCells = 0;
+        int cellLimit = cells.size();
+
+        for (long ring = 0; ring <= maxRing; ring++) {
+            for (long x = cx - ring; x <= cx + ring; x++) {
+                boolean edgeColumn = x == cx - ring || x == cx + ring;
+                long step = edgeColumn ? 1 : Math.max(1, 2 * ring);
+                for (long y = cy - ring; y <= cy + ring; y += step) {
+                    visitedCells++;
+                    Set<Entry> cell = cells.get(key(x, y));
+                    if (cell != null) {
+                        collect(cell, longitude, latitude, k, maxMeters, filter, heap);
+                    }
+                }
+            }
+            double bound = ring * metersPerCell;
+            if (heap.size() == k && heap.peek().getDistanceMeters() <= bound) {
+                break;
+            }
+            if (bound > maxMeters) {
+                break;
+            }
+            // 查询点远离所有车辆时逐圈搜索不划算，改为遍历全部车辆
+            if (visitedCells > cellLimit && ring > 0) {
+                heap.clear();
+                collect(entries.values(), longitude, latitude, k, maxMeters, filter, heap);
+                break;
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceMeters));
+        return result;
+    }
+
+    private void collect(Iterable<Entry> candidates, double longitude, double latitude, int k,
+                         double maxMeters, LongPredicate filter, PriorityQueue<Neighbor> heap) {
+        for (Entry entry : candidates) {
+            if (!entry.indexed || (filter != null && !filter.test(entry.vehicleId))) {
+                continue;
+            }
+            double distance = GeoUtils.distanceMeters(longitude, latitude, entry.longitude, entry.latitude);
+            if (distance > maxMeters) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new Neighbor(entry.vehicleId, distance));
+            } else if (distance < heap.peek().getDistanceMeters()) {
+                heap.poll();
+                heap.add(new Neighbor(entry.vehicleId, distance));
+            }
+        }
+    }
+
+    private void removeFromCell(Entry entry) {
+        cells.computeIfPresent(entry.cellKey, (k, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void expand(long cellX, long cellY) {
+        if (cellX < minCellX) {
+            minCellX = cellX;
+        }
+        if (cellX > maxCellX) {
+            maxCellX = cellX;
+        }
+        if (cellY < minCellY) {
+            minCellY = cellY;
+        }
+        if (cellY > maxCellY) {
+            maxCellY = cellY;
+        }
+    }
+
+    private long cell(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 近邻查询结果
+     */
+    public static final class Neighbor {
+
+        private final long vehicleId;
+        private final double distanceMeters;
+
+        public Neighbor(long vehicleId, double distanceMeters) {
+            this.vehicleId = vehicleId;
+            this.distanceMeters = distanceMeters;
+        }
+
+        public long getVehicleId() {
+            return vehicleId;
+        }
+
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+    }
+
+    /**
+     * 单辆车的索引项
+     */
+    private static final class Entry {
+
+        final long vehicleId;
+        volatile double longitude;
+        volatile double latitude;
+        long cellKey = Long.MIN_VALUE;
+        volatile boolean indexed;
+
+        Entry(long vehicleId) {
+            this.vehicleId = vehicleId;
+        }
+
+        boolean inBounds(double minLon, double maxLon, double minLat, double maxLat) {
+            double lon = longitude;
+            double lat = latitude;
+            return indexed && lon >= minLon && lon <= maxLon && lat >= minLat && lat <= maxLat;
+        }
+    }
+}
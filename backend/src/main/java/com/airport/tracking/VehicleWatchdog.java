@@ -0,0 +1,323 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.dto.VehicleLiveDTO;
+import com.airport.entity.Alert;
+import com.airport.websocket.VehicleLocationWebSocketHandler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 车辆在线状态监测
+ * 每辆车在时间轮中最多有一个定时，定位点到达时只记录接收时间（O(1)），
+ * 定时到期时才按最后接收时间判断是否真的超时，未超时则按剩余时间重新定时。
+ * <p>
+ * 静默时间达到离线阈值时把车辆标记为离线、产生离线告警并推送 VEHICLE_STATUS_UPDATE，
+ * 重新收到定位点后恢复在线并恢复告警。告警规则等可通过 {@link SilenceListener}
+ * 注册额外的静默阈值。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class VehicleWatchdog {
+
+    /**
+     * 车辆静默监听
+     */
+    public interface SilenceListener {
+
+        /**
+         * 车辆静默时间达到某个阈值，由时间轮线程调用
+         */
+        void onSilent(long vehicleId, long silentMillis);
+
+        /**
+         * 静默后重新收到定位点，由位置写入管道线程调用
+         */
+        void onResumed(long vehicleId);
+    }
+
+    private final LiveFleetState liveFleetState;
+    private final AlertDispatcher alertDispatcher;
+    private final VehicleLocationWebSocketHandler webSocketHandler;
+    private final TrackingProperties.Watchdog config;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    // 需要加入时间轮的车辆，由时间轮线程取出
+    private final Queue<Entry> arming = new ConcurrentLinkedQueue<>();
+    private final List<SilenceListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger onlineCount = new AtomicInteger();
+
+    // 升序排列的静默阈值(毫秒)，包含离线阈值
+    private volatile long[] thresholds;
+    private volatile long[] listenerThresholds = new long[0];
+
+    private TimerWheel<Entry> wheel;
+    private ScheduledExecutorService ticker;
+
+    public VehicleWatchdog(LiveFleetState liveFleetState,
+                           AlertDispatcher alertDispatcher,
+                           VehicleLocationWebSocketHandler webSocketHandler,
+                           TrackingProperties trackingProperties,
+                           MeterRegistry meterRegistry) {
+        this.liveFleetState = liveFleetState;
+        this.alertDispatcher = alertDispatcher;
+        this.webSocketHandler = webSocketHandler;
+        this.config = trackingProperties.getWatchdog();
+        this.thresholds = new long[]{offlineMillis()};
+
+        Gauge.builder("vehicle.online", onlineCount, AtomicInteger::get)
+                .description("在线车辆数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动时按数据库中的最后上报时间初始化，已超时的车辆直接视为离线，不产生告警
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        wheel = new TimerWheel<>(config.getTickMs(), config.getWheelSize(), now);
+        for (VehicleLiveDTO vehicle : liveFleetState.snapshotAll()) {
+            if (vehicle.getLastUpdateTime() == null) {
+                continue;
+            }
+            long lastHeard = Timestamp.valueOf(vehicle.getLastUpdateTime()).getTime();
+            if (now - lastHeard >= offlineMillis()) {
+                continue;
+            }
+            Entry entry = entries.computeIfAbsent(vehicle.getVehicleId(), Entry::new);
+            if (entry.online) {
+                continue;
+            }
+            entry.lastHeard = lastHeard;
+            entry.online = true;
+            onlineCount.incrementAndGet();
+            if (entry.armed.compareAndSet(false, true)) {
+                arming.add(entry);
+            }
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vehicle-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, config.getTickMs(), config.getTickMs(), TimeUnit.MILLISECONDS);
+        log.info("车辆在线监测已启动，在线车辆: {}，离线阈值: {}秒", onlineCount.get(), config.getOfflineTimeoutSeconds());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 注册静默监听
+     */
+    public void addListener(SilenceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 设置监听方需要的静默阈值(毫秒)，与离线阈值合并
+     */
+    public void setListenerThresholds(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        listenerThresholds = sorted;
+        long[] merged = Arrays.copyOf(millis, millis.length + 1);
+        merged[millis.length] = offlineMillis();
+        thresholds = Arrays.stream(merged).filter(value -> value > 0).sorted().distinct().toArray();
+    }
+
+    /**
+     * 收到定位点，仅由位置写入管道线程调用
+     */
+    public void touch(long vehicleId) {
+        Entry entry = entries.computeIfAbsent(vehicleId, Entry::new);
+        entry.lastHeard = System.currentTimeMillis();
+        if (!entry.armed.get() && entry.armed.compareAndSet(false, true)) {
+            arming.add(entry);
+        }
+        if (entry.silent) {
+            entry.silent = false;
+            listeners.forEach(listener -> listener.onResumed(vehicleId));
+        }
+        if (!entry.online) {
+            entry.online = true;
+            onlineCount.incrementAndGet();
+            alertDispatcher.clear(alertKey(vehicleId));
+            broadcastStatus(vehicleId, true, entry.lastHeard);
+        }
+    }
+
+    /**
+     * 车辆是否在线
+     */
+    public boolean isOnline(long vehicleId) {
+        Entry entry = entries.get(vehicleId);
+        return entry != null && entry.online;
+    }
+
+    /**
+     * 在线车辆数量
+     */
+    public int countOnline() {
+        return onlineCount.get();
+    }
+
+    private void tick() {
+        try {
+            Entry entry;
+            while ((entry = arming.poll()) != null) {
+                entry.reached = 0;
+                entry.reachedHeard = entry.lastHeard;
+                wheel.schedule(entry, entry.lastHeard + thresholds[0]);
+            }
+            wheel.advanceTo(System.currentTimeMillis(), this::expire);
+        } catch (Exception e) {
+            log.error("车辆在线监测失败", e);
+        }
+    }
+
+    /**
+     * 定时到期：处理已达到的静默阈值，再按下一个阈值重新定时
+     */
+    private void expire(Entry entry) {
+        // 车辆已删除
+        if (liveFleetState.getStatus(entry.vehicleId) < 0) {
+            entries.remove(entry.vehicleId);
+            if (entry.online) {
+                onlineCount.decrementAndGet();
+            }
+            return;
+        }
+        long lastHeard = entry.lastHeard;
+        if (lastHeard != entry.reachedHeard) {
+            entry.reached = 0;
+            entry.reachedHeard = lastHeard;
+        }
+        long silent = System.currentTimeMillis() - lastHeard;
+        long next = 0;
+        for (long threshold : thresholds) {
+            if (threshold <= entry.reached) {
+                continue;
+            }
+            if (threshold > silent) {
+                next = threshold;
+                break;
+            }
+            reach(entry, threshold, silent);
+            entry.reached = threshold;
+        }
+        if (next > 0) {
+            wheel.schedule(entry, lastHeard + next);
+            return;
+        }
+        // 所有阈值都已达到，等待下一个定位点重新加入时间轮
+        entry.armed.set(false);
+        if (entry.lastHeard != lastHeard && entry.armed.compareAndSet(false, true)) {
+            arming.add(entry);
+        }
+    }
+
+    private void reach(Entry entry, long threshold, long silent) {
+        if (threshold == offlineMillis() && entry.online) {
+            entry.online = false;
+            onlineCount.decrementAndGet();
+            raiseOffline(entry.vehicleId, silent);
+            broadcastStatus(entry.vehicleId, false, entry.lastHeard);
+        }
+        if (Arrays.binarySearch(listenerThresholds, threshold) >= 0) {
+            entry.silent = true;
+            listeners.forEach(listener -> listener.onSilent(entry.vehicleId, silent));
+        }
+    }
+
+    private void raiseOffline(long vehicleId, long silentMillis) {
+        if (liveFleetState.getStatus(vehicleId) != 1) {
+            return;
+        }
+        String vehicleNo = liveFleetState.getVehicleNo(vehicleId);
+        Alert alert = new Alert();
+        alert.setTitle("车辆" + vehicleNo + "离线");
+        alert.setDescription(String.format("车辆 %s 已 %d 秒未上报定位，判定为离线", vehicleNo, silentMillis / 1000));
+        alert.setSeverity(config.getOfflineSeverity());
+        alert.setCategory("vehicle_offline");
+        alert.setVehicleId(vehicleId);
+        alertDispatcher.raise(alertKey(vehicleId), alert);
+    }
+
+    private void broadcastStatus(long vehicleId, boolean online, long lastHeard) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("vehicleId", vehicleId);
+        data.put("vehicleNo", liveFleetState.getVehicleNo(vehicleId));
+        data.put("online", online);
+        data.put("lastUpdateTime", LocalDateTime.ofInstant(Instant.ofEpochMilli(lastHeard), ZoneId.systemDefault()));
+        data.put("onlineCount", onlineCount.get());
+        webSocketHandler.broadcastVehicleStatus(data);
+    }
+
+    private long offlineMillis() {
+        return config.getOfflineTimeoutSeconds() * 1000L;
+    }
+
+    private static String alertKey(long vehicleId) {
+        return "offline:" + vehicleId;
+    }
+
+    /**
+     * 单辆车的监测状态
+     */
+    private static final class Entry {
+
+        final long vehicleId;
+        // 最后收到定位点的时间，由位置写入管道线程写入
+        volatile long lastHeard;
+        volatile boolean online;
+        volatile boolean silent;
+        // 是否已在时间轮或待加入队列中
+        final AtomicBoolean armed = new AtomicBoolean();
+
+        // 以下仅由时间轮线程访问：本轮静默已达到的阈值，及其对应的最后接收时间
+        long reached;
+        long reachedHeard;
+
+        Entry(long vehicleId) {
+            this.vehicleId = vehicleId;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.airport.utils;
+
+/**
+ * 地理计算工具类
+ */
+public final class GeoUtils {
+
+    /**
+     * 地球平均半径(米)
+     */
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    /**
+     * 每度纬度对应的距离(米)
+     */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * 两点间的大圆距离(米)，haversine 公式
+     */
+    public static double distanceMeters(double lon1, double lat1, double lon2, double lat2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * 指定纬度处每度经度对应的距离(米)
+     */
+    public static double metersPerDegreeLongitude(double latitude) {
+        return METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+    }
+}
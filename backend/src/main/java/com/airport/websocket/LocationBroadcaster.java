@@ -0,0 +1,249 @@
+package com.airport.websocket;
+
+import com.airport.config.TrackingProperties;
+import com.airport.tracking.LiveFleetState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 车辆位置合并推送
+ * 定位点到达时只记录每辆车的最新位置，由推送线程按固定周期把周期内有变化的车辆
+ * 合并成一条 VEHICLE_LOCATION_DELTA 消息。每辆车的位置只序列化一次，整条消息也只拼接一次，
+ * 所有客户端共用。
+ * <p>
+ * 消息通过各会话的 {@link SessionSender} 发出。上一条位置消息还没发完的客户端，
+ * 本周期的更新按车辆合并到它自己的积压中（后到的位置覆盖先到的），空闲后再一次性补发，
+ * 慢客户端只会丢掉中间位置，不会拖慢定位数据接入和其他客户端。
+ * <p>
+ * 接收全部车辆的会话共用同一条消息；订阅了视野的会话由 {@link SubscriptionRegistry}
+ * 按定位点所在网格查出，只拼接与其相关的车辆。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class LocationBroadcaster {
+
+    private static final String DELTA_PREFIX = "{\"type\":\"VEHICLE_LOCATION_DELTA\",\"data\":{\"vehicles\":[";
+
+    private final ObjectMapper objectMapper;
+    private final SubscriptionRegistry subscriptionRegistry;
+    private final LiveFleetState liveFleetState;
+    private final TrackingProperties.Broadcast config;
+
+    // 车辆ID -> 本周期内的最新位置
+    private final Map<Long, Map<String, Object>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    // 位置槽位被占用、仍有积压的会话，仅由推送线程访问
+    private final Set<SessionSender> backlogged = new HashSet<>();
+
+    private ScheduledExecutorService ticker;
+
+    public LocationBroadcaster(ObjectMapper objectMapper,
+                               SubscriptionRegistry subscriptionRegistry,
+                               LiveFleetState liveFleetState,
+                               TrackingProperties trackingProperties,
+                               MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.liveFleetState = liveFleetState;
+        this.config = trackingProperties.getBroadcast();
+
+        FunctionCounter.builder("vehicle.broadcast.published", published, LongAdder::sum)
+                .description("提交推送的车辆位置数量")
+                .register(meterRegistry);
+        FunctionCounter.builder("vehicle.broadcast.coalesced", coalesced, LongAdder::sum)
+                .description("推送周期内被同一车辆新位置覆盖的数量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, config.getTickMs(), config.getTickMs(), TimeUnit.MILLISECONDS);
+        log.info("车辆位置推送已启动，推送周期: {}ms", config.getTickMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        log.info("车辆位置推送已停止");
+    }
+
+    /**
+     * 提交车辆位置，在下一个推送周期发出
+     */
+    public void publish(Long vehicleId, Map<String, Object> locationData) {
+        published.increment();
+        if (pending.put(vehicleId, locationData) != null) {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * 推送周期：取出本周期的更新，每辆车序列化一次后按订阅分发
+     */
+    private void tick() {
+        try {
+            List<Update> updates = drain();
+            Set<SessionSender> touched = new HashSet<>();
+
+            // 接收全部车辆的会话共用一条消息
+            Map<Long, String> fragments = new LinkedHashMap<>();
+            for (Update update : updates) {
+                fragments.put(update.vehicleId, update.fragment);
+            }
+            String shared = fragments.isEmpty() ? null : buildFrame(fragments.values());
+            for (SubscriptionRegistry.Subscription subscription : subscriptionRegistry.allVehicleSubscriptions()) {
+                SessionSender sender = subscription.getSender();
+                if (sender.isOpen()) {
+                    offer(sender, fragments, shared);
+                    touched.add(sender);
+                }
+            }
+
+            // 订阅了视野或单车的会话只接收匹配的车辆
+            Map<SessionSender, Map<Long, String>> routed = new HashMap<>();
+            for (Update update : updates) {
+                subscriptionRegistry.route(update.vehicleId, update.longitude, update.latitude,
+                        liveFleetState.getVehicleTypeId(update.vehicleId), liveFleetState.getStatus(update.vehicleId),
+                        sender -> routed.computeIfAbsent(sender, k -> new LinkedHashMap<>())
+                                .put(update.vehicleId, update.fragment));
+            }
+            for (Map.Entry<SessionSender, Map<Long, String>> entry : routed.entrySet()) {
+                if (touched.add(entry.getKey()) && entry.getKey().isOpen()) {
+                    offer(entry.getKey(), entry.getValue(), null);
+                }
+            }
+
+            // 本周期没有新位置、但还有积压的会话
+            for (SessionSender sender : new ArrayList<>(backlogged)) {
+                if (!touched.contains(sender)) {
+                    if (sender.isOpen()) {
+                        offer(sender, Collections.emptyMap(), null);
+                    } else {
+                        backlogged.remove(sender);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("推送车辆位置失败", e);
+        }
+    }
+
+    /**
+     * 向单个客户端提交本周期的位置，客户端繁忙时合并到其积压中
+     *
+     * @param shared 与 fragments 对应的共享消息，为 null 时按需拼接
+     */
+    private void offer(SessionSender sender, Map<Long, String> fragments, String shared) {
+        Map<Long, String> backlog = sender.positionBacklog();
+        String frame;
+        if (backlog.isEmpty()) {
+            if (fragments.isEmpty()) {
+                return;
+            }
+            frame = shared != null ? shared : buildFrame(fragments.values());
+        } else {
+            backlog.putAll(fragments);
+            frame = buildFrame(backlog.values());
+        }
+        if (sender.offerPosition(frame)) {
+            backlog.clear();
+            backlogged.remove(sender);
+        } else {
+            backlog.putAll(fragments);
+            backlogged.add(sender);
+        }
+    }
+
+    /**
+     * 取出待推送的位置并逐车序列化
+     */
+    private List<Update> drain() {
+        List<Update> updates = new ArrayList<>(pending.size());
+        Iterator<Map.Entry<Long, Map<String, Object>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Map<String, Object>> entry = it.next();
+            Map<String, Object> data = entry.getValue();
+            // 取出期间被更新的车辆留到下一个周期
+            if (!pending.remove(entry.getKey(), data)) {
+                continue;
+            }
+            try {
+                updates.add(new Update(entry.getKey(), coordinate(data.get("longitude")),
+                        coordinate(data.get("latitude")), objectMapper.writeValueAsString(data)));
+            } catch (Exception e) {
+                log.error("序列化车辆位置失败，车辆ID: {}", entry.getKey(), e);
+            }
+        }
+        return updates;
+    }
+
+    private static double coordinate(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private String buildFrame(Collection<String> fragments) {
+        StringBuilder sb = new StringBuilder(DELTA_PREFIX.length() + fragments.size() * 192);
+        sb.append(DELTA_PREFIX);
+        boolean first = true;
+        for (String fragment : fragments) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(fragment);
+            first = false;
+        }
+        sb.append("]},\"timestamp\":").append(System.currentTimeMillis()).append('}');
+        return sb.toString();
+    }
+
+    /**
+     * 本周期内一辆车的位置
+     */
+    private static class Update {
+
+        final long vehicleId;
+        final double longitude;
+        final double latitude;
+        final String fragment;
+
+        Update(long vehicleId, double longitude, double latitude, String fragment) {
+            this.vehicleId = vehicleId;
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.fragment = fragment;
+        }
+    }
+}
@@ -1,74 +1,137 @@
 package com.airport.websocket;
 
+import com.airport.websocket.protocol.SensorAckPolicy;
+import com.airport.websocket.protocol.SensorBinaryCodec;
+import com.airport.websocket.protocol.SensorLocationBatch;
+import com.airport.websocket.protocol.SensorMessage;
+import com.airport.websocket.protocol.SensorMessageDecoder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 传感器WebSocket处理器
  * 预留接口，用于接收传感器设备发送的实时定位数据
+ * <p>
+ * 默认使用JSON文本协议；连接地址携带 protocol=binary-v1 时使用定长二进制帧，
+ * 帧格式见 {@link SensorBinaryCodec}。二进制连接的确认和心跳应答同样为二进制帧，
+ * 错误提示仍以JSON文本发送。
+ * <p>
+ * 连接参数 ack 控制位置确认的频率，取值见 {@link SensorAckPolicy}，未指定时逐条确认。
  * 
  * @author Corkedmzx
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class SensorWebSocketHandler extends TextWebSocketHandler {
+public class SensorWebSocketHandler extends AbstractWebSocketHandler {
+
+    private static final String ATTR_DEVICE_ID = "deviceId";
+    private static final String ATTR_DEVICE_HASH = "deviceHash";
+    private static final String ATTR_BINARY = "binaryProtocol";
+    private static final String ATTR_ACK_POLICY = "ackPolicy";
+
+    // 内容固定的应答预先序列化，所有会话共用
+    private static final TextMessage PONG_MESSAGE = new TextMessage("{\"type\":\"PONG\",\"data\":{}}");
+    private static final TextMessage LOCATION_UPDATED_MESSAGE =
+        new TextMessage("{\"type\":\"LOCATION_UPDATED\",\"data\":{\"message\":\"位置更新成功\"}}");
+    private static final TextMessage STATUS_RECEIVED_MESSAGE =
+        new TextMessage("{\"type\":\"STATUS_RECEIVED\",\"data\":{\"message\":\"状态报告已接收\"}}");
 
     private final ObjectMapper objectMapper;
     private final VehicleLocationService vehicleLocationService;
+    private final SensorMessageDecoder messageDecoder;
+    
+    // 每个处理线程复用一个解码结果对象，避免逐条消息分配
+    private static final ThreadLocal<SensorMessage> DECODE_BUFFER = ThreadLocal.withInitial(SensorMessage::new);
     
     // 存储传感器会话，key为设备ID，value为会话
     private final Map<String, WebSocketSession> sensorSessions = new ConcurrentHashMap<>();
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        String deviceId = getDeviceIdFromSession(session);
+        String deviceId = getQueryParam(session, "deviceId");
         if (deviceId == null || deviceId.isEmpty()) {
             log.warn("传感器连接失败：缺少设备ID");
             session.close(CloseStatus.BAD_DATA.withReason("缺少设备ID"));
             return;
         }
         
+        String protocol = getQueryParam(session, "protocol");
+        boolean binary = SensorBinaryCodec.PROTOCOL_NAME.equals(protocol);
+        if (protocol != null && !binary && !"json".equals(protocol)) {
+            log.warn("传感器连接失败：不支持的协议 {}，设备ID: {}", protocol, deviceId);
+            session.close(CloseStatus.BAD_DATA.withReason("不支持的协议"));
+            return;
+        }
+        
+        SensorAckPolicy ackPolicy;
+        try {
+            ackPolicy = SensorAckPolicy.parse(getQueryParam(session, "ack"));
+        } catch (IllegalArgumentException e) {
+            log.warn("传感器连接失败：{}，设备ID: {}", e.getMessage(), deviceId);
+            session.close(CloseStatus.BAD_DATA.withReason("不支持的确认模式"));
+            return;
+        }
+        
+        // 连接参数只解析一次，后续消息直接从会话属性读取
+        session.getAttributes().put(ATTR_DEVICE_ID, deviceId);
+        session.getAttributes().put(ATTR_ACK_POLICY, ackPolicy);
+        session.getAttributes().put(ATTR_BINARY, binary);
+        if (binary) {
+            session.getAttributes().put(ATTR_DEVICE_HASH, SensorBinaryCodec.deviceHash(deviceId));
+        }
+        
         sensorSessions.put(deviceId, session);
-        log.info("传感器连接已建立，设备ID: {}", deviceId);
+        log.info("传感器连接已建立，设备ID: {}, 协议: {}, 确认模式: {}",
+            deviceId, binary ? SensorBinaryCodec.PROTOCOL_NAME : "json", ackPolicy);
         
         // 发送连接成功消息
-        sendMessage(session, createResponse("CONNECTED", Map.of("message", "连接成功", "deviceId", deviceId)));
+        sendMessage(session, createResponse("CONNECTED", Map.of(
+            "message", "连接成功",
+            "deviceId", deviceId,
+            "protocol", binary ? SensorBinaryCodec.PROTOCOL_NAME : "json",
+            "ack", ackPolicy.toString()
+        )));
     }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         try {
             String payload = message.getPayload();
-            Map<String, Object> data = objectMapper.readValue(payload, Map.class);
+            SensorMessage data = DECODE_BUFFER.get();
+            messageDecoder.decode(payload, data);
             
-            String type = (String) data.getOrDefault("type", "UNKNOWN");
-            
-            switch (type) {
-                case "LOCATION_UPDATE":
+            switch (data.getType()) {
+                case LOCATION_UPDATE:
                     // 处理位置更新数据
                     handleLocationUpdate(session, data);
                     break;
-                case "HEARTBEAT":
+                case LOCATION_BATCH:
+                    // 处理批量位置更新
+                    handleLocationBatch(session, data);
+                    break;
+                case HEARTBEAT:
                     // 心跳检测
                     handleHeartbeat(session, data);
                     break;
-                case "STATUS_REPORT":
+                case STATUS_REPORT:
                     // 状态报告
-                    handleStatusReport(session, data);
+                    handleStatusReport(session, payload);
                     break;
                 default:
-                    log.warn("未知的消息类型: {}", type);
+                    log.warn("未知的消息类型: {}", data.getTypeName());
                     sendMessage(session, createResponse("ERROR", Map.of("message", "未知的消息类型")));
             }
         } catch (Exception e) {
@@ -77,6 +140,46 @@ public class SensorWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        if (!isBinary(session)) {
+            sendMessage(session, createResponse("ERROR", Map.of("message", "未协商二进制协议")));
+            return;
+        }
+        try {
+            ByteBuffer payload = message.getPayload();
+            SensorMessage data = DECODE_BUFFER.get();
+            SensorBinaryCodec.decode(payload, (Integer) session.getAttributes().get(ATTR_DEVICE_HASH), data);
+            
+            switch (data.getType()) {
+                case LOCATION_UPDATE:
+                    handleLocationUpdate(session, data);
+                    break;
+                case LOCATION_BATCH:
+                    handleLocationBatch(session, data);
+                    break;
+                case HEARTBEAT:
+                    handleHeartbeat(session, data);
+                    break;
+                case STATUS_REPORT:
+                    log.info("收到状态报告，设备ID: {}, 状态位: {}", getDeviceId(session), data.getStatusBits());
+                    if (!getAckPolicy(session).isNone()) {
+                        sendReply(session, SensorBinaryCodec.REPLY_STATUS_RECEIVED);
+                    }
+                    break;
+                default:
+                    log.warn("未知的二进制消息类型: {}", data.getTypeName());
+                    sendMessage(session, createResponse("ERROR", Map.of("message", "未知的消息类型")));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("二进制帧格式错误，设备ID: {}, 原因: {}", getDeviceId(session), e.getMessage());
+            sendMessage(session, createResponse("ERROR", Map.of("message", "消息处理失败: " + e.getMessage())));
+        } catch (Exception e) {
+            log.error("处理传感器二进制消息失败", e);
+            sendMessage(session, createResponse("ERROR", Map.of("message", "消息处理失败: " + e.getMessage())));
+        }
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         // 清理会话
@@ -93,58 +196,149 @@ public class SensorWebSocketHandler extends TextWebSocketHandler {
     /**
      * 处理位置更新
      */
-    private void handleLocationUpdate(WebSocketSession session, Map<String, Object> data) {
+    private void handleLocationUpdate(WebSocketSession session, SensorMessage data) {
         try {
-            String deviceId = getDeviceIdFromSession(session);
-            Map<String, Object> locationData = (Map<String, Object>) data.get("data");
+            String deviceId = getDeviceId(session);
             
-            if (locationData == null) {
+            if (!data.isHasData()) {
                 sendMessage(session, createResponse("ERROR", Map.of("message", "位置数据为空")));
                 return;
             }
+            if (!data.hasLocation()) {
+                sendMessage(session, createResponse("ERROR", Map.of("message", "位置数据缺少经纬度")));
+                return;
+            }
             
             // 调用车辆位置服务处理位置更新
-            vehicleLocationService.processLocationUpdate(deviceId, locationData);
+            boolean accepted = vehicleLocationService.processLocationUpdate(deviceId, data);
             
-            // 发送确认消息
-            sendMessage(session, createResponse("LOCATION_UPDATED", Map.of("message", "位置更新成功")));
+            // 按会话的确认策略发送确认消息，未接收的定位点不确认，之后的累计确认也不越过它
+            SensorAckPolicy ackPolicy = getAckPolicy(session);
+            if (!accepted) {
+                ackPolicy.rejected(data.getSeq());
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long fixTime = data.getTimestamp() > 0 ? data.getTimestamp() : now;
+            if (ackPolicy.record(data.getSeq(), fixTime, now)) {
+                sendLocationAck(session, ackPolicy);
+                ackPolicy.acknowledged(now);
+            }
             
-            log.debug("处理位置更新，设备ID: {}, 数据: {}", deviceId, locationData);
+            log.debug("处理位置更新，设备ID: {}, 位置: ({}, {})", deviceId, data.getLongitude(), data.getLatitude());
         } catch (Exception e) {
             log.error("处理位置更新失败", e);
             sendMessage(session, createResponse("ERROR", Map.of("message", "位置更新处理失败")));
         }
     }
 
+    /**
+     * 处理批量位置更新
+     * 整批处理完成后只回复一条累计确认，携带已处理的最大序号
+     */
+    private void handleLocationBatch(WebSocketSession session, SensorMessage data) {
+        try {
+            String deviceId = getDeviceId(session);
+            SensorLocationBatch batch = data.getBatch();
+            
+            if (batch.size() == 0) {
+                sendMessage(session, createResponse("ERROR", Map.of("message", "批量位置数据为空")));
+                return;
+            }
+            
+            long ackSeq = vehicleLocationService.processLocationBatch(deviceId, batch);
+            
+            if (getAckPolicy(session).isNone()) {
+                log.debug("处理批量位置更新，设备ID: {}, 定位点: {}", deviceId, batch.size());
+                return;
+            }
+            if (isBinary(session)) {
+                sendReply(session, SensorBinaryCodec.REPLY_LOCATION_BATCH_ACK, ackSeq);
+            } else {
+                sendMessage(session, createResponse("LOCATION_BATCH_ACK", Map.of("ackSeq", ackSeq, "count", batch.size())));
+            }
+            
+            log.debug("处理批量位置更新，设备ID: {}, 定位点: {}, 确认序号: {}", deviceId, batch.size(), ackSeq);
+        } catch (Exception e) {
+            log.error("处理批量位置更新失败", e);
+            sendMessage(session, createResponse("ERROR", Map.of("message", "批量位置更新处理失败")));
+        }
+    }
+
     /**
      * 处理心跳
      */
-    private void handleHeartbeat(WebSocketSession session, Map<String, Object> data) {
-        sendMessage(session, createResponse("PONG", Map.of("timestamp", System.currentTimeMillis())));
+    private void handleHeartbeat(WebSocketSession session, SensorMessage data) {
+        if (isBinary(session)) {
+            sendReply(session, SensorBinaryCodec.REPLY_PONG);
+            return;
+        }
+        sendMessage(session, PONG_MESSAGE);
     }
 
     /**
      * 处理状态报告
      */
-    private void handleStatusReport(WebSocketSession session, Map<String, Object> data) {
-        String deviceId = getDeviceIdFromSession(session);
-        log.info("收到状态报告，设备ID: {}, 数据: {}", deviceId, data);
-        sendMessage(session, createResponse("STATUS_RECEIVED", Map.of("message", "状态报告已接收")));
+    private void handleStatusReport(WebSocketSession session, String payload) {
+        String deviceId = getDeviceId(session);
+        log.info("收到状态报告，设备ID: {}, 数据: {}", deviceId, payload);
+        if (!getAckPolicy(session).isNone()) {
+            sendMessage(session, STATUS_RECEIVED_MESSAGE);
+        }
+    }
+
+    /**
+     * 发送位置确认
+     * 逐条确认且未携带序号时使用预先序列化的固定应答，否则回复累计数量和最大序号
+     */
+    private void sendLocationAck(WebSocketSession session, SensorAckPolicy ackPolicy) {
+        if (isBinary(session)) {
+            sendReply(session, SensorBinaryCodec.REPLY_LOCATION_UPDATED, ackPolicy.getPendingTimestamp());
+        } else if (ackPolicy.getPending() == 1 && ackPolicy.getPendingSeq() < 0) {
+            sendMessage(session, LOCATION_UPDATED_MESSAGE);
+        } else {
+            sendMessage(session, createResponse("LOCATION_UPDATED", Map.of(
+                "message", "位置更新成功",
+                "count", ackPolicy.getPending(),
+                "ackSeq", ackPolicy.getPendingSeq()
+            )));
+        }
     }
 
     /**
      * 发送消息
      */
     private void sendMessage(WebSocketSession session, String message) {
+        sendMessage(session, new TextMessage(message));
+    }
+
+    private void sendMessage(WebSocketSession session, TextMessage message) {
         try {
             if (session.isOpen()) {
-                session.sendMessage(new TextMessage(message));
+                session.sendMessage(message);
             }
         } catch (IOException e) {
             log.error("发送消息失败", e);
         }
     }
 
+    /**
+     * 发送二进制应答帧
+     */
+    private void sendReply(WebSocketSession session, byte replyType) {
+        sendReply(session, replyType, System.currentTimeMillis());
+    }
+
+    private void sendReply(WebSocketSession session, byte replyType, long value) {
+        try {
+            if (session.isOpen()) {
+                session.sendMessage(new BinaryMessage(SensorBinaryCodec.encodeReply(replyType, value)));
+            }
+        } catch (IOException e) {
+            log.error("发送应答帧失败", e);
+        }
+    }
+
     /**
      * 创建响应消息
      */
@@ -163,20 +357,43 @@ public class SensorWebSocketHandler extends TextWebSocketHandler {
     }
 
     /**
-     * 从会话中获取设备ID
+     * 从会话属性中获取设备ID
+     */
+    private String getDeviceId(WebSocketSession session) {
+        return (String) session.getAttributes().get(ATTR_DEVICE_ID);
+    }
+
+    /**
+     * 获取会话的确认策略
      */
-    private String getDeviceIdFromSession(WebSocketSession session) {
-        // 从查询参数中获取设备ID
+    private SensorAckPolicy getAckPolicy(WebSocketSession session) {
+        return (SensorAckPolicy) session.getAttributes().get(ATTR_ACK_POLICY);
+    }
+
+    /**
+     * 会话是否协商了二进制协议
+     */
+    private boolean isBinary(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(ATTR_BINARY));
+    }
+
+    /**
+     * 从连接地址中读取查询参数
+     */
+    private String getQueryParam(WebSocketSession session, String name) {
+        if (session.getUri() == null) {
+            return null;
+        }
         String query = session.getUri().getQuery();
-        if (query != null && query.contains("deviceId=")) {
-            String[] params = query.split("&");
-            for (String param : params) {
-                if (param.startsWith("deviceId=")) {
-                    return param.substring(9);
-                }
+        if (query == null) {
+            return null;
+        }
+        String prefix = name + "=";
+        for (String param : query.split("&")) {
+            if (param.startsWith(prefix)) {
+                return param.substring(prefix.length());
             }
         }
         return null;
     }
 }
-
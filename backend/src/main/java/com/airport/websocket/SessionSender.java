@@ -0,0 +1,238 @@
+package com.airport.websocket;
+
+import com.airport.dto.WebSocketSessionStats;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个会话的异步发送器
+ * 业务线程只负责入队，实际发送由共享的发送线程池完成，同一会话同时只有一个线程在发送。
+ * <ul>
+ *     <li>控制消息（连接确认、心跳应答、告警、任务状态等）进入有界队列，按顺序发送，从不丢弃；
+ *     队列满说明客户端已无法正常接收，直接关闭会话让其重连</li>
+ *     <li>位置消息只保留一个待发送槽位，槽位被占用时由调用方把新位置合并到自己的积压中，
+ *     相当于丢弃旧的中间位置</li>
+ * </ul>
+ * 控制消息优先于位置消息发送。
+ * <p>
+ * 单条消息发送超过时间上限时关闭会话：Tomcat 的阻塞发送按会话属性设置超时，
+ * 其他容器由 {@link SessionSenderRegistry} 定期检查发送中的会话。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+public class SessionSender {
+
+    // 单次调度最多连续发送的消息数，避免一个繁忙会话长期占用发送线程
+    private static final int MAX_MESSAGES_PER_RUN = 32;
+    // Tomcat 阻塞发送超时(毫秒)的会话属性
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final WebSocketSession session;
+    private final String username;
+    private final Executor executor;
+    private final int controlQueueCapacity;
+    private final SessionSenderRegistry.Metrics metrics;
+
+    private final Queue<TextMessage> controlQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger controlQueueSize = new AtomicInteger();
+    private final AtomicReference<TextMessage> pendingPosition = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // 位置槽位被占用期间积压的车辆位置片段，仅由位置推送线程访问
+    private final Map<Long, String> positionBacklog = new LinkedHashMap<>();
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder droppedPositions = new LongAdder();
+    private final LongAdder totalSendNanos = new LongAdder();
+    private volatile long maxSendNanos;
+    private volatile long lastSendAt;
+    // 当前消息开始发送的时间(纳秒)，未在发送时为 0
+    private volatile long sendStartedAt;
+
+    SessionSender(WebSocketSession session, String username, Executor executor,
+                  int controlQueueCapacity, long sendTimeLimitMs, SessionSenderRegistry.Metrics metrics) {
+        this.session = session;
+        this.username = username;
+        this.executor = executor;
+        this.controlQueueCapacity = controlQueueCapacity;
+        this.metrics = metrics;
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session standardSession = nativeSession.getNativeSession(Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimitMs);
+            }
+        }
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public boolean isOpen() {
+        return !closed.get() && session.isOpen();
+    }
+
+    /**
+     * 发送控制消息，不会丢弃
+     *
+     * @return 是否已入队，队列满时会关闭会话并返回 false
+     */
+    public boolean sendControl(String message) {
+        if (!isOpen()) {
+            return false;
+        }
+        if (controlQueueSize.incrementAndGet() > controlQueueCapacity) {
+            controlQueueSize.decrementAndGet();
+            log.warn("会话控制消息积压超过 {} 条，关闭会话: {}, 用户: {}", controlQueueCapacity, getId(), username);
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+        controlQueue.offer(new TextMessage(message));
+        schedule();
+        return true;
+    }
+
+    /**
+     * 发送位置消息
+     *
+     * @return 是否已接收，上一条位置消息尚未发出时返回 false，由调用方合并后重试
+     */
+    public boolean offerPosition(String frame) {
+        if (!isOpen()) {
+            return false;
+        }
+        if (!pendingPosition.compareAndSet(null, new TextMessage(frame))) {
+            droppedPositions.increment();
+            metrics.droppedPositions.increment();
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * 当前会话的发送统计
+     */
+    public WebSocketSessionStats stats() {
+        WebSocketSessionStats stats = new WebSocketSessionStats();
+        stats.setSessionId(getId());
+        stats.setUsername(username);
+        stats.setQueueDepth(queueDepth());
+        long sent = sentCount.sum();
+        stats.setSentCount(sent);
+        stats.setDroppedPositions(droppedPositions.sum());
+        stats.setAvgSendMillis(sent > 0 ? totalSendNanos.sum() / 1e6 / sent : 0);
+        stats.setMaxSendMillis(maxSendNanos / 1e6);
+        stats.setLastSendAt(lastSendAt);
+        return stats;
+    }
+
+    Map<Long, String> positionBacklog() {
+        return positionBacklog;
+    }
+
+    /**
+     * 当前消息是否已发送超过指定时间
+     */
+    boolean isStalled(long now, long limitNanos) {
+        long startedAt = sendStartedAt;
+        return startedAt != 0 && now - startedAt > limitNanos;
+    }
+
+    int queueDepth() {
+        return controlQueueSize.get() + (pendingPosition.get() != null ? 1 : 0);
+    }
+
+    void close(CloseStatus status) {
+        // 发送超时关闭后，阻塞的发送随之失败，不重复关闭
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            log.debug("关闭会话失败: {}", getId(), e);
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 发送积压的消息，控制消息优先
+     */
+    private void drain() {
+        int sent = 0;
+        while (sent < MAX_MESSAGES_PER_RUN && isOpen()) {
+            TextMessage message = controlQueue.poll();
+            boolean position = false;
+            if (message != null) {
+                controlQueueSize.decrementAndGet();
+            } else {
+                message = pendingPosition.get();
+                position = true;
+            }
+            if (message == null) {
+                break;
+            }
+            send(message);
+            // 位置槽位在发送完成后才释放，发送期间到达的位置由调用方合并
+            if (position) {
+                pendingPosition.set(null);
+            }
+            sent++;
+        }
+        scheduled.set(false);
+        // 释放调度标记后再次检查，避免遗漏期间入队的消息
+        if (isOpen() && (controlQueueSize.get() > 0 || pendingPosition.get() != null)) {
+            schedule();
+        }
+    }
+
+    private void send(TextMessage message) {
+        long start = System.nanoTime();
+        sendStartedAt = start;
+        try {
+            session.sendMessage(message);
+        } catch (Exception e) {
+            log.warn("发送WebSocket消息失败，关闭会话: {}, 原因: {}", getId(), e.getMessage());
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return;
+        } finally {
+            sendStartedAt = 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        sentCount.increment();
+        totalSendNanos.add(elapsed);
+        if (elapsed > maxSendNanos) {
+            maxSendNanos = elapsed;
+        }
+        lastSendAt = System.currentTimeMillis();
+        metrics.sendTimer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,158 @@
+package com.airport.websocket;
+
+import com.airport.config.TrackingProperties;
+import com.airport.dto.WebSocketSessionStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 大屏WebSocket会话发送器注册表
+ * 为每个会话创建 {@link SessionSender}，所有会话共用一个发送线程池，并汇总发送指标。
+ * 定期关闭单条消息发送超时的会话，避免少数卡住的客户端占满发送线程、影响所有大屏
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class SessionSenderRegistry {
+
+    private final TrackingProperties.Broadcast config;
+    private final ExecutorService executor;
+    private final Metrics metrics;
+
+    // 会话ID -> 发送器
+    private final Map<String, SessionSender> senders = new ConcurrentHashMap<>();
+
+    public SessionSenderRegistry(TrackingProperties trackingProperties, MeterRegistry meterRegistry) {
+        this.config = trackingProperties.getBroadcast();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(config.getFanoutThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "websocket-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.metrics = new Metrics(meterRegistry);
+        Gauge.builder("vehicle.websocket.sessions", senders, Map::size)
+                .description("大屏WebSocket会话数量")
+                .register(meterRegistry);
+        Gauge.builder("vehicle.websocket.queue.depth", this, SessionSenderRegistry::totalQueueDepth)
+                .description("所有会话待发送的消息数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 为新会话创建发送器
+     */
+    public SessionSender register(WebSocketSession session, String username) {
+        SessionSender sender = new SessionSender(session, username, executor,
+                config.getControlQueueCapacity(), config.getSendTimeLimitMs(), metrics);
+        senders.put(session.getId(), sender);
+        return sender;
+    }
+
+    /**
+     * 关闭发送超时的会话，关闭连接后阻塞在发送上的线程随之返回
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void closeStalledSessions() {
+        long now = System.nanoTime();
+        long limitNanos = TimeUnit.MILLISECONDS.toNanos(config.getSendTimeLimitMs());
+        for (SessionSender sender : senders.values()) {
+            if (sender.isOpen() && sender.isStalled(now, limitNanos)) {
+                metrics.stalledSessions.increment();
+                log.warn("会话发送消息超过 {}ms，关闭会话: {}", config.getSendTimeLimitMs(), sender.getId());
+                sender.close(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    /**
+     * 移除会话的发送器
+     */
+    public void unregister(WebSocketSession session) {
+        senders.remove(session.getId());
+    }
+
+    public SessionSender get(WebSocketSession session) {
+        return senders.get(session.getId());
+    }
+
+    public Collection<SessionSender> all() {
+        return senders.values();
+    }
+
+    /**
+     * 各会话的发送统计
+     */
+    public List<WebSocketSessionStats> sessionStats() {
+        List<WebSocketSessionStats> stats = new ArrayList<>(senders.size());
+        for (SessionSender sender : senders.values()) {
+            stats.add(sender.stats());
+        }
+        return stats;
+    }
+
+    public long totalDroppedPositions() {
+        return metrics.droppedPositions.sum();
+    }
+
+    public Timer sendTimer() {
+        return metrics.sendTimer;
+    }
+
+    private double totalQueueDepth() {
+        long depth = 0;
+        for (SessionSender sender : senders.values()) {
+            depth += sender.queueDepth();
+        }
+        return depth;
+    }
+
+    /**
+     * 所有会话共用的发送指标
+     */
+    static class Metrics {
+
+        final Timer sendTimer;
+        final LongAdder droppedPositions = new LongAdder();
+        final LongAdder stalledSessions = new LongAdder();
+
+        Metrics(MeterRegistry meterRegistry) {
+            this.sendTimer = Timer.builder("vehicle.websocket.send.latency")
+                    .description("单条WebSocket消息发送耗时")
+                    .register(meterRegistry);
+            FunctionCounter.builder("vehicle.websocket.dropped.positions", droppedPositions, LongAdder::sum)
+                    .description("因客户端未及时接收而被合并的位置消息数")
+                    .register(meterRegistry);
+            FunctionCounter.builder("vehicle.websocket.stalled.sessions", stalledSessions, LongAdder::sum)
+                    .description("因发送超时被关闭的会话数")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.airport.websocket;
+
+import com.airport.config.TrackingProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 大屏位置订阅注册表
+ * <ul>
+ *     <li>未订阅视野的会话接收全部车辆（原有行为）</li>
+ *     <li>SUBSCRIBE_VIEWPORT 后只接收视野范围内、且符合车辆类型/状态过滤条件的车辆</li>
+ *     <li>SUBSCRIBE_VEHICLE 订阅的车辆始终推送，一辆车可以有多个订阅者</li>
+ * </ul>
+ * 视野按经纬度网格建立索引，路由一个定位点只需查询其所在网格中的视野，
+ * 不需要遍历全部会话；覆盖网格过多的视野（例如全场视野）放在单独的列表中逐个判断。
+ *
+ * @author Corkedmzx
+ */
+@Slf4j
+@Component
+public class SubscriptionRegistry {
+
+    private final double cellDegrees;
+    private final int maxViewportCells;
+
+    // 会话ID -> 订阅
+    private final Map<String, Subscription> bySession = new ConcurrentHashMap<>();
+    // 车辆ID -> 显式订阅该车辆的会话
+    private final Map<Long, Set<Subscription>> byVehicle = new ConcurrentHashMap<>();
+    // 接收全部车辆的会话
+    private final Set<Subscription> allVehicles = ConcurrentHashMap.newKeySet();
+    // 网格 -> 覆盖该网格的视野订阅
+    private final Map<Long, Set<Subscription>> grid = new ConcurrentHashMap<>();
+    // 覆盖网格过多或未限定范围的视野订阅
+    private final Set<Subscription> wideViewports = ConcurrentHashMap.newKeySet();
+
+    public SubscriptionRegistry(TrackingProperties trackingProperties) {
+        TrackingProperties.Broadcast config = trackingProperties.getBroadcast();
+        this.cellDegrees = config.getViewportCellDegrees();
+        this.maxViewportCells = config.getMaxViewportCells();
+    }
+
+    /**
+     * 注册会话，默认接收全部车辆
+     */
+    public void register(SessionSender sender) {
+        Subscription subscription = new Subscription(sender);
+        bySession.put(sender.getId(), subscription);
+        allVehicles.add(subscription);
+    }
+
+    /**
+     * 移除会话的全部订阅
+     */
+    public void unregister(String sessionId) {
+        Subscription subscription = bySession.remove(sessionId);
+        if (subscription == null) {
+            return;
+        }
+        allVehicles.remove(subscription);
+        removeViewport(subscription);
+        for (Long vehicleId : subscription.vehicles) {
+            removeVehicle(subscription, vehicleId);
+        }
+    }
+
+    /**
+     * 订阅单辆车
+     */
+    public boolean subscribeVehicle(String sessionId, Long vehicleId) {
+        Subscription subscription = bySession.get(sessionId);
+        if (subscription == null) {
+            return false;
+        }
+        subscription.vehicles.add(vehicleId);
+        byVehicle.computeIfAbsent(vehicleId, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return true;
+    }
+
+    /**
+     * 取消订阅单辆车
+     */
+    public void unsubscribeVehicle(String sessionId, Long vehicleId) {
+        Subscription subscription = bySession.get(sessionId);
+        if (subscription != null && subscription.vehicles.remove(vehicleId)) {
+            removeVehicle(subscription, vehicleId);
+        }
+    }
+
+    /**
+     * 订阅视野，替换会话之前的视野
+     */
+    public boolean subscribeViewport(String sessionId, Viewport viewport) {
+        Subscription subscription = bySession.get(sessionId);
+        if (subscription == null) {
+            return false;
+        }
+        removeViewport(subscription);
+        subscription.viewport = viewport;
+        allVehicles.remove(subscription);
+
+        if (!viewport.isBounded() || cellCount(viewport) > maxViewportCells) {
+            wideViewports.add(subscription);
+            return true;
+        }
+        long minX = cell(viewport.getMinLon());
+        long maxX = cell(viewport.getMaxLon());
+        long minY = cell(viewport.getMinLat());
+        long maxY = cell(viewport.getMaxLat());
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                grid.computeIfAbsent(key(x, y), k -> ConcurrentHashMap.newKeySet()).add(subscription);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 取消视野订阅，恢复接收全部车辆
+     */
+    public void unsubscribeViewport(String sessionId) {
+        Subscription subscription = bySession.get(sessionId);
+        if (subscription == null) {
+            return;
+        }
+        removeViewport(subscription);
+        allVehicles.add(subscription);
+    }
+
+    /**
+     * 接收全部车辆的会话
+     */
+    public Collection<Subscription> allVehicleSubscriptions() {
+        return allVehicles;
+    }
+
+    /**
+     * 查找需要接收该车辆位置的会话，不包含接收全部车辆的会话；
+     * 同一会话可能被回调多次，由调用方去重
+     */
+    public void route(long vehicleId, double longitude, double latitude,
+                      long vehicleTypeId, int status, Consumer<SessionSender> sink) {
+        Set<Subscription> subscribers = byVehicle.get(vehicleId);
+        if (subscribers != null) {
+            for (Subscription subscription : subscribers) {
+                if (subscription.viewport != null) {
+                    sink.accept(subscription.sender);
+                }
+            }
+        }
+        if (Double.isNaN(longitude) || Double.isNaN(latitude)) {
+            return;
+        }
+        Set<Subscription> candidates = grid.get(key(cell(longitude), cell(latitude)));
+        if (candidates != null) {
+            for (Subscription subscription : candidates) {
+                Viewport viewport = subscription.viewport;
+                if (viewport != null && viewport.matches(longitude, latitude, vehicleTypeId, status)) {
+                    sink.accept(subscription.sender);
+                }
+            }
+        }
+        for (Subscription subscription : wideViewports) {
+            Viewport viewport = subscription.viewport;
+            if (viewport != null && viewport.matches(longitude, latitude, vehicleTypeId, status)) {
+                sink.accept(subscription.sender);
+            }
+        }
+    }
+
+    private void removeVehicle(Subscription subscription, Long vehicleId) {
+        byVehicle.computeIfPresent(vehicleId, (k, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void removeViewport(Subscription subscription) {
+        Viewport viewport = subscription.viewport;
+        if (viewport == null) {
+            return;
+        }
+        subscription.viewport = null;
+        if (wideViewports.remove(subscription)) {
+            return;
+        }
+        long minX = cell(viewport.getMinLon());
+        long maxX = cell(viewport.getMaxLon());
+        long minY = cell(viewport.getMinLat());
+        long maxY = cell(viewport.getMaxLat());
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                grid.computeIfPresent(key(x, y), (k, set) -> {
+                    set.remove(subscription);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+
+    /**
+     * 视野覆盖的网格数，溢出时按大视野处理
+     */
+    private long cellCount(Viewport viewport) {
+        try {
+            long width = Math.addExact(Math.subtractExact(cell(viewport.getMaxLon()), cell(viewport.getMinLon())), 1);
+            long height = Math.addExact(Math.subtractExact(cell(viewport.getMaxLat()), cell(viewport.getMinLat())), 1);
+            return Math.multiplyExact(width, height);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private long cell(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 单个会话的订阅
+     */
+    public static class Subscription {
+
+        @Getter
+        private final SessionSender sender;
+        private final Set<Long> vehicles = ConcurrentHashMap.newKeySet();
+        private volatile Viewport viewport;
+
+        Subscription(SessionSender sender) {
+            this.sender = sender;
+        }
+    }
+
+    /**
+     * 视野范围及过滤条件
+     */
+    @Getter
+    public static class Viewport {
+
+        private final double minLat;
+        private final double maxLat;
+        private final double minLon;
+        private final double maxLon;
+        private final boolean bounded;
+        // 为空表示不过滤
+        private final Set<Long> vehicleTypeIds;
+        private final Set<Integer> statuses;
+
+        /**
+         * @param minLat 最小纬度，四个边界都为 null 时表示不限范围，只按类型/状态过滤
+         */
+        public Viewport(Double minLat, Double maxLat, Double minLon, Double maxLon,
+                        Set<Long> vehicleTypeIds, Set<Integer> statuses) {
+            this.bounded = minLat != null && maxLat != null && minLon != null && maxLon != null;
+            if (!bounded && (minLat != null || maxLat != null || minLon != null || maxLon != null)) {
+                throw new IllegalArgumentException("视野范围不完整");
+            }
+            if (bounded && (!validLatitude(minLat) || !validLatitude(maxLat)
+                    || !validLongitude(minLon) || !validLongitude(maxLon))) {
+                throw new IllegalArgumentException("视野范围超出经纬度范围");
+            }
+            if (bounded && (minLat > maxLat || minLon > maxLon)) {
+                throw new IllegalArgumentException("视野范围无效");
+            }
+            this.minLat = bounded ? minLat : -90;
+            this.maxLat = bounded ? maxLat : 90;
+            this.minLon = bounded ? minLon : -180;
+            this.maxLon = bounded ? maxLon : 180;
+            this.vehicleTypeIds = vehicleTypeIds == null || vehicleTypeIds.isEmpty() ? null : vehicleTypeIds;
+            this.statuses = statuses == null || statuses.isEmpty() ? null : statuses;
+        }
+
+        // NaN 与任何值比较都为 false，同时被排除
+        private static boolean validLatitude(double latitude) {
+            return latitude >= -90 && latitude <= 90;
+        }
+
+        private static boolean validLongitude(double longitude) {
+            return longitude >= -180 && longitude <= 180;
+        }
+
+        boolean matches(double longitude, double latitude, long vehicleTypeId, int status) {
+            return latitude >= minLat && latitude <= maxLat
+                    && longitude >= minLon && longitude <= maxLon
+                    && (vehicleTypeIds == null || vehicleTypeIds.contains(vehicleTypeId))
+                    && (statuses == null || statuses.contains(status));
+        }
+    }
+}
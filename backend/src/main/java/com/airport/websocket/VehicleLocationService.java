@@ -1,6 +1,7 @@
 package com.airport.websocket;
 
-import java.util.Map;
+import com.airport.websocket.protocol.SensorLocationBatch;
+import com.airport.websocket.protocol.SensorMessage;
 
 /**
  * 车辆位置服务接口
@@ -14,14 +15,23 @@ public interface VehicleLocationService {
      * 处理位置更新
      * 
      * @param deviceId 设备ID
-     * @param locationData 位置数据，包含：
-     *                    - vehicleId: 车辆ID（可选）
-     *                    - longitude: 经度
-     *                    - latitude: 纬度
-     *                    - address: 地址（可选）
-     *                    - speed: 速度（可选）
-     *                    - direction: 方向（可选）
+     * @param message 已解码的位置消息，包含：
+     *                - longitude: 经度
+     *                - latitude: 纬度
+     *                - address: 地址（可选）
+     *                - speed: 速度（可选）
+     *                - direction: 方向（可选）
+     * @return 定位点是否已入队或确定丢弃，写入队列已满或设备未绑定车辆时返回 false，不应确认
      */
-    void processLocationUpdate(String deviceId, Map<String, Object> locationData);
-}
+    boolean processLocationUpdate(String deviceId, SensorMessage message);
 
+    /**
+     * 处理批量位置更新
+     * 一次解析车辆，按顺序处理定位点，只广播最新的位置；写入队列已满时停止处理，其后的定位点不确认
+     *
+     * @param deviceId 设备ID
+     * @param batch 批量定位点，缺少经纬度的定位点会被跳过
+     * @return 已入队或确定丢弃的定位点中的最大序号，没有这样的定位点时返回 -1
+     */
+    long processLocationBatch(String deviceId, SensorLocationBatch batch);
+}
@@ -1,9 +1,11 @@
 package com.airport.websocket;
 
-import com.airport.dto.VehicleLocationDTO;
-import com.airport.entity.Vehicle;
-import com.airport.repository.VehicleRepository;
-import com.airport.service.VehicleService;
+import com.airport.tracking.DeviceVehicleCache;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.LocationFix;
+import com.airport.tracking.LocationIngestionPipeline;
+import com.airport.websocket.protocol.SensorLocationBatch;
+import com.airport.websocket.protocol.SensorMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,7 +15,7 @@ import java.util.Map;
 
 /**
  * 车辆位置服务实现
- * 处理传感器发送的实时定位数据
+ * 处理传感器发送的实时定位数据，位置落库由写入管道异步批量完成
  * 
  * @author Corkedmzx
  */
@@ -22,85 +24,139 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class VehicleLocationServiceImpl implements VehicleLocationService {
 
-    private final VehicleRepository vehicleRepository;
-    private final VehicleService vehicleService;
+    private final DeviceVehicleCache deviceVehicleCache;
+    private final LocationIngestionPipeline ingestionPipeline;
+    private final LiveFleetState liveFleetState;
     private final VehicleLocationWebSocketHandler webSocketHandler;
 
     @Override
-    public void processLocationUpdate(String deviceId, Map<String, Object> locationData) {
+    public boolean processLocationUpdate(String deviceId, SensorMessage message) {
         try {
-            // 根据设备ID查找车辆
-            Vehicle vehicle = vehicleRepository.findByGpsDeviceId(deviceId)
-                    .orElse(null);
-            
-            if (vehicle == null) {
+            // 根据设备ID解析车辆
+            Long vehicleId = deviceVehicleCache.resolve(deviceId);
+            if (vehicleId == null) {
                 log.warn("未找到设备ID对应的车辆: {}", deviceId);
-                return;
+                return false;
             }
+            String vehicleNo = liveFleetState.getVehicleNo(vehicleId);
             
-            // 构建位置DTO
-            VehicleLocationDTO locationDTO = new VehicleLocationDTO();
-            Double longitude = getDoubleValue(locationData, "longitude");
-            Double latitude = getDoubleValue(locationData, "latitude");
-            locationDTO.setLongitude(longitude != null ? BigDecimal.valueOf(longitude) : null);
-            locationDTO.setLatitude(latitude != null ? BigDecimal.valueOf(latitude) : null);
-            locationDTO.setAddress(getStringValue(locationData, "address"));
+            // 构建定位点，交给写入管道异步批量落库
+            LocationFix fix = new LocationFix();
+            fix.setVehicleId(vehicleId);
+            fix.setLongitude(message.getLongitude());
+            fix.setLatitude(message.getLatitude());
+            fix.setAddress(message.getAddress());
+            fix.setSpeed(message.getSpeed());
+            fix.setDirection(message.getDirection());
+            fix.setTimestamp(resolveTimestamp(message.getTimestamp()));
             
-            // 更新车辆位置
-            Vehicle updatedVehicle = vehicleService.updateVehicleLocation(vehicle.getId(), locationDTO);
+            // 先更新实时车队状态，早于当前位置的定位点只追加轨迹历史，不更新位置也不广播
+            boolean live = liveFleetState.update(fix);
+            fix.setHistoryOnly(!live);
             
-            // 通过WebSocket广播位置更新
-            Map<String, Object> broadcastData = Map.of(
-                "vehicleId", updatedVehicle.getId(),
-                "vehicleNo", updatedVehicle.getVehicleNo(),
-                "longitude", locationDTO.getLongitude(),
-                "latitude", locationDTO.getLatitude(),
-                "address", locationDTO.getAddress() != null ? locationDTO.getAddress() : "",
-                "speed", getDoubleValue(locationData, "speed", 0.0),
-                "direction", getDoubleValue(locationData, "direction", 0.0),
-                "timestamp", System.currentTimeMillis()
-            );
+            if (!ingestionPipeline.submit(fix)) {
+                // 不确认，终端会重传
+                log.warn("位置写入队列已满，定位点未确认，车辆: {}", vehicleNo);
+                return false;
+            }
+            if (!live) {
+                log.debug("补传定位点已转入轨迹历史，车辆: {}", vehicleNo);
+                return true;
+            }
             
-            webSocketHandler.broadcastVehicleLocationUpdate(updatedVehicle.getId(), broadcastData);
+            // 通过WebSocket广播位置更新
+            broadcast(vehicleId, vehicleNo, fix);
             
-            log.debug("处理位置更新成功，车辆: {}, 设备ID: {}", updatedVehicle.getVehicleNo(), deviceId);
+            log.debug("处理位置更新成功，车辆: {}, 设备ID: {}", vehicleNo, deviceId);
+            return true;
         } catch (Exception e) {
             log.error("处理位置更新失败，设备ID: {}", deviceId, e);
+            return false;
         }
     }
 
-    /**
-     * 获取Double值
-     */
-    private Double getDoubleValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
+    @Override
+    public long processLocationBatch(String deviceId, SensorLocationBatch batch) {
         try {
-            return Double.parseDouble(value.toString());
+            Long vehicleId = deviceVehicleCache.resolve(deviceId);
+            if (vehicleId == null) {
+                log.warn("未找到设备ID对应的车辆: {}", deviceId);
+                return -1;
+            }
+            String vehicleNo = liveFleetState.getVehicleNo(vehicleId);
+            
+            long ackSeq = -1;
+            int pending = 0;
+            LocationFix latest = null;
+            for (int i = 0; i < batch.size(); i++) {
+                if (!batch.hasLocation(i)) {
+                    // 缺少经纬度的定位点无法处理，重传也不会改变，直接确认
+                    ackSeq = Math.max(ackSeq, batch.seq(i));
+                    continue;
+                }
+                
+                LocationFix fix = new LocationFix();
+                fix.setVehicleId(vehicleId);
+                fix.setLongitude(batch.longitude(i));
+                fix.setLatitude(batch.latitude(i));
+                fix.setAddress(batch.address(i));
+                fix.setSpeed(batch.speed(i));
+                fix.setDirection(batch.direction(i));
+                fix.setTimestamp(resolveTimestamp(batch.timestamp(i)));
+                
+                // 早于当前位置的补传定位点只追加轨迹历史
+                boolean live = liveFleetState.update(fix);
+                fix.setHistoryOnly(!live);
+                if (!ingestionPipeline.submit(fix)) {
+                    // 写入队列已满，从该定位点起不再确认，终端会从这里重传
+                    pending = batch.size() - i;
+                    break;
+                }
+                if (live) {
+                    latest = fix;
+                }
+                // 只有已入队或确定丢弃的定位点才确认
+                ackSeq = Math.max(ackSeq, batch.seq(i));
+            }
+            
+            if (pending > 0) {
+                log.warn("位置写入队列已满，{} 个定位点未确认，等待终端重传，车辆: {}", pending, vehicleNo);
+            }
+            // 补传的历史定位点只追加轨迹历史，大屏只需要最新位置
+            if (latest != null) {
+                broadcast(vehicleId, vehicleNo, latest);
+            }
+            
+            log.debug("处理批量位置更新成功，车辆: {}, 定位点: {}, 确认序号: {}", vehicleNo, batch.size(), ackSeq);
+            return ackSeq;
         } catch (Exception e) {
-            return null;
+            log.error("处理批量位置更新失败，设备ID: {}", deviceId, e);
+            return -1;
         }
     }
 
     /**
-     * 获取Double值（带默认值）
+     * 通过WebSocket广播车辆位置
      */
-    private Double getDoubleValue(Map<String, Object> data, String key, Double defaultValue) {
-        Double value = getDoubleValue(data, key);
-        return value != null ? value : defaultValue;
+    private void broadcast(Long vehicleId, String vehicleNo, LocationFix fix) {
+        Map<String, Object> broadcastData = Map.of(
+            "vehicleId", vehicleId,
+            "vehicleNo", vehicleNo != null ? vehicleNo : "",
+            "longitude", BigDecimal.valueOf(fix.getLongitude()),
+            "latitude", BigDecimal.valueOf(fix.getLatitude()),
+            "address", fix.getAddress() != null ? fix.getAddress() : "",
+            "speed", fix.getSpeed(),
+            "direction", fix.getDirection(),
+            "timestamp", fix.getTimestamp()
+        );
+        webSocketHandler.broadcastVehicleLocationUpdate(vehicleId, broadcastData);
     }
 
     /**
-     * 获取String值
+     * 优先使用设备上报的定位时间，未上报或时间超前于服务器时使用服务器时间
      */
-    private String getStringValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        return value != null ? value.toString() : null;
+    private long resolveTimestamp(long deviceTimestamp) {
+        long now = System.currentTimeMillis();
+        return deviceTimestamp > 0 && deviceTimestamp < now ? deviceTimestamp : now;
     }
 }
-
@@ -10,9 +10,10 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 /**
  * 车辆位置WebSocket处理器
@@ -27,12 +28,9 @@ public class VehicleLocationWebSocketHandler extends TextWebSocketHandler {
 
     private final JwtUtils jwtUtils;
     private final ObjectMapper objectMapper;
-    
-    // 存储所有连接的WebSocket会话，key为车辆ID，value为会话集合
-    private final Map<Long, WebSocketSession> vehicleSessions = new ConcurrentHashMap<>();
-    
-    // 存储用户会话，key为用户名，value为会话集合
-    private final Map<String, WebSocketSession> userSessions = new ConcurrentHashMap<>();
+    private final LocationBroadcaster locationBroadcaster;
+    private final SessionSenderRegistry senderRegistry;
+    private final SubscriptionRegistry subscriptionRegistry;
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -46,7 +44,9 @@ public class VehicleLocationWebSocketHandler extends TextWebSocketHandler {
         String username = jwtUtils.getUsernameFromToken(token);
         Long userId = jwtUtils.getUserIdFromToken(token);
         
-        userSessions.put(username, session);
+        // 每个会话一个发送器，同一用户的多个页面各自接收
+        SessionSender sender = senderRegistry.register(session, username);
+        subscriptionRegistry.register(sender);
         log.info("WebSocket连接已建立，用户: {}, 用户ID: {}", username, userId);
         
         // 发送连接成功消息
@@ -68,17 +68,30 @@ public class VehicleLocationWebSocketHandler extends TextWebSocketHandler {
                     break;
                 case "SUBSCRIBE_VEHICLE":
                     // 订阅车辆位置更新
-                    Long vehicleId = Long.valueOf(data.get("data").toString());
-                    vehicleSessions.put(vehicleId, session);
+                    Long vehicleId = parseVehicleId(data.get("data"));
+                    subscriptionRegistry.subscribeVehicle(session.getId(), vehicleId);
                     log.info("用户订阅车辆位置更新，车辆ID: {}", vehicleId);
                     sendMessage(session, createMessage("SUBSCRIBED", Map.of("vehicleId", vehicleId)));
                     break;
                 case "UNSUBSCRIBE_VEHICLE":
                     // 取消订阅
-                    Long unsubVehicleId = Long.valueOf(data.get("data").toString());
-                    vehicleSessions.remove(unsubVehicleId);
+                    Long unsubVehicleId = parseVehicleId(data.get("data"));
+                    subscriptionRegistry.unsubscribeVehicle(session.getId(), unsubVehicleId);
                     log.info("用户取消订阅车辆位置更新，车辆ID: {}", unsubVehicleId);
                     break;
+                case "SUBSCRIBE_VIEWPORT":
+                    // 订阅视野范围，之后只接收范围内的车辆
+                    SubscriptionRegistry.Viewport viewport = parseViewport(data.get("data"));
+                    subscriptionRegistry.subscribeViewport(session.getId(), viewport);
+                    log.debug("用户订阅视野: [{}, {}] - [{}, {}]", viewport.getMinLon(), viewport.getMinLat(),
+                        viewport.getMaxLon(), viewport.getMaxLat());
+                    sendMessage(session, createMessage("VIEWPORT_SUBSCRIBED", Map.of("bounded", viewport.isBounded())));
+                    break;
+                case "UNSUBSCRIBE_VIEWPORT":
+                    // 取消视野订阅，恢复接收全部车辆
+                    subscriptionRegistry.unsubscribeViewport(session.getId());
+                    sendMessage(session, createMessage("VIEWPORT_UNSUBSCRIBED", Map.of()));
+                    break;
                 default:
                     log.warn("未知的消息类型: {}", type);
             }
@@ -91,79 +104,70 @@ public class VehicleLocationWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         // 清理会话
-        userSessions.entrySet().removeIf(entry -> entry.getValue().equals(session));
-        vehicleSessions.entrySet().removeIf(entry -> entry.getValue().equals(session));
+        senderRegistry.unregister(session);
+        subscriptionRegistry.unregister(session.getId());
         log.info("WebSocket连接已关闭: {}", status);
     }
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("WebSocket传输错误", exception);
-        userSessions.entrySet().removeIf(entry -> entry.getValue().equals(session));
-        vehicleSessions.entrySet().removeIf(entry -> entry.getValue().equals(session));
+        senderRegistry.unregister(session);
+        subscriptionRegistry.unregister(session.getId());
     }
 
     /**
      * 发送车辆位置更新消息给所有订阅的用户
+     * 位置更新交给 {@link LocationBroadcaster} 按周期合并推送，调用方线程不做序列化和网络发送
      */
     public void broadcastVehicleLocationUpdate(Long vehicleId, Map<String, Object> locationData) {
-        WebSocketSession session = vehicleSessions.get(vehicleId);
-        if (session != null && session.isOpen()) {
-            try {
-                sendMessage(session, createMessage("VEHICLE_LOCATION_UPDATE", locationData));
-            } catch (Exception e) {
-                log.error("广播车辆位置更新失败，车辆ID: {}", vehicleId, e);
-            }
-        }
-        
-        // 也发送给所有连接的用户（用于地图监控页面）
-        userSessions.values().forEach(s -> {
-            if (s.isOpen()) {
-                try {
-                    sendMessage(s, createMessage("VEHICLE_LOCATION_UPDATE", locationData));
-                } catch (Exception e) {
-                    log.error("发送车辆位置更新给用户失败", e);
-                }
-            }
-        });
+        locationBroadcaster.publish(vehicleId, locationData);
     }
 
     /**
      * 发送告警通知
      */
     public void broadcastAlert(Map<String, Object> alertData) {
-        userSessions.values().forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    sendMessage(session, createMessage("ALERT_NOTIFICATION", alertData));
-                } catch (Exception e) {
-                    log.error("发送告警通知失败", e);
-                }
-            }
-        });
+        broadcast(createMessage("ALERT_NOTIFICATION", alertData));
+    }
+
+    /**
+     * 发送车辆在线状态变化
+     */
+    public void broadcastVehicleStatus(Map<String, Object> statusData) {
+        broadcast(createMessage("VEHICLE_STATUS_UPDATE", statusData));
+    }
+
+    /**
+     * 发送电子围栏事件
+     */
+    public void broadcastGeofenceEvent(Map<String, Object> eventData) {
+        broadcast(createMessage("GEOFENCE_EVENT", eventData));
     }
 
     /**
      * 发送任务状态更新
      */
     public void broadcastTaskUpdate(Map<String, Object> taskData) {
-        userSessions.values().forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    sendMessage(session, createMessage("TASK_STATUS_UPDATE", taskData));
-                } catch (Exception e) {
-                    log.error("发送任务状态更新失败", e);
-                }
-            }
-        });
+        broadcast(createMessage("TASK_STATUS_UPDATE", taskData));
+    }
+
+    /**
+     * 将序列化好的消息放入所有会话的发送队列，不在调用方线程发送
+     */
+    private void broadcast(String message) {
+        for (SessionSender sender : senderRegistry.all()) {
+            sender.sendControl(message);
+        }
     }
 
     /**
      * 发送消息
      */
-    private void sendMessage(WebSocketSession session, String message) throws IOException {
-        if (session.isOpen()) {
-            session.sendMessage(new TextMessage(message));
+    private void sendMessage(WebSocketSession session, String message) {
+        SessionSender sender = senderRegistry.get(session);
+        if (sender != null) {
+            sender.sendControl(message);
         }
     }
 
@@ -184,6 +188,51 @@ public class VehicleLocationWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    /**
+     * 解析订阅消息中的车辆ID，兼容 {"vehicleId": 1} 和直接传ID两种格式
+     */
+    private Long parseVehicleId(Object data) {
+        if (data instanceof Map) {
+            data = ((Map<?, ?>) data).get("vehicleId");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("缺少车辆ID");
+        }
+        return Long.valueOf(data.toString());
+    }
+
+    /**
+     * 解析视野订阅消息
+     * 格式：{"minLat":..,"maxLat":..,"minLon":..,"maxLon":..,"vehicleTypeIds":[..],"statuses":[..]}，
+     * 四个边界都省略时只按车辆类型和状态过滤
+     */
+    private SubscriptionRegistry.Viewport parseViewport(Object data) {
+        if (!(data instanceof Map)) {
+            throw new IllegalArgumentException("视野订阅参数格式错误");
+        }
+        Map<?, ?> map = (Map<?, ?>) data;
+        Set<Long> vehicleTypeIds = new HashSet<>();
+        if (map.get("vehicleTypeIds") instanceof Collection) {
+            for (Object id : (Collection<?>) map.get("vehicleTypeIds")) {
+                vehicleTypeIds.add(Long.valueOf(id.toString()));
+            }
+        }
+        Set<Integer> statuses = new HashSet<>();
+        if (map.get("statuses") instanceof Collection) {
+            for (Object status : (Collection<?>) map.get("statuses")) {
+                statuses.add(Integer.valueOf(status.toString()));
+            }
+        }
+        return new SubscriptionRegistry.Viewport(
+            toDouble(map.get("minLat")), toDouble(map.get("maxLat")),
+            toDouble(map.get("minLon")), toDouble(map.get("maxLon")),
+            vehicleTypeIds, statuses);
+    }
+
+    private Double toDouble(Object value) {
+        return value == null ? null : Double.valueOf(value.toString());
+    }
+
     /**
      * 从会话中获取token
      */
@@ -0,0 +1,158 @@
+package com.airport.websocket.protocol;
+
+/**
+ * 传感器会话的位置确认策略
+ * 连接时通过查询参数 ack 指定：
+ * <ul>
+ *     <li>ack=none：不回复位置确认、批量确认和状态确认</li>
+ *     <li>ack=every:N：每收到 N 个定位点回复一次累计确认，未指定时为 every:1，与原有行为一致</li>
+ *     <li>ack=time:MS：距上次确认超过 MS 毫秒后，在下一个定位点到达时回复累计确认</li>
+ * </ul>
+ * 批量位置消息本身就是累计确认，除 none 外总是立即确认。
+ * <p>
+ * 定位点未被接收（写入队列已满等）时不确认，终端重传该定位点前，之后的定位点也不确认，
+ * 避免累计确认越过未接收的定位点。
+ * <p>
+ * 每个会话持有一个实例；同一会话的消息由容器顺序投递，因此不做同步。
+ *
+ * @author Corkedmzx
+ */
+public class SensorAckPolicy {
+
+    private enum Mode {
+        NONE, EVERY, TIME
+    }
+
+    private final Mode mode;
+    private final long threshold;
+
+    // 自上次确认以来收到的定位点数量
+    private int pending;
+    // 自上次确认以来的最大序号，未上报序号时为 -1
+    private long pendingSeq = -1;
+    // 最近一个定位点的定位时间
+    private long pendingTimestamp;
+    private long lastAckAt;
+    // 最早未接收的定位点序号，终端重传前不确认其后的定位点，没有时为 -1
+    private long rejectedSeq = -1;
+
+    private SensorAckPolicy(Mode mode, long threshold) {
+        this.mode = mode;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 解析连接参数
+     *
+     * @param value ack 参数值，为空时使用 every:1
+     * @throws IllegalArgumentException 参数格式错误
+     */
+    public static SensorAckPolicy parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return new SensorAckPolicy(Mode.EVERY, 1);
+        }
+        if ("none".equals(value)) {
+            return new SensorAckPolicy(Mode.NONE, 0);
+        }
+        int separator = value.indexOf(':');
+        if (separator > 0) {
+            String name = value.substring(0, separator);
+            long threshold;
+            try {
+                threshold = Long.parseLong(value.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("确认模式参数不是数字: " + value);
+            }
+            if (threshold <= 0) {
+                throw new IllegalArgumentException("确认模式参数必须大于0: " + value);
+            }
+            if ("every".equals(name)) {
+                return new SensorAckPolicy(Mode.EVERY, threshold);
+            }
+            if ("time".equals(name)) {
+                return new SensorAckPolicy(Mode.TIME, threshold);
+            }
+        }
+        throw new IllegalArgumentException("不支持的确认模式: " + value);
+    }
+
+    /**
+     * 是否关闭全部确认
+     */
+    public boolean isNone() {
+        return mode == Mode.NONE;
+    }
+
+    /**
+     * 记录一个已处理的定位点
+     *
+     * @param seq       定位点序号，未上报时为 -1
+     * @param timestamp 定位时间
+     * @param now       当前时间(毫秒)
+     * @return 是否需要立即回复累计确认
+     */
+    public boolean record(long seq, long timestamp, long now) {
+        if (mode == Mode.NONE) {
+            return false;
+        }
+        if (rejectedSeq >= 0) {
+            if (seq < 0 || seq > rejectedSeq) {
+                return false;
+            }
+            // 终端已从未接收的定位点开始重传
+            rejectedSeq = -1;
+        }
+        pending++;
+        pendingSeq = Math.max(pendingSeq, seq);
+        pendingTimestamp = timestamp;
+        if (mode == Mode.EVERY) {
+            return pending >= threshold;
+        }
+        return now - lastAckAt >= threshold;
+    }
+
+    /**
+     * 记录一个未被接收的定位点，该定位点及其后的定位点在重传前不确认
+     *
+     * @param seq 定位点序号，未上报时为 -1，此时只跳过当前定位点
+     */
+    public void rejected(long seq) {
+        if (mode == Mode.NONE || seq < 0) {
+            return;
+        }
+        rejectedSeq = rejectedSeq < 0 ? seq : Math.min(rejectedSeq, seq);
+    }
+
+    /**
+     * 确认已发送，清空累计状态
+     */
+    public void acknowledged(long now) {
+        pending = 0;
+        pendingSeq = -1;
+        lastAckAt = now;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public long getPendingSeq() {
+        return pendingSeq;
+    }
+
+    public long getPendingTimestamp() {
+        return pendingTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case NONE:
+                return "none";
+            case EVERY:
+                return "every:" + threshold;
+            default:
+                return "time:" + threshold;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.airport.websocket.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 传感器二进制协议编解码
+ * <p>
+ * 连接时通过查询参数 protocol=binary-v1 协商。所有字段均为大端序定长字段：
+ * <pre>
+ * 上行帧（28字节）
+ *  偏移  长度  字段
+ *  0     1     版本号，当前为 1
+ *  1     1     消息类型：1-位置更新，2-心跳，3-状态报告
+ *  2     2     状态位(无符号)
+ *  4     4     设备ID哈希（FNV-1a 32位，对设备ID的UTF-8字节计算）
+ *  8     8     定位时间(毫秒时间戳)
+ *  16    4     纬度 × 10^7
+ *  20    4     经度 × 10^7
+ *  24    2     速度(km/h) × 100(无符号)
+ *  26    2     方向角(度) × 100(无符号)
+ *  纬度、经度均为 0x80000000 表示没有定位（超出经纬度范围，不会与真实坐标混淆）
+ *
+ * 批量位置帧（8 + 24 × N 字节）
+ *  0     1     版本号
+ *  1     1     消息类型：4-批量位置更新
+ *  2     2     定位点数量 N(无符号)
+ *  4     4     设备ID哈希
+ *  之后为 N 个定位点，每个24字节：
+ *  0     4     序号(无符号)
+ *  4     8     定位时间(毫秒时间戳)
+ *  12    4     纬度 × 10^7
+ *  16    4     经度 × 10^7
+ *  20    2     速度(km/h) × 100(无符号)
+ *  22    2     方向角(度) × 100(无符号)
+ *  没有定位的表示方式与上行帧相同
+ *
+ * 下行应答帧（12字节）
+ *  0     1     版本号
+ *  1     1     应答类型：0x81-位置已接收，0x82-心跳应答，0x83-状态已接收，0x84-批量位置已接收
+ *  2     2     保留
+ *  4     8     位置确认为最近一个已确认定位点的定位时间，批量确认为已处理的最大序号，
+ *              其余为服务器时间(毫秒时间戳)
+ * </pre>
+ *
+ * @author Corkedmzx
+ */
+public final class SensorBinaryCodec {
+
+    /**
+     * 协商参数值
+     */
+    public static final String PROTOCOL_NAME = "binary-v1";
+
+    public static final byte VERSION_1 = 1;
+
+    public static final int FRAME_LENGTH = 28;
+    public static final int REPLY_LENGTH = 12;
+    public static final int BATCH_HEADER_LENGTH = 8;
+    public static final int BATCH_RECORD_LENGTH = 24;
+
+    public static final byte TYPE_LOCATION_UPDATE = 1;
+    public static final byte TYPE_HEARTBEAT = 2;
+    public static final byte TYPE_STATUS_REPORT = 3;
+    public static final byte TYPE_LOCATION_BATCH = 4;
+
+    public static final byte REPLY_LOCATION_UPDATED = (byte) 0x81;
+    public static final byte REPLY_PONG = (byte) 0x82;
+    public static final byte REPLY_STATUS_RECEIVED = (byte) 0x83;
+    public static final byte REPLY_LOCATION_BATCH_ACK = (byte) 0x84;
+
+    private static final double COORDINATE_SCALE = 1e7;
+    // 没有定位时经纬度字段的取值
+    private static final int NO_LOCATION = Integer.MIN_VALUE;
+    private static final double SPEED_SCALE = 100.0;
+    private static final double DIRECTION_SCALE = 100.0;
+
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private SensorBinaryCodec() {
+    }
+
+    /**
+     * 解码上行帧
+     *
+     * @param buffer     帧数据，从当前位置开始读取
+     * @param deviceHash 当前连接设备ID的哈希，用于校验帧归属
+     * @param message    解码结果，会先被清空
+     */
+    public static void decode(ByteBuffer buffer, int deviceHash, SensorMessage message) {
+        message.reset();
+        if (buffer.remaining() < BATCH_HEADER_LENGTH) {
+            throw new IllegalArgumentException("二进制帧长度不足: " + buffer.remaining());
+        }
+        byte version = buffer.get();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("不支持的二进制协议版本: " + version);
+        }
+        byte type = buffer.get();
+        if (type == TYPE_LOCATION_BATCH) {
+            decodeBatch(buffer, deviceHash, message);
+            return;
+        }
+        if (buffer.remaining() < FRAME_LENGTH - 2) {
+            throw new IllegalArgumentException("二进制帧长度不足: " + (buffer.remaining() + 2));
+        }
+        int statusBits = Short.toUnsignedInt(buffer.getShort());
+        int frameDeviceHash = buffer.getInt();
+        if (frameDeviceHash != deviceHash) {
+            throw new IllegalArgumentException("设备ID哈希与连接不匹配");
+        }
+
+        message.setType(toMessageType(type));
+        message.setStatusBits(statusBits);
+        message.setTimestamp(buffer.getLong());
+        int latitude = buffer.getInt();
+        int longitude = buffer.getInt();
+        int speed = Short.toUnsignedInt(buffer.getShort());
+        int direction = Short.toUnsignedInt(buffer.getShort());
+
+        if (message.getType() == SensorMessageType.LOCATION_UPDATE) {
+            message.setHasData(true);
+            if (latitude != NO_LOCATION && longitude != NO_LOCATION) {
+                message.setLatitude(latitude / COORDINATE_SCALE);
+                message.setLongitude(longitude / COORDINATE_SCALE);
+            }
+            message.setSpeed(speed / SPEED_SCALE);
+            message.setDirection(direction / DIRECTION_SCALE);
+        } else if (message.getType() == SensorMessageType.UNKNOWN) {
+            message.setTypeName("0x" + Integer.toHexString(type & 0xFF));
+        }
+    }
+
+    /**
+     * 解码批量位置帧，版本号和类型已读取
+     */
+    private static void decodeBatch(ByteBuffer buffer, int deviceHash, SensorMessage message) {
+        int count = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.getInt() != deviceHash) {
+            throw new IllegalArgumentException("设备ID哈希与连接不匹配");
+        }
+        if (buffer.remaining() != count * BATCH_RECORD_LENGTH) {
+            throw new IllegalArgumentException("批量帧长度与定位点数量不符: " + count);
+        }
+
+        message.setType(SensorMessageType.LOCATION_BATCH);
+        message.setHasData(true);
+        SensorLocationBatch batch = message.getBatch();
+        for (int i = 0; i < count; i++) {
+            int index = batch.add(Integer.toUnsignedLong(buffer.getInt()));
+            batch.setTimestamp(index, buffer.getLong());
+            int latitude = buffer.getInt();
+            int longitude = buffer.getInt();
+            if (latitude != NO_LOCATION && longitude != NO_LOCATION) {
+                batch.setLatitude(index, latitude / COORDINATE_SCALE);
+                batch.setLongitude(index, longitude / COORDINATE_SCALE);
+            }
+            batch.setSpeed(index, Short.toUnsignedInt(buffer.getShort()) / SPEED_SCALE);
+            batch.setDirection(index, Short.toUnsignedInt(buffer.getShort()) / DIRECTION_SCALE);
+        }
+    }
+
+    /**
+     * 编码上行帧，供设备模拟和联调使用
+     */
+    public static void encode(SensorMessage message, int deviceHash, ByteBuffer buffer) {
+        buffer.put(VERSION_1);
+        buffer.put(toTypeCode(message.getType()));
+        buffer.putShort((short) message.getStatusBits());
+        buffer.putInt(deviceHash);
+        buffer.putLong(message.getTimestamp());
+        if (message.hasLocation()) {
+            buffer.putInt((int) Math.round(message.getLatitude() * COORDINATE_SCALE));
+            buffer.putInt((int) Math.round(message.getLongitude() * COORDINATE_SCALE));
+        } else {
+            buffer.putInt(NO_LOCATION);
+            buffer.putInt(NO_LOCATION);
+        }
+        buffer.putShort((short) clampUnsignedShort(Math.round(message.getSpeed() * SPEED_SCALE)));
+        buffer.putShort((short) clampUnsignedShort(Math.round(message.getDirection() * DIRECTION_SCALE)));
+    }
+
+    /**
+     * 编码批量位置帧，供设备模拟和联调使用；缺少经纬度的定位点按没有定位编码
+     */
+    public static void encodeBatch(SensorLocationBatch batch, int deviceHash, ByteBuffer buffer) {
+        if (batch.size() > 0xFFFF) {
+            throw new IllegalArgumentException("批量帧定位点数量超出上限: " + batch.size());
+        }
+        buffer.put(VERSION_1);
+        buffer.put(TYPE_LOCATION_BATCH);
+        buffer.putShort((short) batch.size());
+        buffer.putInt(deviceHash);
+        for (int i = 0; i < batch.size(); i++) {
+            buffer.putInt((int) batch.seq(i));
+            buffer.putLong(batch.timestamp(i));
+            if (batch.hasLocation(i)) {
+                buffer.putInt((int) Math.round(batch.latitude(i) * COORDINATE_SCALE));
+                buffer.putInt((int) Math.round(batch.longitude(i) * COORDINATE_SCALE));
+            } else {
+                buffer.putInt(NO_LOCATION);
+                buffer.putInt(NO_LOCATION);
+            }
+            buffer.putShort((short) clampUnsignedShort(Math.round(batch.speed(i) * SPEED_SCALE)));
+            buffer.putShort((short) clampUnsignedShort(Math.round(batch.direction(i) * DIRECTION_SCALE)));
+        }
+    }
+
+    /**
+     * 编码下行应答帧
+     *
+     * @param replyType 应答类型
+     * @param value     定位时间、最大序号或服务器时间，见类注释
+     */
+    public static ByteBuffer encodeReply(byte replyType, long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(REPLY_LENGTH);
+        buffer.put(VERSION_1);
+        buffer.put(replyType);
+        buffer.putShort((short) 0);
+        buffer.putLong(value);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 计算设备ID哈希（FNV-1a 32位）
+     */
+    public static int deviceHash(String deviceId) {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : deviceId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static SensorMessageType toMessageType(byte type) {
+        switch (type) {
+            case TYPE_LOCATION_UPDATE:
+                return SensorMessageType.LOCATION_UPDATE;
+            case TYPE_HEARTBEAT:
+                return SensorMessageType.HEARTBEAT;
+            case TYPE_STATUS_REPORT:
+                return SensorMessageType.STATUS_REPORT;
+            default:
+                return SensorMessageType.UNKNOWN;
+        }
+    }
+
+    private static byte toTypeCode(SensorMessageType type) {
+        switch (type) {
+            case LOCATION_UPDATE:
+                return TYPE_LOCATION_UPDATE;
+            case HEARTBEAT:
+                return TYPE_HEARTBEAT;
+            case STATUS_REPORT:
+                return TYPE_STATUS_REPORT;
+            default:
+                throw new IllegalArgumentException("无法编码的消息类型: " + type);
+        }
+    }
+
+    private static int clampUnsignedShort(long value) {
+        return (int) Math.max(0, Math.min(0xFFFF, value));
+    }
+}
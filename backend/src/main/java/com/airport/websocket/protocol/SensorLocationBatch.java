@@ -0,0 +1,129 @@
+package com.airport.websocket.protocol;
+
+import java.util.Arrays;
+
+/**
+ * 批量定位点
+ * 终端离线缓存的多个定位点在一条 LOCATION_BATCH 消息中上报，
+ * 以并列的基本类型数组保存，随所属的 {@link SensorMessage} 一起复用。
+ *
+ * @author Corkedmzx
+ */
+public class SensorLocationBatch {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private long[] seqs = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] speeds = new double[INITIAL_CAPACITY];
+    private double[] directions = new double[INITIAL_CAPACITY];
+    private String[] addresses = new String[INITIAL_CAPACITY];
+
+    /**
+     * 清空上一批数据
+     */
+    public void reset() {
+        Arrays.fill(addresses, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * 追加一个定位点，返回其下标
+     * 坐标初始为 NaN，由调用方逐个字段填充
+     */
+    public int add(long seq) {
+        if (size == seqs.length) {
+            grow();
+        }
+        int index = size++;
+        seqs[index] = seq;
+        timestamps[index] = 0;
+        longitudes[index] = Double.NaN;
+        latitudes[index] = Double.NaN;
+        speeds[index] = 0;
+        directions[index] = 0;
+        addresses[index] = null;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long seq(int index) {
+        return seqs[index];
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double speed(int index) {
+        return speeds[index];
+    }
+
+    public double direction(int index) {
+        return directions[index];
+    }
+
+    public String address(int index) {
+        return addresses[index];
+    }
+
+    public void setSeq(int index, long seq) {
+        seqs[index] = seq;
+    }
+
+    public void setTimestamp(int index, long timestamp) {
+        timestamps[index] = timestamp;
+    }
+
+    public void setLongitude(int index, double longitude) {
+        longitudes[index] = longitude;
+    }
+
+    public void setLatitude(int index, double latitude) {
+        latitudes[index] = latitude;
+    }
+
+    public void setSpeed(int index, double speed) {
+        speeds[index] = speed;
+    }
+
+    public void setDirection(int index, double direction) {
+        directions[index] = direction;
+    }
+
+    public void setAddress(int index, String address) {
+        addresses[index] = address;
+    }
+
+    /**
+     * 定位点是否包含完整的经纬度
+     */
+    public boolean hasLocation(int index) {
+        return !Double.isNaN(longitudes[index]) && !Double.isNaN(latitudes[index]);
+    }
+
+    private void grow() {
+        int capacity = seqs.length << 1;
+        seqs = Arrays.copyOf(seqs, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        addresses = Arrays.copyOf(addresses, capacity);
+    }
+}
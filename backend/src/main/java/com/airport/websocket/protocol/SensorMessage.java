@@ -0,0 +1,101 @@
+package com.airport.websocket.protocol;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 解码后的传感器消息
+ * 可复用的可变对象，数值字段均为基本类型，缺失的坐标以 NaN 表示；
+ * 每个处理线程持有一个实例，解码前调用 {@link #reset()} 清空。
+ *
+ * @author Corkedmzx
+ */
+@Getter
+@Setter
+public class SensorMessage {
+
+    /**
+     * 消息类型
+     */
+    private SensorMessageType type = SensorMessageType.UNKNOWN;
+
+    /**
+     * 原始类型字段，仅在类型未知时用于日志
+     */
+    private String typeName;
+
+    /**
+     * 消息是否包含 data 对象
+     */
+    private boolean hasData;
+
+    /**
+     * 经度
+     */
+    private double longitude = Double.NaN;
+
+    /**
+     * 纬度
+     */
+    private double latitude = Double.NaN;
+
+    /**
+     * 速度(km/h)
+     */
+    private double speed;
+
+    /**
+     * 方向角(度)
+     */
+    private double direction;
+
+    /**
+     * 位置地址（可选）
+     */
+    private String address;
+
+    /**
+     * 设备定位时间(毫秒时间戳)，0 表示未上报
+     */
+    private long timestamp;
+
+    /**
+     * 定位点序号(可选)，未上报时为 -1，用于累计确认
+     */
+    private long seq = -1;
+
+    /**
+     * 设备状态位，仅二进制协议上报
+     */
+    private int statusBits;
+
+    /**
+     * 批量定位点，仅 LOCATION_BATCH 消息使用
+     */
+    private final SensorLocationBatch batch = new SensorLocationBatch();
+
+    /**
+     * 清空上一条消息的内容
+     */
+    public void reset() {
+        type = SensorMessageType.UNKNOWN;
+        typeName = null;
+        hasData = false;
+        longitude = Double.NaN;
+        latitude = Double.NaN;
+        speed = 0;
+        direction = 0;
+        address = null;
+        timestamp = 0;
+        seq = -1;
+        statusBits = 0;
+        batch.reset();
+    }
+
+    /**
+     * 是否包含完整的经纬度
+     */
+    public boolean hasLocation() {
+        return !Double.isNaN(longitude) && !Double.isNaN(latitude);
+    }
+}
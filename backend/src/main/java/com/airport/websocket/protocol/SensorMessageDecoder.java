@@ -0,0 +1,171 @@
+package com.airport.websocket.protocol;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 传感器消息流式解码器
+ * 使用 Jackson 的 JsonParser 逐个读取token，直接写入可复用的 {@link SensorMessage}，
+ * 不构建中间的 Map 和包装类型对象
+ *
+ * @author Corkedmzx
+ */
+@Component
+public class SensorMessageDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    public SensorMessageDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 解码文本消息
+     *
+     * @param payload 消息内容
+     * @param message 解码结果，会先被清空
+     * @throws IOException 消息格式错误
+     */
+    public void decode(String payload, SensorMessage message) throws IOException {
+        message.reset();
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "消息必须是JSON对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "type":
+                        String type = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                        message.setType(SensorMessageType.of(type));
+                        if (message.getType() == SensorMessageType.UNKNOWN) {
+                            message.setTypeName(type);
+                        }
+                        break;
+                    case "data":
+                        if (token == JsonToken.START_OBJECT) {
+                            message.setHasData(true);
+                            readData(parser, message);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取 data 对象中的定位字段，其余字段跳过
+     */
+    private void readData(JsonParser parser, SensorMessage message) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "longitude":
+                    message.setLongitude(readDouble(parser, token, Double.NaN));
+                    break;
+                case "latitude":
+                    message.setLatitude(readDouble(parser, token, Double.NaN));
+                    break;
+                case "speed":
+                    message.setSpeed(readDouble(parser, token, 0.0));
+                    break;
+                case "direction":
+                    message.setDirection(readDouble(parser, token, 0.0));
+                    break;
+                case "timestamp":
+                    message.setTimestamp((long) readDouble(parser, token, 0.0));
+                    break;
+                case "seq":
+                    message.setSeq((long) readDouble(parser, token, -1.0));
+                    break;
+                case "address":
+                    message.setAddress(token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                    break;
+                case "fixes":
+                    if (token == JsonToken.START_ARRAY) {
+                        readFixes(parser, message.getBatch());
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取批量消息中的 fixes 数组，非对象元素跳过
+     */
+    private void readFixes(JsonParser parser, SensorLocationBatch batch) throws IOException {
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (element != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            int index = batch.add(0);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "seq":
+                        batch.setSeq(index, (long) readDouble(parser, token, 0.0));
+                        break;
+                    case "longitude":
+                        batch.setLongitude(index, readDouble(parser, token, Double.NaN));
+                        break;
+                    case "latitude":
+                        batch.setLatitude(index, readDouble(parser, token, Double.NaN));
+                        break;
+                    case "speed":
+                        batch.setSpeed(index, readDouble(parser, token, 0.0));
+                        break;
+                    case "direction":
+                        batch.setDirection(index, readDouble(parser, token, 0.0));
+                        break;
+                    case "timestamp":
+                        batch.setTimestamp(index, (long) readDouble(parser, token, 0.0));
+                        break;
+                    case "address":
+                        batch.setAddress(index, token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取数值，兼容以字符串形式上报的数值
+     */
+    private double readDouble(JsonParser parser, JsonToken token, double defaultValue) throws IOException {
+        switch (token) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                try {
+                    return Double.parseDouble(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    return defaultValue;
+                }
+            default:
+                parser.skipChildren();
+                return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.airport.websocket.protocol;
+
+/**
+ * 传感器消息类型
+ *
+ * @author Corkedmzx
+ */
+public enum SensorMessageType {
+
+    /**
+     * 位置更新
+     */
+    LOCATION_UPDATE,
+
+    /**
+     * 批量位置更新
+     */
+    LOCATION_BATCH,
+
+    /**
+     * 心跳
+     */
+    HEARTBEAT,
+
+    /**
+     * 状态报告
+     */
+    STATUS_REPORT,
+
+    /**
+     * 未知类型
+     */
+    UNKNOWN;
+
+    /**
+     * 根据消息中的 type 字段解析类型
+     */
+    public static SensorMessageType of(String type) {
+        if (type == null) {
+            return UNKNOWN;
+        }
+        switch (type) {
+            case "LOCATION_UPDATE":
+                return LOCATION_UPDATE;
+            case "LOCATION_BATCH":
+                return LOCATION_BATCH;
+            case "HEARTBEAT":
+                return HEARTBEAT;
+            case "STATUS_REPORT":
+                return STATUS_REPORT;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
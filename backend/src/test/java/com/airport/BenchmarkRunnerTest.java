@@ -0,0 +1,38 @@
+package com.airport;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 性能基准入口
+ * 运行 src/test/java 下全部以 Benchmark 结尾的 JMH 基准，默认构建不运行：
+ * <pre>
+ * mvn test -Pbenchmark
+ * mvn test -Pbenchmark -Dbenchmark=SensorMessageDecoderBenchmark
+ * </pre>
+ * 迭代次数、时长和 fork 数由各基准类的注解决定。
+ *
+ * @author Corkedmzx
+ */
+@Tag("benchmark")
+class BenchmarkRunnerTest {
+
+    @Test
+    void runBenchmarks() throws Exception {
+        String include = System.getProperty("benchmark", "com\\.airport\\..*Benchmark");
+        Options options = new OptionsBuilder()
+                .include(include)
+                .shouldFailOnError(true)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertThat(results).as("没有匹配 %s 的基准", include).isNotEmpty();
+    }
+}
@@ -0,0 +1,244 @@
+package com.airport.service.impl;
+
+import com.airport.config.DispatchProperties;
+import com.airport.entity.DispatchTask;
+import com.airport.repository.DispatchTaskRepository;
+import com.airport.repository.VehicleRepository;
+import com.airport.tracking.DashboardCounters;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.PendingTaskQueue;
+import com.airport.tracking.TaskNoGenerator;
+import com.airport.tracking.VehicleAvailability;
+import com.airport.tracking.VehicleSpatialIndex;
+import jakarta.persistence.EntityManager;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 批量任务接口与逐个调用的吞吐对比
+ * 任务表放在 H2（MySQL 模式）中，仓库按 JPA 的语句数量模拟：逐个创建每个任务一次插入，
+ * 逐个开始每个任务一次读取加一次条件更新；批量接口一次 IN 查询加一次 JDBC 批量写入。
+ * transport 为 mem 时是进程内数据库，只体现语句本身的开销；为 tcp 时经本机网络连接访问，
+ * 每条语句多一次往返，更接近连接 MySQL 的情况。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchTaskBatchBenchmark {
+
+    @Param({"mem", "tcp"})
+    public String transport;
+
+    @Param({"10", "100", "1000"})
+    public int tasks;
+
+    private Server server;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DispatchTaskServiceImpl service;
+    private List<Long> taskIds;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // 脱离 Spring Boot 运行时 logback 默认输出 DEBUG，逐条语句打印日志会掩盖数据库开销
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        String url;
+        if ("tcp".equals(transport)) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        } else {
+            url = "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1";
+        }
+        dataSource = new SingleConnectionDataSource(url, "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE dispatch_task (id BIGINT AUTO_INCREMENT PRIMARY KEY, task_no VARCHAR(20), " +
+                "task_name VARCHAR(100), task_type VARCHAR(20), priority INT, description VARCHAR(500), " +
+                "start_location VARCHAR(200), end_location VARCHAR(200), start_time TIMESTAMP, end_time TIMESTAMP, " +
+                "actual_start_time TIMESTAMP, actual_end_time TIMESTAMP, assigned_vehicle_id BIGINT, " +
+                "assigned_driver_id BIGINT, status INT, progress DECIMAL(5, 2), distance DECIMAL(10, 2), " +
+                "remark VARCHAR(500), create_time TIMESTAMP, update_time TIMESTAMP)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_task_no ON dispatch_task (task_no)");
+
+        // 开始任务使用的已分配任务
+        taskIds = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            namedJdbcTemplate.update("INSERT INTO dispatch_task (task_no, task_name, task_type, priority, " +
+                            "start_location, end_location, start_time, assigned_vehicle_id, status, progress, distance) " +
+                            "VALUES (:taskNo, '行李运输', 'luggage', 2, 'T1航站楼', '3号停机位', :startTime, 7, 2, 0, 0)",
+                    new MapSqlParameterSource("taskNo", "SEED" + i)
+                            .addValue("startTime", Timestamp.valueOf(LocalDateTime.now())),
+                    keyHolder);
+            taskIds.add(keyHolder.getKey().longValue());
+        }
+
+        // 仓库方法按 JPA 发出的语句数量转成 SQL
+        DispatchTaskRepository taskRepository = mock(DispatchTaskRepository.class, withSettings().stubOnly());
+        when(taskRepository.findById(anyLong())).thenAnswer(invocation -> jdbcTemplate.query(
+                "SELECT * FROM dispatch_task WHERE id = ?", (rs, rowNum) -> mapTask(rs),
+                (Long) invocation.getArgument(0)).stream().findFirst());
+        when(taskRepository.findAllById(anyCollection())).thenAnswer(invocation -> namedJdbcTemplate.query(
+                "SELECT * FROM dispatch_task WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", invocation.<Collection<Long>>getArgument(0)),
+                (rs, rowNum) -> mapTask(rs)));
+        when(taskRepository.findByTaskNo(anyString())).thenAnswer(invocation -> jdbcTemplate.query(
+                "SELECT * FROM dispatch_task WHERE task_no = ?", (rs, rowNum) -> mapTask(rs),
+                (String) invocation.getArgument(0)).stream().findFirst().orElse(null));
+        when(taskRepository.save(any(DispatchTask.class))).thenAnswer(invocation -> insert(namedJdbcTemplate,
+                invocation.getArgument(0)));
+
+        AtomicLong sequence = new AtomicLong();
+        TaskNoGenerator taskNoGenerator = mock(TaskNoGenerator.class, withSettings().stubOnly());
+        when(taskNoGenerator.next()).thenAnswer(invocation -> "TASK" + sequence.incrementAndGet());
+
+        service = new DispatchTaskServiceImpl(taskRepository, stub(VehicleRepository.class),
+                stub(LiveFleetState.class), stub(VehicleSpatialIndex.class), stub(VehicleAvailability.class),
+                stub(DashboardCounters.class), stub(PendingTaskQueue.class), taskNoGenerator, jdbcTemplate,
+                stub(EntityManager.class), new DispatchProperties());
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * 每次开始任务前把任务恢复为已分配
+     */
+    @Setup(Level.Invocation)
+    public void resetStatus() {
+        jdbcTemplate.update("UPDATE dispatch_task SET status = 2, actual_start_time = NULL WHERE task_no LIKE 'SEED%'");
+    }
+
+    @Benchmark
+    public void createOneByOne(Blackhole blackhole) {
+        for (DispatchTask task : newTasks()) {
+            blackhole.consume(service.createTask(task));
+        }
+    }
+
+    @Benchmark
+    public Object createBatch() {
+        return service.createTasks(newTasks());
+    }
+
+    @Benchmark
+    public void startOneByOne(Blackhole blackhole) {
+        for (Long taskId : taskIds) {
+            blackhole.consume(service.startTask(taskId));
+        }
+    }
+
+    @Benchmark
+    public Object startBatch() {
+        return service.startTasks(taskIds);
+    }
+
+    private List<DispatchTask> newTasks() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+        List<DispatchTask> result = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            DispatchTask task = new DispatchTask();
+            task.setTaskName("行李运输");
+            task.setTaskType("luggage");
+            task.setStartLocation("T1航站楼");
+            task.setEndLocation("3号停机位");
+            task.setStartTime(startTime);
+            result.add(task);
+        }
+        return result;
+    }
+
+    private static DispatchTask insert(NamedParameterJdbcTemplate namedJdbcTemplate, DispatchTask task) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        namedJdbcTemplate.update("INSERT INTO dispatch_task (task_no, task_name, task_type, priority, start_location, " +
+                        "end_location, start_time, status, progress, distance, create_time, update_time) " +
+                        "VALUES (:taskNo, :taskName, :taskType, :priority, :startLocation, :endLocation, :startTime, " +
+                        ":status, :progress, :distance, :now, :now)",
+                new MapSqlParameterSource("taskNo", task.getTaskNo())
+                        .addValue("taskName", task.getTaskName())
+                        .addValue("taskType", task.getTaskType())
+                        .addValue("priority", task.getPriority())
+                        .addValue("startLocation", task.getStartLocation())
+                        .addValue("endLocation", task.getEndLocation())
+                        .addValue("startTime", Timestamp.valueOf(task.getStartTime()))
+                        .addValue("status", task.getStatus())
+                        .addValue("progress", task.getProgress())
+                        .addValue("distance", task.getDistance())
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now())),
+                keyHolder);
+        task.setId(keyHolder.getKey().longValue());
+        return task;
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static DispatchTask mapTask(ResultSet rs) throws SQLException {
+        DispatchTask task = new DispatchTask();
+        task.setId(rs.getLong("id"));
+        task.setTaskNo(rs.getString("task_no"));
+        task.setTaskName(rs.getString("task_name"));
+        task.setTaskType(rs.getString("task_type"));
+        task.setPriority(rs.getInt("priority"));
+        task.setStartLocation(rs.getString("start_location"));
+        task.setEndLocation(rs.getString("end_location"));
+        task.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+        task.setAssignedVehicleId(rs.getObject("assigned_vehicle_id", Long.class));
+        task.setStatus(rs.getInt("status"));
+        BigDecimal progress = rs.getBigDecimal("progress");
+        task.setProgress(progress != null ? progress : BigDecimal.ZERO);
+        task.setDistance(rs.getBigDecimal("distance"));
+        return task;
+    }
+}
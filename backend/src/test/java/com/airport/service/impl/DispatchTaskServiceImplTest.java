@@ -0,0 +1,236 @@
+package com.airport.service.impl;
+
+import com.airport.common.exception.TaskStateConflictException;
+import com.airport.config.DispatchProperties;
+import com.airport.entity.DispatchTask;
+import com.airport.entity.Vehicle;
+import com.airport.repository.DispatchTaskRepository;
+import com.airport.repository.VehicleRepository;
+import com.airport.tracking.DashboardCounters;
+import com.airport.tracking.LiveFleetState;
+import com.airport.tracking.PendingTaskQueue;
+import com.airport.tracking.TaskNoGenerator;
+import com.airport.tracking.VehicleAvailability;
+import com.airport.tracking.VehicleSpatialIndex;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 任务状态流转并发测试
+ * 任务表放在内存数据库中，仓库只模拟按ID读取；通过在读取后阻塞一个请求，
+ * 让另一个请求在其读取和写入之间完成，复现两个调度员同时操作同一任务的交错。
+ *
+ * @author Corkedmzx
+ */
+class DispatchTaskServiceImplTest {
+
+    private static final long TASK_ID = 1L;
+    private static final long VEHICLE_ID = 7L;
+    private static final String BLOCKED_THREAD = "blocked-after-read";
+
+    private JdbcTemplate jdbcTemplate;
+    private EntityManager entityManager;
+    private DispatchTaskServiceImpl service;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE dispatch_task (id BIGINT PRIMARY KEY, task_no VARCHAR(20), " +
+                "task_name VARCHAR(100), task_type VARCHAR(20), priority INT, description VARCHAR(500), " +
+                "start_location VARCHAR(200), end_location VARCHAR(200), start_time TIMESTAMP, end_time TIMESTAMP, " +
+                "actual_start_time TIMESTAMP, actual_end_time TIMESTAMP, assigned_vehicle_id BIGINT, " +
+                "assigned_driver_id BIGINT, status INT, progress DECIMAL(5, 2), distance DECIMAL(10, 2), " +
+                "remark VARCHAR(500))");
+        jdbcTemplate.update("INSERT INTO dispatch_task (id, task_no, task_name, task_type, priority, start_location, " +
+                        "end_location, start_time, status, progress, distance) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                TASK_ID, "TASK202601010001", "行李运输", "luggage", 2, "T1航站楼", "3号停机位",
+                Timestamp.valueOf(LocalDateTime.now()), 1, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        // 每次按ID读取都返回数据库中的当前行，与 JPA 读取一致
+        DispatchTaskRepository taskRepository = mock(DispatchTaskRepository.class);
+        when(taskRepository.findById(anyLong())).thenAnswer(invocation -> readTask(invocation.getArgument(0)));
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(VEHICLE_ID);
+        vehicle.setStatus(1);
+        VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+        when(vehicleRepository.findById(VEHICLE_ID)).thenReturn(Optional.of(vehicle));
+
+        entityManager = mock(EntityManager.class);
+        service = new DispatchTaskServiceImpl(taskRepository, vehicleRepository, mock(LiveFleetState.class),
+                mock(VehicleSpatialIndex.class), mock(VehicleAvailability.class), mock(DashboardCounters.class),
+                mock(PendingTaskQueue.class), mock(TaskNoGenerator.class), jdbcTemplate, entityManager,
+                new DispatchProperties());
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, BLOCKED_THREAD));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentEditDoesNotUndoAssignment() throws Exception {
+        DispatchTask patch = new DispatchTask();
+        patch.setPriority(4);
+        patch.setRemark("改为紧急");
+
+        // 编辑读取到待分配状态后，分配在其写入前完成
+        ExecutionException error = runInterleaved(
+                () -> service.updateTask(TASK_ID, patch),
+                () -> service.assignTask(TASK_ID, VEHICLE_ID, 3L));
+
+        assertThat(error).isNotNull();
+        assertThat(error.getCause()).isInstanceOf(TaskStateConflictException.class);
+        Map<String, Object> row = readRow();
+        assertThat(((Number) row.get("STATUS")).intValue()).isEqualTo(2);
+        assertThat(((Number) row.get("ASSIGNED_VEHICLE_ID")).longValue()).isEqualTo(VEHICLE_ID);
+        assertThat(((Number) row.get("ASSIGNED_DRIVER_ID")).longValue()).isEqualTo(3L);
+        assertThat(row.get("ACTUAL_START_TIME")).isNotNull();
+        assertThat(((Number) row.get("PRIORITY")).intValue()).isEqualTo(2);
+    }
+
+    @Test
+    void editAfterAssignmentKeepsAssignment() {
+        service.assignTask(TASK_ID, VEHICLE_ID, 3L);
+
+        DispatchTask patch = new DispatchTask();
+        patch.setPriority(4);
+        patch.setRemark("改为紧急");
+        DispatchTask updated = service.updateTask(TASK_ID, patch);
+
+        assertThat(updated.getStatus()).isEqualTo(2);
+        assertThat(updated.getAssignedVehicleId()).isEqualTo(VEHICLE_ID);
+        Map<String, Object> row = readRow();
+        assertThat(((Number) row.get("STATUS")).intValue()).isEqualTo(2);
+        assertThat(((Number) row.get("ASSIGNED_VEHICLE_ID")).longValue()).isEqualTo(VEHICLE_ID);
+        assertThat(((Number) row.get("PRIORITY")).intValue()).isEqualTo(4);
+        assertThat(row.get("REMARK")).isEqualTo("改为紧急");
+    }
+
+    @Test
+    void editIgnoresStatus() {
+        DispatchTask patch = new DispatchTask();
+        patch.setStatus(4);
+        patch.setTaskName("行李运输（加急）");
+
+        DispatchTask updated = service.updateTask(TASK_ID, patch);
+
+        assertThat(updated.getStatus()).isEqualTo(1);
+        Map<String, Object> row = readRow();
+        assertThat(((Number) row.get("STATUS")).intValue()).isEqualTo(1);
+        assertThat(row.get("TASK_NAME")).isEqualTo("行李运输（加急）");
+    }
+
+    @Test
+    void concurrentAssignmentsOnlyOneWins() throws Exception {
+        ExecutionException error = runInterleaved(
+                () -> service.assignTask(TASK_ID, VEHICLE_ID, 3L),
+                () -> service.assignTask(TASK_ID, VEHICLE_ID, 5L));
+
+        assertThat(error).isNotNull();
+        assertThat(error.getCause()).isInstanceOf(TaskStateConflictException.class);
+        assertThat(((Number) readRow().get("ASSIGNED_DRIVER_ID")).longValue()).isEqualTo(5L);
+    }
+
+    @Test
+    void transitionOutsideTableIsRejected() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.completeTask(TASK_ID));
+
+        assertThat(error).isNotInstanceOf(TaskStateConflictException.class);
+        assertThat(error.getMessage()).isEqualTo("只能完成执行中的任务");
+        assertThat(((Number) readRow().get("STATUS")).intValue()).isEqualTo(1);
+    }
+
+    /**
+     * blocked 在读取任务后暂停，interleaved 执行完成后再继续写入
+     *
+     * @return blocked 抛出的异常，正常完成时为 null
+     */
+    private ExecutionException runInterleaved(Callable<?> blocked, Runnable interleaved) throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (BLOCKED_THREAD.equals(Thread.currentThread().getName())) {
+                read.countDown();
+                assertThat(resume.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            return null;
+        }).when(entityManager).detach(any());
+
+        Future<?> future = executor.submit(blocked);
+        assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+        interleaved.run();
+        resume.countDown();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e;
+        }
+    }
+
+    private Optional<DispatchTask> readTask(long id) {
+        List<DispatchTask> tasks = jdbcTemplate.query("SELECT * FROM dispatch_task WHERE id = ?",
+                (rs, rowNum) -> mapTask(rs), id);
+        return tasks.stream().findFirst();
+    }
+
+    private Map<String, Object> readRow() {
+        return jdbcTemplate.queryForMap("SELECT * FROM dispatch_task WHERE id = ?", TASK_ID);
+    }
+
+    private static DispatchTask mapTask(ResultSet rs) throws SQLException {
+        DispatchTask task = new DispatchTask();
+        task.setId(rs.getLong("id"));
+        task.setTaskNo(rs.getString("task_no"));
+        task.setTaskName(rs.getString("task_name"));
+        task.setTaskType(rs.getString("task_type"));
+        task.setPriority(rs.getInt("priority"));
+        task.setDescription(rs.getString("description"));
+        task.setStartLocation(rs.getString("start_location"));
+        task.setEndLocation(rs.getString("end_location"));
+        task.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+        Timestamp endTime = rs.getTimestamp("end_time");
+        task.setEndTime(endTime != null ? endTime.toLocalDateTime() : null);
+        task.setAssignedVehicleId(rs.getObject("assigned_vehicle_id", Long.class));
+        task.setAssignedDriverId(rs.getObject("assigned_driver_id", Long.class));
+        task.setStatus(rs.getInt("status"));
+        task.setProgress(rs.getBigDecimal("progress"));
+        task.setDistance(rs.getBigDecimal("distance"));
+        task.setRemark(rs.getString("remark"));
+        return task;
+    }
+}
@@ -0,0 +1,73 @@
+package com.airport.tracking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指派求解基准
+ * 任务与车辆随机分布在约 4km × 4km 的机场范围内，代价为两点距离加随机权重，
+ * 约 10% 的组合不可行。规模参数为"任务数x车辆数"，包括任务多于车辆的情况（按转置矩阵求解）。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssignmentSolverBenchmark {
+
+    @Param({"10x10", "100x100", "300x300", "500x500", "1000x1000", "50x500", "500x50"})
+    public String size;
+
+    private double[][] cost;
+
+    @Setup
+    public void setUp() {
+        String[] parts = size.split("x");
+        int tasks = Integer.parseInt(parts[0]);
+        int vehicles = Integer.parseInt(parts[1]);
+        Random random = new Random(42);
+        double[][] taskPoints = randomPoints(random, tasks);
+        double[][] vehiclePoints = randomPoints(random, vehicles);
+        cost = new double[tasks][vehicles];
+        for (int i = 0; i < tasks; i++) {
+            for (int j = 0; j < vehicles; j++) {
+                if (random.nextDouble() < 0.1) {
+                    cost[i][j] = AssignmentSolver.INFEASIBLE;
+                } else {
+                    double dx = taskPoints[i][0] - vehiclePoints[j][0];
+                    double dy = taskPoints[i][1] - vehiclePoints[j][1];
+                    cost[i][j] = Math.sqrt(dx * dx + dy * dy) + random.nextDouble() * 300;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] solve() {
+        return AssignmentSolver.solve(cost);
+    }
+
+    private static double[][] randomPoints(Random random, int count) {
+        double[][] points = new double[count][2];
+        for (int i = 0; i < count; i++) {
+            points[i][0] = random.nextDouble() * 4000;
+            points[i][1] = random.nextDouble() * 4000;
+        }
+        return points;
+    }
+}
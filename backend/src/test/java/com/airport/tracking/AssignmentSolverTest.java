@@ -0,0 +1,132 @@
+package com.airport.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 指派求解正确性测试
+ * 随机小矩阵上与穷举结果比较，覆盖行少于列、行多于列（转置求解）和不可行组合
+ *
+ * @author Corkedmzx
+ */
+class AssignmentSolverTest {
+
+    private static final int ROUNDS = 300;
+
+    @Test
+    void emptyMatrix() {
+        assertThat(AssignmentSolver.solve(new double[0][0])).isEmpty();
+        assertThat(AssignmentSolver.solve(new double[2][0])).containsExactly(-1, -1);
+    }
+
+    @Test
+    void squareMatchesBruteForce() {
+        compareWithBruteForce(new Random(1), 1, 6, 1, 6, true, 0);
+    }
+
+    @Test
+    void fewerRowsThanColumnsMatchesBruteForce() {
+        compareWithBruteForce(new Random(2), 1, 4, 5, 7, false, 0);
+    }
+
+    @Test
+    void moreRowsThanColumnsMatchesBruteForce() {
+        compareWithBruteForce(new Random(3), 5, 7, 1, 4, false, 0);
+    }
+
+    @Test
+    void infeasibleCellsAreNeverAssigned() {
+        Random random = new Random(4);
+        compareWithBruteForce(random, 1, 6, 1, 6, false, 0.4);
+        compareWithBruteForce(random, 1, 6, 1, 6, false, 0.8);
+    }
+
+    @Test
+    void allInfeasibleLeavesEveryRowUnassigned() {
+        double[][] cost = new double[3][4];
+        for (double[] row : cost) {
+            Arrays.fill(row, AssignmentSolver.INFEASIBLE);
+        }
+
+        assertThat(AssignmentSolver.solve(cost)).containsExactly(-1, -1, -1);
+    }
+
+    /**
+     * @param square          是否为方阵（列数取行数）
+     * @param infeasibleRatio 不可行组合的比例
+     */
+    private static void compareWithBruteForce(Random random, int minRows, int maxRows, int minCols, int maxCols,
+                                              boolean square, double infeasibleRatio) {
+        for (int round = 0; round < ROUNDS; round++) {
+            int rows = minRows + random.nextInt(maxRows - minRows + 1);
+            int cols = square ? rows : minCols + random.nextInt(maxCols - minCols + 1);
+            double[][] cost = new double[rows][cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    cost[i][j] = random.nextDouble() < infeasibleRatio
+                            ? AssignmentSolver.INFEASIBLE : random.nextInt(1000) / 10.0;
+                }
+            }
+
+            int[] result = AssignmentSolver.solve(cost);
+
+            assertThat(result).hasSize(rows);
+            Set<Integer> usedColumns = new HashSet<>();
+            int assigned = 0;
+            double total = 0;
+            for (int i = 0; i < rows; i++) {
+                if (result[i] < 0) {
+                    continue;
+                }
+                assertThat(usedColumns.add(result[i])).as("列 %d 被重复指派", result[i]).isTrue();
+                assertThat(cost[i][result[i]]).isLessThan(AssignmentSolver.INFEASIBLE);
+                assigned++;
+                total += cost[i][result[i]];
+            }
+            Best best = bruteForce(cost);
+            // 先保证可行指派数最多，再比较总代价
+            assertThat(assigned).as("可行指派数, 矩阵 %dx%d", rows, cols).isEqualTo(best.assigned);
+            assertThat(total).as("总代价, 矩阵 %dx%d", rows, cols).isCloseTo(best.cost, within(1e-6));
+        }
+    }
+
+    /**
+     * 穷举每行指派的列（或不指派），求可行指派数最多时的最小总代价
+     */
+    private static Best bruteForce(double[][] cost) {
+        Best best = new Best();
+        search(cost, 0, new boolean[cost[0].length], 0, 0, best);
+        return best;
+    }
+
+    private static void search(double[][] cost, int row, boolean[] used, int assigned, double total, Best best) {
+        if (row == cost.length) {
+            if (assigned > best.assigned || (assigned == best.assigned && total < best.cost)) {
+                best.assigned = assigned;
+                best.cost = total;
+            }
+            return;
+        }
+        search(cost, row + 1, used, assigned, total, best);
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j] && cost[row][j] < AssignmentSolver.INFEASIBLE) {
+                used[j] = true;
+                search(cost, row + 1, used, assigned + 1, total + cost[row][j], best);
+                used[j] = false;
+            }
+        }
+    }
+
+    private static final class Best {
+
+        int assigned = -1;
+        double cost = Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,209 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.entity.Geofence;
+import com.airport.repository.GeofenceRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 电子围栏检测基准
+ * 在约 4km × 4km 的机场范围内放置若干约 60 米见方的六边形机位围栏，1000 辆车每步移动约 10 米，
+ * 每次操作检测全部车辆的一个定位点。对照组对每个定位点逐个判断全部围栏（包围盒预判 + 射线法），
+ * 相当于没有网格索引时的做法。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceEngineBenchmark {
+
+    private static final double MIN_LON = 113.28;
+    private static final double MIN_LAT = 23.37;
+    private static final double SPAN_DEGREES = 0.04;
+    private static final double FENCE_RADIUS_DEGREES = 0.0003;
+    private static final double STEP_DEGREES = 0.0001;
+    private static final int VEHICLES = 1000;
+    private static final int STEPS = 64;
+
+    @Param({"100", "1000"})
+    public int fences;
+
+    private GeofenceEngine engine;
+    private double[][] fenceXs;
+    private double[][] fenceYs;
+    private double[][] fenceBounds;
+    // [步数][车辆] 的预先生成轨迹，避免测量随机数开销
+    private double[][] trackLongitudes;
+    private double[][] trackLatitudes;
+    private LocationFix[] fixes;
+    private int step;
+    private long timestamp;
+    private long events;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Geofence> geofences = new ArrayList<>(fences);
+        fenceXs = new double[fences][];
+        fenceYs = new double[fences][];
+        fenceBounds = new double[fences][];
+        for (int f = 0; f < fences; f++) {
+            double centerLon = MIN_LON + random.nextDouble() * SPAN_DEGREES;
+            double centerLat = MIN_LAT + random.nextDouble() * SPAN_DEGREES;
+            double[] xs = new double[6];
+            double[] ys = new double[6];
+            StringBuilder polygon = new StringBuilder("[");
+            for (int i = 0; i < 6; i++) {
+                double angle = Math.PI / 3 * i;
+                double radius = FENCE_RADIUS_DEGREES * (0.8 + random.nextDouble() * 0.4);
+                xs[i] = centerLon + Math.cos(angle) * radius;
+                ys[i] = centerLat + Math.sin(angle) * radius;
+                polygon.append(i == 0 ? "" : ",").append('[').append(xs[i]).append(',').append(ys[i]).append(']');
+            }
+            fenceXs[f] = xs;
+            fenceYs[f] = ys;
+            fenceBounds[f] = bounds(xs, ys);
+
+            Geofence geofence = new Geofence();
+            geofence.setId((long) f + 1);
+            geofence.setFenceName("机位" + (f + 1));
+            geofence.setZoneType("stand");
+            geofence.setPolygon(polygon.append(']').toString());
+            geofence.setAlertEvents("ENTER,EXIT");
+            geofences.add(geofence);
+        }
+
+        GeofenceRepository repository = mock(GeofenceRepository.class);
+        when(repository.findByEnabledTrue()).thenReturn(geofences);
+        TrackingProperties properties = new TrackingProperties();
+        GeofenceEventPublisher publisher = new GeofenceEventPublisher(null, null, null, properties,
+                new SimpleMeterRegistry()) {
+            @Override
+            public void publish(GeofenceEvent event) {
+                events++;
+            }
+        };
+        engine = new GeofenceEngine(repository, publisher, new ObjectMapper(), properties);
+        engine.reload();
+
+        trackLongitudes = new double[STEPS][VEHICLES];
+        trackLatitudes = new double[STEPS][VEHICLES];
+        fixes = new LocationFix[VEHICLES];
+        for (int v = 0; v < VEHICLES; v++) {
+            double lon = MIN_LON + random.nextDouble() * SPAN_DEGREES;
+            double lat = MIN_LAT + random.nextDouble() * SPAN_DEGREES;
+            for (int s = 0; s < STEPS; s++) {
+                lon += (random.nextDouble() - 0.5) * 2 * STEP_DEGREES;
+                lat += (random.nextDouble() - 0.5) * 2 * STEP_DEGREES;
+                trackLongitudes[s][v] = lon;
+                trackLatitudes[s][v] = lat;
+            }
+            fixes[v] = new LocationFix();
+            fixes[v].setVehicleId(v + 1);
+        }
+    }
+
+    /**
+     * 全部车辆各检测一个定位点，包括进入、离开事件的判断
+     */
+    @Benchmark
+    public long evaluateFleet() {
+        double[] lons = trackLongitudes[step];
+        double[] lats = trackLatitudes[step];
+        step = (step + 1) & (STEPS - 1);
+        timestamp += 1000;
+        for (int v = 0; v < VEHICLES; v++) {
+            LocationFix fix = fixes[v];
+            fix.setLongitude(lons[v]);
+            fix.setLatitude(lats[v]);
+            fix.setTimestamp(timestamp);
+            engine.evaluate(fix);
+        }
+        return events;
+    }
+
+    /**
+     * 全部车辆各查询一次所在围栏
+     */
+    @Benchmark
+    public void locateFleet(Blackhole blackhole) {
+        double[] lons = trackLongitudes[step];
+        double[] lats = trackLatitudes[step];
+        step = (step + 1) & (STEPS - 1);
+        for (int v = 0; v < VEHICLES; v++) {
+            blackhole.consume(engine.fencesAt(lons[v], lats[v]));
+        }
+    }
+
+    /**
+     * 对照组：每个定位点逐个判断全部围栏
+     */
+    @Benchmark
+    public int bruteForceFleet() {
+        double[] lons = trackLongitudes[step];
+        double[] lats = trackLatitudes[step];
+        step = (step + 1) & (STEPS - 1);
+        int hits = 0;
+        for (int v = 0; v < VEHICLES; v++) {
+            for (int f = 0; f < fences; f++) {
+                if (contains(f, lons[v], lats[v])) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private boolean contains(int fence, double x, double y) {
+        double[] box = fenceBounds[fence];
+        if (x < box[0] || x > box[1] || y < box[2] || y > box[3]) {
+            return false;
+        }
+        double[] xs = fenceXs[fence];
+        double[] ys = fenceYs[fence];
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y)
+                    && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static double[] bounds(double[] xs, double[] ys) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        return new double[]{minX, maxX, minY, maxY};
+    }
+}
@@ -0,0 +1,111 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 每日里程持久化测试
+ * 每日里程写入 vehicle_mileage_daily，重启后从该表恢复仪表盘趋势
+ *
+ * @author Corkedmzx
+ */
+class OdometerTrackerTest {
+
+    private static final long VEHICLE_ID = 1L;
+
+    private JdbcTemplate jdbcTemplate;
+    private OdometerTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE vehicle (id BIGINT PRIMARY KEY, mileage DECIMAL(10, 2), " +
+                "current_fuel DECIMAL(10, 2))");
+        jdbcTemplate.execute("CREATE TABLE dispatch_task (id BIGINT PRIMARY KEY, distance DECIMAL(10, 2))");
+        jdbcTemplate.execute("CREATE TABLE vehicle_mileage_daily (stat_date DATE PRIMARY KEY, " +
+                "distance_km DECIMAL(12, 2) NOT NULL DEFAULT 0)");
+        jdbcTemplate.update("INSERT INTO vehicle (id, mileage) VALUES (?, 0)", VEHICLE_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (tracker != null) {
+            tracker.stop();
+        }
+    }
+
+    @Test
+    void dailyHistoryIsLoadedAtStartup() {
+        LocalDate today = LocalDate.now();
+        insertDaily(today, "12.50");
+        insertDaily(today.minusDays(2), "30.00");
+        // 超出 7 天的记录不加载
+        insertDaily(today.minusDays(7), "99.00");
+
+        tracker = newTracker();
+        tracker.start();
+
+        assertThat(tracker.dailyKm()).containsExactly(0, 0, 0, 0, 30.0, 0, 12.5);
+        assertThat(tracker.todayKm()).isCloseTo(12.5, within(1e-9));
+    }
+
+    @Test
+    void flushAddsTodaysDistanceToStoredTotal() {
+        insertDaily(LocalDate.now(), "1.00");
+        tracker = newTracker();
+        tracker.start();
+
+        // 向北 0.001 度约 111 米，用时 20 秒
+        long now = System.currentTimeMillis();
+        tracker.record(fix(113.3, 23.39, now));
+        tracker.record(fix(113.3, 23.391, now + 20_000));
+        tracker.flush();
+
+        BigDecimal stored = jdbcTemplate.queryForObject(
+                "SELECT distance_km FROM vehicle_mileage_daily WHERE stat_date = ?", BigDecimal.class,
+                Date.valueOf(LocalDate.now()));
+        assertThat(stored.doubleValue()).isCloseTo(1.11, within(1e-9));
+
+        // 重启后从表中恢复
+        tracker.stop();
+        tracker = newTracker();
+        tracker.start();
+        assertThat(tracker.todayKm()).isCloseTo(1.11, within(1e-9));
+    }
+
+    private OdometerTracker newTracker() {
+        return new OdometerTracker(jdbcTemplate, mock(VehicleAvailability.class), mock(LiveFleetState.class),
+                new TrackingProperties(), new SimpleMeterRegistry());
+    }
+
+    private void insertDaily(LocalDate date, String km) {
+        jdbcTemplate.update("INSERT INTO vehicle_mileage_daily (stat_date, distance_km) VALUES (?, ?)",
+                Date.valueOf(date), new BigDecimal(km));
+    }
+
+    private static LocationFix fix(double longitude, double latitude, long timestamp) {
+        LocationFix fix = new LocationFix();
+        fix.setVehicleId(VEHICLE_ID);
+        fix.setLongitude(longitude);
+        fix.setLatitude(latitude);
+        fix.setSpeed(20);
+        fix.setTimestamp(timestamp);
+        return fix;
+    }
+}
@@ -0,0 +1,108 @@
+package com.airport.tracking;
+
+import com.airport.entity.DispatchTask;
+import com.airport.repository.DispatchTaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 待分配任务队列测试
+ * 随机新增、调整、删除、出队后，队列顺序应与 findPendingTasks 的排序一致
+ *
+ * @author Corkedmzx
+ */
+class PendingTaskQueueTest {
+
+    // findPendingTasks: 优先级降序、开始时间升序，相同时按任务ID
+    private static final Comparator<DispatchTask> PENDING_ORDER = Comparator
+            .comparing(DispatchTask::getPriority, Comparator.reverseOrder())
+            .thenComparing(DispatchTask::getStartTime)
+            .thenComparing(DispatchTask::getId);
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private final PendingTaskQueue queue =
+            new PendingTaskQueue(mock(DispatchTaskRepository.class), new SimpleMeterRegistry());
+
+    @Test
+    void randomOperationsKeepRepositoryOrder() {
+        Random random = new Random(42);
+        Map<Long, DispatchTask> expected = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int op = random.nextInt(10);
+            long id = 1 + random.nextInt(200);
+            if (op < 5) {
+                // 新建或调整优先级、开始时间，已在队列中的任务需要上浮或下沉
+                DispatchTask task = task(id, 1 + random.nextInt(4), random.nextInt(20), 1);
+                queue.taskChanged(task);
+                expected.put(id, task);
+            } else if (op < 6) {
+                // 状态离开待分配，出队
+                queue.taskChanged(task(id, 2, 0, 3));
+                expected.remove(id);
+            } else if (op < 8) {
+                assertThat(queue.remove(id)).isEqualTo(expected.remove(id) != null);
+            } else if (op < 9) {
+                DispatchTask head = reference(expected).stream().findFirst().orElse(null);
+                assertThat(queue.poll()).isSameAs(head);
+                if (head != null) {
+                    expected.remove(head.getId());
+                }
+            } else {
+                int limit = random.nextInt(30);
+                List<DispatchTask> sorted = reference(expected);
+                assertThat(queue.top(limit)).containsExactlyElementsOf(sorted.subList(0, Math.min(limit, sorted.size())));
+            }
+            assertThat(queue.size()).isEqualTo(expected.size());
+        }
+
+        assertThat(queue.all()).containsExactlyElementsOf(reference(expected));
+    }
+
+    @Test
+    void drainsInRepositoryOrder() {
+        Random random = new Random(7);
+        List<DispatchTask> tasks = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            DispatchTask task = task(id, 1 + random.nextInt(4), random.nextInt(10), 1);
+            tasks.add(task);
+            queue.taskChanged(task);
+        }
+        tasks.sort(PENDING_ORDER);
+
+        List<DispatchTask> drained = new ArrayList<>();
+        DispatchTask task;
+        while ((task = queue.poll()) != null) {
+            drained.add(task);
+        }
+
+        assertThat(drained).containsExactlyElementsOf(tasks);
+    }
+
+    private static List<DispatchTask> reference(Map<Long, DispatchTask> tasks) {
+        List<DispatchTask> sorted = new ArrayList<>(tasks.values());
+        sorted.sort(PENDING_ORDER);
+        return sorted;
+    }
+
+    private static DispatchTask task(long id, int priority, int startMinutes, int status) {
+        DispatchTask task = new DispatchTask();
+        task.setId(id);
+        task.setPriority(priority);
+        task.setStartTime(BASE_TIME.plusMinutes(startMinutes));
+        task.setStatus(status);
+        return task;
+    }
+}
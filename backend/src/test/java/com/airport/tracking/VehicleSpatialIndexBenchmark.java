@@ -0,0 +1,136 @@
+package com.airport.tracking;
+
+import com.airport.config.TrackingProperties;
+import com.airport.utils.GeoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 车辆空间索引基准
+ * 车辆均匀分布在约 4km × 4km 的机场范围内，分别在 1k、10k、100k 辆车下测量
+ * 500 米矩形范围查询、500 米半径查询、5 近邻查询和位置更新，
+ * 并以遍历全部车辆的矩形查询作为对照（相当于没有索引时的全表扫描）。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleSpatialIndexBenchmark {
+
+    private static final double MIN_LON = 113.28;
+    private static final double MIN_LAT = 23.37;
+    private static final double SPAN_DEGREES = 0.04;
+    // 500 米约合的经纬度
+    private static final double HALF_BOX_DEGREES = 0.0025;
+    private static final int QUERY_POINTS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int vehicles;
+
+    private VehicleSpatialIndex index;
+    private double[] longitudes;
+    private double[] latitudes;
+    private double[] queryLongitudes;
+    private double[] queryLatitudes;
+    private Random random;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        index = new VehicleSpatialIndex(new TrackingProperties());
+        longitudes = new double[vehicles];
+        latitudes = new double[vehicles];
+        for (int i = 0; i < vehicles; i++) {
+            longitudes[i] = MIN_LON + random.nextDouble() * SPAN_DEGREES;
+            latitudes[i] = MIN_LAT + random.nextDouble() * SPAN_DEGREES;
+            index.update(i + 1, longitudes[i], latitudes[i]);
+        }
+        index.markReady();
+        queryLongitudes = new double[QUERY_POINTS];
+        queryLatitudes = new double[QUERY_POINTS];
+        for (int i = 0; i < QUERY_POINTS; i++) {
+            queryLongitudes[i] = MIN_LON + random.nextDouble() * SPAN_DEGREES;
+            queryLatitudes[i] = MIN_LAT + random.nextDouble() * SPAN_DEGREES;
+        }
+    }
+
+    @Benchmark
+    public List<Long> withinBounds() {
+        int i = next();
+        return index.withinBounds(queryLongitudes[i] - HALF_BOX_DEGREES, queryLongitudes[i] + HALF_BOX_DEGREES,
+                queryLatitudes[i] - HALF_BOX_DEGREES, queryLatitudes[i] + HALF_BOX_DEGREES);
+    }
+
+    @Benchmark
+    public List<Long> withinBoundsLinearScan() {
+        int i = next();
+        double minLon = queryLongitudes[i] - HALF_BOX_DEGREES;
+        double maxLon = queryLongitudes[i] + HALF_BOX_DEGREES;
+        double minLat = queryLatitudes[i] - HALF_BOX_DEGREES;
+        double maxLat = queryLatitudes[i] + HALF_BOX_DEGREES;
+        List<Long> result = new ArrayList<>();
+        for (int v = 0; v < vehicles; v++) {
+            if (longitudes[v] >= minLon && longitudes[v] <= maxLon
+                    && latitudes[v] >= minLat && latitudes[v] <= maxLat) {
+                result.add((long) v + 1);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<VehicleSpatialIndex.Neighbor> withinRadius() {
+        int i = next();
+        return index.withinRadius(queryLongitudes[i], queryLatitudes[i], 500, null);
+    }
+
+    @Benchmark
+    public List<VehicleSpatialIndex.Neighbor> nearest() {
+        int i = next();
+        return index.nearest(queryLongitudes[i], queryLatitudes[i], 5, Double.POSITIVE_INFINITY, null);
+    }
+
+    @Benchmark
+    public double nearestLinearScan() {
+        int i = next();
+        double best = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < vehicles; v++) {
+            best = Math.min(best, GeoUtils.distanceMeters(queryLongitudes[i], queryLatitudes[i],
+                    longitudes[v], latitudes[v]));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public void update() {
+        int v = random.nextInt(vehicles);
+        // 车辆在原位置附近小幅移动，偶尔跨越网格
+        longitudes[v] += (random.nextDouble() - 0.5) * 1e-4;
+        latitudes[v] += (random.nextDouble() - 0.5) * 1e-4;
+        index.update(v + 1, longitudes[v], latitudes[v]);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (QUERY_POINTS - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.airport.websocket;
+
+import com.airport.config.TrackingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 发送超时测试
+ * 只有一个发送线程时，卡在发送上的会话超时后被关闭，其他会话恢复接收
+ *
+ * @author Corkedmzx
+ */
+class SessionSenderRegistryTest {
+
+    private SessionSenderRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        TrackingProperties properties = new TrackingProperties();
+        properties.getBroadcast().setFanoutThreads(1);
+        properties.getBroadcast().setSendTimeLimitMs(500);
+        registry = new SessionSenderRegistry(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.stop();
+    }
+
+    @Test
+    void stalledSessionIsClosedAndOthersKeepReceiving() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        WebSocketSession stalled = session("stalled");
+        doAnswer(invocation -> {
+            sending.countDown();
+            // 模拟客户端不再读取，直到连接被关闭
+            closed.await(5, TimeUnit.SECONDS);
+            throw new java.io.IOException("连接已关闭");
+        }).when(stalled).sendMessage(any());
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(stalled).close(any(CloseStatus.class));
+        WebSocketSession healthy = session("healthy");
+        SessionSender healthySender = registry.register(healthy, "b");
+
+        registry.register(stalled, "a").sendControl("告警");
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        healthySender.sendControl("告警");
+
+        registry.closeStalledSessions();
+        verify(stalled, never()).close(any(CloseStatus.class));
+
+        Thread.sleep(600);
+        registry.closeStalledSessions();
+
+        verify(stalled).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(healthy, timeout(5000)).sendMessage(new TextMessage("告警"));
+        assertThat(healthySender.isOpen()).isTrue();
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
@@ -0,0 +1,71 @@
+package com.airport.websocket.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 传感器位置确认策略测试
+ *
+ * @author Corkedmzx
+ */
+class SensorAckPolicyTest {
+
+    @Test
+    void everyFixIsAcknowledgedByDefault() {
+        SensorAckPolicy policy = SensorAckPolicy.parse(null);
+
+        assertThat(policy.record(1, 1000, 1000)).isTrue();
+        assertThat(policy.getPendingSeq()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedFixIsNotCoveredByLaterAcks() {
+        SensorAckPolicy policy = SensorAckPolicy.parse("every:1");
+        assertThat(policy.record(1, 1000, 1000)).isTrue();
+        policy.acknowledged(1000);
+
+        policy.rejected(2);
+        // 未接收的定位点之后的定位点不确认
+        assertThat(policy.record(3, 3000, 3000)).isFalse();
+        assertThat(policy.getPendingSeq()).isEqualTo(-1);
+
+        // 终端从未接收的定位点开始重传后恢复确认
+        assertThat(policy.record(2, 2000, 4000)).isTrue();
+        assertThat(policy.getPendingSeq()).isEqualTo(2);
+        policy.acknowledged(4000);
+        assertThat(policy.record(3, 3000, 4000)).isTrue();
+        assertThat(policy.getPendingSeq()).isEqualTo(3);
+    }
+
+    @Test
+    void earliestRejectedFixWins() {
+        SensorAckPolicy policy = SensorAckPolicy.parse("every:1");
+
+        policy.rejected(5);
+        policy.rejected(7);
+        policy.rejected(4);
+
+        assertThat(policy.record(5, 5000, 5000)).isFalse();
+        assertThat(policy.record(4, 4000, 5000)).isTrue();
+    }
+
+    @Test
+    void rejectionWithoutSeqOnlySkipsThatFix() {
+        SensorAckPolicy policy = SensorAckPolicy.parse("every:1");
+
+        policy.rejected(-1);
+
+        assertThat(policy.record(-1, 1000, 1000)).isTrue();
+    }
+
+    @Test
+    void noneNeverAcknowledges() {
+        SensorAckPolicy policy = SensorAckPolicy.parse("none");
+
+        policy.rejected(1);
+
+        assertThat(policy.record(1, 1000, 1000)).isFalse();
+        assertThat(policy.isNone()).isTrue();
+    }
+}
@@ -0,0 +1,310 @@
+package com.airport.websocket.protocol;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 传感器二进制协议编解码测试
+ *
+ * @author Corkedmzx
+ */
+class SensorBinaryCodecTest {
+
+    private static final String DEVICE_ID = "GPS-T2-0042";
+    private static final long TIMESTAMP = 1_767_225_600_123L;
+
+    private int deviceHash;
+    private SensorMessage message;
+
+    @BeforeEach
+    void setUp() {
+        deviceHash = SensorBinaryCodec.deviceHash(DEVICE_ID);
+        message = new SensorMessage();
+    }
+
+    @Test
+    void locationFrameRoundTrip() {
+        SensorMessage source = location(113.3076543, 23.3924567, 32.57, 271.25);
+        source.setStatusBits(0xA5A5);
+
+        ByteBuffer frame = encode(source, deviceHash);
+        assertThat(frame.remaining()).isEqualTo(SensorBinaryCodec.FRAME_LENGTH);
+        SensorBinaryCodec.decode(frame, deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.LOCATION_UPDATE);
+        assertThat(message.isHasData()).isTrue();
+        assertThat(message.getStatusBits()).isEqualTo(0xA5A5);
+        assertThat(message.getTimestamp()).isEqualTo(TIMESTAMP);
+        assertThat(message.getLongitude()).isCloseTo(113.3076543, within(1e-7));
+        assertThat(message.getLatitude()).isCloseTo(23.3924567, within(1e-7));
+        assertThat(message.getSpeed()).isCloseTo(32.57, within(0.005));
+        assertThat(message.getDirection()).isCloseTo(271.25, within(0.005));
+        assertThat(frame.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void negativeCoordinatesRoundTrip() {
+        ByteBuffer frame = encode(location(-122.4194155, -33.8688197, 0, 0), deviceHash);
+        SensorBinaryCodec.decode(frame, deviceHash, message);
+
+        assertThat(message.getLongitude()).isCloseTo(-122.4194155, within(1e-7));
+        assertThat(message.getLatitude()).isCloseTo(-33.8688197, within(1e-7));
+    }
+
+    @Test
+    void locationFrameWithoutFixRoundTrip() {
+        SensorMessage source = location(Double.NaN, Double.NaN, 5.0, 0);
+
+        SensorBinaryCodec.decode(encode(source, deviceHash), deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.LOCATION_UPDATE);
+        assertThat(message.isHasData()).isTrue();
+        assertThat(message.hasLocation()).isFalse();
+        assertThat(message.getSpeed()).isCloseTo(5.0, within(0.005));
+    }
+
+    @Test
+    void zeroCoordinatesAreARealFix() {
+        SensorBinaryCodec.decode(encode(location(0, 0, 0, 0), deviceHash), deviceHash, message);
+
+        assertThat(message.hasLocation()).isTrue();
+        assertThat(message.getLongitude()).isZero();
+        assertThat(message.getLatitude()).isZero();
+    }
+
+    @Test
+    void speedAndDirectionAreClampedToUnsignedShort() {
+        ByteBuffer frame = encode(location(113.3, 23.39, 1000.0, -5.0), deviceHash);
+        SensorBinaryCodec.decode(frame, deviceHash, message);
+
+        assertThat(message.getSpeed()).isEqualTo(655.35);
+        assertThat(message.getDirection()).isZero();
+    }
+
+    @Test
+    void heartbeatFrameCarriesNoLocation() {
+        SensorMessage source = new SensorMessage();
+        source.setType(SensorMessageType.HEARTBEAT);
+        source.setTimestamp(TIMESTAMP);
+
+        SensorBinaryCodec.decode(encode(source, deviceHash), deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.HEARTBEAT);
+        assertThat(message.isHasData()).isFalse();
+        assertThat(message.hasLocation()).isFalse();
+        assertThat(message.getTimestamp()).isEqualTo(TIMESTAMP);
+    }
+
+    @Test
+    void unknownTypeKeepsRawCode() {
+        ByteBuffer frame = encode(location(113.3, 23.39, 0, 0), deviceHash);
+        frame.put(1, (byte) 0x09);
+
+        SensorBinaryCodec.decode(frame, deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.UNKNOWN);
+        assertThat(message.getTypeName()).isEqualTo("0x9");
+        assertThat(message.hasLocation()).isFalse();
+    }
+
+    @Test
+    void batchFrameRoundTrip() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        for (int i = 0; i < 3; i++) {
+            int index = source.add(0xFFFF_FFF0L + i);
+            source.setTimestamp(index, TIMESTAMP + i * 1000L);
+            source.setLongitude(index, 113.3 + i * 0.0001);
+            source.setLatitude(index, 23.39 - i * 0.0001);
+            source.setSpeed(index, 10.5 * i);
+            source.setDirection(index, 90.0 + i);
+        }
+
+        ByteBuffer frame = encodeBatch(source, deviceHash);
+        assertThat(frame.remaining())
+                .isEqualTo(SensorBinaryCodec.BATCH_HEADER_LENGTH + 3 * SensorBinaryCodec.BATCH_RECORD_LENGTH);
+        SensorBinaryCodec.decode(frame, deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.LOCATION_BATCH);
+        SensorLocationBatch batch = message.getBatch();
+        assertThat(batch.size()).isEqualTo(3);
+        for (int i = 0; i < 3; i++) {
+            assertThat(batch.seq(i)).isEqualTo(0xFFFF_FFF0L + i);
+            assertThat(batch.timestamp(i)).isEqualTo(TIMESTAMP + i * 1000L);
+            assertThat(batch.longitude(i)).isCloseTo(113.3 + i * 0.0001, within(1e-7));
+            assertThat(batch.latitude(i)).isCloseTo(23.39 - i * 0.0001, within(1e-7));
+            assertThat(batch.speed(i)).isCloseTo(10.5 * i, within(0.005));
+            assertThat(batch.direction(i)).isCloseTo(90.0 + i, within(0.005));
+        }
+    }
+
+    @Test
+    void batchRecordWithoutFixRoundTrip() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        int located = source.add(1);
+        source.setTimestamp(located, TIMESTAMP);
+        source.setLongitude(located, 113.3);
+        source.setLatitude(located, 23.39);
+        source.setTimestamp(source.add(2), TIMESTAMP + 1000);
+
+        SensorBinaryCodec.decode(encodeBatch(source, deviceHash), deviceHash, message);
+
+        SensorLocationBatch batch = message.getBatch();
+        assertThat(batch.size()).isEqualTo(2);
+        assertThat(batch.hasLocation(0)).isTrue();
+        assertThat(batch.hasLocation(1)).isFalse();
+        assertThat(batch.seq(1)).isEqualTo(2);
+        assertThat(batch.timestamp(1)).isEqualTo(TIMESTAMP + 1000);
+    }
+
+    @Test
+    void decodingReusesMessage() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        source.setLongitude(source.add(1), 113.3);
+        SensorBinaryCodec.decode(encodeBatch(source, deviceHash), deviceHash, message);
+
+        SensorBinaryCodec.decode(encode(location(113.3, 23.39, 0, 0), deviceHash), deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.LOCATION_UPDATE);
+        assertThat(message.getBatch().size()).isZero();
+    }
+
+    @Test
+    void emptyBatchFrameIsAccepted() {
+        SensorBinaryCodec.decode(encodeBatch(new SensorLocationBatch(), deviceHash), deviceHash, message);
+
+        assertThat(message.getType()).isEqualTo(SensorMessageType.LOCATION_BATCH);
+        assertThat(message.getBatch().size()).isZero();
+    }
+
+    @Test
+    void deviceHashIsFnv1a32() {
+        assertThat(SensorBinaryCodec.deviceHash("")).isEqualTo(0x811C9DC5);
+        assertThat(SensorBinaryCodec.deviceHash("a")).isEqualTo(0xE40C292C);
+        assertThat(SensorBinaryCodec.deviceHash("foobar")).isEqualTo(0xBF9CF968);
+    }
+
+    @Test
+    void locationFrameFromOtherDeviceIsRejected() {
+        ByteBuffer frame = encode(location(113.3, 23.39, 0, 0), SensorBinaryCodec.deviceHash("GPS-T2-0043"));
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void batchFrameFromOtherDeviceIsRejected() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        source.add(1);
+        ByteBuffer frame = encodeBatch(source, SensorBinaryCodec.deviceHash("GPS-T2-0043"));
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void frameShorterThanHeaderIsRejected() {
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{SensorBinaryCodec.VERSION_1, SensorBinaryCodec.TYPE_HEARTBEAT, 0, 0});
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void truncatedLocationFrameIsRejected() {
+        ByteBuffer frame = encode(location(113.3, 23.39, 0, 0), deviceHash);
+        frame.limit(SensorBinaryCodec.FRAME_LENGTH - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void truncatedBatchFrameIsRejected() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        source.add(1);
+        source.add(2);
+        ByteBuffer frame = encodeBatch(source, deviceHash);
+        frame.limit(frame.limit() - SensorBinaryCodec.BATCH_RECORD_LENGTH);
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void batchFrameWithTrailingBytesIsRejected() {
+        SensorLocationBatch source = new SensorLocationBatch();
+        source.add(1);
+        ByteBuffer encoded = encodeBatch(source, deviceHash);
+        ByteBuffer frame = ByteBuffer.allocate(encoded.remaining() + 4);
+        frame.put(encoded).putInt(0).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+    }
+
+    @Test
+    void wrongVersionIsRejected() {
+        ByteBuffer frame = encode(location(113.3, 23.39, 0, 0), deviceHash);
+        frame.put(0, (byte) 2);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> SensorBinaryCodec.decode(frame, deviceHash, message));
+        assertThat(error.getMessage()).contains("版本");
+    }
+
+    @Test
+    void batchTypeCannotBeEncodedAsSingleFrame() {
+        SensorMessage source = new SensorMessage();
+        source.setType(SensorMessageType.LOCATION_BATCH);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> SensorBinaryCodec.encode(source, deviceHash, ByteBuffer.allocate(SensorBinaryCodec.FRAME_LENGTH)));
+    }
+
+    @Test
+    void batchAckReplyLayout() {
+        ByteBuffer reply = SensorBinaryCodec.encodeReply(SensorBinaryCodec.REPLY_LOCATION_BATCH_ACK, 0xFFFF_FFFFL);
+
+        assertThat(reply.remaining()).isEqualTo(SensorBinaryCodec.REPLY_LENGTH);
+        assertThat(reply.get()).isEqualTo(SensorBinaryCodec.VERSION_1);
+        assertThat(reply.get()).isEqualTo(SensorBinaryCodec.REPLY_LOCATION_BATCH_ACK);
+        assertThat(reply.getShort()).isZero();
+        assertThat(reply.getLong()).isEqualTo(0xFFFF_FFFFL);
+        assertThat(reply.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void pongReplyLayout() {
+        ByteBuffer reply = SensorBinaryCodec.encodeReply(SensorBinaryCodec.REPLY_PONG, TIMESTAMP);
+
+        assertThat(reply.remaining()).isEqualTo(SensorBinaryCodec.REPLY_LENGTH);
+        assertThat(reply.get()).isEqualTo(SensorBinaryCodec.VERSION_1);
+        assertThat(reply.get()).isEqualTo(SensorBinaryCodec.REPLY_PONG);
+        assertThat(reply.getShort()).isZero();
+        assertThat(reply.getLong()).isEqualTo(TIMESTAMP);
+    }
+
+    private static SensorMessage location(double longitude, double latitude, double speed, double direction) {
+        SensorMessage source = new SensorMessage();
+        source.setType(SensorMessageType.LOCATION_UPDATE);
+        source.setTimestamp(TIMESTAMP);
+        source.setLongitude(longitude);
+        source.setLatitude(latitude);
+        source.setSpeed(speed);
+        source.setDirection(direction);
+        return source;
+    }
+
+    private static ByteBuffer encode(SensorMessage source, int deviceHash) {
+        ByteBuffer buffer = ByteBuffer.allocate(SensorBinaryCodec.FRAME_LENGTH);
+        SensorBinaryCodec.encode(source, deviceHash, buffer);
+        return buffer.flip();
+    }
+
+    private static ByteBuffer encodeBatch(SensorLocationBatch source, int deviceHash) {
+        ByteBuffer buffer = ByteBuffer.allocate(SensorBinaryCodec.BATCH_HEADER_LENGTH
+                + source.size() * SensorBinaryCodec.BATCH_RECORD_LENGTH);
+        SensorBinaryCodec.encodeBatch(source, deviceHash, buffer);
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,106 @@
+package com.airport.websocket.protocol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 传感器消息解码基准：二进制协议 vs JSON 流式解码
+ * fixes 为 1 时比较单条位置帧，大于 1 时比较同样内容的批量位置帧。
+ * 两种方式都解码到可复用的 {@link SensorMessage}，结果为每毫秒解码的消息数。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorCodecBenchmark {
+
+    private static final String DEVICE_ID = "GPS-T2-0042";
+
+    @Param({"1", "50"})
+    public int fixes;
+
+    private int deviceHash;
+    private ByteBuffer frame;
+    private String json;
+    private SensorMessageDecoder decoder;
+    private SensorMessage message;
+
+    @Setup
+    public void setUp() {
+        deviceHash = SensorBinaryCodec.deviceHash(DEVICE_ID);
+        decoder = new SensorMessageDecoder(new ObjectMapper());
+        message = new SensorMessage();
+        long timestamp = 1_767_225_600_000L;
+        if (fixes == 1) {
+            SensorMessage source = new SensorMessage();
+            source.setType(SensorMessageType.LOCATION_UPDATE);
+            source.setTimestamp(timestamp);
+            source.setLongitude(113.3076543);
+            source.setLatitude(23.3924567);
+            source.setSpeed(32.5);
+            source.setDirection(271.25);
+            frame = ByteBuffer.allocate(SensorBinaryCodec.FRAME_LENGTH);
+            SensorBinaryCodec.encode(source, deviceHash, frame);
+            json = String.format(Locale.ROOT, "{\"type\":\"LOCATION_UPDATE\",\"data\":{%s}}",
+                    fixJson(-1, timestamp, 113.3076543, 23.3924567, 32.5, 271.25));
+        } else {
+            SensorLocationBatch source = new SensorLocationBatch();
+            StringBuilder builder = new StringBuilder("{\"type\":\"LOCATION_BATCH\",\"data\":{\"fixes\":[");
+            for (int i = 0; i < fixes; i++) {
+                double longitude = 113.3076543 + i * 1e-5;
+                double latitude = 23.3924567 - i * 1e-5;
+                int index = source.add(i + 1);
+                source.setTimestamp(index, timestamp + i * 1000L);
+                source.setLongitude(index, longitude);
+                source.setLatitude(index, latitude);
+                source.setSpeed(index, 32.5);
+                source.setDirection(index, 271.25);
+                builder.append(i > 0 ? "," : "").append('{')
+                        .append(fixJson(i + 1, timestamp + i * 1000L, longitude, latitude, 32.5, 271.25)).append('}');
+            }
+            json = builder.append("]}}").toString();
+            frame = ByteBuffer.allocate(SensorBinaryCodec.BATCH_HEADER_LENGTH
+                    + fixes * SensorBinaryCodec.BATCH_RECORD_LENGTH);
+            SensorBinaryCodec.encodeBatch(source, deviceHash, frame);
+        }
+        frame.flip();
+    }
+
+    @Benchmark
+    public SensorMessage binary() {
+        SensorBinaryCodec.decode(frame.duplicate(), deviceHash, message);
+        return message;
+    }
+
+    @Benchmark
+    public SensorMessage json() throws IOException {
+        decoder.decode(json, message);
+        return message;
+    }
+
+    private static String fixJson(long seq, long timestamp, double longitude, double latitude,
+                                  double speed, double direction) {
+        return String.format(Locale.ROOT, "%s\"timestamp\":%d,\"longitude\":%.7f,\"latitude\":%.7f," +
+                        "\"speed\":%.2f,\"direction\":%.2f", seq >= 0 ? "\"seq\":" + seq + "," : "",
+                timestamp, longitude, latitude, speed, direction);
+    }
+}
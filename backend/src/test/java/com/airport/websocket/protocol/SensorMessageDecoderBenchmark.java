@@ -0,0 +1,85 @@
+package com.airport.websocket.protocol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 传感器文本消息解码基准：流式解码到可复用对象 vs 解析为 Map 后逐个取值
+ * Map 方式与改造前的处理流程一致：readValue 为 Map，再从 data 中按字段取值并转换数值。
+ *
+ * @author Corkedmzx
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorMessageDecoderBenchmark {
+
+    private static final String PAYLOAD = "{\"type\":\"LOCATION_UPDATE\",\"data\":{\"longitude\":113.3076543," +
+            "\"latitude\":23.3924567,\"speed\":32.5,\"direction\":271.25,\"address\":\"T2航站楼东侧\"," +
+            "\"timestamp\":1767225600000}}";
+
+    private ObjectMapper objectMapper;
+    private SensorMessageDecoder decoder;
+    private SensorMessage message;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        decoder = new SensorMessageDecoder(objectMapper);
+        message = new SensorMessage();
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        decoder.decode(PAYLOAD, message);
+        blackhole.consume(message.getType());
+        blackhole.consume(message.getLongitude());
+        blackhole.consume(message.getLatitude());
+        blackhole.consume(message.getSpeed());
+        blackhole.consume(message.getDirection());
+        blackhole.consume(message.getAddress());
+        blackhole.consume(message.getTimestamp());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void map(Blackhole blackhole) throws IOException {
+        Map<String, Object> payload = objectMapper.readValue(PAYLOAD, Map.class);
+        blackhole.consume(payload.get("type"));
+        Map<String, Object> data = (Map<String, Object>) payload.get("data");
+        blackhole.consume(getDouble(data, "longitude"));
+        blackhole.consume(getDouble(data, "latitude"));
+        blackhole.consume(getDouble(data, "speed"));
+        blackhole.consume(getDouble(data, "direction"));
+        blackhole.consume(data.get("address") != null ? data.get("address").toString() : null);
+        blackhole.consume(getDouble(data, "timestamp"));
+    }
+
+    private static Double getDouble(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+}
@@ -152,6 +152,14 @@ CREATE TABLE IF NOT EXISTS `vehicle_location` (
     KEY `idx_vehicle_time` (`vehicle_id`, `location_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='车辆实时位置表';
 
+-- 每日里程表（全车队每日累计里程，仪表盘趋势使用）
+CREATE TABLE IF NOT EXISTS `vehicle_mileage_daily` (
+    `stat_date` date NOT NULL COMMENT '日期',
+    `distance_km` decimal(12,2) NOT NULL DEFAULT 0.00 COMMENT '当日累计里程(km)',
+    `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='每日里程表';
+
 -- ================================
 -- 3. 调度管理相关表
 -- ================================
@@ -174,6 +182,7 @@ CREATE TABLE IF NOT EXISTS `dispatch_task` (
     `assigned_driver_id` bigint DEFAULT NULL COMMENT '分配司机ID',
     `status` tinyint DEFAULT 1 COMMENT '状态:1-待分配,2-已分配,3-执行中,4-已完成,5-已取消,6-异常',
     `progress` decimal(5,2) DEFAULT '0.00' COMMENT '完成进度(%)',
+    `distance` decimal(10,2) DEFAULT '0.00' COMMENT '行驶里程(km)',
     `remark` text COMMENT '备注',
     `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -184,6 +193,14 @@ CREATE TABLE IF NOT EXISTS `dispatch_task` (
     KEY `idx_start_time` (`start_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='调度任务表';
 
+-- 任务编号序列表（多实例部署时按号段分配任务编号）
+CREATE TABLE IF NOT EXISTS `task_no_sequence` (
+    `seq_date` date NOT NULL COMMENT '日期',
+    `next_value` bigint NOT NULL DEFAULT 0 COMMENT '已分配的最大序号',
+    `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`seq_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='任务编号序列表';
+
 -- 任务执行记录表
 CREATE TABLE IF NOT EXISTS `task_execution` (
     `id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID',
@@ -212,9 +229,12 @@ CREATE TABLE IF NOT EXISTS `alert` (
     `title` varchar(200) NOT NULL COMMENT '告警标题',
     `description` text COMMENT '告警描述',
     `severity` varchar(20) NOT NULL COMMENT '严重程度:high,medium,low',
-    `category` varchar(50) NOT NULL COMMENT '告警类别:vehicle_fault,task_timeout,system_error,safety_alert',
+    `category` varchar(50) NOT NULL COMMENT '告警类别:vehicle_fault,task_timeout,system_error,safety_alert,geofence,vehicle_offline,或告警规则类型',
     `vehicle_id` bigint DEFAULT NULL COMMENT '关联车辆ID',
     `task_id` bigint DEFAULT NULL COMMENT '关联任务ID',
+    `occurrence_count` int NOT NULL DEFAULT 1 COMMENT '触发次数',
+    `last_occur_time` datetime DEFAULT NULL COMMENT '最近一次触发时间',
+    `recover_time` datetime DEFAULT NULL COMMENT '告警条件恢复时间',
     `status` varchar(20) DEFAULT 'unprocessed' COMMENT '状态:unprocessed-未处理,processing-处理中,resolved-已解决',
     `assignee` varchar(50) DEFAULT NULL COMMENT '处理人',
     `acknowledged` tinyint DEFAULT 0 COMMENT '是否已确认:0-未确认,1-已确认',
@@ -235,7 +255,7 @@ CREATE TABLE IF NOT EXISTS `alert` (
 CREATE TABLE IF NOT EXISTS `alert_rule` (
     `id` bigint NOT NULL AUTO_INCREMENT COMMENT '规则ID',
     `rule_name` varchar(100) NOT NULL COMMENT '规则名称',
-    `rule_type` varchar(50) NOT NULL COMMENT '规则类型:vehicle_fault,task_timeout,system_error,safety_alert,fuel_low,speed_exceed',
+    `rule_type` varchar(50) NOT NULL COMMENT '规则类型:vehicle_fault,task_timeout,system_error,safety_alert,fuel_low,speed_exceed,stationary,out_of_zone,signal_lost',
     `condition_type` varchar(50) NOT NULL COMMENT '条件类型:大于,小于,等于,范围',
     `condition_value` varchar(200) NOT NULL COMMENT '条件值',
     `severity` varchar(20) NOT NULL COMMENT '告警严重程度:high,medium,low',
@@ -258,6 +278,24 @@ INSERT INTO `alert_rule` (`rule_name`, `rule_type`, `condition_type`, `condition
 ('安全告警', 'safety_alert', '等于', 'safety', 'high', '当发生安全相关问题时触发告警') AS new
 ON DUPLICATE KEY UPDATE `rule_name` = new.`rule_name`;
 
+-- 电子围栏表
+CREATE TABLE IF NOT EXISTS `geofence` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '围栏ID',
+    `fence_name` varchar(100) NOT NULL COMMENT '围栏名称',
+    `zone_type` varchar(20) NOT NULL COMMENT '区域类型:runway,taxiway,stand,apron,restricted,other',
+    `polygon` text NOT NULL COMMENT '多边形顶点,JSON数组[[经度,纬度],...]',
+    `dwell_seconds` int DEFAULT NULL COMMENT '停留告警时间(秒)',
+    `alert_events` varchar(50) DEFAULT NULL COMMENT '产生告警的事件:ENTER,EXIT,DWELL',
+    `severity` varchar(20) NOT NULL DEFAULT 'medium' COMMENT '告警严重程度:high,medium,low',
+    `enabled` tinyint DEFAULT 1 COMMENT '是否启用:0-禁用,1-启用',
+    `description` text COMMENT '围栏描述',
+    `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_zone_type` (`zone_type`),
+    KEY `idx_enabled` (`enabled`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='电子围栏表';
+
 -- 维修记录表
 CREATE TABLE IF NOT EXISTS `maintenance_record` (
     `id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID',
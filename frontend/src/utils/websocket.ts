@@ -104,6 +104,9 @@ export class WebSocketClient {
       case 'VEHICLE_LOCATION_UPDATE':
         this.handleVehicleLocationUpdate(messageData)
         break
+      case 'VEHICLE_LOCATION_DELTA':
+        this.handleVehicleLocationDelta(messageData)
+        break
       case 'ALERT_NOTIFICATION':
         this.handleAlertNotification(messageData)
         break
@@ -124,6 +127,17 @@ export class WebSocketClient {
     this.notifyListeners('vehicle_location', data)
   }
 
+  /**
+   * 处理合并后的车辆位置更新，逐辆车按单条位置更新分发
+   */
+  private handleVehicleLocationDelta(data: any): void {
+    const vehicles = data?.vehicles || []
+    vehicles.forEach((vehicle: any) => {
+      this.notifyListeners('VEHICLE_LOCATION_UPDATE', vehicle)
+      this.handleVehicleLocationUpdate(vehicle)
+    })
+  }
+
   /**
    * 处理告警通知
    */
@@ -214,6 +228,34 @@ export class WebSocketClient {
     })
   }
 
+  /**
+   * 订阅地图视野，之后只接收视野内的车辆位置
+   * 可按车辆类型和状态过滤；省略经纬度范围时只按类型和状态过滤
+   */
+  public subscribeViewport(viewport: {
+    minLat?: number
+    maxLat?: number
+    minLon?: number
+    maxLon?: number
+    vehicleTypeIds?: number[]
+    statuses?: number[]
+  }): boolean {
+    return this.send({
+      type: 'SUBSCRIBE_VIEWPORT',
+      data: viewport
+    })
+  }
+
+  /**
+   * 取消视野订阅，恢复接收全部车辆位置
+   */
+  public unsubscribeViewport(): boolean {
+    return this.send({
+      type: 'UNSUBSCRIBE_VIEWPORT',
+      data: {}
+    })
+  }
+
   /**
    * 断开连接
    */